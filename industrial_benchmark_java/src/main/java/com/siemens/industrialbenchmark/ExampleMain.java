@@ -16,7 +16,6 @@ limitations under the License.
 package com.siemens.industrialbenchmark;
 
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.util.Properties;
 import java.util.Random;
@@ -26,6 +25,9 @@ import com.siemens.industrialbenchmark.datavector.state.MarkovianStateDescriptio
 import com.siemens.industrialbenchmark.dynamics.IndustrialBenchmarkDynamics;
 import com.siemens.industrialbenchmark.properties.PropertiesException;
 import com.siemens.industrialbenchmark.properties.PropertiesUtil;
+import com.siemens.industrialbenchmark.trajectory.CsvExporter;
+import com.siemens.industrialbenchmark.trajectory.TrajectoryReader;
+import com.siemens.industrialbenchmark.trajectory.TrajectoryRecorder;
 import com.siemens.industrialbenchmark.util.PlotCurve;
 import com.siemens.rl.interfaces.DataVector;
 import com.siemens.rl.interfaces.Environment;
@@ -65,26 +67,18 @@ public class ExampleMain {
 		Random rand = new Random(seed);
 
 		DataVector markovState = db.getInternalMarkovState();
-		DataVector observableState = db.getState();
+		// read-only view, shows the observable state after each step without copying
+		final DataVector observableState = db.getStateView();
 
 		// apply constant action (gain and velocity transitions from 0 => 100)
 		final ActionDelta deltaAction = new ActionDelta(0.1f, 0.1f, 0.1f);
 
-		// write column headers
-		FileWriter fwm = new FileWriter("dyn-markov.csv");
-		fwm.write("time ");
-		for (String key : db.getInternalMarkovState().getKeys()) {
-			fwm.write(key + " ");
-		}
-		fwm.write("\n");
-		
-		FileWriter fw = new FileWriter("dyn-observable.csv");
-		fw.write("time ");
-		for (String key : db.getState().getKeys()) {
-			fw.write(key + " ");
-		}
-		fw.write("\n");
-		
+		// record the trajectories into columnar binary files
+		final File markovFile = new File("dyn-markov.ibt");
+		final File observableFile = new File("dyn-observable.ibt");
+		TrajectoryRecorder markovRecorder = new TrajectoryRecorder(markovFile, deltaAction.getKeys(), markovState.getKeys());
+		TrajectoryRecorder observableRecorder = new TrajectoryRecorder(observableFile, deltaAction.getKeys(), observableState.getKeys());
+
 
 		// data array for memorizing the reward
 		final int steps = PropertiesUtil.getInt(props, "SIM_STEPS", 1500);
@@ -100,28 +94,26 @@ public class ExampleMain {
 			deltaAction.setDeltaVelocity(2.f * (rand.nextFloat() - 0.5f));
 			deltaAction.setDeltaShift(2.f * (rand.nextFloat() - 0.5f));
 
-			db.step(deltaAction);
+			final double reward = db.step(deltaAction);
 			markovState = db.getInternalMarkovState();
-			observableState = db.getState();
 
 			// write data
-			fw.write(Integer.toString(i+1) + " ");
-			for (String key : observableState.getKeys()) {
-				fw.write(observableState.getValue(key) + " ");
-			}
-			fw.write("\n");
-			
-			fwm.write(Integer.toString(i+1) + " ");			
-			for (String key : markovState.getKeys()) {
-				fwm.write(markovState.getValue(key) + " ");
-			}
-			fwm.write("\n");
-
-			data[i] = db.getState().getValue(MarkovianStateDescription.RewardTotal);
+			observableRecorder.record(deltaAction, reward, observableState);
+			markovRecorder.record(deltaAction, reward, markovState);
+
+			data[i] = observableState.getValue(MarkovianStateDescription.RewardTotal);
 		}
 
-		fw.close();
-		fwm.close();
+		observableRecorder.close();
+		markovRecorder.close();
+
+		// export the states as text files
+		try (TrajectoryReader reader = new TrajectoryReader(observableFile)) {
+			CsvExporter.export(reader, observableRecorder.getStateOffset(), reader.getColumns().size(), new File("dyn-observable.csv"));
+		}
+		try (TrajectoryReader reader = new TrajectoryReader(markovFile)) {
+			CsvExporter.export(reader, markovRecorder.getStateOffset(), reader.getColumns().size(), new File("dyn-markov.csv"));
+		}
 
 		// plot reward 
 		PlotCurve.plot("RewardTotal", "t", "reward", data);
@@ -0,0 +1,63 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industrialbenchmark.conformance;
+
+/**
+ * First difference between a golden trace and a replay.
+ */
+public final class Divergence {
+
+	private final long step;
+	private final String variable;
+	private final double expected;
+	private final double actual;
+
+	Divergence(long step, String variable, double expected, double actual) {
+		this.step = step;
+		this.variable = variable;
+		this.expected = expected;
+		this.actual = actual;
+	}
+
+	/**
+	 * Returns the step, counting from 0
+	 * @return the step
+	 */
+	public long getStep() {
+		return step;
+	}
+
+	/**
+	 * Returns the name of the divergent variable
+	 * @return the variable
+	 */
+	public String getVariable() {
+		return variable;
+	}
+
+	public double getExpected() {
+		return expected;
+	}
+
+	public double getActual() {
+		return actual;
+	}
+
+	@Override
+	public String toString() {
+		return "step " + step + ", " + variable + ": expected " + expected + " but was " + actual;
+	}
+}
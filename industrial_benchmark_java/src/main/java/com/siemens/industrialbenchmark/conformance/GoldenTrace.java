@@ -0,0 +1,147 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industrialbenchmark.conformance;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.siemens.industrialbenchmark.datavector.action.ActionDeltaDescription;
+import com.siemens.industrialbenchmark.properties.IndustrialBenchmarkConfig;
+import com.siemens.industrialbenchmark.properties.PropertiesException;
+import com.siemens.industrialbenchmark.trajectory.TrajectoryReader;
+import com.siemens.industrialbenchmark.trajectory.TrajectoryRecorder;
+import com.siemens.industrialbenchmark.trajectory.TrajectoryWriter;
+
+/**
+ * Records reference trajectories of the benchmark and replays them against a {@link TraceEngine}.
+ * A golden trace is a trajectory file with the delta actions, the reward and the full markovian
+ * state of every step (see {@link TrajectoryRecorder} for the columns). Configuration and seed
+ * are not stored and have to be passed to the replaying engine.
+ */
+public final class GoldenTrace {
+
+	private static final List<String> ACTION_KEYS = ActionDeltaDescription.SCHEMA.getKeys();
+
+	private GoldenTrace() {
+	}
+
+	/**
+	 * Returns uniformly random delta actions from [-1, 1]
+	 * @param seed The seed
+	 * @param steps The number of steps
+	 * @return the delta actions
+	 */
+	public static double[][] randomActions(long seed, int steps) {
+		Random rand = new Random(seed);
+		double[][] actions = new double[steps][ACTION_KEYS.size()];
+		for (double[] action : actions) {
+			for (int j = 0; j < action.length; j++) {
+				action[j] = 2.0 * (rand.nextDouble() - 0.5);
+			}
+		}
+		return actions;
+	}
+
+	/**
+	 * Records a golden trace
+	 * @param engine The reference engine
+	 * @param actions The delta actions of the steps
+	 * @param aFile The trace file
+	 * @throws IOException
+	 */
+	public static void record(TraceEngine engine, double[][] actions, File aFile) throws IOException {
+		final List<String> columns = ImmutableList.<String>builder()
+				.addAll(ACTION_KEYS).add(TrajectoryRecorder.REWARD_COLUMN).addAll(engine.getStateKeys()).build();
+		final int stateOffset = ACTION_KEYS.size() + 1;
+		final double[] row = new double[columns.size()];
+		final double[] state = new double[engine.getStateKeys().size()];
+		try (TrajectoryWriter writer = new TrajectoryWriter(aFile, columns, Math.max(1, actions.length))) {
+			for (double[] action : actions) {
+				System.arraycopy(action, 0, row, 0, ACTION_KEYS.size());
+				row[ACTION_KEYS.size()] = engine.step(action, state);
+				System.arraycopy(state, 0, row, stateOffset, state.length);
+				writer.append(row);
+			}
+		}
+	}
+
+	/**
+	 * Replays a golden trace and compares reward and markovian state after every step
+	 * @param aFile The trace file
+	 * @param engine The engine under test, initialized like the reference engine
+	 * @param tolerance The absolute tolerance, 0 requires bitwise identical values
+	 * @return the first divergence, or null if the engine reproduces the trace
+	 * @throws IOException
+	 */
+	public static Divergence replay(File aFile, TraceEngine engine, double tolerance) throws IOException {
+		Preconditions.checkArgument(tolerance >= 0, "tolerance=%s must not be negative", tolerance);
+		try (TrajectoryReader reader = new TrajectoryReader(aFile)) {
+			final List<String> columns = reader.getColumns();
+			final int stateOffset = ACTION_KEYS.size() + 1;
+			Preconditions.checkArgument(columns.subList(0, ACTION_KEYS.size()).equals(ACTION_KEYS)
+					&& columns.get(ACTION_KEYS.size()).equals(TrajectoryRecorder.REWARD_COLUMN)
+					&& columns.subList(stateOffset, columns.size()).equals(engine.getStateKeys()),
+					"%s does not match the columns of the engine", aFile);
+
+			final double[] row = new double[columns.size()];
+			final double[] action = new double[ACTION_KEYS.size()];
+			final double[] state = new double[columns.size() - stateOffset];
+			for (long step = 0; step < reader.getRowCount(); step++) {
+				reader.readRow(step, row, 0);
+				System.arraycopy(row, 0, action, 0, action.length);
+				final double reward = engine.step(action, state);
+				if (!matches(row[ACTION_KEYS.size()], reward, tolerance)) {
+					return new Divergence(step, TrajectoryRecorder.REWARD_COLUMN, row[ACTION_KEYS.size()], reward);
+				}
+				for (int i = 0; i < state.length; i++) {
+					if (!matches(row[stateOffset + i], state[i], tolerance)) {
+						return new Divergence(step, columns.get(stateOffset + i), row[stateOffset + i], state[i]);
+					}
+				}
+			}
+		}
+		return null;
+	}
+
+	private static boolean matches(double expected, double actual, double tolerance) {
+		if (Double.doubleToLongBits(expected) == Double.doubleToLongBits(actual)) {
+			return true;
+		}
+		return tolerance > 0 && Math.abs(expected - actual) <= tolerance;
+	}
+
+	/**
+	 * Records a golden trace of an {@link com.siemens.industrialbenchmark.dynamics.IndustrialBenchmarkDynamics}
+	 * with random actions. Arguments: properties file, seed, number of steps, trace file.
+	 * @param args
+	 * @throws IOException
+	 * @throws PropertiesException
+	 */
+	public static void main(String[] args) throws IOException, PropertiesException {
+		if (args.length != 4) {
+			System.err.println("usage: GoldenTrace <properties file> <seed> <steps> <trace file>");
+			System.exit(1);
+		}
+		final IndustrialBenchmarkConfig config = IndustrialBenchmarkConfig.fromFile(new File(args[0]));
+		final long seed = Long.parseLong(args[1]);
+		final int steps = Integer.parseInt(args[2]);
+		record(TraceEngine.scalar(TraceEngine.createDynamics(config, seed)), randomActions(seed, steps), new File(args[3]));
+	}
+}
@@ -0,0 +1,144 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industrialbenchmark.conformance;
+
+import java.nio.DoubleBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import com.siemens.industrialbenchmark.datavector.action.ActionDelta;
+import com.siemens.industrialbenchmark.dynamics.IndustrialBenchmarkDynamics;
+import com.siemens.industrialbenchmark.dynamics.ParallelIndustrialBenchmark;
+import com.siemens.industrialbenchmark.dynamics.VectorIndustrialBenchmark;
+import com.siemens.industrialbenchmark.externaldrivers.setpointgen.SetPointGenerator;
+import com.siemens.industrialbenchmark.properties.IndustrialBenchmarkConfig;
+import com.siemens.industrialbenchmark.properties.PropertiesException;
+import com.siemens.rl.interfaces.ExternalDriver;
+
+/**
+ * One benchmark driven by a {@link GoldenTrace}, backed by one of the engine implementations.
+ */
+public interface TraceEngine {
+
+	/**
+	 * Returns the keys of the markovian state written by {@link #step(double[], double[])}
+	 * @return the keys of the markovian state
+	 */
+	List<String> getStateKeys();
+
+	/**
+	 * Applies a delta action
+	 * @param action The delta action (delta velocity, delta gain, delta shift)
+	 * @param markovState The array receiving the markovian state after the step
+	 * @return the reward
+	 */
+	double step(double[] action, double[] markovState);
+
+	/**
+	 * Creates a benchmark like the other engines with SEED=seed and a seeded setpoint generator
+	 * @param aConfig The configuration
+	 * @param seed The seed
+	 * @return the benchmark
+	 * @throws PropertiesException
+	 */
+	static IndustrialBenchmarkDynamics createDynamics(IndustrialBenchmarkConfig aConfig, long seed) throws PropertiesException {
+		IndustrialBenchmarkConfig config = aConfig.withSeed(seed);
+		List<ExternalDriver> drivers = new ArrayList<ExternalDriver>();
+		drivers.add(new SetPointGenerator(seed, config));
+		return new IndustrialBenchmarkDynamics(config, drivers);
+	}
+
+	/**
+	 * Returns an engine stepping an {@link IndustrialBenchmarkDynamics}
+	 * @param env The benchmark
+	 * @return the engine
+	 * @throws PropertiesException
+	 */
+	static TraceEngine scalar(final IndustrialBenchmarkDynamics env) throws PropertiesException {
+		final ActionDelta delta = new ActionDelta(0, 0, 0);
+		final List<String> keys = env.getInternalMarkovState().getKeys();
+		return new TraceEngine() {
+			@Override
+			public List<String> getStateKeys() {
+				return keys;
+			}
+
+			@Override
+			public double step(double[] action, double[] markovState) {
+				delta.setDeltaVelocity(action[0]);
+				delta.setDeltaGain(action[1]);
+				delta.setDeltaShift(action[2]);
+				final double reward = env.step(delta);
+				env.copyInternalMarkovStateTo(DoubleBuffer.wrap(markovState));
+				return reward;
+			}
+		};
+	}
+
+	/**
+	 * Returns an engine stepping a {@link VectorIndustrialBenchmark} of size one
+	 * @param aConfig The configuration
+	 * @param seed The seed
+	 * @return the engine
+	 * @throws PropertiesException
+	 */
+	static TraceEngine vector(IndustrialBenchmarkConfig aConfig, long seed) throws PropertiesException {
+		final VectorIndustrialBenchmark vec = new VectorIndustrialBenchmark(aConfig, new long[] {seed});
+		final List<String> keys = vec.getInternalMarkovState(0).getKeys();
+		final double[] reward = new double[1];
+		return new TraceEngine() {
+			@Override
+			public List<String> getStateKeys() {
+				return keys;
+			}
+
+			@Override
+			public double step(double[] action, double[] markovState) {
+				vec.step(action, reward, null);
+				vec.getInternalMarkovState(0).copyValuesTo(markovState, 0);
+				return reward[0];
+			}
+		};
+	}
+
+	/**
+	 * Returns an engine stepping a {@link ParallelIndustrialBenchmark} of size one
+	 * @param aConfig The configuration
+	 * @param seed The seed
+	 * @param pool The pool executing the steps
+	 * @return the engine
+	 * @throws PropertiesException
+	 */
+	static TraceEngine parallel(IndustrialBenchmarkConfig aConfig, long seed, ForkJoinPool pool) throws PropertiesException {
+		final ParallelIndustrialBenchmark batch = new ParallelIndustrialBenchmark(aConfig, new long[] {seed}, pool);
+		final List<String> keys = batch.getDynamics(0).getInternalMarkovState().getKeys();
+		final double[] reward = new double[1];
+		return new TraceEngine() {
+			@Override
+			public List<String> getStateKeys() {
+				return keys;
+			}
+
+			@Override
+			public double step(double[] action, double[] markovState) {
+				batch.step(action, reward, null);
+				batch.getDynamics(0).copyInternalMarkovStateTo(DoubleBuffer.wrap(markovState));
+				return reward[0];
+			}
+		};
+	}
+}
@@ -28,6 +28,7 @@ import com.google.common.collect.ImmutableList.Builder;
 abstract public class DataVectorDescription 
 {
 	protected List<String> names;
+	private final DataVectorSchema schema;
 	
 	/**
 	 * Constructor with a given List of state/action dimension names
@@ -42,6 +43,7 @@ abstract public class DataVectorDescription
     		lb.add(key);
     	}
     	this.names = lb.build(); 
+    	this.schema = DataVectorSchema.of(this.names);
 	}
 	
 	/**
@@ -57,6 +59,7 @@ abstract public class DataVectorDescription
     		lb.add(key);
     	}
     	this.names = lb.build(); 
+    	this.schema = DataVectorSchema.of(this.names);
 	}
 	    
 	/**
@@ -75,6 +78,14 @@ abstract public class DataVectorDescription
     public List <String> getVarNames() {    	
     	return names;    	
     }
+
+	/**
+	 * returns the interned schema of the variable names
+	 * @return the schema shared by all data vectors of this description
+	 */
+    public DataVectorSchema getSchema() {
+    	return schema;
+    }
     
     @Override
     public boolean equals (Object o) {
@@ -15,6 +15,13 @@ limitations under the License.
 */
 package com.siemens.industrialbenchmark.datavector;
 
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
+import java.nio.DoubleBuffer;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 
@@ -24,7 +31,12 @@ import com.google.common.collect.ImmutableList.Builder;
 import com.siemens.rl.interfaces.DataVector;
 
 /**
- * This class holds a HashMap of state-dimension/action-dimension -value pairs. 
+ * This class holds the values of the state-dimensions/action-dimensions. The mapping of the
+ * dimension names to the values is given by a shared {@link DataVectorSchema}.
+ * <p>
+ * The serialized form is the one of the former map based implementation, i.e. the key list,
+ * the index map and the value array, hence streams can be exchanged with it. The schema is looked
+ * up again from the keys when reading, the index map is only written for former readers.
  * 
  * @author Michel Tokic
  *
@@ -35,26 +47,26 @@ public class DataVectorImpl implements Cloneable, DataVector {
 	 * 
 	 */
 	private static final long serialVersionUID = 4956886314253943518L;
+
+	private static final ObjectStreamField[] serialPersistentFields = {
+		new ObjectStreamField("indexMap", HashMap.class),
+		new ObjectStreamField("values", double[].class),
+		new ObjectStreamField("description", DataVectorDescription.class),
+		new ObjectStreamField("keys", ImmutableList.class)
+	};
 	
-	private HashMap<String, Integer> indexMap = new HashMap<String, Integer>();
+	private DataVectorSchema schema;
 	private double values[];
 	
 	DataVectorDescription description = null;
-	ImmutableList<String> keys; 
 	
 	/**
 	 * Initializes the state with a given StateVectorDescription. All associated values are set to NaN initially. 
 	 * @param desc The StateVectorDescription
 	 */
 	public DataVectorImpl (DataVectorDescription desc) {
-		Preconditions.checkNotNull(desc, "Description must not be null.");
-		this.description = desc;		
-		this.keys = ImmutableList.copyOf(desc.getVarNames());
-		values = new double[this.keys.size()];
-		for (int i=0; i<this.keys.size(); i++) {
-			indexMap.put(this.keys.get(i), i);
-			values[i] = Double.NaN;
-		}
+		this(Preconditions.checkNotNull(desc, "Description must not be null.").getSchema());
+		this.description = desc;
 	}
 
 	/**
@@ -62,13 +74,30 @@ public class DataVectorImpl implements Cloneable, DataVector {
 	 * @param keys A list of keys. 
 	 */
 	public DataVectorImpl (List<String> keys) {
-		Preconditions.checkNotNull(keys, "Description must not be null.");
-		this.keys = ImmutableList.copyOf(keys);
-		values = new double[this.keys.size()];
-		for (int i=0; i<this.keys.size(); i++) {
-			indexMap.put(this.keys.get(i), i);
-			values[i] = Double.NaN;
-		}
+		this(DataVectorSchema.of(Preconditions.checkNotNull(keys, "Description must not be null.")));
+	}
+
+	/**
+	 * Initializes the state with a given schema. All associated values are set to NaN initially. 
+	 * @param schema The schema
+	 */
+	public DataVectorImpl (DataVectorSchema schema) {
+		Preconditions.checkNotNull(schema, "Schema must not be null.");
+		this.schema = schema;
+		this.values = new double[schema.size()];
+		Arrays.fill(values, Double.NaN);
+	}
+
+	private DataVectorImpl (DataVectorImpl other) {
+		this.schema = other.schema;
+		this.values = other.values.clone();
+		this.description = other.description;
+	}
+
+	private int index(String key) {
+		final int index = schema.indexOf(key);
+		Preconditions.checkArgument(index >= 0, "%s is not a valid variable. Available names are: %s", key, schema.getKeys());
+		return index;
 	}
 	
 	/**
@@ -77,13 +106,7 @@ public class DataVectorImpl implements Cloneable, DataVector {
 	 * @return The value
 	 */
 	public Double getValue(String key) {
-		Preconditions.checkArgument(this.getKeys().contains(key), "%s is not a valid variable", key);
-		
-		if (!indexMap.containsKey(key)) {
-			return Double.NaN;
-		} else {
-			return values[indexMap.get(key)];
-		}
+		return values[index(key)];
 	}
 	
 	/**
@@ -92,9 +115,7 @@ public class DataVectorImpl implements Cloneable, DataVector {
 	 * @param value The value
 	 */
 	public void setValue (String key, double value) {		
-		Preconditions.checkNotNull(this.getKeys(), "keySet is null!!");
-		Preconditions.checkArgument(this.getKeys().contains(key), "%s is not a valid variable. Available names are: %s", key, this.getKeys());
-		values[indexMap.get(key)] = value;
+		values[index(key)] = value;
 	}
 	
 	/**
@@ -102,7 +123,15 @@ public class DataVectorImpl implements Cloneable, DataVector {
 	 * @return a list containing the state/action dimension names
 	 */
 	public List<String> getKeys() {
-		return this.keys;
+		return schema.getKeys();
+	}
+
+	/**
+	 * returns the shared schema of the state/action dimension names
+	 * @return the schema
+	 */
+	public DataVectorSchema getSchema() {
+		return schema;
 	}
 	
 	/**
@@ -111,8 +140,8 @@ public class DataVectorImpl implements Cloneable, DataVector {
 	 */
 	public List<Double> getValues() {		
 		Builder<Double> valueBuilder = new ImmutableList.Builder<Double>();		
-		for (String key : keys) {
-			valueBuilder.add(values[indexMap.get(key)]);
+		for (double value : getValuesArray()) {
+			valueBuilder.add(value);
 		}				
 		return valueBuilder.build();
 	}
@@ -122,35 +151,87 @@ public class DataVectorImpl implements Cloneable, DataVector {
 	 * @return a double[] array containing the values
 	 */
 	public double[] getValuesArray() {
-		double values[] = new double[keys.size()];		
-		for (int i=0; i<this.keys.size(); i++) {
-			values[i] = this.values[indexMap.get(keys.get(i))];
-		}		
-		return values;
+		return schema.toKeyOrder(values);
+	}
+
+	@Override
+	public void copyValuesTo(double[] dst, int offset) {
+		schema.toKeyOrder(values, dst, offset);
+	}
+
+	@Override
+	public void copyValuesTo(DoubleBuffer dst) {
+		schema.toKeyOrder(values, dst);
+	}
+
+	@Override
+	public void setValuesFrom(double[] src, int offset) {
+		schema.fromKeyOrder(src, offset, values);
+	}
+
+	/**
+	 * Returns the index of a dimension in the value array. The handle is valid for all data
+	 * vectors with the same {@link DataVectorSchema}.
+	 */
+	@Override
+	public int getHandle(String key) {
+		return index(key);
+	}
+
+	@Override
+	public double getValue(int handle) {
+		return values[handle];
+	}
+
+	@Override
+	public void setValue(int handle, double value) {
+		values[handle] = value;
 	}
     
     @Override
     public String toString() {
-    	String output = "{";
-    	String key;
-    	for (int i=0; i<this.keys.size(); i++) {
-    		key=this.keys.get(i);
-			// last element with "]" instead of ", "
-    		if (i==this.keys.size()-1) {
-        		output += key + "=" + values[indexMap.get(key)] + "}";
-			} else {
-				output += key + "=" + values[indexMap.get(key)] + ", ";
-			}
+    	final List<String> keys = schema.getKeys();
+    	StringBuilder output = new StringBuilder("{");
+    	for (int i=0; i<keys.size(); i++) {
+    		final String key = keys.get(i);
+    		output.append(key).append('=').append(values[schema.indexOf(key)]);
+			// last element with "}" instead of ", "
+    		output.append(i==keys.size()-1 ? "}" : ", ");
 		}
-    	return output;
+    	return output.toString();
     }
 
+    /**
+     * Returns a copy of the data vector, which shares the schema and copies the values.
+     */
     public DataVector clone() {
-		DataVector s = new DataVectorImpl (this.getKeys());
-    	for (String key : this.getKeys()) {
-    		s.setValue(key,  this.getValue(key));
+        return new DataVectorImpl(this);
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+    	final List<String> keys = schema.getKeys();
+    	HashMap<String, Integer> indexMap = new HashMap<String, Integer>();
+    	for (String key : keys) {
+    		indexMap.put(key, schema.indexOf(key));
+    	}
+    	ObjectOutputStream.PutField fields = out.putFields();
+    	fields.put("indexMap", indexMap);
+    	fields.put("values", values);
+    	fields.put("description", description);
+    	fields.put("keys", keys);
+    	out.writeFields();
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+    	ObjectInputStream.GetField fields = in.readFields();
+    	@SuppressWarnings("unchecked")
+    	final List<String> keys = (List<String>) fields.get("keys", null);
+    	final double[] read = (double[]) fields.get("values", null);
+    	if (keys == null || read == null || read.length != keys.size()) {
+    		throw new InvalidObjectException("keys and values do not match");
     	}
-    	    	
-        return s;
+    	this.schema = DataVectorSchema.of(keys);
+    	this.values = read;
+    	this.description = (DataVectorDescription) fields.get("description", null);
     }
 }
@@ -0,0 +1,187 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industrialbenchmark.datavector;
+
+import java.io.Serializable;
+import java.nio.BufferOverflowException;
+import java.nio.DoubleBuffer;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.MapMaker;
+
+/**
+ * Immutable mapping of the variable names of a data vector to the indices of its value array.
+ * Schemas are interned, i.e. all data vectors with the same key list share one schema instance.
+ * A schema which is no longer referenced is removed from the interned schemas by the garbage collector.
+ * <p>
+ * A key may be listed more than once (e.g. SetPoint in the markovian state). All its occurrences
+ * refer to the value of the last occurrence.
+ */
+public final class DataVectorSchema implements Serializable {
+
+	private static final long serialVersionUID = -2203185563815446373L;
+
+	/** schemas are only kept while they are referenced, e.g. by a data vector or a description */
+	private static final ConcurrentMap<List<String>, DataVectorSchema> INTERNED = new MapMaker().weakValues().makeMap();
+
+	private final ImmutableList<String> keys;
+	private final HashMap<String, Integer> indexMap = new HashMap<String, Integer>();
+	/** value index of each key position */
+	private final int[] positions;
+	/** true if no key is listed twice, i.e. positions[i] == i */
+	private final boolean identity;
+
+	private DataVectorSchema(ImmutableList<String> keys) {
+		this.keys = keys;
+		for (int i = 0; i < keys.size(); i++) {
+			indexMap.put(keys.get(i), i);
+		}
+		this.positions = new int[keys.size()];
+		boolean id = true;
+		for (int i = 0; i < positions.length; i++) {
+			positions[i] = indexMap.get(keys.get(i));
+			id &= positions[i] == i;
+		}
+		this.identity = id;
+	}
+
+	/**
+	 * Returns the interned schema for a list of keys
+	 * @param keys The variable names
+	 * @return the shared schema
+	 */
+	public static DataVectorSchema of(List<String> keys) {
+		Preconditions.checkNotNull(keys, "key list must not be null.");
+		DataVectorSchema schema = INTERNED.get(keys);
+		if (schema == null) {
+			ImmutableList<String> copy = ImmutableList.copyOf(keys);
+			DataVectorSchema created = new DataVectorSchema(copy);
+			schema = INTERNED.putIfAbsent(copy, created);
+			if (schema == null) {
+				schema = created;
+			}
+		}
+		return schema;
+	}
+
+	/**
+	 * Returns the variable names
+	 * @return the variable names
+	 */
+	public List<String> getKeys() {
+		return keys;
+	}
+
+	/**
+	 * Returns the number of variable names
+	 * @return the number of variable names
+	 */
+	public int size() {
+		return keys.size();
+	}
+
+	/**
+	 * Returns the value index of a variable
+	 * @param key The variable name
+	 * @return the index, or -1 if the variable is not part of the schema
+	 */
+	public int indexOf(String key) {
+		Integer index = indexMap.get(key);
+		return index == null ? -1 : index;
+	}
+
+	/**
+	 * Copies the values in the order of {@link #getKeys()}
+	 * @param values The value array of a data vector with this schema
+	 * @return a new array with one value per key
+	 */
+	double[] toKeyOrder(double[] values) {
+		if (identity) {
+			return values.clone();
+		}
+		double[] result = new double[positions.length];
+		for (int i = 0; i < positions.length; i++) {
+			result[i] = values[positions[i]];
+		}
+		return result;
+	}
+
+	/**
+	 * Copies the values in the order of {@link #getKeys()} into a caller provided array
+	 * @param values The value array of a data vector with this schema
+	 * @param dst The destination array
+	 * @param offset The index of dst receiving the first value
+	 */
+	void toKeyOrder(double[] values, double[] dst, int offset) {
+		if (identity) {
+			System.arraycopy(values, 0, dst, offset, values.length);
+			return;
+		}
+		Preconditions.checkPositionIndexes(offset, offset + positions.length, dst.length);
+		for (int i = 0; i < positions.length; i++) {
+			dst[offset + i] = values[positions[i]];
+		}
+	}
+
+	/**
+	 * Puts the values in the order of {@link #getKeys()} at the position of a caller provided buffer
+	 * @param values The value array of a data vector with this schema
+	 * @param dst The destination buffer
+	 */
+	void toKeyOrder(double[] values, DoubleBuffer dst) {
+		if (identity) {
+			dst.put(values);
+			return;
+		}
+		if (dst.remaining() < positions.length) {
+			throw new BufferOverflowException();
+		}
+		for (int i = 0; i < positions.length; i++) {
+			dst.put(values[positions[i]]);
+		}
+	}
+
+	/**
+	 * Sets the values from an array in the order of {@link #getKeys()}. For keys listed
+	 * more than once, the last occurrence wins.
+	 * @param src The source array
+	 * @param offset The index of src holding the first value
+	 * @param values The value array of a data vector with this schema
+	 */
+	void fromKeyOrder(double[] src, int offset, double[] values) {
+		if (identity) {
+			System.arraycopy(src, offset, values, 0, values.length);
+			return;
+		}
+		Preconditions.checkPositionIndexes(offset, offset + positions.length, src.length);
+		for (int i = 0; i < positions.length; i++) {
+			values[positions[i]] = src[offset + i];
+		}
+	}
+
+	private Object readResolve() {
+		return of(keys);
+	}
+
+	@Override
+	public String toString() {
+		return keys.toString();
+	}
+}
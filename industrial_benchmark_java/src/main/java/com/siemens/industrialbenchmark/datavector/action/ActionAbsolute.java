@@ -19,6 +19,7 @@ import java.util.Properties;
 
 import com.google.common.base.Preconditions;
 import com.siemens.industrialbenchmark.datavector.state.ObservableStateDescription;
+import com.siemens.industrialbenchmark.properties.IndustrialBenchmarkConfig;
 import com.siemens.industrialbenchmark.properties.PropertiesException;
 import com.siemens.industrialbenchmark.properties.PropertiesUtil;
 
@@ -55,15 +56,44 @@ public class ActionAbsolute extends ActionDelta {
 	 * @throws PropertiesException
 	 */
 	public ActionAbsolute (double velocity, double gain, double shift, Properties props) throws PropertiesException {
-		
+		this(velocity, gain, shift,
+			PropertiesUtil.getFloat(props, ObservableStateDescription.Action_Velocity + "_MIN", 0f),
+			PropertiesUtil.getFloat(props, ObservableStateDescription.Action_Velocity + "_MAX", 100f),
+			PropertiesUtil.getFloat(props, ObservableStateDescription.Action_Gain + "_MIN", 0f),
+			PropertiesUtil.getFloat(props, ObservableStateDescription.Action_Gain + "_MAX", 100f),
+			PropertiesUtil.getFloat(props, ObservableStateDescription.Action_Shift + "_MIN", 0f),
+			PropertiesUtil.getFloat(props, ObservableStateDescription.Action_Shift + "_MAX", 100f));
+	}
+
+	/**
+	 * Constructor actions and configuration
+	 * @param velocity The velocity to set 
+	 * @param gain The gain to set
+	 * @param shift The shift to set
+	 * @param config The configuration with boundaries for velocity, gain and shift 
+	 * @throws PropertiesException
+	 */
+	public ActionAbsolute (double velocity, double gain, double shift, IndustrialBenchmarkConfig config) throws PropertiesException {
+		this(velocity, gain, shift,
+			config.getMin(ObservableStateDescription.Action_Velocity, 0f),
+			config.getMax(ObservableStateDescription.Action_Velocity, 100f),
+			config.getMin(ObservableStateDescription.Action_Gain, 0f),
+			config.getMax(ObservableStateDescription.Action_Gain, 100f),
+			config.getMin(ObservableStateDescription.Action_Shift, 0f),
+			config.getMax(ObservableStateDescription.Action_Shift, 100f));
+	}
+
+	private ActionAbsolute (double velocity, double gain, double shift,
+			double velocityMin, double velocityMax, double gainMin, double gainMax, double shiftMin, double shiftMax) throws PropertiesException {
+
 		super(0, 0, 0);
 
-		this.velocityMin = PropertiesUtil.getFloat(props, ObservableStateDescription.Action_Velocity + "_MIN", 0f);
-		this.velocityMax = PropertiesUtil.getFloat(props, ObservableStateDescription.Action_Velocity + "_MAX", 100f);
-		this.gainMin = PropertiesUtil.getFloat(props, ObservableStateDescription.Action_Gain + "_MIN", 0f);
-		this.gainMax = PropertiesUtil.getFloat(props, ObservableStateDescription.Action_Gain + "_MAX", 100f);
-		this.shiftMin = PropertiesUtil.getFloat(props, ObservableStateDescription.Action_Shift + "_MIN", 0f);
-		this.shiftMax = PropertiesUtil.getFloat(props, ObservableStateDescription.Action_Shift + "_MAX", 100f);
+		this.velocityMin = velocityMin;
+		this.velocityMax = velocityMax;
+		this.gainMin = gainMin;
+		this.gainMax = gainMax;
+		this.shiftMin = shiftMin;
+		this.shiftMax = shiftMax;
 			
 		Preconditions.checkArgument(velocity >= velocityMin && velocity <= velocityMax, "velocity=%s must be in range [%s, %s]", velocity, velocityMin, velocityMax);
 		Preconditions.checkArgument(gain >= gainMin && gain <= gainMax, "gain=%s must be in range [%s, %s]", gain, gainMin, gainMax);
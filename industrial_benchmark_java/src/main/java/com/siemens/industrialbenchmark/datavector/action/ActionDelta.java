@@ -42,7 +42,7 @@ public class ActionDelta extends DataVectorImpl {
 	 */
 	public ActionDelta (double deltaVelocity, double deltaGain, double deltaShift) throws PropertiesException {
 
-		super (new ActionDeltaDescription());
+		super (ActionDeltaDescription.SCHEMA);
 		
 		Preconditions.checkArgument(Math.abs(deltaVelocity) <= maxDelta, "Math.abs(deltaA=%s) must be <= %s", deltaVelocity, maxDelta);
 		Preconditions.checkArgument(Math.abs(deltaGain) <= maxDelta, "Math.abs(deltaB=%s) must be <= %s", deltaGain, maxDelta);
@@ -19,6 +19,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import com.siemens.industrialbenchmark.datavector.DataVectorDescription;
+import com.siemens.industrialbenchmark.datavector.DataVectorSchema;
 
 /** 
  * Action description for the ActionDelta 
@@ -39,6 +40,9 @@ public class ActionDeltaDescription extends DataVectorDescription {
     	actionVars.add(DeltaShift);
     }
 
+    /** schema shared by all delta actions */
+    public static final DataVectorSchema SCHEMA = DataVectorSchema.of(actionVars);
+
     public ActionDeltaDescription() {
 		super(actionVars);
 	}
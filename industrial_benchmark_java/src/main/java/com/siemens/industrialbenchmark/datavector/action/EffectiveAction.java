@@ -31,7 +31,14 @@ public class EffectiveAction {
 		effectiveGain = calcEffectiveGain(action.getGain(), setpoint); 
 	}
 	
-	private double  calcEffectiveVelocity(double  a, double  b, double  setpoint) {
+	/**
+	 * Computes the effective velocity alpha in [0, 1]
+	 * @param a The velocity
+	 * @param b The gain
+	 * @param setpoint The setpoint
+	 * @return the effective velocity
+	 */
+	public static double  calcEffectiveVelocity(double  a, double  b, double  setpoint) {
 		final double  minAlphaUnscaled = calcAlphaUnscaled(calcEffectiveA(100, setpoint), calcEffectiveB(0,   setpoint));
 		final double  maxAlphaUnscaled = calcAlphaUnscaled(calcEffectiveA(0,   setpoint), calcEffectiveB(100, setpoint));
 		final double  alphaUnscaled    = calcAlphaUnscaled(calcEffectiveA(a,   setpoint), calcEffectiveB(b,   setpoint)); 
@@ -39,7 +46,13 @@ public class EffectiveAction {
 		return (alphaUnscaled - minAlphaUnscaled) / (maxAlphaUnscaled - minAlphaUnscaled);
 	}
 	
-	private double  calcEffectiveGain(double  b, double  setpoint) {
+	/**
+	 * Computes the effective gain beta in [0, 1]
+	 * @param b The gain
+	 * @param setpoint The setpoint
+	 * @return the effective gain
+	 */
+	public static double  calcEffectiveGain(double  b, double  setpoint) {
 		final double  minBetaUnscaled = calcBetaUnscaled(calcEffectiveB(100, setpoint));
 		final double  maxBetaUnscaled = calcBetaUnscaled(calcEffectiveB(0,   setpoint));
 		final double  betaUnscaled    = calcBetaUnscaled(calcEffectiveB(b,   setpoint));
@@ -47,19 +60,19 @@ public class EffectiveAction {
 		return (betaUnscaled - minBetaUnscaled) / (maxBetaUnscaled - minBetaUnscaled); 
 	}
 	
-	private double  calcEffectiveA (double  a, double  setpoint) {
+	private static double  calcEffectiveA (double  a, double  setpoint) {
 		return a + 101.f - setpoint;
 	}
 	
-	private double  calcEffectiveB (double  b, double  setpoint) {
+	private static double  calcEffectiveB (double  b, double  setpoint) {
 		return b + 1.f + setpoint;
 	}
 	
-	private double  calcAlphaUnscaled (double  effectiveA, double  effectiveB) {
+	private static double  calcAlphaUnscaled (double  effectiveA, double  effectiveB) {
 		return (effectiveB + 1.0f) / effectiveA;
 	}
 	
-	private double  calcBetaUnscaled (double  effectiveB) {
+	private static double  calcBetaUnscaled (double  effectiveB) {
 		return 1.0f / effectiveB;
 	}
 	
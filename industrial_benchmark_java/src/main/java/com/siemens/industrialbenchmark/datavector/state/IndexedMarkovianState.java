@@ -0,0 +1,147 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industrialbenchmark.datavector.state;
+
+import java.nio.BufferOverflowException;
+import java.nio.DoubleBuffer;
+import java.util.List;
+
+import com.google.common.base.Preconditions;
+import com.siemens.rl.interfaces.DataVector;
+
+/**
+ * {@link DataVector} view on a flat markovian state array. Reads and writes go directly
+ * to the slots given by the {@link MarkovianStateLayout}; no values are copied.
+ * {@link #clone()} materializes a detached {@link MarkovianState}.
+ */
+public class IndexedMarkovianState implements DataVector {
+
+	private static final long serialVersionUID = 1733410586418526471L;
+
+	private final MarkovianStateLayout layout;
+	private final double[] values;
+
+	/**
+	 * Constructor with layout and backing array
+	 * @param layout The slot layout
+	 * @param values The flat state array, must have at least {@link MarkovianStateLayout#size()} elements
+	 */
+	public IndexedMarkovianState(MarkovianStateLayout layout, double[] values) {
+		Preconditions.checkNotNull(layout, "layout must not be null.");
+		Preconditions.checkArgument(values.length >= layout.size(), "state array has %s slots, but layout requires %s", values.length, layout.size());
+		this.layout = layout;
+		this.values = values;
+	}
+
+	@Override
+	public Double getValue(String key) {
+		return values[slot(key)];
+	}
+
+	@Override
+	public void setValue(String key, double value) {
+		values[slot(key)] = value;
+	}
+
+	private int slot(String key) {
+		int slot = layout.slotOf(key);
+		Preconditions.checkArgument(slot >= 0, "%s is not a valid variable. Available names are: %s", key, layout.getKeys());
+		return slot;
+	}
+
+	@Override
+	public List<String> getKeys() {
+		return layout.getKeys();
+	}
+
+	@Override
+	public double[] getValuesArray() {
+		double[] result = new double[layout.getKeys().size()];
+		copyValuesTo(result, 0);
+		return result;
+	}
+
+	@Override
+	public void copyValuesTo(double[] dst, int offset) {
+		final int[] keySlots = layout.keySlots();
+		Preconditions.checkPositionIndexes(offset, offset + keySlots.length, dst.length);
+		for (int i = 0; i < keySlots.length; i++) {
+			dst[offset + i] = values[keySlots[i]];
+		}
+	}
+
+	@Override
+	public void copyValuesTo(DoubleBuffer dst) {
+		if (dst.remaining() < layout.keySlots().length) {
+			throw new BufferOverflowException();
+		}
+		for (int slot : layout.keySlots()) {
+			dst.put(values[slot]);
+		}
+	}
+
+	@Override
+	public void setValuesFrom(double[] src, int offset) {
+		final int[] keySlots = layout.keySlots();
+		Preconditions.checkPositionIndexes(offset, offset + keySlots.length, src.length);
+		for (int i = 0; i < keySlots.length; i++) {
+			values[keySlots[i]] = src[offset + i];
+		}
+	}
+
+	/**
+	 * Returns the slot of a variable. The handle is valid for all views with the same layout.
+	 */
+	@Override
+	public int getHandle(String key) {
+		return slot(key);
+	}
+
+	@Override
+	public double getValue(int handle) {
+		return values[handle];
+	}
+
+	@Override
+	public void setValue(int handle, double value) {
+		values[handle] = value;
+	}
+
+	/**
+	 * Returns the slot layout
+	 * @return the slot layout
+	 */
+	public MarkovianStateLayout getLayout() {
+		return layout;
+	}
+
+	/**
+	 * Returns a detached copy of the state as {@link MarkovianState}.
+	 */
+	@Override
+	public DataVector clone() {
+		MarkovianState s = new MarkovianState(layout.getSchema());
+		for (String key : layout.getKeys()) {
+			s.setValue(key, values[layout.slotOf(key)]);
+		}
+		return s;
+	}
+
+	@Override
+	public String toString() {
+		return clone().toString();
+	}
+}
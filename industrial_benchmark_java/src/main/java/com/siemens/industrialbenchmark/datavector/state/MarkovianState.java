@@ -18,6 +18,7 @@ package com.siemens.industrialbenchmark.datavector.state;
 import java.util.List;
 
 import com.siemens.industrialbenchmark.datavector.DataVectorImpl;
+import com.siemens.industrialbenchmark.datavector.DataVectorSchema;
 
 public class MarkovianState extends DataVectorImpl {
 
@@ -34,4 +35,12 @@ public class MarkovianState extends DataVectorImpl {
 	public MarkovianState(List<String> operationalcostVars) {
 		super(new MarkovianStateDescription(operationalcostVars));
 	}
+
+	/**
+	 * Constructor with the shared schema of the markovian state variables
+	 * @param schema
+	 */
+	public MarkovianState(DataVectorSchema schema) {
+		super(schema);
+	}
 }
@@ -0,0 +1,183 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industrialbenchmark.datavector.state;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.siemens.industrialbenchmark.datavector.DataVectorSchema;
+
+/**
+ * Slot layout of the flat markovian state array of the industrial benchmark dynamics.
+ * <p>
+ * The variables of {@link MarkovianStateDescription} occupy the fixed slots 0..23 (in the order of
+ * {@link MarkovianStateDescription#getNonConvolutedInternalVariables()}), the delayed operational costs
+ * OPERATIONALCOST_i follow from {@link #OPERATIONALCOST_0}, and the variables of the external drivers
+ * which are not yet part of the state are appended at the end.
+ * <p>
+ * The key order exposed by {@link #getKeys()} is the historical order of the markovian state
+ * (operational costs, internal variables, external driver variables).
+ */
+public final class MarkovianStateLayout implements Serializable {
+
+	private static final long serialVersionUID = -2860167542950209245L;
+
+	/** prefix of the delayed operational cost variables */
+	public static final String OPERATIONALCOST_PREFIX = "OPERATIONALCOST_";
+
+	// hidden state variables
+	public static final int CURRENT_OPERATIONAL_COST = 0;
+	public static final int FATIGUE_LATENT_2 = 1;
+	public static final int FATIGUE_LATENT_1 = 2;
+	public static final int EFFECTIVE_SHIFT = 3;
+	public static final int MIS_CALIBRATION_DOMAIN = 4;
+	public static final int MIS_CALIBRATION_SYSTEM_RESPONSE = 5;
+	public static final int MIS_CALIBRATION_PHI_IDX = 6;
+	public static final int EFFECTIVE_ACTION_GAIN_BETA = 7;
+	public static final int EFFECTIVE_ACTION_VELOCITY_ALPHA = 8;
+	public static final int REWARD_CONSUMPTION = 9;
+	public static final int REWARD_FATIGUE = 10;
+	public static final int MIS_CALIBRATION = 11;
+	public static final int REWARD_CONSUMPTION_WEIGHTED = 12;
+	public static final int REWARD_FATIGUE_WEIGHTED = 13;
+	public static final int RANDOM_SEED = 14;
+	public static final int CONSUMPTION = 15;
+
+	// observables
+	public static final int SET_POINT = 16;
+	public static final int VELOCITY = 17;
+	public static final int GAIN = 18;
+	public static final int SHIFT = 19;
+	public static final int FATIGUE = 20;
+	public static final int FATIGUE_BASE = 21;
+	public static final int OPERATIONAL_COSTS_CONV = 22;
+	public static final int REWARD_TOTAL = 23;
+
+	/** slot of OPERATIONALCOST_0, the oldest operational cost of the history */
+	public static final int OPERATIONALCOST_0 = 24;
+
+	private final ImmutableList<String> keys;
+	private final DataVectorSchema schema;
+	/** slot of each key position */
+	private final int[] keySlots;
+	private final HashMap<String, Integer> slots = new HashMap<String, Integer>();
+	private final int numberOperationalCosts;
+	private final int size;
+
+	/**
+	 * Constructor with the length of the operational cost history and the variables of the external drivers
+	 * @param numberOperationalCosts The number of delayed operational costs (length of the convolution kernel)
+	 * @param externalDriverKeys The variable names of the external drivers
+	 */
+	public MarkovianStateLayout(int numberOperationalCosts, List<String> externalDriverKeys) {
+		Preconditions.checkArgument(numberOperationalCosts >= 0, "numberOperationalCosts=%s must be non-negative", numberOperationalCosts);
+		Preconditions.checkNotNull(externalDriverKeys, "external driver key list must not be null.");
+		this.numberOperationalCosts = numberOperationalCosts;
+
+		List<String> fixed = MarkovianStateDescription.getNonConvolutedInternalVariables();
+		Preconditions.checkState(fixed.size() == OPERATIONALCOST_0, "expected %s fixed variables, but found %s", OPERATIONALCOST_0, fixed.size());
+
+		List<String> names = new ArrayList<String>();
+		for (int i = 0; i < numberOperationalCosts; i++) {
+			names.add(OPERATIONALCOST_PREFIX + i);
+			slots.put(OPERATIONALCOST_PREFIX + i, OPERATIONALCOST_0 + i);
+		}
+		for (int i = 0; i < fixed.size(); i++) {
+			names.add(fixed.get(i));
+			slots.put(fixed.get(i), i);
+		}
+
+		int next = OPERATIONALCOST_0 + numberOperationalCosts;
+		for (String key : externalDriverKeys) {
+			names.add(key);
+			if (!slots.containsKey(key)) {
+				slots.put(key, next++);
+			}
+		}
+		this.keys = ImmutableList.copyOf(names);
+		this.schema = DataVectorSchema.of(keys);
+		this.keySlots = new int[keys.size()];
+		for (int i = 0; i < keySlots.length; i++) {
+			keySlots[i] = slots.get(keys.get(i));
+		}
+		this.size = next;
+	}
+
+	/**
+	 * Returns the variable names in the order of the markovian state. External driver variables,
+	 * which are also internal variables (e.g. SetPoint), are listed twice and share one slot.
+	 * @return the variable names
+	 */
+	public List<String> getKeys() {
+		return keys;
+	}
+
+	/**
+	 * Returns the interned schema of the variable names, which is shared by the detached copies of the state
+	 * @return the schema
+	 */
+	public DataVectorSchema getSchema() {
+		return schema;
+	}
+
+	/**
+	 * Returns the slot of a variable
+	 * @param key The variable name
+	 * @return the slot index, or -1 if the variable is not part of the state
+	 */
+	public int slotOf(String key) {
+		Integer slot = slots.get(key);
+		return slot == null ? -1 : slot;
+	}
+
+	/**
+	 * Returns the slots in the order of {@link #getKeys()}, must not be modified
+	 * @return the slot of each key position
+	 */
+	int[] keySlots() {
+		return keySlots;
+	}
+
+	/**
+	 * Returns the slot of the delayed operational cost OPERATIONALCOST_lag
+	 * @param lag The lag (0 is the oldest operational cost)
+	 * @return the slot index
+	 */
+	public int operationalCostSlot(int lag) {
+		Preconditions.checkElementIndex(lag, numberOperationalCosts, "lag");
+		return OPERATIONALCOST_0 + lag;
+	}
+
+	/**
+	 * Returns the number of delayed operational costs
+	 * @return the number of delayed operational costs
+	 */
+	public int getNumberOperationalCosts() {
+		return numberOperationalCosts;
+	}
+
+	/**
+	 * Returns the length of the flat state array
+	 * @return the number of slots
+	 */
+	public int size() {
+		return size;
+	}
+}
@@ -26,6 +26,6 @@ public class ObservableState extends DataVectorImpl {
 	private static final long serialVersionUID = 6835795950225418933L;
 
 	public ObservableState() {
-		super(new ObservableStateDescription());
+		super(ObservableStateDescription.SCHEMA);
 	}
 }
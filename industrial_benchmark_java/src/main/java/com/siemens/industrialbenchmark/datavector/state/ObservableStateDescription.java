@@ -15,7 +15,10 @@ limitations under the License.
 */
 package com.siemens.industrialbenchmark.datavector.state;
 
+import java.util.Arrays;
+
 import com.siemens.industrialbenchmark.datavector.DataVectorDescription;
+import com.siemens.industrialbenchmark.datavector.DataVectorSchema;
 
 /**
  * State description for the industrial benchmark.
@@ -34,6 +37,9 @@ public class ObservableStateDescription extends DataVectorDescription {
     private final static String[] mStateVars = new String[] {
         	SetPoint, Action_Velocity, Action_Gain, Action_Shift, Fatigue, RewardTotal, Consumption
     };
+
+    /** schema shared by all observable states */
+    public static final DataVectorSchema SCHEMA = DataVectorSchema.of(Arrays.asList(mStateVars));
        
     public ObservableStateDescription () {
     	super (mStateVars);
@@ -0,0 +1,152 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industrialbenchmark.datavector.state;
+
+import java.nio.BufferOverflowException;
+import java.nio.DoubleBuffer;
+import java.util.List;
+
+import com.google.common.base.Preconditions;
+import com.siemens.industrialbenchmark.datavector.DataVectorSchema;
+import com.siemens.rl.interfaces.DataVector;
+
+/**
+ * Read-only {@link DataVector} view of the observable variables of a flat markovian state array.
+ * Reads go directly to the slots of the {@link MarkovianStateLayout}, hence the view always shows
+ * the current observation and is never copied. {@link #clone()} materializes a detached {@link ObservableState}.
+ * <p>
+ * Handles are the same as the handles of {@link ObservableState}.
+ */
+public class ObservableStateView implements DataVector {
+
+	private static final long serialVersionUID = -5383853185040732406L;
+
+	private static final DataVectorSchema SCHEMA = ObservableStateDescription.SCHEMA;
+
+	/** slot of each observable variable in the order of {@link ObservableStateDescription} */
+	private static final int[] SLOTS = new int[SCHEMA.size()];
+
+	static {
+		List<String> fixed = MarkovianStateDescription.getNonConvolutedInternalVariables();
+		for (int i = 0; i < SLOTS.length; i++) {
+			SLOTS[i] = fixed.indexOf(SCHEMA.getKeys().get(i));
+			Preconditions.checkState(SLOTS[i] >= 0, "%s is not a fixed markovian state variable", SCHEMA.getKeys().get(i));
+		}
+	}
+
+	/** number of observable variables */
+	public static final int SIZE = SLOTS.length;
+
+	private final double[] values;
+
+	/**
+	 * Constructor with the backing array
+	 * @param values The flat markovian state array
+	 */
+	public ObservableStateView(double[] values) {
+		Preconditions.checkArgument(values.length >= MarkovianStateLayout.OPERATIONALCOST_0,
+				"state array has %s slots, but at least %s are required", values.length, MarkovianStateLayout.OPERATIONALCOST_0);
+		this.values = values;
+	}
+
+	/**
+	 * Returns the slot of an observable variable in the flat markovian state
+	 * @param index The position of the variable in {@link ObservableStateDescription}
+	 * @return the slot index
+	 */
+	public static int slotOf(int index) {
+		return SLOTS[index];
+	}
+
+	@Override
+	public Double getValue(String key) {
+		return values[SLOTS[getHandle(key)]];
+	}
+
+	@Override
+	public void setValue(String key, double value) {
+		throw new UnsupportedOperationException("the observable state view is read-only");
+	}
+
+	@Override
+	public List<String> getKeys() {
+		return SCHEMA.getKeys();
+	}
+
+	@Override
+	public double[] getValuesArray() {
+		double[] result = new double[SIZE];
+		copyValuesTo(result, 0);
+		return result;
+	}
+
+	@Override
+	public void copyValuesTo(double[] dst, int offset) {
+		Preconditions.checkPositionIndexes(offset, offset + SIZE, dst.length);
+		for (int i = 0; i < SIZE; i++) {
+			dst[offset + i] = values[SLOTS[i]];
+		}
+	}
+
+	@Override
+	public void copyValuesTo(DoubleBuffer dst) {
+		if (dst.remaining() < SIZE) {
+			throw new BufferOverflowException();
+		}
+		for (int i = 0; i < SIZE; i++) {
+			dst.put(values[SLOTS[i]]);
+		}
+	}
+
+	@Override
+	public void setValuesFrom(double[] src, int offset) {
+		throw new UnsupportedOperationException("the observable state view is read-only");
+	}
+
+	@Override
+	public int getHandle(String key) {
+		final int handle = SCHEMA.indexOf(key);
+		Preconditions.checkArgument(handle >= 0, "%s is not a valid variable. Available names are: %s", key, SCHEMA.getKeys());
+		return handle;
+	}
+
+	@Override
+	public double getValue(int handle) {
+		return values[SLOTS[handle]];
+	}
+
+	@Override
+	public void setValue(int handle, double value) {
+		throw new UnsupportedOperationException("the observable state view is read-only");
+	}
+
+	/**
+	 * Returns a detached copy of the observation as {@link ObservableState}.
+	 */
+	@Override
+	public ObservableState clone() {
+		ObservableState s = new ObservableState();
+		for (int i = 0; i < SIZE; i++) {
+			s.setValue(i, values[SLOTS[i]]);
+		}
+		return s;
+	}
+
+	@Override
+	public String toString() {
+		return clone().toString();
+	}
+}
@@ -0,0 +1,263 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industrialbenchmark.dynamics;
+
+import static com.siemens.industrialbenchmark.datavector.state.MarkovianStateLayout.FATIGUE;
+import static com.siemens.industrialbenchmark.datavector.state.MarkovianStateLayout.MIS_CALIBRATION_PHI_IDX;
+import static com.siemens.industrialbenchmark.datavector.state.MarkovianStateLayout.REWARD_TOTAL;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * JDK Flight Recorder events of the benchmark lifecycle: episode start and end, reset, state restore,
+ * batch steps and slow steps. Environment events carry the environment id, the step index, phiIdx, the
+ * fatigue and the reward.
+ * <p>
+ * The event classes are only loaded if the jdk.jfr API is available (JDK 11, 8u262 and later), otherwise
+ * and if the system property {@value #PROPERTY} is "false" all methods are skipped by the callers via
+ * {@link #AVAILABLE}. Without a running recording an event costs an allocation and an enabled check.
+ * The thresholds of the slow step ({@value #STEP_THRESHOLD}) and batch step events can be changed in the
+ * recording settings.
+ */
+public final class FlightRecorderEvents {
+
+	/** system property disabling the events if set to "false" */
+	public static final String PROPERTY = "industrialbenchmark.jfr";
+	/** default threshold of the slow step event */
+	public static final String STEP_THRESHOLD = "1 ms";
+
+	/** true if the events are emitted */
+	public static final boolean AVAILABLE = isAvailable();
+
+	private FlightRecorderEvents() {
+	}
+
+	private static boolean isAvailable() {
+		if ("false".equalsIgnoreCase(System.getProperty(PROPERTY))) {
+			return false;
+		}
+		try {
+			Class.forName("jdk.jfr.Event");
+			return true;
+		} catch (ClassNotFoundException | LinkageError e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Starts the timing of a step
+	 * @return the event, or null if slow steps are not recorded
+	 */
+	static Object beginStep() {
+		final StepEvent event = new StepEvent();
+		if (!event.isEnabled()) {
+			return null;
+		}
+		event.begin();
+		return event;
+	}
+
+	/**
+	 * Commits a step event if the step exceeded the threshold
+	 * @param event The event returned by {@link #beginStep()}
+	 * @param env The benchmark after the step
+	 */
+	static void endStep(Object event, IndustrialBenchmarkDynamics env) {
+		final StepEvent e = (StepEvent) event;
+		e.end();
+		if (e.shouldCommit()) {
+			e.set(env);
+			e.commit();
+		}
+	}
+
+	/**
+	 * Starts the timing of a batch step
+	 * @return the event, or null if batch steps are not recorded
+	 */
+	static Object beginBatchStep() {
+		final BatchStepEvent event = new BatchStepEvent();
+		if (!event.isEnabled()) {
+			return null;
+		}
+		event.begin();
+		return event;
+	}
+
+	/**
+	 * Commits a batch step event
+	 * @param event The event returned by {@link #beginBatchStep()}
+	 * @param engine The batch engine
+	 * @param size The number of benchmarks
+	 */
+	static void endBatchStep(Object event, String engine, int size) {
+		final BatchStepEvent e = (BatchStepEvent) event;
+		e.end();
+		if (e.shouldCommit()) {
+			e.engine = engine;
+			e.batchSize = size;
+			e.commit();
+		}
+	}
+
+	/**
+	 * Emits a reset event with the state before the reset
+	 * @param env The benchmark
+	 */
+	static void reset(IndustrialBenchmarkDynamics env) {
+		final ResetEvent e = new ResetEvent();
+		if (e.shouldCommit()) {
+			e.set(env);
+			e.commit();
+		}
+	}
+
+	/**
+	 * Emits a state restore event with the restored state
+	 * @param env The benchmark
+	 */
+	static void restore(IndustrialBenchmarkDynamics env) {
+		final RestoreEvent e = new RestoreEvent();
+		if (e.shouldCommit()) {
+			e.set(env);
+			e.commit();
+		}
+	}
+
+	/**
+	 * Emits an episode start event. Callers check {@link #AVAILABLE} first.
+	 * @param env The benchmark at the start of the episode
+	 * @param episode The episode index
+	 * @param seed The seed of the episode
+	 */
+	public static void episodeStart(IndustrialBenchmarkDynamics env, long episode, long seed) {
+		final EpisodeStartEvent e = new EpisodeStartEvent();
+		if (e.shouldCommit()) {
+			e.set(env);
+			e.episode = episode;
+			e.seed = seed;
+			e.commit();
+		}
+	}
+
+	/**
+	 * Emits an episode end event. Callers check {@link #AVAILABLE} first.
+	 * @param env The benchmark at the end of the episode
+	 * @param episode The episode index
+	 * @param totalReward The sum of the rewards of the episode
+	 */
+	public static void episodeEnd(IndustrialBenchmarkDynamics env, long episode, double totalReward) {
+		final EpisodeEndEvent e = new EpisodeEndEvent();
+		if (e.shouldCommit()) {
+			e.set(env);
+			e.episode = episode;
+			e.totalReward = totalReward;
+			e.commit();
+		}
+	}
+
+	@Category("Industrial Benchmark")
+	abstract static class EnvironmentEvent extends Event {
+
+		@Label("Environment Id")
+		long envId;
+
+		@Label("Step Index")
+		@Description("Steps since construction or reset")
+		long stepIndex;
+
+		@Label("Phi Index")
+		double phiIdx;
+
+		@Label("Fatigue")
+		double fatigue;
+
+		@Label("Reward")
+		double reward;
+
+		void set(IndustrialBenchmarkDynamics env) {
+			envId = env.getId();
+			stepIndex = env.getStepIndex();
+			phiIdx = env.state[MIS_CALIBRATION_PHI_IDX];
+			fatigue = env.state[FATIGUE];
+			reward = env.state[REWARD_TOTAL];
+		}
+	}
+
+	@Name("industrialbenchmark.SlowStep")
+	@Label("Slow Step")
+	@Description("Step exceeding the threshold")
+	@Threshold(STEP_THRESHOLD)
+	static final class StepEvent extends EnvironmentEvent {
+	}
+
+	@Name("industrialbenchmark.Reset")
+	@Label("Reset")
+	@Description("Reset of a benchmark, with the state before the reset")
+	@StackTrace(false)
+	static final class ResetEvent extends EnvironmentEvent {
+	}
+
+	@Name("industrialbenchmark.StateRestore")
+	@Label("State Restore")
+	@Description("Markovian state set or snapshot read, with the restored state")
+	@StackTrace(false)
+	static final class RestoreEvent extends EnvironmentEvent {
+	}
+
+	@Name("industrialbenchmark.EpisodeStart")
+	@Label("Episode Start")
+	@StackTrace(false)
+	static final class EpisodeStartEvent extends EnvironmentEvent {
+
+		@Label("Episode")
+		long episode;
+
+		@Label("Seed")
+		long seed;
+	}
+
+	@Name("industrialbenchmark.EpisodeEnd")
+	@Label("Episode End")
+	@StackTrace(false)
+	static final class EpisodeEndEvent extends EnvironmentEvent {
+
+		@Label("Episode")
+		long episode;
+
+		@Label("Total Reward")
+		double totalReward;
+	}
+
+	@Name("industrialbenchmark.BatchStep")
+	@Label("Batch Step")
+	@Category("Industrial Benchmark")
+	@StackTrace(false)
+	static final class BatchStepEvent extends Event {
+
+		@Label("Engine")
+		String engine;
+
+		@Label("Batch Size")
+		int batchSize;
+	}
+}
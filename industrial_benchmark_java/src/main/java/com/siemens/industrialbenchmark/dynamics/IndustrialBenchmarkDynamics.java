@@ -15,27 +15,38 @@ limitations under the License.
 */
 package com.siemens.industrialbenchmark.dynamics;
 
+import static com.siemens.industrialbenchmark.datavector.state.MarkovianStateLayout.*;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
 
-import org.apache.commons.collections.buffer.CircularFifoBuffer;
-import org.apache.commons.math3.random.RandomDataGenerator;
 import org.apache.log4j.Logger;
 
 import com.google.common.base.Preconditions;
 import com.siemens.industrialbenchmark.datavector.action.ActionAbsolute;
 import com.siemens.industrialbenchmark.datavector.action.ActionDelta;
 import com.siemens.industrialbenchmark.datavector.action.EffectiveAction;
-import com.siemens.industrialbenchmark.datavector.state.MarkovianState;
+import com.siemens.industrialbenchmark.datavector.state.IndexedMarkovianState;
 import com.siemens.industrialbenchmark.datavector.state.MarkovianStateDescription;
+import com.siemens.industrialbenchmark.datavector.state.MarkovianStateLayout;
 import com.siemens.industrialbenchmark.datavector.state.ObservableState;
-import com.siemens.industrialbenchmark.datavector.state.ObservableStateDescription;
+import com.siemens.industrialbenchmark.datavector.state.ObservableStateView;
 import com.siemens.industrialbenchmark.dynamics.goldstone.GoldstoneEnvironment;
 import com.siemens.industrialbenchmark.externaldrivers.setpointgen.SetPointGenerator;
+import com.siemens.industrialbenchmark.metrics.StepInstrumentation;
+import com.siemens.industrialbenchmark.metrics.StepStage;
+import com.siemens.industrialbenchmark.properties.IndustrialBenchmarkConfig;
 import com.siemens.industrialbenchmark.properties.PropertiesException;
-import com.siemens.industrialbenchmark.properties.PropertiesUtil;
+import com.siemens.industrialbenchmark.util.DoubleRingBuffer;
+import com.siemens.industrialbenchmark.util.RandomSource;
 import com.siemens.rl.interfaces.DataVector;
 import com.siemens.rl.interfaces.Environment;
 import com.siemens.rl.interfaces.ExternalDriver;
@@ -48,6 +59,9 @@ import com.siemens.rl.interfaces.ExternalDriver;
  *  	<li> operationalcosts are delayed and a convoluted operationalcost level is calculated</li>
  *  </ul>
  *  
+ *  The markovian state is kept in a flat double[] array with the slots defined by {@link MarkovianStateLayout}.
+ *  A {@link DataVector} of the state is only materialized on request (see {@link #getInternalMarkovState()}).
+ *  
  * @author Siegmund Duell, Alexander Hentschel, Michel Tokic
  */
 public class IndustrialBenchmarkDynamics implements Environment
@@ -58,35 +72,57 @@ public class IndustrialBenchmarkDynamics implements Environment
 	protected final float STEP_SIZE_GAIN;
 
 	/** Ring Buffer of fixed size implementing a FIFO queue */
-	protected CircularFifoBuffer mOperationalCostsBuffer;
+	protected DoubleRingBuffer mOperationalCostsBuffer;
 
-	private float[] mEmConvWeights;
+	protected float[] mEmConvWeights;
+	// non-zero taps of the convolution kernel
+	int[] mEmConvLags;
+	float[] mEmConvTapWeights;
 	private boolean convToInit = true;
 	
 	private GoldstoneEnvironment gsEnvironment;
-	private final float maxRequiredStep = (float) Math.sin(15.0f/180.0f*Math.PI);
-	private final float gsBound = 1.5f; 
-	private final float gsSetPointDependency = 0.02f;
-
-	private enum C {
-		DGain, DVelocity, DSetPoint, 
-		CostSetPoint, CostGain, CostVelocity, DBase,
-		STEP_SIZE_GAIN, STEP_SIZE_VELOCITY
-	}
-
-    protected MarkovianState markovState;
-    protected MarkovianState mMax; 
-    protected MarkovianState mMin;
-    protected final Properties mProperties;
+	static final float maxRequiredStep = (float) Math.sin(15.0f/180.0f*Math.PI);
+	static final float gsBound = 1.5f; 
+	static final float gsSetPointDependency = 0.02f;
+	static final int gsNumberSteps = 24;
+
+	// fatigue dynamics
+	static final float expLambda = 0.1f;
+	static final float actionTolerance = 0.05f;
+	static final float fatigueAmplification = 1.1f;   
+	static final float fatigueAmplificationMax = 5.0f;
+	static final float fatigueAmplificationStart = 1.2f;
+
+	// dynamics parameters
+	private final float cDGain;
+	private final float cDVelocity;
+	private final float cDSetPoint;
+	private final float cDynBase;
+	private final float cCostSetPoint;
+	private final float cCostGain;
+	private final float cCostVelocity;
+
+    protected MarkovianStateLayout layout;
+    protected double[] state;
+    protected IndexedMarkovianState markovState; // view on state
+    private ObservableStateView stateView; // read-only view on the observable slots of state
+    protected double[] mMax; 
+    protected double[] mMin;
+    double[] mInitialState; // bounded initial values, restored by reset()
+    protected final IndustrialBenchmarkConfig mConfig;
 
 	private IndustrialBenchmarkRewardFunction mRewardCore;
-    private RandomDataGenerator rda = new RandomDataGenerator(); 
+    private final RandomSource rda;
     private long randomSeed = 0;
     private float CRGS;
     
-    private List<String> markovStateAdditionalNames;
     private List<ExternalDriver> externalDrivers = new ArrayList<ExternalDriver>(); 
-    private final ActionDelta zeroAction = new ActionDelta(0, 0, 0);
+    private final ActionDelta zeroAction;
+    private StepInstrumentation instrumentation; // null if disabled
+
+    private static final AtomicLong NEXT_ID = new AtomicLong();
+    private final long id = NEXT_ID.incrementAndGet();
+    private long stepIndex; // steps since construction or reset, diagnostic only
 	
 
     /**
@@ -95,15 +131,34 @@ public class IndustrialBenchmarkDynamics implements Environment
      * @throws PropertiesException
      */
     public IndustrialBenchmarkDynamics(Properties aProperties) throws PropertiesException {
-        mProperties = aProperties;
-        mRewardCore = new IndustrialBenchmarkRewardFunction(aProperties);
-        STEP_SIZE_GAIN = PropertiesUtil.getFloat(mProperties, C.STEP_SIZE_GAIN.name(), true);
-        STEP_SIZE_VELOCITY = PropertiesUtil.getFloat(mProperties, C.STEP_SIZE_VELOCITY.name(), true);
+    	this(new IndustrialBenchmarkConfig(aProperties));
+    }
+
+    /**
+     * Constructor with configuration
+     * @param aConfig The configuration
+     * @throws PropertiesException
+     */
+    public IndustrialBenchmarkDynamics(IndustrialBenchmarkConfig aConfig) throws PropertiesException {
+        mConfig = aConfig;
+        zeroAction = new ActionDelta(0, 0, 0);
+        rda = aConfig.getRandomSourceType().create();
+        mRewardCore = new IndustrialBenchmarkRewardFunction(aConfig);
+        STEP_SIZE_GAIN = aConfig.getStepSizeGain();
+        STEP_SIZE_VELOCITY = aConfig.getStepSizeVelocity();
+        cDGain = aConfig.getDGain();
+        cDVelocity = aConfig.getDVelocity();
+        cDSetPoint = aConfig.getDSetPoint();
+        cDynBase = aConfig.getDBase();
+        cCostSetPoint = aConfig.getCostSetPoint();
+        cCostGain = aConfig.getCostGain();
+        cCostVelocity = aConfig.getCostVelocity();
 		
-		externalDrivers.add(new SetPointGenerator(mProperties));
+		externalDrivers.add(new SetPointGenerator(mConfig));
 
         init();
         step(zeroAction);
+        stepIndex = 0;
     }
     
     /**
@@ -113,12 +168,69 @@ public class IndustrialBenchmarkDynamics implements Environment
      * @throws PropertiesException
      */
     public IndustrialBenchmarkDynamics(Properties aProperties, List<ExternalDriver> externalDrivers) throws PropertiesException {
-    	this(aProperties);
+    	this(new IndustrialBenchmarkConfig(aProperties), externalDrivers);
+    }
+
+    /**
+     * Constructor with configuration and external driver list
+     * @param aConfig The configuration
+     * @param externalDrivers The list containing external drivers
+     * @throws PropertiesException
+     */
+    public IndustrialBenchmarkDynamics(IndustrialBenchmarkConfig aConfig, List<ExternalDriver> externalDrivers) throws PropertiesException {
+    	this(aConfig);
     	
     	this.externalDrivers = externalDrivers;
     	
     	init();
     	step(zeroAction);
+    	stepIndex = 0;
+    }
+
+    /**
+     * Copy constructor, see {@link #fork()}. The configuration, the state layout and the penalty
+     * functions are shared, the state, the operational cost history, the Goldstone state and the
+     * external drivers are copied.
+     * @param other The benchmark to copy
+     */
+    protected IndustrialBenchmarkDynamics(IndustrialBenchmarkDynamics other) {
+        mConfig = other.mConfig;
+        zeroAction = other.zeroAction;
+        rda = mConfig.getRandomSourceType().create();
+        mRewardCore = other.mRewardCore;
+        STEP_SIZE_GAIN = other.STEP_SIZE_GAIN;
+        STEP_SIZE_VELOCITY = other.STEP_SIZE_VELOCITY;
+        cDGain = other.cDGain;
+        cDVelocity = other.cDVelocity;
+        cDSetPoint = other.cDSetPoint;
+        cDynBase = other.cDynBase;
+        cCostSetPoint = other.cCostSetPoint;
+        cCostGain = other.cCostGain;
+        cCostVelocity = other.cCostVelocity;
+        CRGS = other.CRGS;
+        instrumentation = other.instrumentation;
+        stepIndex = other.stepIndex;
+
+        mEmConvWeights = other.mEmConvWeights;
+        mEmConvLags = other.mEmConvLags;
+        mEmConvTapWeights = other.mEmConvTapWeights;
+        mOperationalCostsBuffer = other.mOperationalCostsBuffer.copy();
+        convToInit = other.convToInit;
+
+        layout = other.layout;
+        state = other.state.clone();
+        mMin = other.mMin.clone();
+        mMax = other.mMax.clone();
+        mInitialState = other.mInitialState;
+        markovState = new IndexedMarkovianState(layout, state);
+        stateView = new ObservableStateView(state);
+
+        randomSeed = other.randomSeed;
+        gsEnvironment = other.gsEnvironment.copy();
+        externalDrivers = new ArrayList<ExternalDriver>(other.externalDrivers.size());
+        for (ExternalDriver d : other.externalDrivers) {
+        	externalDrivers.add(d.copy());
+        }
     }
 
 	/**
@@ -128,15 +240,10 @@ public class IndustrialBenchmarkDynamics implements Environment
 	protected void init() throws PropertiesException {
 
         // configure convolution variables
-		CRGS = PropertiesUtil.getFloat(mProperties, "CRGS", true);
-        mEmConvWeights = getFloatArray(mProperties.getProperty("ConvArray"));
-        markovStateAdditionalNames = new ArrayList <String>();
-        mOperationalCostsBuffer = new CircularFifoBuffer(mEmConvWeights.length);
-        for (int i = 0; i < mEmConvWeights.length; i++) {
-            mOperationalCostsBuffer.add(0.0d); // initialize all operationalcosts with zero
-            markovStateAdditionalNames.add("OPERATIONALCOST_" + i); // add operationalcost_lag to list of convoluted markov variables
-        }
-        markovStateAdditionalNames.addAll(MarkovianStateDescription.getNonConvolutedInternalVariables());
+		CRGS = mConfig.getCRGS();
+        mEmConvWeights = mConfig.getConvArray();
+        mOperationalCostsBuffer = new DoubleRingBuffer(mEmConvWeights.length); // initialize all operationalcosts with zero
+        initConvolutionTaps();
         
         // add variables from external driver
         List<String> extNames = new ArrayList<String>();
@@ -147,28 +254,46 @@ public class IndustrialBenchmarkDynamics implements Environment
             	}
         	}
         }
-        markovStateAdditionalNames.addAll(extNames);
-        //markovStateAdditionalNames.addAll(extDriver.getState().getKeys());       
         
-        // instantiate markov state with additional convolution variable names
-        markovState = new MarkovianState(markovStateAdditionalNames);
-        mMin = new MarkovianState(markovStateAdditionalNames); // lower variable boundaries
-        mMax = new MarkovianState(markovStateAdditionalNames); // upper variable boundaries
+        // instantiate flat markov state with operationalcost lags and external driver variables
+        layout = new MarkovianStateLayout(mEmConvWeights.length, extNames);
+        state = new double[layout.size()];
+        mMin = new double[layout.size()]; // lower variable boundaries
+        mMax = new double[layout.size()]; // upper variable boundaries
+        markovState = new IndexedMarkovianState(layout, state);
+        stateView = new ObservableStateView(state);
         
     	// extract variable boundings + initial values from Properties 
-        for (String v : this.markovState.getKeys()) {
-            float init = PropertiesUtil.getFloat(mProperties, v + "_INIT", 0);
-            float max = PropertiesUtil.getFloat(mProperties, v + "_MAX", Float.MAX_VALUE);
-            float min = PropertiesUtil.getFloat(mProperties, v + "_MIN", -Float.MAX_VALUE);
+        for (String v : layout.getKeys()) {
+            float init = mConfig.getInit(v, 0);
+            float max = mConfig.getMax(v, Float.MAX_VALUE);
+            float min = mConfig.getMin(v, -Float.MAX_VALUE);
             Preconditions.checkArgument(max > min,  "variable=%s: max=%s must be > than min=%s", v, max, min);
             Preconditions.checkArgument(init >= min && init <= max,  "variable=%s: init=%s must be between min=%s and max=%s", v, init, min, max);
-            mMax.setValue(v, max);
-            mMin.setValue(v, min);
-            markovState.setValue(v, init);
+            final int slot = layout.slotOf(v);
+            mMax[slot] = max;
+            mMin[slot] = min;
+            state[slot] = init;
         }
+        mInitialState = state.clone();
+
+		this.gsEnvironment = new GoldstoneEnvironment(gsNumberSteps, maxRequiredStep, maxRequiredStep/2.0, mConfig.getGoldstoneLookupTolerance());
+
+		initRandomState();
+			
+		//for (String key : markovState.getKeys()) {
+		//	mLogger.debug(key  + "=" + markovState.getValue(key));
+		//}
+		//System.exit(-1);
+		//mRewardCore.setNormal(rda);
+	}
 
+	/**
+	 * seeds the random number generators and the external drivers for the initial state
+	 */
+	private void initRandomState() {
         // seed all random number generators for allowing to re-conduct the experiment 
-        randomSeed = PropertiesUtil.getLong(mProperties, "SEED", System.currentTimeMillis());
+        randomSeed = mConfig.getSeed(System.currentTimeMillis());
         //mLogger.debug("init seed: " + randomSeed);
         rda.reSeed(randomSeed);
         
@@ -177,37 +302,13 @@ public class IndustrialBenchmarkDynamics implements Environment
         	d.setSeed(rda.nextLong(0, Long.MAX_VALUE));
         	d.filter(markovState);
         }
-            
-		this.gsEnvironment = new GoldstoneEnvironment(24, maxRequiredStep, maxRequiredStep/2.0);
 
 		// set all NaN values to 0.0
-		for (String key : markovState.getKeys()) {
-			if (Double.isNaN(markovState.getValue(key))) {
-				markovState.setValue(key, 0.0);				
+		for (int i = 0; i < state.length; i++) {
+			if (Double.isNaN(state[i])) {
+				state[i] = 0.0;
 			}
 		}
-			
-		//for (String key : markovState.getKeys()) {
-		//	mLogger.debug(key  + "=" + markovState.getValue(key));
-		//}
-		//System.exit(-1);
-		//mRewardCore.setNormal(rda);
-	}
-
-	/**
-	 * converts a float array represented as a string (e.g. "0.01, 0.2, 0.9") to a Java float[] 
-	 * @param aFloatArrayAsString The float array represented as a String
-	 * @return The float[] array
-	 */
-	private float[] getFloatArray(String aFloatArrayAsString) {
-		// remove all whitespace
-		String components = aFloatArrayAsString.replaceAll("( |\t|\n)", "");
-		String[] split = components.split(",");
-		float[] result = new float[split.length];
-		for (int i = 0; i < result.length; i++) {
-			result[i] = Float.parseFloat(split[i]);
-		}
-		return result;
 	}
 
     /**
@@ -216,11 +317,37 @@ public class IndustrialBenchmarkDynamics implements Environment
      * @return current state of the industrial benchmark
      */    
     public ObservableState getState() {
-    	ObservableState s = new ObservableState();
-    	for (String key : s.getKeys()) {
-    		s.setValue(key, this.markovState.getValue(key));
-    	}
-    	return s;
+    	return stateView.clone();
+    }
+
+    /**
+     * Returns a read-only view of the observable components of the markovian state. The view
+     * is not copied and always shows the current state.
+     *  
+     * @return view on the current state of the industrial benchmark
+     */    
+    @Override
+    public ObservableStateView getStateView() {
+    	return stateView;
+    }
+
+    /**
+     * Copies the observable components of the markovian state into a caller provided array
+     * in the order of {@link com.siemens.industrialbenchmark.datavector.state.ObservableStateDescription}.
+     * @param dst The destination array
+     * @param offset The index of dst receiving the first value
+     */
+    public void copyStateTo(double[] dst, int offset) {
+    	stateView.copyValuesTo(dst, offset);
+    }
+
+    /**
+     * Copies the observable components of the markovian state into a buffer, starting at its
+     * position, in the order of {@link com.siemens.industrialbenchmark.datavector.state.ObservableStateDescription}.
+     * @param dst The destination buffer
+     */
+    public void copyStateTo(DoubleBuffer dst) {
+    	stateView.copyValuesTo(dst);
     }
 
 
@@ -232,6 +359,11 @@ public class IndustrialBenchmarkDynamics implements Environment
 	 */
     @Override
 	public double step(DataVector aAction) {
+    	// timings are only taken if instrumentation is enabled
+    	final StepInstrumentation m = instrumentation;
+    	final long start = m != null ? System.nanoTime() : 0;
+    	final Object event = FlightRecorderEvents.AVAILABLE ? FlightRecorderEvents.beginStep() : null;
+    	long t = start;
 
         // apply randomSeed to PRNGs and external drivers + filter (e.g. setpoint)
     	this.rda.reSeed(randomSeed);
@@ -239,127 +371,130 @@ public class IndustrialBenchmarkDynamics implements Environment
         	d.setSeed(rda.nextLong(0, Long.MAX_VALUE));    		
         	d.filter(this.markovState);
     	}
+    	if (m != null) t = m.lap(StepStage.DRIVERS, t);
 
 		// add actions to state:
 		addAction((ActionDelta) aAction);
+		if (m != null) t = m.lap(StepStage.ADD_ACTION, t);
 
-		try {
-	        // update spiking dynamics
-	        updateFatigue();
+        // update spiking dynamics
+        updateFatigue();
+        if (m != null) t = m.lap(StepStage.FATIGUE, t);
 
-			// updated current operationalcost
-			updateCurrentOperationalCost();
-			
-		} catch (PropertiesException e) {
-			e.printStackTrace();
-		}
+		// updated current operationalcost
+		updateCurrentOperationalCost();
+		if (m != null) t = m.lap(StepStage.CURRENT_OPERATIONAL_COST, t);
 
 		// update convoluted operationalcosts
 		updateOperationalCostCovolution();
+		if (m != null) t = m.lap(StepStage.CONVOLUTION, t);
 		
 		// update gs
 		updateGS();
+		if (m != null) t = m.lap(StepStage.GOLDSTONE, t);
 	
 		updateOperationalCosts();
+		if (m != null) t = m.lap(StepStage.OPERATIONAL_COSTS, t);
 		
         		
         // update reward
-        mRewardCore.calcReward(markovState);
+        mRewardCore.calcReward(state);
 
         // set random seed for next iteration
         this.randomSeed = rda.nextLong(0, Long.MAX_VALUE);
-        this.markovState.setValue(MarkovianStateDescription.RandomSeed, Double.longBitsToDouble(this.randomSeed));
+        state[RANDOM_SEED] = Double.longBitsToDouble(this.randomSeed);
+        if (m != null) {
+        	m.lap(StepStage.REWARD, t);
+        	m.stepDone(start);
+        }
+        stepIndex++;
+        if (event != null) {
+        	FlightRecorderEvents.endStep(event, this);
+        }
                 
         //return observableState;        
-        return this.markovState.getValue(ObservableStateDescription.RewardTotal); 
+        return state[REWARD_TOTAL]; 
 	}
 	
 	private void updateOperationalCosts() {
 		
 		
-		double rGS = markovState.getValue(MarkovianStateDescription.MisCalibration);
+		double rGS = state[MIS_CALIBRATION];
 
 	    // set new OperationalCosts
-	    double eNewHidden = (markovState.getValue(MarkovianStateDescription.OperationalCostsConv) - (CRGS * (rGS - 1.0)));
+	    double eNewHidden = (state[OPERATIONAL_COSTS_CONV] - (CRGS * (rGS - 1.0)));
 	 	double operationalcosts = eNewHidden - rda.nextGaussian(0,  1) * (1+0.005*eNewHidden);
 	 	
-	 	markovState.setValue(MarkovianStateDescription.Consumption, operationalcosts);
+	 	state[CONSUMPTION] = operationalcosts;
 	}
 
 	private void addAction(ActionDelta aAction) {
 		
-	  	double velocityMax = mMax.getValue(MarkovianStateDescription.Action_Velocity);
-	  	double velocityMin = mMin.getValue(MarkovianStateDescription.Action_Velocity);
-	  	double velocity = Math.min(velocityMax, Math.max(velocityMin, markovState.getValue(MarkovianStateDescription.Action_Velocity) + aAction.getDeltaVelocity() * STEP_SIZE_VELOCITY));
+	  	double velocityMax = mMax[VELOCITY];
+	  	double velocityMin = mMin[VELOCITY];
+	  	double velocity = Math.min(velocityMax, Math.max(velocityMin, state[VELOCITY] + aAction.getDeltaVelocity() * STEP_SIZE_VELOCITY));
 	  	if(aAction instanceof ActionAbsolute){
 	  		double velocityToSet = ((ActionAbsolute)aAction).getVelocity();
-	  		double diff = velocityToSet - markovState.getValue(MarkovianStateDescription.Action_Velocity);
+	  		double diff = velocityToSet - state[VELOCITY];
 	  		if(diff>STEP_SIZE_VELOCITY){
 	  			diff = STEP_SIZE_VELOCITY;
 	  		}else if(diff<-STEP_SIZE_VELOCITY){
 	  			diff = -STEP_SIZE_VELOCITY;
 	  		}
-	  		velocity = Math.min(velocityMax, Math.max(velocityMin, markovState.getValue(MarkovianStateDescription.Action_Velocity) + diff));
+	  		velocity = Math.min(velocityMax, Math.max(velocityMin, state[VELOCITY] + diff));
 	  	}
 	  	
-	  	double gainMax = mMax.getValue(MarkovianStateDescription.Action_Gain);
-	  	double gainMin = mMin.getValue(MarkovianStateDescription.Action_Gain);
-	  	double gain = Math.min(gainMax, Math.max(gainMin, markovState.getValue(MarkovianStateDescription.Action_Gain) + aAction.getDeltaGain() * STEP_SIZE_GAIN));
+	  	double gainMax = mMax[GAIN];
+	  	double gainMin = mMin[GAIN];
+	  	double gain = Math.min(gainMax, Math.max(gainMin, state[GAIN] + aAction.getDeltaGain() * STEP_SIZE_GAIN));
 	  	if(aAction instanceof ActionAbsolute){
 	  		double gainToSet = ((ActionAbsolute)aAction).getGain();
-	  		double diff = gainToSet - markovState.getValue(MarkovianStateDescription.Action_Gain);
+	  		double diff = gainToSet - state[GAIN];
 	  		if(diff>STEP_SIZE_GAIN){
 	  			diff = STEP_SIZE_GAIN;
 	  		}else if(diff<-STEP_SIZE_GAIN){
 	  			diff = -STEP_SIZE_GAIN;
 	  		}
-	  		gain = Math.min(gainMax, Math.max(gainMin, markovState.getValue(MarkovianStateDescription.Action_Gain) + diff));
+	  		gain = Math.min(gainMax, Math.max(gainMin, state[GAIN] + diff));
 	  	}
 	  	
 		// beide: 10 = 2*1.5 + 0.07*100
 	  	final double gsScale = 2.0f*gsBound + 100.0f*gsSetPointDependency;
-	  	double shift = (float) Math.min(100.0f, Math.max(0.0f, markovState.getValue(MarkovianStateDescription.Action_Shift) + aAction.getDeltaShift()*(maxRequiredStep/0.9f)*100.0f/gsScale));
+	  	double shift = (float) Math.min(100.0f, Math.max(0.0f, state[SHIFT] + aAction.getDeltaShift()*(maxRequiredStep/0.9f)*100.0f/gsScale));
 	  	if(aAction instanceof ActionAbsolute){
 	  		double shiftToSet = ((ActionAbsolute)aAction).getShift();
-	  		double diff = shiftToSet - markovState.getValue(MarkovianStateDescription.Action_Shift);
+	  		double diff = shiftToSet - state[SHIFT];
 	  		if(diff>((maxRequiredStep/0.9f)*100.0f/gsScale)){
 	  			diff = ((maxRequiredStep/0.9f)*100.0f/gsScale);
 	  		}else if(diff<-((maxRequiredStep/0.9f)*100.0f/gsScale)){
 	  			diff = -((maxRequiredStep/0.9f)*100.0f/gsScale);
 	  		}
-	  		shift = (float) Math.min(100.0f, Math.max(0.0f, markovState.getValue(MarkovianStateDescription.Action_Shift) + diff));
+	  		shift = (float) Math.min(100.0f, Math.max(0.0f, state[SHIFT] + diff));
 	  	}
-	  	double hiddenShift = (float) Math.min(gsBound, Math.max(-gsBound, (gsScale*shift/100.0f - gsSetPointDependency*markovState.getValue(MarkovianStateDescription.SetPoint) - gsBound)));
+	  	double hiddenShift = (float) Math.min(gsBound, Math.max(-gsBound, (gsScale*shift/100.0f - gsSetPointDependency*state[SET_POINT] - gsBound)));
 	  	
-	  	markovState.setValue(MarkovianStateDescription.Action_Velocity, velocity);
-	  	markovState.setValue(MarkovianStateDescription.Action_Gain, gain);
-	  	markovState.setValue(MarkovianStateDescription.Action_Shift, shift);
-		markovState.setValue(MarkovianStateDescription.EffectiveShift, hiddenShift);
+	  	state[VELOCITY] = velocity;
+	  	state[GAIN] = gain;
+	  	state[SHIFT] = shift;
+		state[EFFECTIVE_SHIFT] = hiddenShift;
 	}
 
 	/**
 	 * updates the spiking fatigue dynamics
-	 * @throws PropertiesException 
 	 */
-	private void updateFatigue() throws PropertiesException {
-		final float expLambda = 0.1f;
-		final float actionTolerance = 0.05f;
-		final float fatigueAmplification = 1.1f;   
-		final float fatigueAmplificationMax = 5.0f;
-		final float fatigueAmplificationStart = 1.2f;
+	private void updateFatigue() {
 
 		// action
-		double velocity = markovState.getValue(MarkovianStateDescription.Action_Velocity);
-		double gain = markovState.getValue(MarkovianStateDescription.Action_Gain);
-		double setpoint = markovState.getValue(MarkovianStateDescription.SetPoint);
+		double velocity = state[VELOCITY];
+		double gain = state[GAIN];
+		double setpoint = state[SET_POINT];
 
 		// hidden state variables for fatigue
-		double hiddenStateVelocity = markovState.getValue(MarkovianStateDescription.FatigueLatent1); 
-		double hiddenStateGain = markovState.getValue(MarkovianStateDescription.FatigueLatent2);
+		double hiddenStateVelocity = state[FATIGUE_LATENT_1]; 
+		double hiddenStateGain = state[FATIGUE_LATENT_2];
 
-        EffectiveAction effAction = new EffectiveAction (new ActionAbsolute(velocity, gain, 0.0, this.mProperties), setpoint);
-        double  effActionVelocity = effAction.getEffectiveVelocity();
-        double  effActionGain = effAction.getEffectiveGain();
+        double  effActionVelocity = EffectiveAction.calcEffectiveVelocity(velocity, gain, setpoint);
+        double  effActionGain = EffectiveAction.calcEffectiveGain(gain, setpoint);
 
         // base noise
         double noiseGain = 2.0 * (1.0/(1.0+Math.exp(-rda.nextExponential(expLambda))) - 0.5);
@@ -396,71 +531,68 @@ public class IndustrialBenchmarkDynamics implements Environment
         	alpha = Math.max(noiseGain,  noiseVelocity);
         }
         
-        final float cDGain = getConst(C.DGain);
-        final float cDVelocity = getConst(C.DVelocity);
-        final float cDSetPoint = getConst(C.DSetPoint);
-        final float cDynBase = getConst(C.DBase);
-           
         double fb = ((cDynBase / ((cDVelocity * velocity) + cDSetPoint)) - cDGain * gain*gain);
         if(fb<0) fb=0;
         double f = ((2.f*alpha+1.0) * fb )/ 3.f;
 
-        markovState.setValue(MarkovianStateDescription.Fatigue, f);  
-        markovState.setValue(MarkovianStateDescription.FatigueBase, fb);  
+        state[FATIGUE] = f;  
+        state[FATIGUE_BASE] = fb;  
 
         // hidden state variables for fatigue
-    	markovState.setValue(MarkovianStateDescription.FatigueLatent1, hiddenStateVelocity); 
-    	markovState.setValue(MarkovianStateDescription.FatigueLatent2, hiddenStateGain);
-    	markovState.setValue(MarkovianStateDescription.EffectiveActionVelocityAlpha, effActionVelocity); 
-    	markovState.setValue(MarkovianStateDescription.EffectiveActionGainBeta, effActionGain);
+    	state[FATIGUE_LATENT_1] = hiddenStateVelocity; 
+    	state[FATIGUE_LATENT_2] = hiddenStateGain;
+    	state[EFFECTIVE_ACTION_VELOCITY_ALPHA] = effActionVelocity; 
+    	state[EFFECTIVE_ACTION_GAIN_BETA] = effActionGain;
 	}
 
 	
-	private void updateCurrentOperationalCost() throws PropertiesException {
-
-	    final float cCostSetPoint = getConst(C.CostSetPoint);
-	    final float cCostGain = getConst(C.CostGain);
-	    final float cCostVelocity = getConst(C.CostVelocity);
-	    double setpoint = markovState.getValue(MarkovianStateDescription.SetPoint);
-	    double gain = markovState.getValue(MarkovianStateDescription.Action_Gain);
-	    double velocity = markovState.getValue(MarkovianStateDescription.Action_Velocity);
+	private void updateCurrentOperationalCost() {
+
+	    double setpoint = state[SET_POINT];
+	    double gain = state[GAIN];
+	    double velocity = state[VELOCITY];
 	    double costs = cCostSetPoint * setpoint + cCostGain * gain + cCostVelocity * velocity;
 		
 	    double operationalcosts = (float) Math.exp(costs / 100.);
-	    markovState.setValue(MarkovianStateDescription.CurrentOperationalCost, operationalcosts);
+	    state[CURRENT_OPERATIONAL_COST] = operationalcosts;
 	    mOperationalCostsBuffer.add(operationalcosts);
 	    
 	    if(convToInit){
-	    	for(int i=1; i<mOperationalCostsBuffer.size(); i++){
-	    	    mOperationalCostsBuffer.add(operationalcosts);
-	    	}
+	    	mOperationalCostsBuffer.fill(operationalcosts);
 	    	convToInit = false;
 	    }
 	}
+
+	/**
+	 * collects the non-zero weights of the convolution kernel. Long kernels modelling
+	 * dead times are mostly zero, only the non-zero taps are convoluted in each step.
+	 */
+	private void initConvolutionTaps() {
+		int taps = 0;
+		for (float w : mEmConvWeights) {
+			if (w != 0) taps++;
+		}
+		mEmConvLags = new int[taps];
+		mEmConvTapWeights = new float[taps];
+		for (int i = 0, k = 0; i < mEmConvWeights.length; i++) {
+			if (mEmConvWeights[i] != 0) {
+				mEmConvLags[k] = i;
+				mEmConvTapWeights[k++] = mEmConvWeights[i];
+			}
+		}
+	}
 	
 	private void updateOperationalCostCovolution() {
-		double aggregatedOperationalCosts = 0;
-	    int i = 0;
-	    Iterator<?> iterator = mOperationalCostsBuffer.iterator();
-	    while(iterator.hasNext()) {
-	    	double operationalcost = (Double)iterator.next();   	
-	    	aggregatedOperationalCosts += mEmConvWeights[i] * operationalcost;
-	    	markovState.setValue("OPERATIONALCOST_"+i, operationalcost);
-	    	i += 1;
-	    }
-	    markovState.setValue(MarkovianStateDescription.OperationalCostsConv, aggregatedOperationalCosts);	 		
+	    mOperationalCostsBuffer.copyTo(state, OPERATIONALCOST_0);
+	    state[OPERATIONAL_COSTS_CONV] = mOperationalCostsBuffer.convolve(mEmConvLags, mEmConvTapWeights);
 	}
 	
 	private void updateGS() {
-		gsEnvironment.setControlPosition(markovState.getValue(MarkovianStateDescription.EffectiveShift));
-		markovState.setValue(MarkovianStateDescription.MisCalibration, (float) gsEnvironment.reward());
-		markovState.setValue(MarkovianStateDescription.MisCalibrationDomain, gsEnvironment.getDomain());
-		markovState.setValue(MarkovianStateDescription.MisCalibrationSystemResponse, gsEnvironment.getSystemResponse());
-		markovState.setValue(MarkovianStateDescription.MisCalibrationPhiIdx, gsEnvironment.getPhiIdx());
-	}
-
-	private float getConst(C aConst) throws PropertiesException {
-		return PropertiesUtil.getFloat(mProperties, aConst.name());
+		gsEnvironment.setControlPosition(state[EFFECTIVE_SHIFT]);
+		state[MIS_CALIBRATION] = (float) gsEnvironment.reward();
+		state[MIS_CALIBRATION_DOMAIN] = gsEnvironment.getDomain();
+		state[MIS_CALIBRATION_SYSTEM_RESPONSE] = gsEnvironment.getSystemResponse();
+		state[MIS_CALIBRATION_PHI_IDX] = gsEnvironment.getPhiIdx();
 	}
 
 	/** Returns the operationalcosts history length. The current operationalcosts value is part of the history.    
@@ -472,6 +604,7 @@ public class IndustrialBenchmarkDynamics implements Environment
 
     /**
      * Returns a copy of the the current <b>markovian</b> state of the dynamics. 
+     * The copy is materialized from the flat state array on each call.
      *  
      * @return current internal markovian state of the industrial benchmark 
      */    
@@ -479,6 +612,23 @@ public class IndustrialBenchmarkDynamics implements Environment
     	return this.markovState.clone();
     }
 
+    /**
+     * Returns the number of values of the <b>markovian</b> state, i.e. the number of its keys.
+     * @return the size of the markovian state
+     */
+    public int getInternalMarkovStateSize() {
+    	return markovState.getKeys().size();
+    }
+
+    /**
+     * Copies the current <b>markovian</b> state into a buffer, starting at its position, in the
+     * order of the keys of {@link #getInternalMarkovState()}.
+     * @param dst The destination buffer
+     */
+    public void copyInternalMarkovStateTo(DoubleBuffer dst) {
+    	markovState.copyValuesTo(dst);
+    }
+
     /**
      * Sets the current <b>markovian</b> state of the dynamics. Also the 
      * setpoint generator is set and the operationalcosts are convoluted (+reward recomputed).
@@ -493,7 +643,7 @@ public class IndustrialBenchmarkDynamics implements Environment
     	}
 
     	// 2) set random number generator states
-    	this.randomSeed = Double.doubleToLongBits(this.markovState.getValue(MarkovianStateDescription.RandomSeed));
+    	this.randomSeed = Double.doubleToLongBits(state[RANDOM_SEED]);
 		
 		this.gsEnvironment.setControlPosition(markovState.getValue(MarkovianStateDescription.EffectiveShift));
 		this.gsEnvironment.setDomain(markovState.getValue(MarkovianStateDescription.MisCalibrationDomain));
@@ -504,7 +654,7 @@ public class IndustrialBenchmarkDynamics implements Environment
     	double aggregatedOperationalCosts = 0;
     	double operationalcost = 0;
     	for (int i=0; i<mEmConvWeights.length; i++) {
-    		String key = "OPERATIONALCOST_" +i;
+    		String key = OPERATIONALCOST_PREFIX + i;
     		operationalcost = markovState.getValue(key);
     		aggregatedOperationalCosts += markovState.getValue(key)  * mEmConvWeights[i];
    			mOperationalCostsBuffer.add(operationalcost);
@@ -517,21 +667,244 @@ public class IndustrialBenchmarkDynamics implements Environment
         for (ExternalDriver d : externalDrivers) {
             d.setConfiguration(markovState);        	
         }
+        if (instrumentation != null) {
+        	instrumentation.restoreDone();
+        }
+        if (FlightRecorderEvents.AVAILABLE) {
+        	FlightRecorderEvents.restore(this);
+        }
 	}
 
 
 	@Override
 	public void reset() {
-		try {
-			this.init();
-		} catch (PropertiesException e) {
-			e.printStackTrace();
-		}		
+		if (FlightRecorderEvents.AVAILABLE) {
+			FlightRecorderEvents.reset(this);
+		}
+		// the configuration and the external drivers do not change, hence the state layout, the bounds
+		// and the penalty functions are reused and only the initial values are restored
+		System.arraycopy(mInitialState, 0, state, 0, state.length);
+		mOperationalCostsBuffer.fill(0);
+		gsEnvironment.reinitialize();
+		initRandomState();
+		stepIndex = 0;
+		if (instrumentation != null) {
+			instrumentation.resetDone();
+		}
 	}
 
 	@Override
 	public double getReward() {
-		return this.markovState.getValue(ObservableStateDescription.RewardTotal);
+		return state[REWARD_TOTAL];
 	}
    
+
+	/** "IBSS", first int of a binary snapshot */
+	public static final int SNAPSHOT_MAGIC = 0x49425353;
+	/** version of the binary snapshot format */
+	public static final int SNAPSHOT_VERSION = 1;
+	/** magic, version, state length, operational cost history length, number of external drivers */
+	private static final int SNAPSHOT_HEADER_SIZE = 5 * 4;
+
+	/**
+	 * Returns the number of bytes written by {@link #writeTo(ByteBuffer)}. The size only depends on the configuration.
+	 * @return the size of the binary snapshot
+	 */
+	public int getSnapshotSize() {
+		int size = SNAPSHOT_HEADER_SIZE
+				+ 8 + 4 // random seed, convToInit
+				+ 8 * state.length
+				+ 8 * mOperationalCostsBuffer.size()
+				+ GoldstoneEnvironment.SNAPSHOT_SIZE;
+		for (ExternalDriver d : externalDrivers) {
+			size += d.getSnapshotSize();
+		}
+		return size;
+	}
+
+	/**
+	 * Writes the complete state as versioned binary snapshot at the position of the buffer. The snapshot
+	 * covers the markovian state, the operational cost history, the Goldstone state and the states of the
+	 * external drivers. The values are written in the byte order of the buffer.
+	 * @param dst The destination buffer, receives {@link #getSnapshotSize()} bytes
+	 * @throws java.nio.BufferOverflowException if the buffer has not enough space
+	 */
+	public void writeTo(ByteBuffer dst) {
+		if (dst.remaining() < getSnapshotSize()) {
+			throw new BufferOverflowException();
+		}
+		dst.putInt(SNAPSHOT_MAGIC);
+		dst.putInt(SNAPSHOT_VERSION);
+		dst.putInt(state.length);
+		dst.putInt(mOperationalCostsBuffer.size());
+		dst.putInt(externalDrivers.size());
+		dst.putLong(randomSeed);
+		dst.putInt(convToInit ? 1 : 0);
+		for (double v : state) {
+			dst.putDouble(v);
+		}
+		mOperationalCostsBuffer.writeTo(dst);
+		gsEnvironment.writeTo(dst);
+		for (ExternalDriver d : externalDrivers) {
+			d.writeTo(dst);
+		}
+	}
+
+	/**
+	 * Restores the complete state from a binary snapshot of a benchmark with the same configuration and
+	 * external drivers, see {@link #writeTo(ByteBuffer)}. In contrast to {@link #setInternalMarkovState(DataVector)}
+	 * nothing is recomputed, the benchmark continues exactly as the benchmark which wrote the snapshot.
+	 * @param src The source buffer, positioned at the start of the snapshot
+	 * @throws IllegalArgumentException if the snapshot was written by an incompatible benchmark
+	 */
+	public void readFrom(ByteBuffer src) {
+		final int magic = src.getInt();
+		Preconditions.checkArgument(magic == SNAPSHOT_MAGIC, "not a snapshot, magic=%s", Integer.toHexString(magic));
+		final int version = src.getInt();
+		Preconditions.checkArgument(version == SNAPSHOT_VERSION, "unsupported snapshot version %s, expected %s", version, SNAPSHOT_VERSION);
+		final int stateLength = src.getInt();
+		final int historyLength = src.getInt();
+		final int drivers = src.getInt();
+		Preconditions.checkArgument(stateLength == state.length && historyLength == mOperationalCostsBuffer.size() && drivers == externalDrivers.size(),
+				"snapshot with %s state variables, %s operational costs and %s external drivers does not match the benchmark with %s, %s and %s",
+				stateLength, historyLength, drivers, state.length, mOperationalCostsBuffer.size(), externalDrivers.size());
+		if (src.remaining() < getSnapshotSize() - SNAPSHOT_HEADER_SIZE) {
+			throw new BufferUnderflowException();
+		}
+
+		randomSeed = src.getLong();
+		convToInit = src.getInt() != 0;
+		for (int i = 0; i < state.length; i++) {
+			state[i] = src.getDouble();
+		}
+		mOperationalCostsBuffer.readFrom(src);
+		gsEnvironment.readFrom(src);
+		for (ExternalDriver d : externalDrivers) {
+			d.readFrom(src);
+		}
+		if (instrumentation != null) {
+			instrumentation.restoreDone();
+		}
+		if (FlightRecorderEvents.AVAILABLE) {
+			FlightRecorderEvents.restore(this);
+		}
+	}
+
+	/**
+	 * Enables or disables the per-stage timing of {@link #step(DataVector)} and the counting of steps,
+	 * resets and state restores. Disabled instrumentation costs one branch per stage. Forks share the
+	 * instrumentation of the original.
+	 * @param instrumentation The instrumentation, or null to disable it
+	 */
+	public void setInstrumentation(StepInstrumentation instrumentation) {
+		this.instrumentation = instrumentation;
+	}
+
+	/**
+	 * Returns the id of the benchmark, unique within the JVM. Forks get a new id.
+	 * @return the id
+	 */
+	public long getId() {
+		return id;
+	}
+
+	/**
+	 * Returns the number of steps since construction or the last {@link #reset()}. The step index is
+	 * copied by {@link #fork()}, but not restored with a state.
+	 * @return the step index
+	 */
+	public long getStepIndex() {
+		return stepIndex;
+	}
+
+	/**
+	 * Returns the instrumentation
+	 * @return the instrumentation, or null if disabled
+	 */
+	public StepInstrumentation getInstrumentation() {
+		return instrumentation;
+	}
+
+	/**
+	 * Returns an independent copy of the benchmark in its current state. Stepping the copy and the
+	 * original with the same actions results in the same trajectories.
+	 * @return the copy
+	 * @throws UnsupportedOperationException if an external driver can not be copied
+	 */
+	public IndustrialBenchmarkDynamics fork() {
+		return new IndustrialBenchmarkDynamics(this);
+	}
+
+	/**
+	 * Evaluates candidate delta action sequences from the current state on the common pool.
+	 * @see #branch(double[][], int, ForkJoinPool)
+	 */
+	public double[][] branch(double[][] actionSequences, int horizon) {
+		return branch(actionSequences, horizon, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Evaluates candidate delta action sequences from the current state in parallel. Every sequence
+	 * is applied to its own {@link #fork()} of the benchmark, the benchmark itself is not changed and
+	 * must not be stepped during the evaluation.
+	 * @param actionSequences one row-major double[horizon*3] array of (delta velocity, delta gain, delta shift) per candidate
+	 * @param horizon The number of steps per candidate
+	 * @param pool The pool evaluating the candidates
+	 * @return rewards[candidate][step]
+	 */
+	public double[][] branch(double[][] actionSequences, int horizon, ForkJoinPool pool) {
+		Preconditions.checkArgument(horizon > 0, "horizon=%s must be positive", horizon);
+		for (int k = 0; k < actionSequences.length; k++) {
+			Preconditions.checkArgument(actionSequences[k].length == horizon * VectorIndustrialBenchmark.ACTION_SIZE,
+					"candidate %s: expected %s action values, but got %s", k, horizon * VectorIndustrialBenchmark.ACTION_SIZE, actionSequences[k].length);
+		}
+		final double[][] rewards = new double[actionSequences.length][horizon];
+		if (actionSequences.length > 0) {
+			pool.invoke(new BranchTask(0, actionSequences.length, actionSequences, rewards));
+		}
+		return rewards;
+	}
+
+	private void rollout(double[] actionSequence, double[] rewards) {
+		final IndustrialBenchmarkDynamics branch = fork();
+		final ActionDelta action;
+		try {
+			action = new ActionDelta(0, 0, 0);
+		} catch (PropertiesException e) {
+			throw new IllegalStateException(e);
+		}
+		for (int t = 0; t < rewards.length; t++) {
+			final int a = t * VectorIndustrialBenchmark.ACTION_SIZE;
+			action.setDeltaVelocity(actionSequence[a]);
+			action.setDeltaGain(actionSequence[a + 1]);
+			action.setDeltaShift(actionSequence[a + 2]);
+			rewards[t] = branch.step(action);
+		}
+	}
+
+	private class BranchTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 2287335208791290441L;
+
+		private final int from, to;
+		private final double[][] actionSequences, rewards;
+
+		BranchTask(int from, int to, double[][] actionSequences, double[][] rewards) {
+			this.from = from;
+			this.to = to;
+			this.actionSequences = actionSequences;
+			this.rewards = rewards;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from == 1) {
+				rollout(actionSequences[from], rewards[from]);
+			} else {
+				final int mid = (from + to) >>> 1;
+				invokeAll(new BranchTask(from, mid, actionSequences, rewards),
+						new BranchTask(mid, to, actionSequences, rewards));
+			}
+		}
+	}
 }
@@ -20,6 +20,8 @@ import java.util.Properties;
 import org.apache.commons.math3.random.RandomDataGenerator;
 
 import com.siemens.industrialbenchmark.datavector.state.MarkovianStateDescription;
+import com.siemens.industrialbenchmark.datavector.state.MarkovianStateLayout;
+import com.siemens.industrialbenchmark.properties.IndustrialBenchmarkConfig;
 import com.siemens.industrialbenchmark.properties.PropertiesException;
 import com.siemens.industrialbenchmark.properties.PropertiesUtil;
 import com.siemens.rl.interfaces.DataVector;
@@ -34,10 +36,20 @@ public class IndustrialBenchmarkRewardFunction {
     private final double CRD;
     private final double CRE;
     
+    /**
+     * Constructor with configuration Properties, only CRD and CRE are required
+     * @param aProperties The properties object
+     * @throws PropertiesException
+     */
     public IndustrialBenchmarkRewardFunction (Properties aProperties) throws PropertiesException{
         CRD = PropertiesUtil.getFloat(aProperties, "CRD", true);
         CRE = PropertiesUtil.getFloat(aProperties, "CRE", true);
 	}
+
+    public IndustrialBenchmarkRewardFunction (IndustrialBenchmarkConfig aConfig) {
+        CRD = aConfig.getCRD();
+        CRE = aConfig.getCRE();
+	}
 	
 	/**
 	 * Calculates the reward for a given state. Values are updated in the State object.  
@@ -60,4 +72,19 @@ public class IndustrialBenchmarkRewardFunction {
         mState.setValue(MarkovianStateDescription.RewardFatigue, rD);
         mState.setValue(MarkovianStateDescription.RewardTotal, CRD * rD + CRE * rE);
 	}
+
+	/**
+	 * Calculates the reward for a flat markovian state (see {@link MarkovianStateLayout}). Values are updated in the array.
+	 * @param state The flat state array to calculate the reward for
+	 */
+	public void calcReward (double[] state) {
+		double rD = -state[MarkovianStateLayout.FATIGUE];
+		double rE = -state[MarkovianStateLayout.CONSUMPTION];
+
+		state[MarkovianStateLayout.REWARD_CONSUMPTION_WEIGHTED] = CRE * rE;
+		state[MarkovianStateLayout.REWARD_FATIGUE_WEIGHTED] = CRD * rD;
+		state[MarkovianStateLayout.REWARD_CONSUMPTION] = rE;
+		state[MarkovianStateLayout.REWARD_FATIGUE] = rD;
+		state[MarkovianStateLayout.REWARD_TOTAL] = CRD * rD + CRE * rE;
+	}
 }
@@ -0,0 +1,252 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industrialbenchmark.dynamics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import com.google.common.base.Preconditions;
+import com.siemens.industrialbenchmark.datavector.action.ActionDelta;
+import com.siemens.industrialbenchmark.externaldrivers.setpointgen.SetPointGenerator;
+import com.siemens.industrialbenchmark.metrics.StepInstrumentation;
+import com.siemens.industrialbenchmark.properties.IndustrialBenchmarkConfig;
+import com.siemens.industrialbenchmark.properties.PropertiesException;
+import com.siemens.rl.interfaces.ExternalDriver;
+
+/**
+ * Batch of independent {@link IndustrialBenchmarkDynamics} instances which are stepped in parallel
+ * on a {@link ForkJoinPool}. The batch is split into contiguous ranges of benchmarks, each range is
+ * stepped by one worker.
+ * <p>
+ * Every benchmark owns its random number generators and is seeded with its own seed derived from
+ * the master seed by {@link #deriveSeed(long, int)}. The benchmarks do not share any mutable state,
+ * hence the trajectories are bit-identical for any pool size and partitioning.
+ * <p>
+ * Actions are delta actions given as one row-major double[N*3] array (delta velocity, delta gain,
+ * delta shift). Observations are written row-major into a double[N*{@link VectorIndustrialBenchmark#OBSERVATION_SIZE}]
+ * array in the order of {@link com.siemens.industrialbenchmark.datavector.state.ObservableStateDescription}.
+ */
+public class ParallelIndustrialBenchmark {
+
+	private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+	private final IndustrialBenchmarkDynamics[] envs;
+	private final ActionDelta[] actions;
+	private final long[] seeds;
+	private final ForkJoinPool pool;
+	private final int threshold;
+
+	/**
+	 * Constructor with configuration Properties, batch size and master seed. The common pool is used.
+	 * @param aProperties The properties object
+	 * @param size The number of benchmarks
+	 * @param masterSeed The seed from which the seeds of the benchmarks are derived
+	 * @throws PropertiesException
+	 */
+	public ParallelIndustrialBenchmark(Properties aProperties, int size, long masterSeed) throws PropertiesException {
+		this(aProperties, size, masterSeed, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Constructor with configuration Properties, batch size, master seed and pool
+	 * @param aProperties The properties object
+	 * @param size The number of benchmarks
+	 * @param masterSeed The seed from which the seeds of the benchmarks are derived
+	 * @param pool The pool executing the steps
+	 * @throws PropertiesException
+	 */
+	public ParallelIndustrialBenchmark(Properties aProperties, int size, long masterSeed, ForkJoinPool pool) throws PropertiesException {
+		this(new IndustrialBenchmarkConfig(aProperties), size, masterSeed, pool);
+	}
+
+	/**
+	 * Constructor with configuration, batch size, master seed and pool
+	 * @param aConfig The configuration
+	 * @param size The number of benchmarks
+	 * @param masterSeed The seed from which the seeds of the benchmarks are derived
+	 * @param pool The pool executing the steps
+	 * @throws PropertiesException
+	 */
+	public ParallelIndustrialBenchmark(IndustrialBenchmarkConfig aConfig, int size, long masterSeed, ForkJoinPool pool) throws PropertiesException {
+		this(aConfig, deriveSeeds(masterSeed, size), pool);
+	}
+
+	/**
+	 * Constructor with configuration, one seed per benchmark and pool.
+	 * Each benchmark i is initialized like an {@link IndustrialBenchmarkDynamics} with SEED=seeds[i].
+	 * @param aConfig The configuration
+	 * @param seeds The seeds of the benchmarks
+	 * @param pool The pool executing the steps
+	 * @throws PropertiesException
+	 */
+	public ParallelIndustrialBenchmark(IndustrialBenchmarkConfig aConfig, long[] seeds, ForkJoinPool pool) throws PropertiesException {
+		Preconditions.checkArgument(seeds.length > 0, "at least one benchmark is required");
+		Preconditions.checkNotNull(pool, "pool must not be null.");
+		final int size = seeds.length;
+		this.pool = pool;
+		this.envs = new IndustrialBenchmarkDynamics[size];
+		this.actions = new ActionDelta[size];
+		this.seeds = seeds.clone();
+
+		for (int i = 0; i < size; i++) {
+			IndustrialBenchmarkConfig config = aConfig.withSeed(seeds[i]);
+			List<ExternalDriver> drivers = new ArrayList<ExternalDriver>();
+			drivers.add(new SetPointGenerator(seeds[i], config));
+			envs[i] = new IndustrialBenchmarkDynamics(config, drivers);
+			actions[i] = new ActionDelta(0, 0, 0);
+		}
+
+		// a few ranges per worker for load balancing, but not less than one benchmark per range
+		this.threshold = Math.max(1, size / (4 * pool.getParallelism()));
+	}
+
+	private static long[] deriveSeeds(long masterSeed, int size) {
+		Preconditions.checkArgument(size > 0, "size=%s must be positive", size);
+		long[] seeds = new long[size];
+		for (int i = 0; i < size; i++) {
+			seeds[i] = deriveSeed(masterSeed, i);
+		}
+		return seeds;
+	}
+
+	/**
+	 * Derives the seed of a benchmark from the master seed (SplitMix64). Neighbouring indices
+	 * result in uncorrelated seeds.
+	 * @param masterSeed The master seed
+	 * @param index The index of the benchmark
+	 * @return the seed of the benchmark
+	 */
+	public static long deriveSeed(long masterSeed, int index) {
+		long z = masterSeed + (index + 1) * GOLDEN_GAMMA;
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * Returns the number of benchmarks
+	 * @return the number of benchmarks
+	 */
+	public int size() {
+		return envs.length;
+	}
+
+	/**
+	 * Returns the seed of a benchmark
+	 * @param env The benchmark index
+	 * @return the seed of the benchmark
+	 */
+	public long getSeed(int env) {
+		return seeds[env];
+	}
+
+	/**
+	 * Returns a benchmark of the batch. The benchmark must not be accessed during {@link #step(double[], double[], double[])}.
+	 * @param env The benchmark index
+	 * @return the benchmark
+	 */
+	public IndustrialBenchmarkDynamics getDynamics(int env) {
+		return envs[env];
+	}
+
+	/**
+	 * Applies one delta action to every benchmark in parallel.
+	 * @param deltaActions row-major double[N*3] array with (delta velocity, delta gain, delta shift) per benchmark
+	 * @param rewards double[N] array receiving the rewards, or null
+	 * @param observations row-major double[N*7] array receiving the observable states, or null
+	 */
+	public void step(double[] deltaActions, double[] rewards, double[] observations) {
+		final int n = envs.length;
+		Preconditions.checkArgument(deltaActions.length == n * VectorIndustrialBenchmark.ACTION_SIZE,
+				"expected %s action values, but got %s", n * VectorIndustrialBenchmark.ACTION_SIZE, deltaActions.length);
+		Preconditions.checkArgument(rewards == null || rewards.length >= n, "reward array too short");
+		Preconditions.checkArgument(observations == null || observations.length >= n * VectorIndustrialBenchmark.OBSERVATION_SIZE, "observation array too short");
+
+		final Object event = FlightRecorderEvents.AVAILABLE ? FlightRecorderEvents.beginBatchStep() : null;
+		pool.invoke(new StepTask(0, n, deltaActions, rewards, observations));
+		if (event != null) {
+			FlightRecorderEvents.endBatchStep(event, "parallel", n);
+		}
+	}
+
+	/**
+	 * Resets all benchmarks
+	 */
+	public void reset() {
+		for (IndustrialBenchmarkDynamics env : envs) {
+			env.reset();
+		}
+	}
+
+	/**
+	 * Enables or disables the instrumentation of all benchmarks, see {@link IndustrialBenchmarkDynamics#setInstrumentation(StepInstrumentation)}
+	 * @param instrumentation The shared instrumentation, or null to disable it
+	 */
+	public void setInstrumentation(StepInstrumentation instrumentation) {
+		for (IndustrialBenchmarkDynamics env : envs) {
+			env.setInstrumentation(instrumentation);
+		}
+	}
+
+	private void stepRange(int from, int to, double[] deltaActions, double[] rewards, double[] observations) {
+		for (int i = from; i < to; i++) {
+			final int a = i * VectorIndustrialBenchmark.ACTION_SIZE;
+			final ActionDelta action = actions[i];
+			action.setDeltaVelocity(deltaActions[a]);
+			action.setDeltaGain(deltaActions[a + 1]);
+			action.setDeltaShift(deltaActions[a + 2]);
+
+			final IndustrialBenchmarkDynamics env = envs[i];
+			final double reward = env.step(action);
+			if (rewards != null) {
+				rewards[i] = reward;
+			}
+			if (observations != null) {
+				env.copyStateTo(observations, i * VectorIndustrialBenchmark.OBSERVATION_SIZE);
+			}
+		}
+	}
+
+	private class StepTask extends RecursiveAction {
+
+		private static final long serialVersionUID = -3585617207318426377L;
+
+		private final int from, to;
+		private final double[] deltaActions, rewards, observations;
+
+		StepTask(int from, int to, double[] deltaActions, double[] rewards, double[] observations) {
+			this.from = from;
+			this.to = to;
+			this.deltaActions = deltaActions;
+			this.rewards = rewards;
+			this.observations = observations;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= threshold) {
+				stepRange(from, to, deltaActions, rewards, observations);
+			} else {
+				final int mid = (from + to) >>> 1;
+				invokeAll(new StepTask(from, mid, deltaActions, rewards, observations),
+						new StepTask(mid, to, deltaActions, rewards, observations));
+			}
+		}
+	}
+}
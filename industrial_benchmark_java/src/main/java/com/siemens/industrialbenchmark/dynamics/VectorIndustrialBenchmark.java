@@ -0,0 +1,497 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industrialbenchmark.dynamics;
+
+import static com.siemens.industrialbenchmark.datavector.state.MarkovianStateLayout.*;
+import static com.siemens.industrialbenchmark.dynamics.IndustrialBenchmarkDynamics.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import com.google.common.base.Preconditions;
+import com.siemens.industrialbenchmark.datavector.action.EffectiveAction;
+import com.siemens.industrialbenchmark.datavector.state.IndexedMarkovianState;
+import com.siemens.industrialbenchmark.datavector.state.MarkovianStateDescription;
+import com.siemens.industrialbenchmark.datavector.state.MarkovianStateLayout;
+import com.siemens.industrialbenchmark.datavector.state.ObservableStateDescription;
+import com.siemens.industrialbenchmark.datavector.state.ObservableStateView;
+import com.siemens.industrialbenchmark.dynamics.goldstone.GoldstoneEnvironment;
+import com.siemens.industrialbenchmark.externaldrivers.setpointgen.SetPointGenerator;
+import com.siemens.industrialbenchmark.externaldrivers.setpointgen.SetPointGeneratorStateDescription;
+import com.siemens.industrialbenchmark.properties.IndustrialBenchmarkConfig;
+import com.siemens.industrialbenchmark.properties.PropertiesException;
+import com.siemens.industrialbenchmark.util.RandomSource;
+import com.siemens.rl.interfaces.DataVector;
+import com.siemens.rl.interfaces.ExternalDriver;
+
+/**
+ * Batch of N industrial benchmarks which are stepped in lockstep. The markovian states are kept as
+ * struct-of-arrays: for every slot of the {@link MarkovianStateLayout} there is one double[N] array
+ * (velocity[], gain[], shift[], fatigue latents, goldstone state, ...), and the operationalcost history
+ * of all benchmarks lives in one ring buffer with a shared head.
+ * <p>
+ * All benchmarks share a single random number generator, setpoint generator and goldstone environment.
+ * Since the dynamics re-seed these before every transition from the RandomSeed of the state, each
+ * benchmark i produces bit-identical trajectories to an {@link IndustrialBenchmarkDynamics} created with
+ * SEED=seeds[i] and a {@link SetPointGenerator} seeded with seeds[i].
+ * <p>
+ * Actions are delta actions (see {@link com.siemens.industrialbenchmark.datavector.action.ActionDelta})
+ * given as one row-major double[N*3] array (delta velocity, delta gain, delta shift).
+ * Observations are written row-major into a double[N*{@link #OBSERVATION_SIZE}] array in the order
+ * of {@link ObservableStateDescription}.
+ */
+public class VectorIndustrialBenchmark {
+
+	/** number of action dimensions per benchmark */
+	public static final int ACTION_SIZE = 3;
+
+	/** number of observable variables per benchmark */
+	public static final int OBSERVATION_SIZE = ObservableStateView.SIZE;
+
+	private static final int[] OBSERVATION_SLOTS = new int[OBSERVATION_SIZE];
+
+	static {
+		for (int k = 0; k < OBSERVATION_SIZE; k++) {
+			OBSERVATION_SLOTS[k] = ObservableStateView.slotOf(k);
+		}
+	}
+
+	private static final double MAX_DELTA = 10.0;
+
+	private final int n;
+	private final MarkovianStateLayout layout;
+
+	/** slots[slot][env] */
+	private final double[][] slots;
+	private final long[] randomSeeds;
+
+	/** costRing[(costHead + lag) % length][env], lag 0 is the oldest operationalcost */
+	private final double[][] costRing;
+	private int costHead = 0;
+	private final float[] convWeights;
+	private final int[] convLags;
+	private final float[] convTapWeights;
+
+	// initial values and seeds for reset()
+	private final double[] initialState;
+	private final long[] seeds;
+
+	// shared, re-seeded kernels
+	private final RandomSource rda;
+	private final SetPointGenerator setPointGenerator;
+	private final IndustrialBenchmarkRewardFunction rewardFunction;
+	private final GoldstoneEnvironment gsEnvironment;
+	private final int slotSetPointLastSequenceSteps;
+	private final int slotSetPointCurrentSteps;
+	private final int slotSetPointChangeRatePerStep;
+
+	// constants
+	private final float stepSizeVelocity;
+	private final float stepSizeGain;
+	private final double velocityMin, velocityMax, gainMin, gainMax;
+	private final float cDGain, cDVelocity, cDSetPoint, cDynBase;
+	private final float cCostSetPoint, cCostGain, cCostVelocity;
+	private final float CRGS;
+	private final double CRD, CRE;
+
+	/**
+	 * Constructor with configuration Properties and one seed per benchmark.
+	 * Each benchmark i is initialized like an {@link IndustrialBenchmarkDynamics} with SEED=seeds[i].
+	 * @param aProperties The properties object
+	 * @param seeds The seeds of the benchmarks
+	 * @throws PropertiesException
+	 */
+	public VectorIndustrialBenchmark(Properties aProperties, long[] seeds) throws PropertiesException {
+		this(new IndustrialBenchmarkConfig(aProperties), seeds);
+	}
+
+	/**
+	 * Constructor with configuration and one seed per benchmark.
+	 * Each benchmark i is initialized like an {@link IndustrialBenchmarkDynamics} with SEED=seeds[i].
+	 * @param aConfig The configuration
+	 * @param seeds The seeds of the benchmarks
+	 * @throws PropertiesException
+	 */
+	public VectorIndustrialBenchmark(IndustrialBenchmarkConfig aConfig, long[] seeds) throws PropertiesException {
+		Preconditions.checkArgument(seeds.length > 0, "at least one benchmark is required");
+		this.n = seeds.length;
+
+		IndustrialBenchmarkDynamics[] templates = new IndustrialBenchmarkDynamics[n];
+		for (int i = 0; i < n; i++) {
+			IndustrialBenchmarkConfig config = aConfig.withSeed(seeds[i]);
+			List<ExternalDriver> drivers = new ArrayList<ExternalDriver>();
+			drivers.add(new SetPointGenerator(seeds[i], config));
+			templates[i] = new IndustrialBenchmarkDynamics(config, drivers);
+		}
+
+		final IndustrialBenchmarkDynamics t0 = templates[0];
+		this.layout = t0.layout;
+		this.convWeights = t0.mEmConvWeights;
+		this.convLags = t0.mEmConvLags;
+		this.convTapWeights = t0.mEmConvTapWeights;
+		this.slots = new double[layout.size()][n];
+		this.costRing = new double[convWeights.length][n];
+		this.randomSeeds = new long[n];
+		for (int i = 0; i < n; i++) {
+			importState(i, templates[i].state);
+		}
+		this.initialState = t0.mInitialState;
+		this.seeds = seeds.clone();
+
+		this.rda = aConfig.getRandomSourceType().create();
+		this.setPointGenerator = new SetPointGenerator(seeds[0], aConfig);
+		this.rewardFunction = new IndustrialBenchmarkRewardFunction(aConfig);
+		this.gsEnvironment = new GoldstoneEnvironment(gsNumberSteps, maxRequiredStep, maxRequiredStep/2.0, aConfig.getGoldstoneLookupTolerance());
+		this.slotSetPointLastSequenceSteps = layout.slotOf(SetPointGeneratorStateDescription.SetPointLastSequenceSteps);
+		this.slotSetPointCurrentSteps = layout.slotOf(SetPointGeneratorStateDescription.SetPointCurrentSteps);
+		this.slotSetPointChangeRatePerStep = layout.slotOf(SetPointGeneratorStateDescription.SetPointChangeRatePerStep);
+
+		this.stepSizeVelocity = t0.STEP_SIZE_VELOCITY;
+		this.stepSizeGain = t0.STEP_SIZE_GAIN;
+		this.velocityMin = t0.mMin[VELOCITY];
+		this.velocityMax = t0.mMax[VELOCITY];
+		this.gainMin = t0.mMin[GAIN];
+		this.gainMax = t0.mMax[GAIN];
+		this.cDGain = aConfig.getDGain();
+		this.cDVelocity = aConfig.getDVelocity();
+		this.cDSetPoint = aConfig.getDSetPoint();
+		this.cDynBase = aConfig.getDBase();
+		this.cCostSetPoint = aConfig.getCostSetPoint();
+		this.cCostGain = aConfig.getCostGain();
+		this.cCostVelocity = aConfig.getCostVelocity();
+		this.CRGS = aConfig.getCRGS();
+		this.CRD = aConfig.getCRD();
+		this.CRE = aConfig.getCRE();
+	}
+
+	private void importState(int env, double[] state) {
+		for (int slot = 0; slot < layout.size(); slot++) {
+			slots[slot][env] = state[slot];
+		}
+		for (int lag = 0; lag < convWeights.length; lag++) {
+			costRing[(costHead + lag) % convWeights.length][env] = state[OPERATIONALCOST_0 + lag];
+		}
+		randomSeeds[env] = Double.doubleToLongBits(state[RANDOM_SEED]);
+	}
+
+	/**
+	 * Returns the number of benchmarks
+	 * @return the number of benchmarks
+	 */
+	public int size() {
+		return n;
+	}
+
+	/**
+	 * Applies one delta action to every benchmark. If an action is rejected, no benchmark is stepped.
+	 * @param actions row-major double[N*3] array with (delta velocity, delta gain, delta shift) per benchmark
+	 * @param rewards double[N] array receiving the rewards, or null
+	 * @param observations row-major double[N*7] array receiving the observable states, or null
+	 */
+	public void step(double[] actions, double[] rewards, double[] observations) {
+		Preconditions.checkArgument(actions.length == n * ACTION_SIZE, "expected %s action values, but got %s", n * ACTION_SIZE, actions.length);
+		Preconditions.checkArgument(rewards == null || rewards.length >= n, "reward array too short");
+		Preconditions.checkArgument(observations == null || observations.length >= n * OBSERVATION_SIZE, "observation array too short");
+		checkActions(actions);
+		final Object event = FlightRecorderEvents.AVAILABLE ? FlightRecorderEvents.beginBatchStep() : null;
+
+		// the newest operationalcost replaces the oldest one in the shared ring buffer
+		final int newest = costHead;
+		costHead = (costHead + 1) % convWeights.length;
+
+		for (int i = 0; i < n; i++) {
+			final double deltaVelocity = actions[i * ACTION_SIZE];
+			final double deltaGain = actions[i * ACTION_SIZE + 1];
+			final double deltaShift = actions[i * ACTION_SIZE + 2];
+
+			rda.reSeed(randomSeeds[i]);
+			filterSetPoint(i);
+			addAction(i, deltaVelocity, deltaGain, deltaShift);
+			updateFatigue(i);
+			updateCurrentOperationalCost(i, newest);
+			updateOperationalCostConvolution(i);
+			updateGS(i);
+			updateOperationalCosts(i);
+			calcReward(i);
+
+			randomSeeds[i] = rda.nextLong(0, Long.MAX_VALUE);
+			slots[RANDOM_SEED][i] = Double.longBitsToDouble(randomSeeds[i]);
+		}
+
+		if (rewards != null) {
+			System.arraycopy(slots[REWARD_TOTAL], 0, rewards, 0, n);
+		}
+		if (observations != null) {
+			getObservations(observations);
+		}
+		if (event != null) {
+			FlightRecorderEvents.endBatchStep(event, "vector", n);
+		}
+	}
+
+	/**
+	 * Checks the delta actions of all benchmarks like {@link com.siemens.industrialbenchmark.datavector.action.ActionDelta}
+	 * @param actions row-major double[N*3] array with (delta velocity, delta gain, delta shift) per benchmark
+	 * @throws IllegalArgumentException if a delta velocity or delta gain is not within [-10, 10]
+	 */
+	public static void checkActions(double[] actions) {
+		for (int i = 0; i + ACTION_SIZE <= actions.length; i += ACTION_SIZE) {
+			Preconditions.checkArgument(Math.abs(actions[i]) <= MAX_DELTA && Math.abs(actions[i + 1]) <= MAX_DELTA,
+					"delta action of benchmark %s out of range [-%s, %s]", i / ACTION_SIZE, MAX_DELTA, MAX_DELTA);
+		}
+	}
+
+	private void filterSetPoint(int i) {
+		setPointGenerator.setSeed(rda.nextLong(0, Long.MAX_VALUE));
+		setPointGenerator.setState(slots[SET_POINT][i], (int) slots[slotSetPointCurrentSteps][i],
+				(int) slots[slotSetPointLastSequenceSteps][i], slots[slotSetPointChangeRatePerStep][i]);
+		slots[SET_POINT][i] = setPointGenerator.step();
+		slots[slotSetPointChangeRatePerStep][i] = setPointGenerator.getChangeRatePerStep();
+		slots[slotSetPointCurrentSteps][i] = setPointGenerator.getCurrentSteps();
+		slots[slotSetPointLastSequenceSteps][i] = setPointGenerator.getLastSequenceSteps();
+	}
+
+	private void addAction(int i, double deltaVelocity, double deltaGain, double deltaShift) {
+		final double[] velocities = slots[VELOCITY];
+		final double[] gains = slots[GAIN];
+		final double[] shifts = slots[SHIFT];
+
+		double velocity = Math.min(velocityMax, Math.max(velocityMin, velocities[i] + deltaVelocity * stepSizeVelocity));
+		double gain = Math.min(gainMax, Math.max(gainMin, gains[i] + deltaGain * stepSizeGain));
+
+		final double gsScale = 2.0f*gsBound + 100.0f*gsSetPointDependency;
+		double shift = (float) Math.min(100.0f, Math.max(0.0f, shifts[i] + deltaShift*(maxRequiredStep/0.9f)*100.0f/gsScale));
+		double hiddenShift = (float) Math.min(gsBound, Math.max(-gsBound, (gsScale*shift/100.0f - gsSetPointDependency*slots[SET_POINT][i] - gsBound)));
+
+		velocities[i] = velocity;
+		gains[i] = gain;
+		shifts[i] = shift;
+		slots[EFFECTIVE_SHIFT][i] = hiddenShift;
+	}
+
+	private void updateFatigue(int i) {
+		final double velocity = slots[VELOCITY][i];
+		final double gain = slots[GAIN][i];
+		final double setpoint = slots[SET_POINT][i];
+		double hiddenStateVelocity = slots[FATIGUE_LATENT_1][i];
+		double hiddenStateGain = slots[FATIGUE_LATENT_2][i];
+
+		final double effActionVelocity = EffectiveAction.calcEffectiveVelocity(velocity, gain, setpoint);
+		final double effActionGain = EffectiveAction.calcEffectiveGain(gain, setpoint);
+
+		// base noise
+		double noiseGain = 2.0 * (1.0/(1.0+Math.exp(-rda.nextExponential(expLambda))) - 0.5);
+		double noiseVelocity = 2.0 * (1.0/(1.0+Math.exp(-rda.nextExponential(expLambda))) - 0.5);
+
+		// add spikes
+		noiseGain += (1-noiseGain) * rda.nextUniform(0,1) * rda.nextBinomial(1, Math.min(Math.max(0.001, effActionGain), 0.999)) * effActionGain;
+		noiseVelocity += (1-noiseVelocity) * rda.nextUniform(0,1) * rda.nextBinomial(1, Math.min(Math.max(0.001, effActionVelocity), 0.999)) * effActionVelocity;
+
+		// compute internal dynamics
+		if (effActionVelocity <= actionTolerance) {
+			hiddenStateVelocity = effActionVelocity;
+		} else if (hiddenStateGain >= fatigueAmplificationStart) {
+			hiddenStateGain = Math.min(fatigueAmplificationMax,  hiddenStateGain*fatigueAmplification);
+		} else {
+			hiddenStateGain = (hiddenStateGain*0.9f) + ((float)noiseGain/3.0f);
+		}
+
+		if (effActionGain <= actionTolerance) {
+			hiddenStateGain = effActionGain;
+		} else if (hiddenStateVelocity >= fatigueAmplificationStart) {
+			hiddenStateVelocity = Math.min(fatigueAmplificationMax,  hiddenStateVelocity*fatigueAmplification);
+		} else {
+			hiddenStateVelocity = (hiddenStateVelocity*0.9f) + ((float)noiseVelocity/3.0f);
+		}
+
+		double alpha = 0.0f;
+		if (Math.max(hiddenStateVelocity, hiddenStateGain) == fatigueAmplificationMax) {
+			// bad noise in case fatigueAmplificationMax is reached
+			alpha = 1.0 / (1.0+Math.exp(-rda.nextGaussian(2.4,0.4)));
+		} else {
+			alpha = Math.max(noiseGain,  noiseVelocity);
+		}
+
+		double fb = ((cDynBase / ((cDVelocity * velocity) + cDSetPoint)) - cDGain * gain*gain);
+		if(fb<0) fb=0;
+		double f = ((2.f*alpha+1.0) * fb )/ 3.f;
+
+		slots[FATIGUE][i] = f;
+		slots[FATIGUE_BASE][i] = fb;
+		slots[FATIGUE_LATENT_1][i] = hiddenStateVelocity;
+		slots[FATIGUE_LATENT_2][i] = hiddenStateGain;
+		slots[EFFECTIVE_ACTION_VELOCITY_ALPHA][i] = effActionVelocity;
+		slots[EFFECTIVE_ACTION_GAIN_BETA][i] = effActionGain;
+	}
+
+	private void updateCurrentOperationalCost(int i, int newest) {
+		double costs = cCostSetPoint * slots[SET_POINT][i] + cCostGain * slots[GAIN][i] + cCostVelocity * slots[VELOCITY][i];
+		double operationalcosts = (float) Math.exp(costs / 100.);
+		slots[CURRENT_OPERATIONAL_COST][i] = operationalcosts;
+		costRing[newest][i] = operationalcosts;
+	}
+
+	private void updateOperationalCostConvolution(int i) {
+		final int length = convWeights.length;
+		double aggregatedOperationalCosts = 0;
+		for (int k = 0; k < convLags.length; k++) {
+			int row = costHead + convLags[k];
+			if (row >= length) {
+				row -= length;
+			}
+			aggregatedOperationalCosts += convTapWeights[k] * costRing[row][i];
+		}
+		slots[OPERATIONAL_COSTS_CONV][i] = aggregatedOperationalCosts;
+	}
+
+	private void updateGS(int i) {
+		gsEnvironment.setDomain(slots[MIS_CALIBRATION_DOMAIN][i]);
+		gsEnvironment.setSystemResponse(slots[MIS_CALIBRATION_SYSTEM_RESPONSE][i]);
+		gsEnvironment.setPhiIdx(slots[MIS_CALIBRATION_PHI_IDX][i]);
+		gsEnvironment.setControlPosition(slots[EFFECTIVE_SHIFT][i]);
+		slots[MIS_CALIBRATION][i] = (float) gsEnvironment.reward();
+		slots[MIS_CALIBRATION_DOMAIN][i] = gsEnvironment.getDomain();
+		slots[MIS_CALIBRATION_SYSTEM_RESPONSE][i] = gsEnvironment.getSystemResponse();
+		slots[MIS_CALIBRATION_PHI_IDX][i] = gsEnvironment.getPhiIdx();
+	}
+
+	private void updateOperationalCosts(int i) {
+		double rGS = slots[MIS_CALIBRATION][i];
+		double eNewHidden = (slots[OPERATIONAL_COSTS_CONV][i] - (CRGS * (rGS - 1.0)));
+		double operationalcosts = eNewHidden - rda.nextGaussian(0,  1) * (1+0.005*eNewHidden);
+		slots[CONSUMPTION][i] = operationalcosts;
+	}
+
+	private void calcReward(int i) {
+		double rD = -slots[FATIGUE][i];
+		double rE = -slots[CONSUMPTION][i];
+		slots[REWARD_CONSUMPTION_WEIGHTED][i] = CRE * rE;
+		slots[REWARD_FATIGUE_WEIGHTED][i] = CRD * rD;
+		slots[REWARD_CONSUMPTION][i] = rE;
+		slots[REWARD_FATIGUE][i] = rD;
+		slots[REWARD_TOTAL][i] = CRD * rD + CRE * rE;
+	}
+
+	/**
+	 * Writes the observable states of all benchmarks row-major into the given array
+	 * @param observations double[N*7] array receiving the observable states
+	 */
+	public void getObservations(double[] observations) {
+		for (int k = 0; k < OBSERVATION_SIZE; k++) {
+			final double[] values = slots[OBSERVATION_SLOTS[k]];
+			for (int i = 0, j = k; i < n; i++, j += OBSERVATION_SIZE) {
+				observations[j] = values[i];
+			}
+		}
+	}
+
+	/**
+	 * Returns the current rewards of all benchmarks
+	 * @param rewards double[N] array receiving the rewards
+	 */
+	public void getRewards(double[] rewards) {
+		System.arraycopy(slots[REWARD_TOTAL], 0, rewards, 0, n);
+	}
+
+	/**
+	 * Returns a copy of the markovian state of one benchmark
+	 * @param env The benchmark index
+	 * @return the markovian state
+	 */
+	public DataVector getInternalMarkovState(int env) {
+		Preconditions.checkElementIndex(env, n, "env");
+		return new IndexedMarkovianState(layout, exportState(env)).clone();
+	}
+
+	private double[] exportState(int env) {
+		double[] state = new double[layout.size()];
+		for (int slot = 0; slot < state.length; slot++) {
+			state[slot] = slots[slot][env];
+		}
+		for (int lag = 0; lag < convWeights.length; lag++) {
+			state[OPERATIONALCOST_0 + lag] = costRing[(costHead + lag) % convWeights.length][env];
+		}
+		return state;
+	}
+
+	/**
+	 * Sets the markovian state of one benchmark like {@link IndustrialBenchmarkDynamics#setInternalMarkovState(DataVector)}:
+	 * the values of all keys of the given state are imported, and the operationalcost convolution and
+	 * the reward are recomputed into the given state.
+	 * @param env The benchmark index
+	 * @param markovState The markovian state from which the values are copied
+	 */
+	public void setInternalMarkovState(int env, DataVector markovState) {
+		Preconditions.checkElementIndex(env, n, "env");
+		final double[] state = exportState(env);
+		IndexedMarkovianState view = new IndexedMarkovianState(layout, state);
+		for (String key : markovState.getKeys()) {
+			view.setValue(key, markovState.getValue(key));
+		}
+		importState(env, state);
+
+		double aggregatedOperationalCosts = 0;
+		for (int lag = 0; lag < convWeights.length; lag++) {
+			aggregatedOperationalCosts += markovState.getValue(OPERATIONALCOST_PREFIX + lag) * convWeights[lag];
+		}
+		markovState.setValue(MarkovianStateDescription.OperationalCostsConv, aggregatedOperationalCosts);
+		rewardFunction.calcReward(markovState);
+	}
+
+	/**
+	 * Resets one benchmark like {@link IndustrialBenchmarkDynamics#reset()}: the initial values are
+	 * restored, the operationalcost history is cleared, the random number generator is re-seeded with
+	 * the seed of the benchmark and the setpoint continues from its current value.
+	 * @param env The benchmark index
+	 */
+	public void reset(int env) {
+		Preconditions.checkElementIndex(env, n, "env");
+		// the setpoint generator is not reset, it filters the restored state from its current state
+		final double setPoint = slots[SET_POINT][env];
+		final double currentSteps = slots[slotSetPointCurrentSteps][env];
+		final double lastSequenceSteps = slots[slotSetPointLastSequenceSteps][env];
+		final double changeRatePerStep = slots[slotSetPointChangeRatePerStep][env];
+		for (int slot = 0; slot < slots.length; slot++) {
+			slots[slot][env] = initialState[slot];
+		}
+		for (int lag = 0; lag < convWeights.length; lag++) {
+			costRing[lag][env] = 0;
+		}
+		slots[SET_POINT][env] = setPoint;
+		slots[slotSetPointCurrentSteps][env] = currentSteps;
+		slots[slotSetPointLastSequenceSteps][env] = lastSequenceSteps;
+		slots[slotSetPointChangeRatePerStep][env] = changeRatePerStep;
+
+		rda.reSeed(seeds[env]);
+		filterSetPoint(env);
+		for (int slot = 0; slot < slots.length; slot++) {
+			if (Double.isNaN(slots[slot][env])) {
+				slots[slot][env] = 0.0;
+			}
+		}
+		randomSeeds[env] = seeds[env];
+	}
+
+	/**
+	 * Resets all benchmarks, see {@link #reset(int)}
+	 */
+	public void reset() {
+		for (int i = 0; i < n; i++) {
+			reset(i);
+		}
+	}
+}
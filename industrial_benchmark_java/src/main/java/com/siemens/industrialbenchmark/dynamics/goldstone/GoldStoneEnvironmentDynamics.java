@@ -15,6 +15,8 @@ limitations under the License.
  */
 package com.siemens.industrialbenchmark.dynamics.goldstone;
 
+import java.nio.ByteBuffer;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -22,6 +24,9 @@ import com.google.common.base.Preconditions;
 
 public class GoldStoneEnvironmentDynamics {
 
+	/** range of control positions covered by tabulated penalty functions */
+	public static final double TABLE_RANGE = 2.0;
+
 	private final int strongestPenaltyAbsIdx;
 	private Domain domain = Domain.POSITIVE;
 	private SystemResponse systemResponse = SystemResponse.ADVANTAGEOUS;
@@ -60,19 +65,98 @@ public class GoldStoneEnvironmentDynamics {
 	}
 
 	public GoldStoneEnvironmentDynamics(int numberSteps, double maxRequiredStep, double safeZone) {
+		this(numberSteps, maxRequiredStep, safeZone, 0);
+	}
+
+	/**
+	 * @param numberSteps the number of phi steps for a full turn
+	 * @param maxRequiredStep the max. required step by the optimal policy
+	 * @param safeZone the safe zone around zero
+	 * @param lookupTolerance if positive, the penalty functions are tabulated on [-{@link #TABLE_RANGE}, {@link #TABLE_RANGE}]
+	 *   and interpolated with at most this absolute error; if zero, they are evaluated exactly
+	 */
+	public GoldStoneEnvironmentDynamics(int numberSteps, double maxRequiredStep, double safeZone, double lookupTolerance) {
 		Preconditions.checkArgument(safeZone >= 0, "safeZone must be non-negative, but is %s.", safeZone);
+		Preconditions.checkArgument(lookupTolerance >= 0, "lookupTolerance must be non-negative, but is %s.", lookupTolerance);
 
 		this.safeZone = safeZone;
 		this.strongestPenaltyAbsIdx = computeStrongestPenaltyAbsIdx(numberSteps);
-		this.penaltyFunctionsArray = this.defineRewardFunctions(numberSteps, maxRequiredStep);
+		this.penaltyFunctionsArray = this.defineRewardFunctions(numberSteps, maxRequiredStep, lookupTolerance);
 		this.reset();
 	}
 
+	/**
+	 * Copy constructor, the penalty functions are shared.
+	 * @param other The dynamics to copy
+	 */
+	private GoldStoneEnvironmentDynamics(GoldStoneEnvironmentDynamics other) {
+		this.strongestPenaltyAbsIdx = other.strongestPenaltyAbsIdx;
+		this.domain = other.domain;
+		this.systemResponse = other.systemResponse;
+		this.currentPenaltyFunction = other.currentPenaltyFunction;
+		this.phiIdx = other.phiIdx;
+		this.safeZone = other.safeZone;
+		this.penaltyFunctionsArray = other.penaltyFunctionsArray;
+	}
+
+	/**
+	 * Returns an independent copy with the same state. The immutable penalty functions are shared.
+	 * @return the copy
+	 */
+	public GoldStoneEnvironmentDynamics copy() {
+		return new GoldStoneEnvironmentDynamics(this);
+	}
+
+	/** domain, system response, phi index, index of the current penalty function */
+	static final int SNAPSHOT_SIZE = 4 * 4;
+
+	/**
+	 * Writes the state as binary snapshot at the position of the buffer
+	 * @param dst The destination buffer, receives {@link #SNAPSHOT_SIZE} bytes
+	 */
+	void writeTo(ByteBuffer dst) {
+		int current = -1;
+		for (int i = 0; i < penaltyFunctionsArray.length; i++) {
+			if (penaltyFunctionsArray[i] == currentPenaltyFunction) {
+				current = i;
+			}
+		}
+		dst.putInt(domain.getValue());
+		dst.putInt(systemResponse.getValue());
+		dst.putInt(phiIdx);
+		dst.putInt(current);
+	}
+
+	/**
+	 * Restores the state from a binary snapshot at the position of the buffer
+	 * @param src The source buffer
+	 */
+	void readFrom(ByteBuffer src) {
+		final Domain d = Domain.fromDouble(src.getInt());
+		final SystemResponse s = SystemResponse.fromDouble(src.getInt());
+		final int p = src.getInt();
+		final int current = src.getInt();
+		Preconditions.checkArgument(current >= -1 && current < penaltyFunctionsArray.length, "invalid penalty function index %s", current);
+		this.domain = d;
+		this.systemResponse = s;
+		this.phiIdx = p;
+		this.currentPenaltyFunction = current < 0 ? null : penaltyFunctionsArray[current];
+	}
+
 	public void reset() {
 		this.domain = Domain.POSITIVE;
 		systemResponse = SystemResponse.ADVANTAGEOUS;
 	}
 
+	/**
+	 * Restores the state after construction, the penalty functions are kept.
+	 */
+	public void reinitialize() {
+		this.reset();
+		this.phiIdx = 0;
+		this.currentPenaltyFunction = null;
+	}
+
 	public double rewardAt (double pos) {
 		return -currentPenaltyFunction.reward(pos);
 	}
@@ -118,7 +202,7 @@ public class GoldStoneEnvironmentDynamics {
 			this.reset();
 		}
 		
-		LOGGER.trace ("  phiIdx = " + phiIdx);
+		LOGGER.trace ("  phiIdx = {}", phiIdx);
 		this.currentPenaltyFunction = this.getPenaltyFunction();
 	}
 
@@ -198,8 +282,9 @@ public class GoldStoneEnvironmentDynamics {
 	 * Define the reward functions
 	 * @param numberSteps
 	 * @param maxRequiredStep
+	 * @param lookupTolerance
 	 */
-	private PenaltyFunction[] defineRewardFunctions(int numberSteps, double maxRequiredStep) {
+	private PenaltyFunction[] defineRewardFunctions(int numberSteps, double maxRequiredStep, double lookupTolerance) {
 
 		final int k = strongestPenaltyAbsIdx;
 		double angle_gid[] = new double[k*2+1];
@@ -208,7 +293,11 @@ public class GoldStoneEnvironmentDynamics {
 		}
 		PenaltyFunction[] penaltyFunctionsArray = new PenaltyFunction[angle_gid.length];
 		for (int i=0; i<angle_gid.length; i++) {
-			penaltyFunctionsArray[i] = new PenaltyFunction(angle_gid[i], maxRequiredStep);
+			if (lookupTolerance > 0) {
+				penaltyFunctionsArray[i] = new TabulatedPenaltyFunction(angle_gid[i], maxRequiredStep, TABLE_RANGE, lookupTolerance);
+			} else {
+				penaltyFunctionsArray[i] = new PenaltyFunction(angle_gid[i], maxRequiredStep);
+			}
 		}
 
 		return penaltyFunctionsArray;
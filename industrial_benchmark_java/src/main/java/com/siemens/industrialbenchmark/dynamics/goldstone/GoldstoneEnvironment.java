@@ -15,6 +15,8 @@ limitations under the License.
 */
 package com.siemens.industrialbenchmark.dynamics.goldstone;
 
+import java.nio.ByteBuffer;
+
 import com.siemens.industrialbenchmark.dynamics.goldstone.GoldStoneEnvironmentDynamics.Domain;
 import com.siemens.industrialbenchmark.dynamics.goldstone.GoldStoneEnvironmentDynamics.SystemResponse;
 
@@ -24,10 +26,53 @@ public class GoldstoneEnvironment {
 	private double controlPosition;
 	
 	public GoldstoneEnvironment(int numberSteps, double maxRequiredStep, double safeZone) {
-		dynamics = new GoldStoneEnvironmentDynamics(numberSteps, maxRequiredStep, safeZone);
+		this(numberSteps, maxRequiredStep, safeZone, 0);
+	}
+
+	/**
+	 * @param lookupTolerance if positive, the penalty functions are interpolated from tables with at most this error
+	 * @see GoldStoneEnvironmentDynamics#GoldStoneEnvironmentDynamics(int, double, double, double)
+	 */
+	public GoldstoneEnvironment(int numberSteps, double maxRequiredStep, double safeZone, double lookupTolerance) {
+		dynamics = new GoldStoneEnvironmentDynamics(numberSteps, maxRequiredStep, safeZone, lookupTolerance);
 		this.reset();
 	}
 
+	private GoldstoneEnvironment(GoldstoneEnvironment other) {
+		this.dynamics = other.dynamics.copy();
+		this.controlPosition = other.controlPosition;
+	}
+
+	/**
+	 * Returns an independent copy with the same state. The immutable penalty functions are shared.
+	 * @return the copy
+	 */
+	public GoldstoneEnvironment copy() {
+		return new GoldstoneEnvironment(this);
+	}
+
+	/** control position and the state of the dynamics */
+	public static final int SNAPSHOT_SIZE = 8 + GoldStoneEnvironmentDynamics.SNAPSHOT_SIZE;
+
+	/**
+	 * Writes the state as binary snapshot at the position of the buffer
+	 * @param dst The destination buffer, receives {@link #SNAPSHOT_SIZE} bytes
+	 */
+	public void writeTo(ByteBuffer dst) {
+		dst.putDouble(controlPosition);
+		dynamics.writeTo(dst);
+	}
+
+	/**
+	 * Restores the state from a binary snapshot at the position of the buffer
+	 * @param src The source buffer
+	 */
+	public void readFrom(ByteBuffer src) {
+		final double position = src.getDouble();
+		dynamics.readFrom(src);
+		this.controlPosition = position;
+	}
+
 	public void reset() {
 		this.reset(0);
 	}
@@ -35,6 +80,14 @@ public class GoldstoneEnvironment {
 	public void reset(double controlStartValue) {
 		this.controlPosition = controlStartValue;
 	}
+
+	/**
+	 * Restores the state after construction, the penalty functions are kept.
+	 */
+	public void reinitialize() {
+		this.dynamics.reinitialize();
+		this.reset();
+	}
 	
 	public double reward() {
 		return this.dynamics.rewardAt(controlPosition);
@@ -68,7 +121,6 @@ public class GoldstoneEnvironment {
 	public void setControlPosition(double controlPosition) {
 		this.controlPosition = controlPosition;
 		this.dynamics.stateTransition(controlPosition);
-		reward();
 	}
 	
 	public float getDomain(){
@@ -38,8 +38,28 @@ public class NLGP {
 	 * @return
 	 */
 	public double polar_nlgp (final double r, final double phi) {
+		return polar_nlgp_biased(r, linear_bias(phi));
+	}
+
+	/**
+	 * Coefficient of the linear bias term for a given phi, i.e. norm_kappa * sin(phi).
+	 * @param phi angle in Radians
+	 * @return the coefficient of r in the potential
+	 */
+	public double linear_bias (final double phi) {
+		return norm_kappa * Math.sin(phi);
+	}
+
+	/**
+	 * Function value of normalized, linearly biased Goldstone Potential
+	 * for a precomputed linear bias (see {@link #linear_bias(double)}).
+	 * @param r in R
+	 * @param bias the coefficient of the linear term
+	 * @return
+	 */
+	public double polar_nlgp_biased (final double r, final double bias) {
         final double rsq = r*r; 
-		return -norm_alpha * rsq + norm_beta * rsq*rsq + norm_kappa * Math.sin(phi) * r;
+		return -norm_alpha * rsq + norm_beta * rsq*rsq + bias * r;
 	}
 	
 	/**
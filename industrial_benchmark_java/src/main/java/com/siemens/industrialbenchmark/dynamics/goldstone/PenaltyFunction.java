@@ -64,21 +64,27 @@ public class PenaltyFunction {
 	public DoubleFunction reward_function_factory(double phi, double max_required_step) {
 		final NLGP l = new NLGP();
 
-		double opt_rad = compute_optimal_radius(phi, max_required_step);
-		double min_rad = l.global_minimum_radius(phi);
+		final double opt_rad = compute_optimal_radius(phi, max_required_step);
+		final double min_rad = l.global_minimum_radius(phi);
+
+		// coefficients only depend on phi
+		final double abs_opt_rad = Math.abs(opt_rad);
+		final double abs_min_rad = Math.abs(min_rad);
+		final double exponent = (2.0-abs_opt_rad) / (2.0-abs_min_rad);
+		final double scaling = (2.0-abs_min_rad) / Math.pow((2.0-abs_opt_rad), exponent);
+		final double bias = l.linear_bias(phi);
 
 		return new DoubleFunction() {
 			@Override
 			public double apply(double x) {
-				double result = Double.NaN;
-				if (Math.abs(x)<=Math.abs(opt_rad)) {
-					result = x*Math.abs(min_rad)/Math.abs(opt_rad);
+				final double result;
+				final double abs_x = Math.abs(x);
+				if (abs_x<=abs_opt_rad) {
+					result = x*abs_min_rad/abs_opt_rad;
 				}else{
-					final double exponent = (2.0-Math.abs(opt_rad)) / (2.0-Math.abs(min_rad));
-					final double scaling = (2.0-Math.abs(min_rad)) / Math.pow((2.0-Math.abs(opt_rad)), exponent);
-					result = Math.signum(x)*(Math.abs(min_rad) + scaling * Math.pow(Math.abs(x)-Math.abs(opt_rad), exponent));
+					result = Math.signum(x)*(abs_min_rad + scaling * Math.pow(abs_x-abs_opt_rad, exponent));
 				}
-				return l.polar_nlgp(result, phi);
+				return l.polar_nlgp_biased(result, bias);
 			}
 		};
 	}
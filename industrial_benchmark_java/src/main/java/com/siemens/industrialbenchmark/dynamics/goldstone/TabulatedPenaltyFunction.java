@@ -0,0 +1,152 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industrialbenchmark.dynamics.goldstone;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Penalty function which linearly interpolates a precomputed table of the exact
+ * {@link PenaltyFunction} on [-range, range]. Outside of this range the exact function is evaluated.
+ * <p>
+ * The table has knots at 0 and at both optimum radii, where the exact function is not smooth.
+ * It is refined until the interpolation error on a dense verification grid (16 points per
+ * table interval) is not larger than the requested tolerance, see {@link #getMaxError()}.
+ */
+public class TabulatedPenaltyFunction extends PenaltyFunction {
+
+	private static final int INITIAL_INTERVALS = 16;
+	private static final int MAX_INTERVALS = 1 << 20;
+	private static final int VERIFY_POINTS = 16;
+
+	private final double range;
+	private final double absOptimumRadius;
+	/** number of intervals in each of the segments [-range, -opt], [-opt, 0], [0, opt] and [opt, range] */
+	private final int intervals;
+	private final double invOuterStep;
+	private final double invInnerStep;
+	private final double[] table;
+	private final double maxError;
+
+	/**
+	 * Generates the tabulated reward function for fixed phi
+	 * @param phi angle in radians
+	 * @param max_required_step the max. required step by the optimal policy; must be positive
+	 * @param range the table covers [-range, range]; must be larger than the absolute optimum radius
+	 * @param tolerance the maximum absolute interpolation error; must be positive
+	 */
+	public TabulatedPenaltyFunction(double phi, double max_required_step, double range, double tolerance) {
+		super(phi, max_required_step);
+		this.absOptimumRadius = Math.abs(getOptimumRadius());
+		Preconditions.checkArgument(range > absOptimumRadius, "range=%s must be larger than the optimum radius %s", range, absOptimumRadius);
+		Preconditions.checkArgument(tolerance > 0, "tolerance must be positive, but is %s", tolerance);
+		this.range = range;
+
+		int n = INITIAL_INTERVALS;
+		double[] t = buildTable(n);
+		double err = verifyTable(n, t);
+		while (err > tolerance) {
+			Preconditions.checkArgument(n < MAX_INTERVALS, "tolerance=%s can not be reached, error with %s intervals is %s", tolerance, n, err);
+			n *= 2;
+			t = buildTable(n);
+			err = verifyTable(n, t);
+		}
+		this.intervals = n;
+		this.invOuterStep = n / (range - absOptimumRadius);
+		this.invInnerStep = n / absOptimumRadius;
+		this.table = t;
+		this.maxError = err;
+	}
+
+	@Override
+	public double reward (double r) {
+		if (Math.abs(r) > range) {
+			return super.reward(r);
+		}
+		return interpolate(table, intervals, invOuterStep, invInnerStep, r);
+	}
+
+	/**
+	 * Returns the largest interpolation error found on the verification grid
+	 * @return the largest absolute difference to the exact penalty function
+	 */
+	public double getMaxError() {
+		return maxError;
+	}
+
+	/**
+	 * Returns the number of table entries
+	 * @return the number of table entries
+	 */
+	public int getTableSize() {
+		return table.length;
+	}
+
+	private double knot(int n, int j) {
+		final int segment = Math.min(j / n, 3);
+		final double u = (double) (j - segment * n) / n;
+		switch (segment) {
+		case 0: return -range + u * (range - absOptimumRadius);
+		case 1: return -absOptimumRadius + u * absOptimumRadius;
+		case 2: return u * absOptimumRadius;
+		default: return absOptimumRadius + u * (range - absOptimumRadius);
+		}
+	}
+
+	private double[] buildTable(int n) {
+		final double[] t = new double[4 * n + 1];
+		for (int j = 0; j < t.length; j++) {
+			t[j] = super.reward(knot(n, j));
+		}
+		return t;
+	}
+
+	private double verifyTable(int n, double[] t) {
+		final double invOuter = n / (range - absOptimumRadius);
+		final double invInner = n / absOptimumRadius;
+		double err = 0;
+		for (int j = 0; j < t.length - 1; j++) {
+			final double a = knot(n, j);
+			final double b = knot(n, j + 1);
+			for (int k = 1; k < VERIFY_POINTS; k++) {
+				final double x = a + (b - a) * k / VERIFY_POINTS;
+				err = Math.max(err, Math.abs(interpolate(t, n, invOuter, invInner, x) - super.reward(x)));
+			}
+		}
+		return err;
+	}
+
+	private double interpolate(double[] t, int n, double invOuter, double invInner, double x) {
+		final double u;
+		final int base;
+		if (x < -absOptimumRadius) {
+			u = (x + range) * invOuter;
+			base = 0;
+		} else if (x < 0) {
+			u = (x + absOptimumRadius) * invInner;
+			base = n;
+		} else if (x <= absOptimumRadius) {
+			u = x * invInner;
+			base = 2 * n;
+		} else {
+			u = (x - absOptimumRadius) * invOuter;
+			base = 3 * n;
+		}
+		final int i = Math.max(0, Math.min((int) u, n - 1));
+		final double f = u - i;
+		final double y0 = t[base + i];
+		return y0 + f * (t[base + i + 1] - y0);
+	}
+}
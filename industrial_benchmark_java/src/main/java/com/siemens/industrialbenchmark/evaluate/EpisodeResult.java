@@ -0,0 +1,83 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industrialbenchmark.evaluate;
+
+/**
+ * Result of one evaluation episode. The rewards are summed over the steps of the episode.
+ */
+public final class EpisodeResult {
+
+	private final int episode;
+	private final long seed;
+	private final int steps;
+	private final double totalReward;
+	private final double rewardFatigue;
+	private final double rewardConsumption;
+
+	public EpisodeResult(int episode, long seed, int steps, double totalReward, double rewardFatigue, double rewardConsumption) {
+		this.episode = episode;
+		this.seed = seed;
+		this.steps = steps;
+		this.totalReward = totalReward;
+		this.rewardFatigue = rewardFatigue;
+		this.rewardConsumption = rewardConsumption;
+	}
+
+	/**
+	 * Returns the index of the seed in the evaluated seed set
+	 * @return the episode index
+	 */
+	public int getEpisode() {
+		return episode;
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	public int getSteps() {
+		return steps;
+	}
+
+	/**
+	 * Returns the return of the episode, the sum of RewardTotal
+	 * @return the total reward
+	 */
+	public double getTotalReward() {
+		return totalReward;
+	}
+
+	/**
+	 * Returns the sum of the unweighted RewardFatigue
+	 * @return the fatigue reward
+	 */
+	public double getRewardFatigue() {
+		return rewardFatigue;
+	}
+
+	/**
+	 * Returns the sum of the unweighted RewardConsumption
+	 * @return the consumption reward
+	 */
+	public double getRewardConsumption() {
+		return rewardConsumption;
+	}
+
+	@Override
+	public String toString() {
+		return episode + " " + seed + " " + steps + " " + totalReward + " " + rewardFatigue + " " + rewardConsumption;
+	}
+}
@@ -0,0 +1,82 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industrialbenchmark.evaluate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Mergeable statistics of evaluation episodes: the returns and the reward components.
+ */
+public class EvaluationResult {
+
+	private final List<EpisodeResult> episodes = new ArrayList<EpisodeResult>();
+	private final RunningStatistics returns = new RunningStatistics();
+	private final RunningStatistics rewardFatigue = new RunningStatistics();
+	private final RunningStatistics rewardConsumption = new RunningStatistics();
+
+	/**
+	 * Adds an episode
+	 * @param episode The episode result
+	 */
+	public void add(EpisodeResult episode) {
+		episodes.add(episode);
+		returns.add(episode.getTotalReward());
+		rewardFatigue.add(episode.getRewardFatigue());
+		rewardConsumption.add(episode.getRewardConsumption());
+	}
+
+	/**
+	 * Adds all episodes of another result
+	 * @param other The other result, not modified
+	 */
+	public void merge(EvaluationResult other) {
+		episodes.addAll(other.episodes);
+		returns.merge(other.returns);
+		rewardFatigue.merge(other.rewardFatigue);
+		rewardConsumption.merge(other.rewardConsumption);
+	}
+
+	/**
+	 * Returns the episodes in the order in which they were added
+	 * @return unmodifiable list of the episodes
+	 */
+	public List<EpisodeResult> getEpisodes() {
+		return Collections.unmodifiableList(episodes);
+	}
+
+	/**
+	 * Returns the statistics of the episode returns
+	 * @return the statistics of the total rewards
+	 */
+	public RunningStatistics getReturns() {
+		return returns;
+	}
+
+	public RunningStatistics getRewardFatigue() {
+		return rewardFatigue;
+	}
+
+	public RunningStatistics getRewardConsumption() {
+		return rewardConsumption;
+	}
+
+	@Override
+	public String toString() {
+		return "return: " + returns + "\nRewardFatigue: " + rewardFatigue + "\nRewardConsumption: " + rewardConsumption;
+	}
+}
@@ -0,0 +1,191 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industrialbenchmark.evaluate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import com.google.common.base.Preconditions;
+import com.siemens.industrialbenchmark.datavector.action.ActionDelta;
+import com.siemens.industrialbenchmark.datavector.state.ObservableStateDescription;
+import com.siemens.industrialbenchmark.datavector.state.ObservableStateView;
+import com.siemens.industrialbenchmark.dynamics.FlightRecorderEvents;
+import com.siemens.industrialbenchmark.dynamics.IndustrialBenchmarkDynamics;
+import com.siemens.industrialbenchmark.dynamics.ParallelIndustrialBenchmark;
+import com.siemens.industrialbenchmark.externaldrivers.setpointgen.SetPointGenerator;
+import com.siemens.industrialbenchmark.policy.Policy;
+import com.siemens.industrialbenchmark.properties.IndustrialBenchmarkConfig;
+import com.siemens.industrialbenchmark.properties.PropertiesException;
+import com.siemens.rl.interfaces.ExternalDriver;
+
+/**
+ * Evaluates a policy on a set of seeds, one episode per seed, on a fixed pool of worker threads.
+ * <p>
+ * The episodes are grouped into tasks of {@value #EPISODES_PER_TASK} consecutive seeds. Each task
+ * accumulates its own {@link EvaluationResult}, the results are merged in seed order. Every episode
+ * runs on its own benchmark with SEED=seed and the policy is reset with the seed, hence the result
+ * does not depend on the number of workers. Each worker thread uses its own policy instance.
+ */
+public class PolicyEvaluator {
+
+	/** number of consecutive episodes of a task */
+	public static final int EPISODES_PER_TASK = 8;
+
+	private static final int FATIGUE = ObservableStateDescription.SCHEMA.indexOf(ObservableStateDescription.Fatigue);
+	private static final int CONSUMPTION = ObservableStateDescription.SCHEMA.indexOf(ObservableStateDescription.Consumption);
+
+	private final IndustrialBenchmarkConfig config;
+	private final Supplier<? extends Policy> policies;
+	private final int steps;
+
+	/**
+	 * Constructor
+	 * @param aConfig The benchmark configuration, the seed is replaced by the evaluated seeds
+	 * @param policies Creates the policy instances, one per worker thread
+	 * @param steps The number of steps per episode
+	 */
+	public PolicyEvaluator(IndustrialBenchmarkConfig aConfig, Supplier<? extends Policy> policies, int steps) {
+		Preconditions.checkNotNull(aConfig, "config must not be null.");
+		Preconditions.checkNotNull(policies, "policies must not be null.");
+		Preconditions.checkArgument(steps > 0, "steps=%s must be positive", steps);
+		this.config = aConfig;
+		this.policies = policies;
+		this.steps = steps;
+	}
+
+	/**
+	 * Derives a seed set from a master seed
+	 * @param masterSeed The master seed
+	 * @param count The number of seeds
+	 * @return the seeds
+	 */
+	public static long[] seeds(long masterSeed, int count) {
+		Preconditions.checkArgument(count > 0, "count=%s must be positive", count);
+		final long[] seeds = new long[count];
+		for (int i = 0; i < count; i++) {
+			seeds[i] = ParallelIndustrialBenchmark.deriveSeed(masterSeed, i);
+		}
+		return seeds;
+	}
+
+	/**
+	 * Evaluates the policy with one worker per processor
+	 * @see #evaluate(long[], int)
+	 */
+	public EvaluationResult evaluate(long[] seeds) throws PropertiesException {
+		return evaluate(seeds, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Evaluates the policy on all seeds
+	 * @param seeds The seeds, one episode per seed
+	 * @param workers The number of worker threads
+	 * @return the episodes in seed order and their statistics
+	 * @throws PropertiesException
+	 */
+	public EvaluationResult evaluate(final long[] seeds, int workers) throws PropertiesException {
+		Preconditions.checkArgument(seeds.length > 0, "at least one seed is required");
+		Preconditions.checkArgument(workers > 0, "workers=%s must be positive", workers);
+
+		final int tasks = (seeds.length + EPISODES_PER_TASK - 1) / EPISODES_PER_TASK;
+		final ThreadLocal<Policy> policy = ThreadLocal.withInitial(policies::get);
+		final List<Future<EvaluationResult>> results = new ArrayList<Future<EvaluationResult>>();
+		final ExecutorService executor = Executors.newFixedThreadPool(Math.min(workers, tasks));
+		try {
+			for (int t = 0; t < tasks; t++) {
+				final int from = t * EPISODES_PER_TASK;
+				final int to = Math.min(seeds.length, from + EPISODES_PER_TASK);
+				results.add(executor.submit(new Callable<EvaluationResult>() {
+					@Override
+					public EvaluationResult call() throws Exception {
+						final EvaluationResult result = new EvaluationResult();
+						for (int e = from; e < to; e++) {
+							result.add(evaluate(policy.get(), e, seeds[e]));
+						}
+						return result;
+					}
+				}));
+			}
+
+			final EvaluationResult result = new EvaluationResult();
+			for (Future<EvaluationResult> r : results) {
+				result.merge(r.get());
+			}
+			return result;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("interrupted", e);
+		} catch (ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof PropertiesException) {
+				throw (PropertiesException) cause;
+			} else if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new IllegalStateException(cause);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Runs one episode in the calling thread
+	 * @param policy The policy, reset with the seed
+	 * @param episode The index of the episode
+	 * @param seed The seed of the benchmark
+	 * @return the result of the episode
+	 * @throws PropertiesException
+	 */
+	public EpisodeResult evaluate(Policy policy, int episode, long seed) throws PropertiesException {
+		final IndustrialBenchmarkConfig episodeConfig = config.withSeed(seed);
+		final List<ExternalDriver> drivers = new ArrayList<ExternalDriver>();
+		drivers.add(new SetPointGenerator(seed, episodeConfig));
+		final IndustrialBenchmarkDynamics env = new IndustrialBenchmarkDynamics(episodeConfig, drivers);
+		final ActionDelta action = new ActionDelta(0, 0, 0);
+		final double[] observation = new double[ObservableStateView.SIZE];
+		final double[] delta = new double[Policy.ACTION_SIZE];
+
+		policy.reset(seed);
+		if (FlightRecorderEvents.AVAILABLE) {
+			FlightRecorderEvents.episodeStart(env, episode, seed);
+		}
+		double totalReward = 0;
+		double rewardFatigue = 0;
+		double rewardConsumption = 0;
+		env.copyStateTo(observation, 0);
+		for (int t = 0; t < steps; t++) {
+			policy.act(observation, delta);
+			action.setDeltaVelocity(delta[0]);
+			action.setDeltaGain(delta[1]);
+			action.setDeltaShift(delta[2]);
+			totalReward += env.step(action);
+			env.copyStateTo(observation, 0);
+			// the unweighted reward components are the negative fatigue and consumption
+			rewardFatigue -= observation[FATIGUE];
+			rewardConsumption -= observation[CONSUMPTION];
+		}
+		if (FlightRecorderEvents.AVAILABLE) {
+			FlightRecorderEvents.episodeEnd(env, episode, totalReward);
+		}
+		return new EpisodeResult(episode, seed, steps, totalReward, rewardFatigue, rewardConsumption);
+	}
+}
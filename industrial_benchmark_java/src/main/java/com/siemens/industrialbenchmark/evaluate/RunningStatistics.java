@@ -0,0 +1,160 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industrialbenchmark.evaluate;
+
+import java.util.Arrays;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Mergeable summary statistics of a sample: count, mean and variance (Welford's online algorithm,
+ * merged with the pairwise update of Chan et al.), minimum, maximum and quantiles. The values are
+ * kept for the quantiles. Not thread-safe, each thread accumulates its own instance.
+ */
+public class RunningStatistics {
+
+	private long count;
+	private double mean;
+	private double m2;
+	private double min = Double.POSITIVE_INFINITY;
+	private double max = Double.NEGATIVE_INFINITY;
+	private double[] values = new double[16];
+	private int size;
+	private boolean sorted = true;
+
+	/**
+	 * Adds a value
+	 * @param value The value
+	 */
+	public void add(double value) {
+		count++;
+		final double delta = value - mean;
+		mean += delta / count;
+		m2 += delta * (value - mean);
+		min = Math.min(min, value);
+		max = Math.max(max, value);
+		append(value);
+	}
+
+	/**
+	 * Adds all values of another sample
+	 * @param other The other statistics, not modified
+	 */
+	public void merge(RunningStatistics other) {
+		if (other.count == 0) {
+			return;
+		}
+		final long n = count + other.count;
+		final double delta = other.mean - mean;
+		m2 += other.m2 + delta * delta * ((double) count * other.count / n);
+		mean += delta * other.count / n;
+		count = n;
+		min = Math.min(min, other.min);
+		max = Math.max(max, other.max);
+		for (int i = 0; i < other.size; i++) {
+			append(other.values[i]);
+		}
+	}
+
+	private void append(double value) {
+		if (size == values.length) {
+			values = Arrays.copyOf(values, 2 * values.length);
+		}
+		if (size > 0 && values[size - 1] > value) {
+			sorted = false;
+		}
+		values[size++] = value;
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * Returns the mean
+	 * @return the mean, NaN if empty
+	 */
+	public double getMean() {
+		return count == 0 ? Double.NaN : mean;
+	}
+
+	/**
+	 * Returns the unbiased sample variance
+	 * @return the variance, NaN if there are less than two values
+	 */
+	public double getVariance() {
+		return count < 2 ? Double.NaN : m2 / (count - 1);
+	}
+
+	public double getStandardDeviation() {
+		return Math.sqrt(getVariance());
+	}
+
+	/**
+	 * Returns the standard error of the mean
+	 * @return the standard error, NaN if there are less than two values
+	 */
+	public double getStandardError() {
+		return Math.sqrt(getVariance() / count);
+	}
+
+	/**
+	 * Returns the minimum
+	 * @return the minimum, NaN if empty
+	 */
+	public double getMin() {
+		return count == 0 ? Double.NaN : min;
+	}
+
+	/**
+	 * Returns the maximum
+	 * @return the maximum, NaN if empty
+	 */
+	public double getMax() {
+		return count == 0 ? Double.NaN : max;
+	}
+
+	/**
+	 * Returns a quantile, linearly interpolated between the closest ranks
+	 * @param quantile The quantile in [0, 1]
+	 * @return the value at the quantile, NaN if empty
+	 */
+	public double getQuantile(double quantile) {
+		Preconditions.checkArgument(quantile >= 0 && quantile <= 1, "quantile=%s must be in [0, 1]", quantile);
+		if (count == 0) {
+			return Double.NaN;
+		}
+		// merging appends the values of both samples, adding out of order values invalidates the order
+		if (!sorted) {
+			Arrays.sort(values, 0, size);
+			sorted = true;
+		}
+		final double rank = quantile * (size - 1);
+		final int lower = (int) Math.floor(rank);
+		final int upper = Math.min(lower + 1, size - 1);
+		return values[lower] + (rank - lower) * (values[upper] - values[lower]);
+	}
+
+	public double getMedian() {
+		return getQuantile(0.5);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("n=%d mean=%.4f sd=%.4f min=%.4f p05=%.4f p50=%.4f p95=%.4f max=%.4f",
+				count, getMean(), getStandardDeviation(), getMin(), getQuantile(0.05), getQuantile(0.5), getQuantile(0.95), getMax());
+	}
+}
@@ -0,0 +1,139 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industrialbenchmark.externaldrivers.setpointgen;
+
+import java.nio.ByteBuffer;
+
+import com.google.common.base.Preconditions;
+import com.siemens.industrialbenchmark.datavector.DataVectorImpl;
+import com.siemens.rl.interfaces.DataVector;
+import com.siemens.rl.interfaces.ExternalDriver;
+
+/**
+ * Setpoint driver replaying a precomputed {@link SetPointTrajectory}, see {@link SetPointTrajectoryCache}.
+ * Each {@link #filter(DataVector)} writes the next entry of the trajectory, hence a step costs an array
+ * read instead of reseeding and stepping a {@link SetPointGenerator}.
+ * <p>
+ * The setpoint trajectory only depends on the seed of the trajectory. In contrast to a {@link SetPointGenerator},
+ * which is reseeded by the benchmark in every step, it does not depend on the actions; {@link #setSeed(long)}
+ * is ignored. The position in the trajectory is part of the state ({@link SetPointTrajectoryStateDescription#SetPointTrajectoryStep}),
+ * hence it is restored with the markovian state. A benchmark consumes one entry at construction and reset
+ * and one entry per step.
+ */
+public class CachedSetPointDriver implements ExternalDriver {
+
+	private final SetPointTrajectory trajectory;
+	private int position;
+
+	/**
+	 * Constructor replaying a trajectory from the start
+	 * @param trajectory The shared trajectory
+	 */
+	public CachedSetPointDriver(SetPointTrajectory trajectory) {
+		this(trajectory, 0);
+	}
+
+	/**
+	 * Constructor replaying a trajectory from a position
+	 * @param trajectory The shared trajectory
+	 * @param position The index of the next entry
+	 */
+	public CachedSetPointDriver(SetPointTrajectory trajectory, int position) {
+		this.trajectory = Preconditions.checkNotNull(trajectory, "trajectory must not be null.");
+		seek(position);
+	}
+
+	/**
+	 * Returns the replayed trajectory
+	 * @return the trajectory
+	 */
+	public SetPointTrajectory getTrajectory() {
+		return trajectory;
+	}
+
+	/**
+	 * Returns the index of the next entry
+	 * @return the position
+	 */
+	public int getPosition() {
+		return position;
+	}
+
+	/**
+	 * Sets the index of the next entry
+	 * @param position The position in [0, length]
+	 */
+	public void seek(int position) {
+		Preconditions.checkArgument(position >= 0 && position <= trajectory.length(),
+				"position=%s must be in [0, %s]", position, trajectory.length());
+		this.position = position;
+	}
+
+	@Override
+	public void setSeed(long seed) {
+		// the trajectory is precomputed
+	}
+
+	@Override
+	public void filter(DataVector state) {
+		Preconditions.checkState(position < trajectory.length(), "setpoint trajectory of %s steps exhausted", trajectory.length());
+		final int i = position++;
+		state.setValue(SetPointTrajectoryStateDescription.SetPoint, trajectory.getSetPoint(i));
+		state.setValue(SetPointTrajectoryStateDescription.SetPointChangeRatePerStep, trajectory.getChangeRatePerStep(i));
+		state.setValue(SetPointTrajectoryStateDescription.SetPointCurrentSteps, trajectory.getCurrentSteps(i));
+		state.setValue(SetPointTrajectoryStateDescription.SetPointLastSequenceSteps, trajectory.getLastSequenceSteps(i));
+		state.setValue(SetPointTrajectoryStateDescription.SetPointTrajectoryStep, position);
+	}
+
+	@Override
+	public void setConfiguration(DataVector state) {
+		seek(state.getValue(SetPointTrajectoryStateDescription.SetPointTrajectoryStep).intValue());
+	}
+
+	@Override
+	public DataVector getState() {
+		DataVectorImpl s = new DataVectorImpl(SetPointTrajectoryStateDescription.SCHEMA);
+		if (position > 0) {
+			final int i = position - 1;
+			s.setValue(SetPointTrajectoryStateDescription.SetPoint, trajectory.getSetPoint(i));
+			s.setValue(SetPointTrajectoryStateDescription.SetPointChangeRatePerStep, trajectory.getChangeRatePerStep(i));
+			s.setValue(SetPointTrajectoryStateDescription.SetPointCurrentSteps, trajectory.getCurrentSteps(i));
+			s.setValue(SetPointTrajectoryStateDescription.SetPointLastSequenceSteps, trajectory.getLastSequenceSteps(i));
+		}
+		s.setValue(SetPointTrajectoryStateDescription.SetPointTrajectoryStep, position);
+		return s;
+	}
+
+	@Override
+	public CachedSetPointDriver copy() {
+		return new CachedSetPointDriver(trajectory, position);
+	}
+
+	@Override
+	public int getSnapshotSize() {
+		return 4;
+	}
+
+	@Override
+	public void writeTo(ByteBuffer dst) {
+		dst.putInt(position);
+	}
+
+	@Override
+	public void readFrom(ByteBuffer src) {
+		seek(src.getInt());
+	}
+}
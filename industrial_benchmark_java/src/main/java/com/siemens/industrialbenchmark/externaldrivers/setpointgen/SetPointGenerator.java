@@ -17,15 +17,16 @@ package com.siemens.industrialbenchmark.externaldrivers.setpointgen;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Properties;
 
-import org.apache.commons.math3.random.RandomDataGenerator;
-
 import com.google.common.base.Preconditions;
 import com.siemens.industrialbenchmark.datavector.DataVectorImpl;
+import com.siemens.industrialbenchmark.properties.IndustrialBenchmarkConfig;
 import com.siemens.industrialbenchmark.properties.PropertiesException;
 import com.siemens.industrialbenchmark.properties.PropertiesUtil;
 import com.siemens.industrialbenchmark.util.PlotCurve;
+import com.siemens.industrialbenchmark.util.RandomSource;
 import com.siemens.rl.interfaces.DataVector;
 import com.siemens.rl.interfaces.ExternalDriver;
 
@@ -49,34 +50,109 @@ public class SetPointGenerator implements ExternalDriver {
 	private boolean mIsStationary;
 	private double mSetPoint;
 	
-	private RandomDataGenerator mRandom = new RandomDataGenerator(); 
+	private final RandomSource.Type mRandomType;
+	private final RandomSource mRandom;
 	
 
 	/**
-	 Constructor with given seed and properties file
+	 Constructor with given seed and properties file. Only the setpoint properties
+	 * (STATIONARY_SETPOINT, MAX_CHANGE_RATE_PER_STEP_SETPOINT, MAX_SEQUENCE_LENGTH, SetPoint_MIN,
+	 * SetPoint_MAX, SETPOINT_STEP_SIZE and the optional RANDOM_GENERATOR) are parsed.
 	 * @param seed The seed for the random number generator 
 	 * @param aProperties The properties file to parse 
 	 * @throws PropertiesException
 	 */
 	public SetPointGenerator(long seed, Properties aProperties)
 			throws PropertiesException {
+		this(seed, aProperties.containsKey("STATIONARY_SETPOINT"),
+				aProperties.containsKey("STATIONARY_SETPOINT") ? PropertiesUtil.getFloat(aProperties, "STATIONARY_SETPOINT", true) : Float.NaN,
+				PropertiesUtil.getFloat(aProperties, "MAX_CHANGE_RATE_PER_STEP_SETPOINT", true),
+				PropertiesUtil.getInt(aProperties, "MAX_SEQUENCE_LENGTH", true),
+				PropertiesUtil.getFloat(aProperties, "SetPoint_MIN", true),
+				PropertiesUtil.getFloat(aProperties, "SetPoint_MAX", true),
+				PropertiesUtil.getFloat(aProperties, "SETPOINT_STEP_SIZE", true),
+				IndustrialBenchmarkConfig.getRandomSourceType(aProperties));
+	}
+
+	/**
+	 Constructor with given seed and configuration
+	 * @param seed The seed for the random number generator 
+	 * @param aConfig The configuration 
+	 */
+	public SetPointGenerator(long seed, IndustrialBenchmarkConfig aConfig) {
+		this(seed, aConfig.isStationarySetPoint(), aConfig.getStationarySetPoint(), aConfig.getMaxChangeRatePerStepSetPoint(),
+				aConfig.getMaxSequenceLength(), aConfig.getSetPointMin(), aConfig.getSetPointMax(), aConfig.getSetPointStepSize(),
+				aConfig.getRandomSourceType());
+	}
+
+	private SetPointGenerator(long seed, boolean stationary, float stationarySetPoint, float maxChangeRatePerStep,
+			int maxSequenceLength, float minSetPoint, float maxSetPoint, float stepSize, RandomSource.Type randomType) {
 
-		mIsStationary = aProperties.containsKey("STATIONARY_SETPOINT");
+		mIsStationary = stationary;
 		if (mIsStationary) {
-			mSetPoint = PropertiesUtil.getFloat (aProperties, "STATIONARY_SETPOINT", true);			
+			mSetPoint = stationarySetPoint;
 			Preconditions.checkArgument(mSetPoint >= 0.0f && mSetPoint <= 100.0f, "setpoint must be in range [0, 100]");
 		}
-		MAX_CHANGE_RATE_PER_STEP_SETPOINT = PropertiesUtil.getFloat(aProperties, "MAX_CHANGE_RATE_PER_STEP_SETPOINT", true);
-		MAX_SEQUENCE_LENGTH = PropertiesUtil.getInt(aProperties, "MAX_SEQUENCE_LENGTH", true);
-		MINSETPOINT = PropertiesUtil.getFloat(aProperties, "SetPoint_MIN", true);
-		MAXSETPOINT = PropertiesUtil.getFloat(aProperties, "SetPoint_MAX", true);
-		SETPOINT_STEP_SIZE = PropertiesUtil.getFloat(aProperties, "SETPOINT_STEP_SIZE", true);
+		MAX_CHANGE_RATE_PER_STEP_SETPOINT = maxChangeRatePerStep;
+		MAX_SEQUENCE_LENGTH = maxSequenceLength;
+		MINSETPOINT = minSetPoint;
+		MAXSETPOINT = maxSetPoint;
+		SETPOINT_STEP_SIZE = stepSize;
 		
-		this.mRandom = new RandomDataGenerator();
+		this.mRandomType = randomType;
+		this.mRandom = mRandomType.create();
 		this.mRandom.reSeed(seed);
 		defineNewSequence();
 	}
 
+	/**
+	 * Copy constructor, the random number generator is not seeded
+	 * @param other The setpoint generator to copy
+	 */
+	private SetPointGenerator(SetPointGenerator other) {
+		SETPOINT_STEP_SIZE = other.SETPOINT_STEP_SIZE;
+		MAX_CHANGE_RATE_PER_STEP_SETPOINT = other.MAX_CHANGE_RATE_PER_STEP_SETPOINT;
+		MAX_SEQUENCE_LENGTH = other.MAX_SEQUENCE_LENGTH;
+		MINSETPOINT = other.MINSETPOINT;
+		MAXSETPOINT = other.MAXSETPOINT;
+		mCurrentSteps = other.mCurrentSteps;
+		mLastSequenceSteps = other.mLastSequenceSteps;
+		mChangeRatePerStep = other.mChangeRatePerStep;
+		mIsStationary = other.mIsStationary;
+		mSetPoint = other.mSetPoint;
+		mRandomType = other.mRandomType;
+		mRandom = mRandomType.create();
+	}
+
+	@Override
+	public SetPointGenerator copy() {
+		return new SetPointGenerator(this);
+	}
+
+	/** setpoint, change rate, current steps, last sequence steps */
+	private static final int SNAPSHOT_SIZE = 8 + 8 + 4 + 4;
+
+	@Override
+	public int getSnapshotSize() {
+		return SNAPSHOT_SIZE;
+	}
+
+	@Override
+	public void writeTo(ByteBuffer dst) {
+		dst.putDouble(mSetPoint);
+		dst.putDouble(mChangeRatePerStep);
+		dst.putInt(mCurrentSteps);
+		dst.putInt(mLastSequenceSteps);
+	}
+
+	@Override
+	public void readFrom(ByteBuffer src) {
+		mSetPoint = src.getDouble();
+		mChangeRatePerStep = src.getDouble();
+		mCurrentSteps = src.getInt();
+		mLastSequenceSteps = src.getInt();
+	}
+
 
 	/**
 	 * returns the current steps
@@ -133,6 +209,14 @@ public class SetPointGenerator implements ExternalDriver {
 		this(System.currentTimeMillis(), aProperties);
 	}
 
+	/**
+	 * Default constructor with seed=System.currentTimeMillis()
+	 * @param aConfig The configuration 
+	 */
+	public SetPointGenerator(IndustrialBenchmarkConfig aConfig) {
+		this(System.currentTimeMillis(), aConfig);
+	}
+
 	
 	/**
 	 * Returns the next setpoint and on the internal memorized old setpoint
@@ -243,7 +327,7 @@ public class SetPointGenerator implements ExternalDriver {
 
 	@Override
 	public DataVector getState() {
-		DataVectorImpl s = new DataVectorImpl (new SetPointGeneratorStateDescription());
+		DataVectorImpl s = new DataVectorImpl (SetPointGeneratorStateDescription.SCHEMA);
 		s.setValue(SetPointGeneratorStateDescription.SetPoint, mSetPoint);
 		s.setValue(SetPointGeneratorStateDescription.SetPointChangeRatePerStep, mChangeRatePerStep);
 		s.setValue(SetPointGeneratorStateDescription.SetPointCurrentSteps, mCurrentSteps);
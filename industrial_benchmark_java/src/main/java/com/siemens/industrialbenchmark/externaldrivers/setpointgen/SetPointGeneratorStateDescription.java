@@ -15,7 +15,10 @@ limitations under the License.
 */
 package com.siemens.industrialbenchmark.externaldrivers.setpointgen;
 
+import java.util.Arrays;
+
 import com.siemens.industrialbenchmark.datavector.DataVectorDescription;
+import com.siemens.industrialbenchmark.datavector.DataVectorSchema;
 import com.siemens.industrialbenchmark.datavector.state.MarkovianStateDescription;
 
 /**
@@ -35,6 +38,9 @@ public class SetPointGeneratorStateDescription extends DataVectorDescription {
 	private final static String[] stateVars = new String[] {
         	SetPoint, SetPointLastSequenceSteps, SetPointCurrentSteps, SetPointChangeRatePerStep
     };
+
+    /** schema shared by all setpoint generator states */
+    public static final DataVectorSchema SCHEMA = DataVectorSchema.of(Arrays.asList(stateVars));
        
     public SetPointGeneratorStateDescription () {
     	super (stateVars);
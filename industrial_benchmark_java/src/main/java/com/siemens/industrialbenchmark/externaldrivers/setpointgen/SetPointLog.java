@@ -0,0 +1,171 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industrialbenchmark.externaldrivers.setpointgen;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.regex.Pattern;
+
+import com.google.common.base.Preconditions;
+import com.siemens.industrialbenchmark.trajectory.TrajectoryReader;
+import com.siemens.industrialbenchmark.trajectory.TrajectoryWriter;
+
+/**
+ * Recorded setpoint profile in a memory-mapped trajectory file (see {@link TrajectoryWriter}) with a
+ * {@value #COLUMN} column. One log is shared read-only by the {@link SetPointReplayDriver drivers} of any
+ * number of benchmarks and threads, hence the memory does not depend on the number of benchmarks.
+ * CSV logs are converted by {@link #convertCsv(File, File, String)}.
+ */
+public class SetPointLog implements Closeable {
+
+	/** default name of the setpoint column */
+	public static final String COLUMN = SetPointGeneratorStateDescription.SetPoint;
+	/** rows per block of converted logs */
+	public static final int ROWS_PER_BLOCK = 1 << 16;
+
+	private static final Pattern SEPARATOR = Pattern.compile("[,;\\s]+");
+
+	private final TrajectoryReader reader;
+	private final int column;
+
+	/**
+	 * Opens a setpoint log with a {@value #COLUMN} column
+	 * @param aFile The trajectory file
+	 * @throws IOException
+	 */
+	public SetPointLog(File aFile) throws IOException {
+		this(aFile, COLUMN);
+	}
+
+	/**
+	 * Opens a setpoint log
+	 * @param aFile The trajectory file
+	 * @param column The name of the setpoint column
+	 * @throws IOException
+	 */
+	public SetPointLog(File aFile, String column) throws IOException {
+		this.reader = new TrajectoryReader(aFile);
+		try {
+			this.column = reader.getColumnIndex(column);
+		} catch (IllegalArgumentException e) {
+			reader.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Returns the number of setpoints
+	 * @return the length of the log
+	 */
+	public long length() {
+		return reader.getRowCount();
+	}
+
+	/**
+	 * Returns the setpoint of a step
+	 * @param step The step in [0, length)
+	 * @return the setpoint
+	 */
+	public double get(long step) {
+		return reader.get(step, column);
+	}
+
+	@Override
+	public void close() throws IOException {
+		reader.close();
+	}
+
+	/**
+	 * Converts a CSV log to a setpoint log with a {@value #COLUMN} column. Values may be separated by commas,
+	 * semicolons or whitespace, empty lines and lines starting with '#' are skipped. If the first line is a
+	 * header, the setpoints are read from the given column, otherwise from the first column.
+	 * @param csvFile The CSV file
+	 * @param logFile The setpoint log to write
+	 * @param column The name of the setpoint column in the header, or null for the first column
+	 * @return the number of setpoints
+	 * @throws IOException
+	 */
+	public static long convertCsv(File csvFile, File logFile, String column) throws IOException {
+		try (BufferedReader in = Files.newBufferedReader(csvFile.toPath(), StandardCharsets.UTF_8);
+				TrajectoryWriter out = new TrajectoryWriter(logFile, Collections.singletonList(COLUMN), ROWS_PER_BLOCK)) {
+			final double[] row = new double[1];
+			int index = 0;
+			boolean first = true;
+			String line;
+			int lineNumber = 0;
+			while ((line = in.readLine()) != null) {
+				lineNumber++;
+				line = line.trim();
+				if (line.isEmpty() || line.startsWith("#")) {
+					continue;
+				}
+				final String[] fields = SEPARATOR.split(line);
+				if (first) {
+					first = false;
+					if (!isNumber(fields[0])) {
+						index = column == null ? 0 : indexOf(fields, column);
+						Preconditions.checkArgument(index >= 0, "no column %s in %s", column, csvFile);
+						continue;
+					}
+				}
+				Preconditions.checkArgument(index < fields.length, "line %s of %s has no column %s", lineNumber, csvFile, index);
+				try {
+					row[0] = Double.parseDouble(fields[index]);
+				} catch (NumberFormatException e) {
+					throw new IOException("line " + lineNumber + " of " + csvFile + ": " + e.getMessage(), e);
+				}
+				out.append(row);
+			}
+			return out.getRowCount();
+		}
+	}
+
+	private static boolean isNumber(String s) {
+		try {
+			Double.parseDouble(s);
+			return true;
+		} catch (NumberFormatException e) {
+			return false;
+		}
+	}
+
+	private static int indexOf(String[] fields, String name) {
+		for (int i = 0; i < fields.length; i++) {
+			if (fields[i].equals(name)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * converts a CSV log: &lt;csv file&gt; &lt;setpoint log&gt; [column]
+	 * @throws IOException
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.err.println("usage: SetPointLog <csv file> <setpoint log> [column]");
+			System.exit(1);
+		}
+		final long rows = convertCsv(new File(args[0]), new File(args[1]), args.length > 2 ? args[2] : null);
+		System.out.println(rows + " setpoints written to " + args[1]);
+	}
+}
@@ -0,0 +1,130 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industrialbenchmark.externaldrivers.setpointgen;
+
+import java.nio.ByteBuffer;
+
+import com.google.common.base.Preconditions;
+import com.siemens.industrialbenchmark.datavector.DataVectorImpl;
+import com.siemens.rl.interfaces.DataVector;
+import com.siemens.rl.interfaces.ExternalDriver;
+
+/**
+ * Setpoint driver replaying a recorded {@link SetPointLog}. Each {@link #filter(DataVector)} writes the
+ * setpoint of the next step; {@link #setSeed(long)} is ignored. All drivers share the memory mapping of
+ * the log, a driver only holds its position.
+ * <p>
+ * The position is part of the state ({@link SetPointReplayStateDescription#SetPointTrajectoryStep}),
+ * hence {@link #getState()} and {@link #setConfiguration(DataVector)} checkpoint and restore it together
+ * with the markovian state. A benchmark consumes one setpoint at construction and reset and one setpoint
+ * per step.
+ */
+public class SetPointReplayDriver implements ExternalDriver {
+
+	private final SetPointLog log;
+	private long position;
+
+	/**
+	 * Constructor replaying a log from the start
+	 * @param log The shared log
+	 */
+	public SetPointReplayDriver(SetPointLog log) {
+		this(log, 0);
+	}
+
+	/**
+	 * Constructor replaying a log from a step
+	 * @param log The shared log
+	 * @param position The step of the next setpoint
+	 */
+	public SetPointReplayDriver(SetPointLog log, long position) {
+		this.log = Preconditions.checkNotNull(log, "log must not be null.");
+		seek(position);
+	}
+
+	/**
+	 * Returns the replayed log
+	 * @return the log
+	 */
+	public SetPointLog getLog() {
+		return log;
+	}
+
+	/**
+	 * Returns the step of the next setpoint
+	 * @return the position
+	 */
+	public long getPosition() {
+		return position;
+	}
+
+	/**
+	 * Sets the step of the next setpoint
+	 * @param position The position in [0, length]
+	 */
+	public void seek(long position) {
+		Preconditions.checkArgument(position >= 0 && position <= log.length(),
+				"position=%s must be in [0, %s]", position, log.length());
+		this.position = position;
+	}
+
+	@Override
+	public void setSeed(long seed) {
+		// the setpoints are recorded
+	}
+
+	@Override
+	public void filter(DataVector state) {
+		Preconditions.checkState(position < log.length(), "setpoint log of %s steps exhausted", log.length());
+		state.setValue(SetPointReplayStateDescription.SetPoint, log.get(position++));
+		state.setValue(SetPointReplayStateDescription.SetPointTrajectoryStep, position);
+	}
+
+	@Override
+	public void setConfiguration(DataVector state) {
+		seek(state.getValue(SetPointReplayStateDescription.SetPointTrajectoryStep).longValue());
+	}
+
+	@Override
+	public DataVector getState() {
+		DataVectorImpl s = new DataVectorImpl(SetPointReplayStateDescription.SCHEMA);
+		if (position > 0) {
+			s.setValue(SetPointReplayStateDescription.SetPoint, log.get(position - 1));
+		}
+		s.setValue(SetPointReplayStateDescription.SetPointTrajectoryStep, position);
+		return s;
+	}
+
+	@Override
+	public SetPointReplayDriver copy() {
+		return new SetPointReplayDriver(log, position);
+	}
+
+	@Override
+	public int getSnapshotSize() {
+		return 8;
+	}
+
+	@Override
+	public void writeTo(ByteBuffer dst) {
+		dst.putLong(position);
+	}
+
+	@Override
+	public void readFrom(ByteBuffer src) {
+		seek(src.getLong());
+	}
+}
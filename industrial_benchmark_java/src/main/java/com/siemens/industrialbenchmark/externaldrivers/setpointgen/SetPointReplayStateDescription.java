@@ -0,0 +1,41 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industrialbenchmark.externaldrivers.setpointgen;
+
+import java.util.Arrays;
+
+import com.siemens.industrialbenchmark.datavector.DataVectorDescription;
+import com.siemens.industrialbenchmark.datavector.DataVectorSchema;
+
+/**
+ * state description for the setpoint replay driver: the setpoint and the position in the setpoint log
+ */
+public class SetPointReplayStateDescription extends DataVectorDescription {
+
+	public static final String SetPoint = SetPointGeneratorStateDescription.SetPoint;
+	public static final String SetPointTrajectoryStep = SetPointTrajectoryStateDescription.SetPointTrajectoryStep;
+
+	private final static String[] stateVars = new String[] {
+			SetPoint, SetPointTrajectoryStep
+	};
+
+	/** schema shared by all setpoint replay states */
+	public static final DataVectorSchema SCHEMA = DataVectorSchema.of(Arrays.asList(stateVars));
+
+	public SetPointReplayStateDescription() {
+		super(stateVars);
+	}
+}
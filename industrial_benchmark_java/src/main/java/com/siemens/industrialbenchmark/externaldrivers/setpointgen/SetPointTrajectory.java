@@ -0,0 +1,94 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industrialbenchmark.externaldrivers.setpointgen;
+
+import com.google.common.base.Preconditions;
+import com.siemens.industrialbenchmark.properties.IndustrialBenchmarkConfig;
+
+/**
+ * Immutable setpoint trajectory of a {@link SetPointGenerator}, stored as primitive arrays. Entry i holds
+ * the setpoint, the change rate, the current steps and the last sequence steps after the (i+1)-th
+ * {@link SetPointGenerator#step()} of a generator which is seeded once. Instances can be shared by any
+ * number of threads.
+ */
+public final class SetPointTrajectory {
+
+	private final long seed;
+	private final double[] setPoint;
+	private final double[] changeRatePerStep;
+	private final int[] currentSteps;
+	private final int[] lastSequenceSteps;
+
+	private SetPointTrajectory(long seed, int length) {
+		this.seed = seed;
+		this.setPoint = new double[length];
+		this.changeRatePerStep = new double[length];
+		this.currentSteps = new int[length];
+		this.lastSequenceSteps = new int[length];
+	}
+
+	/**
+	 * Generates a trajectory
+	 * @param aConfig The configuration of the setpoint generator
+	 * @param seed The seed of the setpoint generator
+	 * @param length The number of entries
+	 * @return the trajectory
+	 */
+	public static SetPointTrajectory generate(IndustrialBenchmarkConfig aConfig, long seed, int length) {
+		Preconditions.checkArgument(length > 0, "length=%s must be positive", length);
+		final SetPointTrajectory trajectory = new SetPointTrajectory(seed, length);
+		final SetPointGenerator generator = new SetPointGenerator(seed, aConfig);
+		for (int i = 0; i < length; i++) {
+			trajectory.setPoint[i] = generator.step();
+			trajectory.changeRatePerStep[i] = generator.getChangeRatePerStep();
+			trajectory.currentSteps[i] = generator.getCurrentSteps();
+			trajectory.lastSequenceSteps[i] = generator.getLastSequenceSteps();
+		}
+		return trajectory;
+	}
+
+	/**
+	 * Returns the seed of the setpoint generator
+	 * @return the seed
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * Returns the number of entries
+	 * @return the length
+	 */
+	public int length() {
+		return setPoint.length;
+	}
+
+	public double getSetPoint(int i) {
+		return setPoint[i];
+	}
+
+	public double getChangeRatePerStep(int i) {
+		return changeRatePerStep[i];
+	}
+
+	public int getCurrentSteps(int i) {
+		return currentSteps[i];
+	}
+
+	public int getLastSequenceSteps(int i) {
+		return lastSequenceSteps[i];
+	}
+}
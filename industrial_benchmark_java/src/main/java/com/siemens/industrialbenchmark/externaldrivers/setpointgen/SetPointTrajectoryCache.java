@@ -0,0 +1,123 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industrialbenchmark.externaldrivers.setpointgen;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.primitives.Longs;
+import com.siemens.industrialbenchmark.properties.IndustrialBenchmarkConfig;
+
+/**
+ * Immutable set of precomputed {@link SetPointTrajectory setpoint trajectories}, one per seed, which is
+ * shared read-only by the {@link CachedSetPointDriver drivers} of any number of benchmarks and threads.
+ */
+public final class SetPointTrajectoryCache {
+
+	private final ImmutableMap<Long, SetPointTrajectory> trajectories;
+	private final int length;
+
+	private SetPointTrajectoryCache(ImmutableMap<Long, SetPointTrajectory> trajectories, int length) {
+		this.trajectories = trajectories;
+		this.length = length;
+	}
+
+	/**
+	 * Generates the trajectories of all seeds on the common pool
+	 * @see #generate(IndustrialBenchmarkConfig, long[], int, ForkJoinPool)
+	 */
+	public static SetPointTrajectoryCache generate(IndustrialBenchmarkConfig aConfig, long[] seeds, int length) {
+		return generate(aConfig, seeds, length, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Generates the trajectories of all seeds in parallel, one task per seed
+	 * @param aConfig The configuration of the setpoint generators
+	 * @param seeds The seeds of the setpoint generators, duplicates are generated once
+	 * @param length The number of entries per trajectory
+	 * @param pool The pool generating the trajectories
+	 * @return the cache
+	 */
+	public static SetPointTrajectoryCache generate(final IndustrialBenchmarkConfig aConfig, long[] seeds, final int length, ForkJoinPool pool) {
+		Preconditions.checkNotNull(aConfig, "config must not be null.");
+		Preconditions.checkArgument(seeds.length > 0, "at least one seed is required");
+		Preconditions.checkArgument(length > 0, "length=%s must be positive", length);
+
+		final List<Future<SetPointTrajectory>> results = new ArrayList<Future<SetPointTrajectory>>();
+		for (final long seed : new LinkedHashSet<Long>(Longs.asList(seeds))) {
+			results.add(pool.submit(() -> SetPointTrajectory.generate(aConfig, seed, length)));
+		}
+
+		final Map<Long, SetPointTrajectory> trajectories = new LinkedHashMap<Long, SetPointTrajectory>();
+		try {
+			for (Future<SetPointTrajectory> result : results) {
+				final SetPointTrajectory trajectory = result.get();
+				trajectories.putIfAbsent(trajectory.getSeed(), trajectory);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("interrupted", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		}
+		return new SetPointTrajectoryCache(ImmutableMap.copyOf(trajectories), length);
+	}
+
+	/**
+	 * Returns the number of entries per trajectory
+	 * @return the length
+	 */
+	public int getLength() {
+		return length;
+	}
+
+	/**
+	 * Returns the number of trajectories
+	 * @return the number of seeds
+	 */
+	public int size() {
+		return trajectories.size();
+	}
+
+	/**
+	 * Returns the trajectory of a seed
+	 * @param seed The seed
+	 * @return the trajectory
+	 * @throws IllegalArgumentException if the trajectory of the seed was not generated
+	 */
+	public SetPointTrajectory get(long seed) {
+		final SetPointTrajectory trajectory = trajectories.get(seed);
+		Preconditions.checkArgument(trajectory != null, "no setpoint trajectory for seed %s", seed);
+		return trajectory;
+	}
+
+	/**
+	 * Creates a driver replaying the trajectory of a seed from the start
+	 * @param seed The seed
+	 * @return the driver
+	 */
+	public CachedSetPointDriver createDriver(long seed) {
+		return new CachedSetPointDriver(get(seed));
+	}
+}
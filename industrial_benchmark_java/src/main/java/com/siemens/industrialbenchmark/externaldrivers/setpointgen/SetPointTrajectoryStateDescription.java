@@ -0,0 +1,47 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industrialbenchmark.externaldrivers.setpointgen;
+
+import java.util.Arrays;
+
+import com.siemens.industrialbenchmark.datavector.DataVectorDescription;
+import com.siemens.industrialbenchmark.datavector.DataVectorSchema;
+
+/**
+ * state description for setpoint drivers replaying a trajectory: the setpoint generator variables
+ * and the position in the trajectory
+ */
+public class SetPointTrajectoryStateDescription extends DataVectorDescription {
+
+	public static final String SetPoint = SetPointGeneratorStateDescription.SetPoint;
+	public static final String SetPointLastSequenceSteps = SetPointGeneratorStateDescription.SetPointLastSequenceSteps;
+	public static final String SetPointCurrentSteps = SetPointGeneratorStateDescription.SetPointCurrentSteps;
+	public static final String SetPointChangeRatePerStep = SetPointGeneratorStateDescription.SetPointChangeRatePerStep;
+
+	/** number of trajectory entries consumed so far */
+	public static final String SetPointTrajectoryStep = "SetPointTrajectoryStep";
+
+	private final static String[] stateVars = new String[] {
+			SetPoint, SetPointLastSequenceSteps, SetPointCurrentSteps, SetPointChangeRatePerStep, SetPointTrajectoryStep
+	};
+
+	/** schema shared by all setpoint trajectory states */
+	public static final DataVectorSchema SCHEMA = DataVectorSchema.of(Arrays.asList(stateVars));
+
+	public SetPointTrajectoryStateDescription() {
+		super(stateVars);
+	}
+}
@@ -0,0 +1,228 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industrialbenchmark.generate;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import com.google.common.base.Preconditions;
+import com.siemens.industrialbenchmark.datavector.DataVectorImpl;
+import com.siemens.industrialbenchmark.datavector.action.ActionDelta;
+import com.siemens.industrialbenchmark.datavector.state.ObservableStateDescription;
+import com.siemens.industrialbenchmark.datavector.state.ObservableStateView;
+import com.siemens.industrialbenchmark.dynamics.FlightRecorderEvents;
+import com.siemens.industrialbenchmark.dynamics.IndustrialBenchmarkDynamics;
+import com.siemens.industrialbenchmark.dynamics.ParallelIndustrialBenchmark;
+import com.siemens.industrialbenchmark.externaldrivers.setpointgen.SetPointGenerator;
+import com.siemens.industrialbenchmark.policy.Policy;
+import com.siemens.industrialbenchmark.properties.IndustrialBenchmarkConfig;
+import com.siemens.industrialbenchmark.properties.PropertiesException;
+import com.siemens.industrialbenchmark.trajectory.TrajectoryRecorder;
+import com.siemens.rl.interfaces.ExternalDriver;
+
+/**
+ * Generates a batch RL dataset of episodes split into shards, which are written in parallel.
+ * Every shard is a trajectory file (see {@link TrajectoryRecorder}) holding a contiguous range of
+ * episodes of equal length. An episode of n steps has n+1 rows: the first row holds the initial
+ * observation with NaN action and reward, row t (t = 1..n) holds the action of step t, its reward
+ * and the observation after it. Hence the transition (s, a, r, s') of step t consists of the
+ * observation of row t-1 and action, reward and observation of row t. The file {@value #MANIFEST}
+ * lists shard, file, episode and seed of every episode.
+ * <p>
+ * The seeds of the benchmark and of the policy are derived from the master seed and the episode
+ * index only, hence the dataset does not depend on the number of workers or shards.
+ */
+public class DatasetGenerator {
+
+	/** name of the manifest file */
+	public static final String MANIFEST = "manifest.txt";
+
+	private final IndustrialBenchmarkConfig config;
+	private final Supplier<? extends Policy> policies;
+	private final int episodes;
+	private final int steps;
+	private final int shards;
+	private final long masterSeed;
+
+	/**
+	 * Constructor
+	 * @param aConfig The benchmark configuration
+	 * @param policies Creates one policy per shard, which is reset at the start of each episode
+	 * @param episodes The number of episodes
+	 * @param steps The number of steps per episode
+	 * @param shards The number of shards
+	 * @param masterSeed The seed from which the episode seeds are derived
+	 */
+	public DatasetGenerator(IndustrialBenchmarkConfig aConfig, Supplier<? extends Policy> policies,
+			int episodes, int steps, int shards, long masterSeed) {
+		Preconditions.checkNotNull(aConfig, "config must not be null.");
+		Preconditions.checkNotNull(policies, "policies must not be null.");
+		Preconditions.checkArgument(episodes > 0, "episodes=%s must be positive", episodes);
+		Preconditions.checkArgument(steps > 0, "steps=%s must be positive", steps);
+		Preconditions.checkArgument(shards > 0 && shards <= episodes, "shards=%s must be in [1, %s]", shards, episodes);
+		this.config = aConfig;
+		this.policies = policies;
+		this.episodes = episodes;
+		this.steps = steps;
+		this.shards = shards;
+		this.masterSeed = masterSeed;
+	}
+
+	/**
+	 * Returns the seed of the benchmark in an episode
+	 * @param masterSeed The master seed
+	 * @param episode The episode index
+	 * @return the seed of the episode
+	 */
+	public static long episodeSeed(long masterSeed, int episode) {
+		return ParallelIndustrialBenchmark.deriveSeed(masterSeed, episode);
+	}
+
+	/**
+	 * Returns the file name of a shard
+	 * @param shard The shard index
+	 * @return the file name
+	 */
+	public static String shardName(int shard) {
+		return String.format("shard-%05d.ibt", shard);
+	}
+
+	/**
+	 * Returns the first episode of a shard
+	 * @param shard The shard index, or the number of shards for the end of the last shard
+	 * @return the index of the first episode
+	 */
+	public int firstEpisode(int shard) {
+		return (int) ((long) shard * episodes / shards);
+	}
+
+	/**
+	 * Writes all shards and the manifest into a directory
+	 * @param outDir The output directory, which is created if necessary
+	 * @param workers The number of worker threads
+	 * @return the shard files
+	 * @throws IOException
+	 * @throws PropertiesException
+	 */
+	public List<File> generate(File outDir, int workers) throws IOException, PropertiesException {
+		Preconditions.checkArgument(workers > 0, "workers=%s must be positive", workers);
+		if (!outDir.isDirectory() && !outDir.mkdirs()) {
+			throw new IOException("cannot create directory " + outDir);
+		}
+
+		final List<File> files = new ArrayList<File>();
+		final List<Future<Void>> results = new ArrayList<Future<Void>>();
+		final ExecutorService executor = Executors.newFixedThreadPool(Math.min(workers, shards));
+		try {
+			for (int s = 0; s < shards; s++) {
+				final int shard = s;
+				final File file = new File(outDir, shardName(shard));
+				files.add(file);
+				results.add(executor.submit(new Callable<Void>() {
+					@Override
+					public Void call() throws Exception {
+						writeShard(shard, file);
+						return null;
+					}
+				}));
+			}
+			for (Future<Void> result : results) {
+				result.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("interrupted", e);
+		} catch (ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			} else if (cause instanceof PropertiesException) {
+				throw (PropertiesException) cause;
+			} else if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new IllegalStateException(cause);
+		} finally {
+			executor.shutdownNow();
+		}
+
+		writeManifest(new File(outDir, MANIFEST));
+		return files;
+	}
+
+	private void writeShard(int shard, File file) throws IOException, PropertiesException {
+		final Policy policy = policies.get();
+		final ActionDelta action = new ActionDelta(0, 0, 0);
+		final double[] observation = new double[ObservableStateView.SIZE];
+		final double[] delta = new double[Policy.ACTION_SIZE];
+		// marks the row of the initial observation, the values are NaN
+		final DataVectorImpl noAction = new DataVectorImpl(action.getSchema());
+
+		try (TrajectoryRecorder recorder = new TrajectoryRecorder(file, action.getKeys(), ObservableStateDescription.SCHEMA.getKeys())) {
+			for (int e = firstEpisode(shard); e < firstEpisode(shard + 1); e++) {
+				final long seed = episodeSeed(masterSeed, e);
+				final IndustrialBenchmarkConfig episodeConfig = config.withSeed(seed);
+				final List<ExternalDriver> drivers = new ArrayList<ExternalDriver>();
+				drivers.add(new SetPointGenerator(seed, episodeConfig));
+				final IndustrialBenchmarkDynamics env = new IndustrialBenchmarkDynamics(episodeConfig, drivers);
+				final ObservableStateView state = env.getStateView();
+
+				policy.reset(ParallelIndustrialBenchmark.deriveSeed(~masterSeed, e));
+				if (FlightRecorderEvents.AVAILABLE) {
+					FlightRecorderEvents.episodeStart(env, e, seed);
+				}
+				recorder.record(noAction, Double.NaN, state);
+				double totalReward = 0;
+				for (int t = 0; t < steps; t++) {
+					env.copyStateTo(observation, 0);
+					policy.act(observation, delta);
+					action.setDeltaVelocity(delta[0]);
+					action.setDeltaGain(delta[1]);
+					action.setDeltaShift(delta[2]);
+					final double reward = env.step(action);
+					recorder.record(action, reward, state);
+					totalReward += reward;
+				}
+				if (FlightRecorderEvents.AVAILABLE) {
+					FlightRecorderEvents.episodeEnd(env, e, totalReward);
+				}
+			}
+		}
+	}
+
+	private void writeManifest(File file) throws IOException {
+		try (PrintWriter out = new PrintWriter(file, StandardCharsets.UTF_8.name())) {
+			out.println("# episodes=" + episodes + " steps=" + steps + " shards=" + shards + " seed=" + masterSeed);
+			out.println("# rows per episode=" + (steps + 1) + ", the first row holds the initial observation with NaN action and reward");
+			out.println("shard file episode seed");
+			for (int s = 0; s < shards; s++) {
+				for (int e = firstEpisode(s); e < firstEpisode(s + 1); e++) {
+					out.println(s + " " + shardName(s) + " " + e + " " + episodeSeed(masterSeed, e));
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,148 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industrialbenchmark.generate;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Supplier;
+
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.ParameterException;
+import com.beust.jcommander.Parameters;
+import com.siemens.industrialbenchmark.policy.ActionSequencePolicy;
+import com.siemens.industrialbenchmark.policy.ConstantPolicy;
+import com.siemens.industrialbenchmark.policy.Policy;
+import com.siemens.industrialbenchmark.policy.RandomDeltaPolicy;
+import com.siemens.industrialbenchmark.properties.IndustrialBenchmarkConfig;
+import com.siemens.industrialbenchmark.properties.PropertiesException;
+
+/**
+ * Command line interface for the dataset generation, e.g.
+ * <pre>
+ * generate -p sim.properties --policy random -e 1000 -s 1000 -w 8 -o dataset
+ * </pre>
+ */
+public class GenerateMain {
+
+	@Parameters(commandDescription = "Generates a sharded batch RL dataset in parallel")
+	static class GenerateCommand {
+
+		@Parameter(names = {"--properties", "-p"}, description = "Benchmark configuration file")
+		String properties = "src/main/resources/sim.properties";
+
+		@Parameter(names = "--policy", description = "Behavior policy: random, constant or file")
+		String policy = "random";
+
+		@Parameter(names = "--action", description = "Delta action of the constant policy: deltaVelocity,deltaGain,deltaShift")
+		String action = "0,0,0";
+
+		@Parameter(names = "--policy-file", description = "Action sequence of the file policy, one action per line")
+		String policyFile;
+
+		@Parameter(names = {"--episodes", "-e"}, description = "Number of episodes")
+		int episodes = 100;
+
+		@Parameter(names = {"--steps", "-s"}, description = "Number of steps per episode")
+		int steps = 1000;
+
+		@Parameter(names = {"--workers", "-w"}, description = "Number of worker threads")
+		int workers = Runtime.getRuntime().availableProcessors();
+
+		@Parameter(names = "--shards", description = "Number of shards (default: number of workers, at most number of episodes)")
+		Integer shards;
+
+		@Parameter(names = "--seed", description = "Master seed (default: SEED of the configuration)")
+		Long seed;
+
+		@Parameter(names = {"--out", "-o"}, description = "Output directory")
+		String out = "dataset";
+	}
+
+	@Parameter(names = {"--help", "-h"}, help = true, description = "Shows the usage")
+	boolean help;
+
+	/**
+	 * Creates the policy factory of a command
+	 * @param command The parsed command
+	 * @return the policy factory
+	 * @throws IOException
+	 */
+	static Supplier<? extends Policy> createPolicies(GenerateCommand command) throws IOException {
+		switch (command.policy) {
+		case "random":
+			return RandomDeltaPolicy::new;
+		case "constant":
+			final ConstantPolicy constant = ConstantPolicy.parse(command.action);
+			return () -> constant;
+		case "file":
+			if (command.policyFile == null) {
+				throw new ParameterException("--policy-file is required for the file policy");
+			}
+			final double[][] actions = ActionSequencePolicy.read(new File(command.policyFile));
+			return () -> new ActionSequencePolicy(actions);
+		default:
+			throw new ParameterException("unknown policy '" + command.policy + "'");
+		}
+	}
+
+	/**
+	 * Runs a command
+	 * @param command The parsed command
+	 * @return the shard files
+	 * @throws IOException
+	 * @throws PropertiesException
+	 */
+	static List<File> generate(GenerateCommand command) throws IOException, PropertiesException {
+		final IndustrialBenchmarkConfig config = IndustrialBenchmarkConfig.fromFile(new File(command.properties));
+		final long seed = command.seed != null ? command.seed : config.getSeed(System.currentTimeMillis());
+		final int shards = command.shards != null ? command.shards : Math.min(command.workers, command.episodes);
+		final DatasetGenerator generator = new DatasetGenerator(config, createPolicies(command),
+				command.episodes, command.steps, shards, seed);
+		return generator.generate(new File(command.out), command.workers);
+	}
+
+	/**
+	 * Generates a dataset, see {@link GenerateCommand} for the options.
+	 * @param args
+	 * @throws IOException
+	 * @throws PropertiesException
+	 */
+	public static void main(String[] args) throws IOException, PropertiesException {
+		GenerateMain main = new GenerateMain();
+		GenerateCommand command = new GenerateCommand();
+		JCommander jc = new JCommander(main);
+		jc.setProgramName(GenerateMain.class.getName());
+		jc.addCommand("generate", command);
+		try {
+			jc.parse(args);
+		} catch (ParameterException e) {
+			System.err.println(e.getMessage());
+			jc.usage();
+			System.exit(1);
+		}
+		if (main.help || !"generate".equals(jc.getParsedCommand())) {
+			jc.usage();
+			return;
+		}
+
+		final long start = System.currentTimeMillis();
+		List<File> files = generate(command);
+		System.out.println("wrote " + files.size() + " shards with " + command.episodes + " episodes to '"
+				+ command.out + "' in " + (System.currentTimeMillis() - start) + " ms");
+	}
+}
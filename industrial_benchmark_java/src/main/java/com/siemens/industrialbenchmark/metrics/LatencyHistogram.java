@@ -0,0 +1,172 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industrialbenchmark.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Lock-free histogram of non-negative long values (e.g. nanoseconds) with a fixed set of
+ * log-linear buckets: values below {@value #SUB_BUCKETS} have their own bucket, larger values
+ * share a bucket with values of the same power of two and the same {@value #SUB_BITS} leading
+ * mantissa bits, i.e. the relative bucket width is at most 1/{@value #SUB_BUCKETS}.
+ * Recording is a single atomic increment plus the updates of sum and maximum.
+ */
+public class LatencyHistogram {
+
+	public static final int SUB_BITS = 4;
+	public static final int SUB_BUCKETS = 1 << SUB_BITS;
+	/** number of buckets covering all non-negative longs */
+	public static final int BUCKETS = (64 - SUB_BITS) * SUB_BUCKETS;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+	private final LongAdder sum = new LongAdder();
+	private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+	/**
+	 * Returns the bucket of a value
+	 * @param value The non-negative value
+	 * @return the bucket index
+	 */
+	static int bucketOf(long value) {
+		if (value < SUB_BUCKETS) {
+			return (int) value;
+		}
+		final int exponent = 63 - Long.numberOfLeadingZeros(value);
+		final int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+		return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+	}
+
+	/**
+	 * Returns the smallest value of a bucket
+	 * @param bucket The bucket index
+	 * @return the lower bound of the bucket
+	 */
+	static long lowerBound(int bucket) {
+		if (bucket < SUB_BUCKETS) {
+			return bucket;
+		}
+		final int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+		return (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << (exponent - SUB_BITS);
+	}
+
+	/**
+	 * Records a value; negative values (e.g. from non-monotonic clocks) are recorded as 0
+	 * @param value The value
+	 */
+	public void record(long value) {
+		final long v = Math.max(0, value);
+		counts.incrementAndGet(bucketOf(v));
+		sum.add(v);
+		max.accumulate(v);
+	}
+
+	/**
+	 * Returns the number of recorded values
+	 * @return the count
+	 */
+	public long getCount() {
+		long count = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			count += counts.get(i);
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the sum of the recorded values
+	 * @return the sum
+	 */
+	public long getSum() {
+		return sum.sum();
+	}
+
+	/**
+	 * Returns the largest recorded value
+	 * @return the maximum, 0 if empty
+	 */
+	public long getMax() {
+		return max.get();
+	}
+
+	/**
+	 * Returns the mean of the recorded values
+	 * @return the mean, NaN if empty
+	 */
+	public double getMean() {
+		final long count = getCount();
+		return count == 0 ? Double.NaN : getSum() / (double) count;
+	}
+
+	/**
+	 * Returns the lower bound of the bucket containing the given quantile
+	 * @param quantile The quantile in [0, 1]
+	 * @return the approximate value at the quantile, 0 if empty
+	 */
+	public long getValueAtQuantile(double quantile) {
+		Preconditions.checkArgument(quantile >= 0 && quantile <= 1, "quantile=%s must be in [0, 1]", quantile);
+		final long[] snapshot = new long[BUCKETS];
+		long count = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			snapshot[i] = counts.get(i);
+			count += snapshot[i];
+		}
+		final long rank = Math.max(1, (long) Math.ceil(quantile * count));
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += snapshot[i];
+			if (seen >= rank) {
+				return lowerBound(i);
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Adds all values of another histogram
+	 * @param other The other histogram
+	 */
+	public void add(LatencyHistogram other) {
+		for (int i = 0; i < BUCKETS; i++) {
+			final long c = other.counts.get(i);
+			if (c != 0) {
+				counts.addAndGet(i, c);
+			}
+		}
+		sum.add(other.getSum());
+		max.accumulate(other.getMax());
+	}
+
+	/**
+	 * Removes all values. Values recorded concurrently may be lost.
+	 */
+	public void reset() {
+		for (int i = 0; i < BUCKETS; i++) {
+			counts.set(i, 0);
+		}
+		sum.reset();
+		max.reset();
+	}
+
+	@Override
+	public String toString() {
+		return String.format("count=%d mean=%.1f p50=%d p99=%d max=%d",
+				getCount(), getMean(), getValueAtQuantile(0.5), getValueAtQuantile(0.99), getMax());
+	}
+}
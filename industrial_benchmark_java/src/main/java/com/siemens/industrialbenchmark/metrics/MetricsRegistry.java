@@ -0,0 +1,38 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industrialbenchmark.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Named counters and histograms. Asking twice for the same name returns the same instance.
+ */
+public interface MetricsRegistry {
+
+	/**
+	 * Returns the counter with the given name, creating it if necessary
+	 * @param name The name
+	 * @return the counter
+	 */
+	LongAdder counter(String name);
+
+	/**
+	 * Returns the histogram with the given name, creating it if necessary
+	 * @param name The name
+	 * @return the histogram
+	 */
+	LatencyHistogram histogram(String name);
+}
@@ -0,0 +1,73 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industrialbenchmark.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe in-memory {@link MetricsRegistry}.
+ */
+public class SimpleMetricsRegistry implements MetricsRegistry {
+
+	private final ConcurrentHashMap<String, LongAdder> counters = new ConcurrentHashMap<String, LongAdder>();
+	private final ConcurrentHashMap<String, LatencyHistogram> histograms = new ConcurrentHashMap<String, LatencyHistogram>();
+
+	@Override
+	public LongAdder counter(String name) {
+		return counters.computeIfAbsent(name, k -> new LongAdder());
+	}
+
+	@Override
+	public LatencyHistogram histogram(String name) {
+		return histograms.computeIfAbsent(name, k -> new LatencyHistogram());
+	}
+
+	/**
+	 * Returns all counters
+	 * @return unmodifiable view of the counters
+	 */
+	public Map<String, LongAdder> getCounters() {
+		return Collections.unmodifiableMap(counters);
+	}
+
+	/**
+	 * Returns all histograms
+	 * @return unmodifiable view of the histograms
+	 */
+	public Map<String, LatencyHistogram> getHistograms() {
+		return Collections.unmodifiableMap(histograms);
+	}
+
+	/**
+	 * Returns one line per counter and histogram, sorted by name
+	 */
+	@Override
+	public String toString() {
+		SortedMap<String, Object> sorted = new TreeMap<String, Object>();
+		sorted.putAll(counters);
+		sorted.putAll(histograms);
+		StringBuilder sb = new StringBuilder();
+		for (Map.Entry<String, Object> e : sorted.entrySet()) {
+			sb.append(e.getKey()).append(": ").append(e.getValue()).append('\n');
+		}
+		return sb.toString();
+	}
+}
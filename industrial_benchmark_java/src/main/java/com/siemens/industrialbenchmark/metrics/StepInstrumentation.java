@@ -0,0 +1,94 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industrialbenchmark.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Opt-in instrumentation of benchmarks: per-stage step timings and counters of steps, resets
+ * and state restores, registered in a {@link MetricsRegistry} as "&lt;prefix&gt;.step.&lt;stage&gt;",
+ * "&lt;prefix&gt;.steps", "&lt;prefix&gt;.resets" and "&lt;prefix&gt;.restores". One instance
+ * may be shared by several benchmarks and threads.
+ */
+public class StepInstrumentation {
+
+	public static final String DEFAULT_PREFIX = "ib";
+
+	private final LatencyHistogram[] stages = new LatencyHistogram[StepStage.values().length];
+	private final LongAdder steps;
+	private final LongAdder resets;
+	private final LongAdder restores;
+
+	/**
+	 * Constructor registering the metrics with the default prefix
+	 * @param registry The registry
+	 */
+	public StepInstrumentation(MetricsRegistry registry) {
+		this(registry, DEFAULT_PREFIX);
+	}
+
+	/**
+	 * Constructor registering the metrics
+	 * @param registry The registry
+	 * @param prefix The prefix of the metric names
+	 */
+	public StepInstrumentation(MetricsRegistry registry, String prefix) {
+		for (StepStage stage : StepStage.values()) {
+			stages[stage.ordinal()] = registry.histogram(stage.metricName(prefix));
+		}
+		this.steps = registry.counter(prefix + ".steps");
+		this.resets = registry.counter(prefix + ".resets");
+		this.restores = registry.counter(prefix + ".restores");
+	}
+
+	/**
+	 * Records the time since the end of the previous stage
+	 * @param stage The finished stage
+	 * @param start The value of {@link System#nanoTime()} at the start of the stage
+	 * @return the current value of {@link System#nanoTime()}, i.e. the start of the next stage
+	 */
+	public long lap(StepStage stage, long start) {
+		final long now = System.nanoTime();
+		stages[stage.ordinal()].record(now - start);
+		return now;
+	}
+
+	/**
+	 * Records a whole step
+	 * @param start The value of {@link System#nanoTime()} at the start of the step
+	 */
+	public void stepDone(long start) {
+		stages[StepStage.TOTAL.ordinal()].record(System.nanoTime() - start);
+		steps.increment();
+	}
+
+	public void resetDone() {
+		resets.increment();
+	}
+
+	public void restoreDone() {
+		restores.increment();
+	}
+
+	/**
+	 * Returns the histogram of a stage
+	 * @param stage The stage
+	 * @return the histogram
+	 */
+	public LatencyHistogram getHistogram(StepStage stage) {
+		return stages[stage.ordinal()];
+	}
+}
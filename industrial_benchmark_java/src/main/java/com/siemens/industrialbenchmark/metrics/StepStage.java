@@ -0,0 +1,42 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industrialbenchmark.metrics;
+
+/**
+ * Stages of {@link com.siemens.industrialbenchmark.dynamics.IndustrialBenchmarkDynamics#step(com.siemens.rl.interfaces.DataVector)}.
+ */
+public enum StepStage {
+	/** seeding and filtering of the external drivers (e.g. setpoint) */
+	DRIVERS,
+	ADD_ACTION,
+	FATIGUE,
+	CURRENT_OPERATIONAL_COST,
+	CONVOLUTION,
+	GOLDSTONE,
+	OPERATIONAL_COSTS,
+	REWARD,
+	/** the whole step */
+	TOTAL;
+
+	/**
+	 * Returns the histogram name of the stage
+	 * @param prefix The prefix of the metric names
+	 * @return the histogram name, e.g. "ib.step.fatigue"
+	 */
+	public String metricName(String prefix) {
+		return prefix + ".step." + name().toLowerCase();
+	}
+}
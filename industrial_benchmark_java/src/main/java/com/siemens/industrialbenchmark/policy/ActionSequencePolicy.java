@@ -0,0 +1,85 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industrialbenchmark.policy;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Open-loop behavior policy replaying a recorded sequence of delta actions. Every episode starts
+ * at the first action, the sequence is repeated if the episode is longer.
+ */
+public class ActionSequencePolicy implements Policy {
+
+	private final double[][] actions;
+	private int next;
+
+	/**
+	 * Constructor with the action sequence, which is not copied
+	 * @param actions The delta actions (delta velocity, delta gain, delta shift)
+	 */
+	public ActionSequencePolicy(double[][] actions) {
+		Preconditions.checkArgument(actions.length > 0, "empty action sequence");
+		for (double[] action : actions) {
+			Preconditions.checkArgument(action.length == ACTION_SIZE, "expected %s action values, but got %s", ACTION_SIZE, action.length);
+		}
+		this.actions = actions;
+	}
+
+	/**
+	 * Reads an action sequence from a text file with one action per line. Values are separated
+	 * by white space or commas, empty lines and lines starting with '#' are ignored.
+	 * @param aFile The text file
+	 * @return the action sequence
+	 * @throws IOException
+	 */
+	public static double[][] read(File aFile) throws IOException {
+		List<double[]> actions = new ArrayList<double[]>();
+		int lineNumber = 0;
+		for (String line : Files.readAllLines(aFile.toPath(), StandardCharsets.UTF_8)) {
+			lineNumber++;
+			line = line.trim();
+			if (line.isEmpty() || line.startsWith("#")) {
+				continue;
+			}
+			String[] parts = line.split("[\\s,]+");
+			Preconditions.checkArgument(parts.length == ACTION_SIZE, "%s:%s: expected %s values", aFile, lineNumber, ACTION_SIZE);
+			double[] action = new double[ACTION_SIZE];
+			for (int i = 0; i < ACTION_SIZE; i++) {
+				action[i] = Double.parseDouble(parts[i]);
+			}
+			actions.add(action);
+		}
+		return actions.toArray(new double[actions.size()][]);
+	}
+
+	@Override
+	public void reset(long seed) {
+		next = 0;
+	}
+
+	@Override
+	public void act(double[] observation, double[] action) {
+		System.arraycopy(actions[next], 0, action, 0, ACTION_SIZE);
+		next = (next + 1) % actions.length;
+	}
+}
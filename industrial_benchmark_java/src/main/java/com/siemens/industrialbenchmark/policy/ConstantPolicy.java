@@ -0,0 +1,52 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industrialbenchmark.policy;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Applies the same delta action in every step.
+ */
+public class ConstantPolicy implements Policy {
+
+	private final double[] constant;
+
+	/**
+	 * Constructor with the constant delta action
+	 * @param deltaVelocity The delta velocity
+	 * @param deltaGain The delta gain
+	 * @param deltaShift The delta shift
+	 */
+	public ConstantPolicy(double deltaVelocity, double deltaGain, double deltaShift) {
+		this.constant = new double[] {deltaVelocity, deltaGain, deltaShift};
+	}
+
+	/**
+	 * Parses a constant policy from comma separated values "deltaVelocity,deltaGain,deltaShift"
+	 * @param values The comma separated action values
+	 * @return the policy
+	 */
+	public static ConstantPolicy parse(String values) {
+		String[] parts = values.split(",");
+		Preconditions.checkArgument(parts.length == ACTION_SIZE, "expected %s comma separated values, but got '%s'", ACTION_SIZE, values);
+		return new ConstantPolicy(Double.parseDouble(parts[0].trim()), Double.parseDouble(parts[1].trim()), Double.parseDouble(parts[2].trim()));
+	}
+
+	@Override
+	public void act(double[] observation, double[] action) {
+		System.arraycopy(constant, 0, action, 0, ACTION_SIZE);
+	}
+}
@@ -0,0 +1,44 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industrialbenchmark.policy;
+
+/**
+ * Controller mapping observations to delta actions. Observations are given in the order of
+ * {@link com.siemens.industrialbenchmark.datavector.state.ObservableStateView}, actions are
+ * (delta velocity, delta gain, delta shift) like in
+ * {@link com.siemens.industrialbenchmark.dynamics.VectorIndustrialBenchmark}.
+ * <p>
+ * Policies may have internal state and need not be thread-safe; every worker uses its own instance.
+ */
+public interface Policy {
+
+	/** number of action values */
+	int ACTION_SIZE = 3;
+
+	/**
+	 * Called at the start of every episode
+	 * @param seed The seed of the episode, e.g. for exploration
+	 */
+	default void reset(long seed) {
+	}
+
+	/**
+	 * Computes the next action
+	 * @param observation The current observation
+	 * @param action The array receiving the delta action
+	 */
+	void act(double[] observation, double[] action);
+}
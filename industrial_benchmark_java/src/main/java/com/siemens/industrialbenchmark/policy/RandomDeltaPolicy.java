@@ -0,0 +1,38 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industrialbenchmark.policy;
+
+import java.util.Random;
+
+/**
+ * Uniformly random delta actions from the interval [-1, 1], ignoring the observation.
+ */
+public class RandomDeltaPolicy implements Policy {
+
+	private final Random rand = new Random();
+
+	@Override
+	public void reset(long seed) {
+		rand.setSeed(seed);
+	}
+
+	@Override
+	public void act(double[] observation, double[] action) {
+		for (int i = 0; i < ACTION_SIZE; i++) {
+			action[i] = 2.0 * (rand.nextDouble() - 0.5);
+		}
+	}
+}
@@ -0,0 +1,371 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industrialbenchmark.properties;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+import com.google.common.base.Preconditions;
+import com.siemens.industrialbenchmark.util.RandomSource;
+
+/**
+ * Immutable, typed configuration of the industrial benchmark. All values are parsed and validated
+ * once from the properties (e.g. sim.properties), such that the dynamics, the reward function, the
+ * setpoint generator and the actions do not parse properties while stepping.
+ * <p>
+ * The variable boundaries and initial values (&lt;variable&gt;_INIT, _MIN and _MAX) are parsed for
+ * all variables given in the properties and can be requested with a default.
+ */
+public final class IndustrialBenchmarkConfig implements Serializable {
+
+	private static final long serialVersionUID = 4930151693651442409L;
+
+	private static final String SUFFIX_INIT = "_INIT";
+	private static final String SUFFIX_MIN = "_MIN";
+	private static final String SUFFIX_MAX = "_MAX";
+
+	private final Properties properties;
+
+	private final boolean hasSeed;
+	private final long seed;
+	private final RandomSource.Type randomSourceType;
+	private final double goldstoneLookupTolerance;
+
+	// reward weights
+	private final float crd;
+	private final float cre;
+	private final float crgs;
+
+	// fatigue and operational cost dynamics
+	private final float dBase;
+	private final float dGain;
+	private final float dVelocity;
+	private final float dSetPoint;
+	private final float costSetPoint;
+	private final float costGain;
+	private final float costVelocity;
+	private final float[] convArray;
+	private final float stepSizeVelocity;
+	private final float stepSizeGain;
+
+	// setpoint generator
+	private final boolean stationarySetPoint;
+	private final float stationarySetPointValue;
+	private final float maxChangeRatePerStepSetPoint;
+	private final int maxSequenceLength;
+	private final float setPointMin;
+	private final float setPointMax;
+	private final float setPointStepSize;
+
+	// variable boundaries + initial values
+	private final Map<String, Float> initValues = new HashMap<String, Float>();
+	private final Map<String, Float> minValues = new HashMap<String, Float>();
+	private final Map<String, Float> maxValues = new HashMap<String, Float>();
+
+	/**
+	 * Constructor with configuration Properties. The properties are copied.
+	 * @param aProperties The properties object
+	 * @throws PropertiesException if a required property is missing or a value can not be parsed
+	 */
+	public IndustrialBenchmarkConfig(Properties aProperties) throws PropertiesException {
+		Preconditions.checkNotNull(aProperties, "properties must not be null.");
+		this.properties = new Properties();
+		for (String key : aProperties.stringPropertyNames()) {
+			this.properties.setProperty(key, aProperties.getProperty(key));
+		}
+		final Properties p = this.properties;
+
+		this.hasSeed = p.containsKey("SEED");
+		this.seed = hasSeed ? PropertiesUtil.getLong(p, "SEED", true) : 0;
+		this.randomSourceType = getRandomSourceType(p);
+
+		this.goldstoneLookupTolerance = p.containsKey("GOLDSTONE_LOOKUP_TOLERANCE") ? PropertiesUtil.getDouble(p, "GOLDSTONE_LOOKUP_TOLERANCE") : 0;
+		Preconditions.checkArgument(goldstoneLookupTolerance >= 0, "GOLDSTONE_LOOKUP_TOLERANCE must be non-negative");
+
+		this.crd = PropertiesUtil.getFloat(p, "CRD", true);
+		this.cre = PropertiesUtil.getFloat(p, "CRE", true);
+		this.crgs = PropertiesUtil.getFloat(p, "CRGS", true);
+
+		this.dBase = PropertiesUtil.getFloat(p, "DBase");
+		this.dGain = PropertiesUtil.getFloat(p, "DGain");
+		this.dVelocity = PropertiesUtil.getFloat(p, "DVelocity");
+		this.dSetPoint = PropertiesUtil.getFloat(p, "DSetPoint");
+		this.costSetPoint = PropertiesUtil.getFloat(p, "CostSetPoint");
+		this.costGain = PropertiesUtil.getFloat(p, "CostGain");
+		this.costVelocity = PropertiesUtil.getFloat(p, "CostVelocity");
+		this.convArray = getFloatArray(p, "ConvArray");
+		this.stepSizeVelocity = PropertiesUtil.getFloat(p, "STEP_SIZE_VELOCITY", true);
+		this.stepSizeGain = PropertiesUtil.getFloat(p, "STEP_SIZE_GAIN", true);
+
+		this.stationarySetPoint = p.containsKey("STATIONARY_SETPOINT");
+		if (stationarySetPoint) {
+			this.stationarySetPointValue = PropertiesUtil.getFloat(p, "STATIONARY_SETPOINT", true);
+			Preconditions.checkArgument(stationarySetPointValue >= 0.0f && stationarySetPointValue <= 100.0f, "setpoint must be in range [0, 100]");
+		} else {
+			this.stationarySetPointValue = Float.NaN;
+		}
+		this.maxChangeRatePerStepSetPoint = PropertiesUtil.getFloat(p, "MAX_CHANGE_RATE_PER_STEP_SETPOINT", true);
+		this.maxSequenceLength = PropertiesUtil.getInt(p, "MAX_SEQUENCE_LENGTH", true);
+		this.setPointMin = PropertiesUtil.getFloat(p, "SetPoint_MIN", true);
+		this.setPointMax = PropertiesUtil.getFloat(p, "SetPoint_MAX", true);
+		this.setPointStepSize = PropertiesUtil.getFloat(p, "SETPOINT_STEP_SIZE", true);
+
+		for (String key : p.stringPropertyNames()) {
+			if (key.endsWith(SUFFIX_INIT)) {
+				initValues.put(key.substring(0, key.length() - SUFFIX_INIT.length()), PropertiesUtil.getFloat(p, key, true));
+			} else if (key.endsWith(SUFFIX_MIN)) {
+				minValues.put(key.substring(0, key.length() - SUFFIX_MIN.length()), PropertiesUtil.getFloat(p, key, true));
+			} else if (key.endsWith(SUFFIX_MAX)) {
+				maxValues.put(key.substring(0, key.length() - SUFFIX_MAX.length()), PropertiesUtil.getFloat(p, key, true));
+			}
+		}
+	}
+
+	/**
+	 * Returns the configuration of a properties file
+	 * @param aFile The properties file
+	 * @return the configuration
+	 * @throws IOException
+	 * @throws PropertiesException
+	 */
+	public static IndustrialBenchmarkConfig fromFile(File aFile) throws IOException, PropertiesException {
+		return new IndustrialBenchmarkConfig(PropertiesUtil.setpointProperties(aFile));
+	}
+
+	/**
+	 * converts a float array represented as a string (e.g. "0.01, 0.2, 0.9") to a Java float[]
+	 */
+	/**
+	 * Parses the optional RANDOM_GENERATOR property
+	 * @param aProperties The properties object
+	 * @return the random number generator type, {@link RandomSource.Type#LEGACY} if not set
+	 * @throws PropertiesException if the value is not a random number generator type
+	 */
+	public static RandomSource.Type getRandomSourceType(Properties aProperties) throws PropertiesException {
+		final String generator = aProperties.getProperty("RANDOM_GENERATOR", RandomSource.Type.LEGACY.name()).trim();
+		try {
+			return RandomSource.Type.valueOf(generator.toUpperCase(Locale.ROOT));
+		} catch (IllegalArgumentException e) {
+			throw new PropertiesException("Could not map RANDOM_GENERATOR to one of " + Arrays.toString(RandomSource.Type.values()) + ": ", e, aProperties, "RANDOM_GENERATOR");
+		}
+	}
+
+	private static float[] getFloatArray(Properties aProperties, String aTag) throws PropertiesException {
+		// remove all whitespace
+		String components = PropertiesUtil.getRequiredProperty(aProperties, aTag).replaceAll("( |\t|\n)", "");
+		String[] split = components.split(",");
+		float[] result = new float[split.length];
+		try {
+			for (int i = 0; i < result.length; i++) {
+				result[i] = Float.parseFloat(split[i]);
+			}
+		} catch (NumberFormatException e) {
+			throw new PropertiesException("Could not map " + aTag + " to a float array: ", e, aProperties, aTag);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns a copy of this configuration with another seed
+	 * @param aSeed The seed
+	 * @return the configuration with SEED=aSeed
+	 * @throws PropertiesException
+	 */
+	public IndustrialBenchmarkConfig withSeed(long aSeed) throws PropertiesException {
+		Properties p = getProperties();
+		p.setProperty("SEED", Long.toString(aSeed));
+		return new IndustrialBenchmarkConfig(p);
+	}
+
+	/**
+	 * Returns a copy of the properties this configuration was created from
+	 * @return the properties
+	 */
+	public Properties getProperties() {
+		Properties p = new Properties();
+		p.putAll(properties);
+		return p;
+	}
+
+	/**
+	 * Returns true if a SEED is configured
+	 * @return true if a SEED is configured
+	 */
+	public boolean hasSeed() {
+		return hasSeed;
+	}
+
+	/**
+	 * Returns the configured SEED
+	 * @param aDefault The seed to return if no SEED is configured
+	 * @return the seed
+	 */
+	public long getSeed(long aDefault) {
+		return hasSeed ? seed : aDefault;
+	}
+
+	/**
+	 * Returns the random number generator backend (property RANDOM_GENERATOR, default LEGACY)
+	 * @return the random number generator backend
+	 */
+	public RandomSource.Type getRandomSourceType() {
+		return randomSourceType;
+	}
+
+	/**
+	 * Returns the maximum error of the interpolated Goldstone penalty functions
+	 * (property GOLDSTONE_LOOKUP_TOLERANCE, default 0 = exact evaluation)
+	 * @return the interpolation tolerance
+	 */
+	public double getGoldstoneLookupTolerance() {
+		return goldstoneLookupTolerance;
+	}
+
+	public float getCRD() {
+		return crd;
+	}
+
+	public float getCRE() {
+		return cre;
+	}
+
+	public float getCRGS() {
+		return crgs;
+	}
+
+	public float getDBase() {
+		return dBase;
+	}
+
+	public float getDGain() {
+		return dGain;
+	}
+
+	public float getDVelocity() {
+		return dVelocity;
+	}
+
+	public float getDSetPoint() {
+		return dSetPoint;
+	}
+
+	public float getCostSetPoint() {
+		return costSetPoint;
+	}
+
+	public float getCostGain() {
+		return costGain;
+	}
+
+	public float getCostVelocity() {
+		return costVelocity;
+	}
+
+	/**
+	 * Returns a copy of the convolution weights of the operational costs
+	 * @return the convolution weights
+	 */
+	public float[] getConvArray() {
+		return convArray.clone();
+	}
+
+	/**
+	 * Returns the length of the operational cost history
+	 * @return the number of convolution weights
+	 */
+	public int getConvArrayLength() {
+		return convArray.length;
+	}
+
+	public float getStepSizeVelocity() {
+		return stepSizeVelocity;
+	}
+
+	public float getStepSizeGain() {
+		return stepSizeGain;
+	}
+
+	public boolean isStationarySetPoint() {
+		return stationarySetPoint;
+	}
+
+	/**
+	 * Returns the stationary setpoint
+	 * @return the stationary setpoint, NaN if the setpoint is not stationary
+	 */
+	public float getStationarySetPoint() {
+		return stationarySetPointValue;
+	}
+
+	public float getMaxChangeRatePerStepSetPoint() {
+		return maxChangeRatePerStepSetPoint;
+	}
+
+	public int getMaxSequenceLength() {
+		return maxSequenceLength;
+	}
+
+	public float getSetPointMin() {
+		return setPointMin;
+	}
+
+	public float getSetPointMax() {
+		return setPointMax;
+	}
+
+	public float getSetPointStepSize() {
+		return setPointStepSize;
+	}
+
+	/**
+	 * Returns the initial value of a variable (property &lt;variable&gt;_INIT)
+	 * @param aVariable The variable name
+	 * @param aDefault The value to return if the property is not given
+	 * @return the initial value
+	 */
+	public float getInit(String aVariable, float aDefault) {
+		Float v = initValues.get(aVariable);
+		return v == null ? aDefault : v;
+	}
+
+	/**
+	 * Returns the lower boundary of a variable (property &lt;variable&gt;_MIN)
+	 * @param aVariable The variable name
+	 * @param aDefault The value to return if the property is not given
+	 * @return the lower boundary
+	 */
+	public float getMin(String aVariable, float aDefault) {
+		Float v = minValues.get(aVariable);
+		return v == null ? aDefault : v;
+	}
+
+	/**
+	 * Returns the upper boundary of a variable (property &lt;variable&gt;_MAX)
+	 * @param aVariable The variable name
+	 * @param aDefault The value to return if the property is not given
+	 * @return the upper boundary
+	 */
+	public float getMax(String aVariable, float aDefault) {
+		Float v = maxValues.get(aVariable);
+		return v == null ? aDefault : v;
+	}
+}
@@ -0,0 +1,415 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industrialbenchmark.replay;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Random;
+
+import com.google.common.base.Preconditions;
+import com.siemens.industrialbenchmark.datavector.state.ObservableStateView;
+import com.siemens.industrialbenchmark.dynamics.IndustrialBenchmarkDynamics;
+import com.siemens.industrialbenchmark.policy.Policy;
+
+/**
+ * Experience replay store of (observation, action, reward, next observation, markovian state)
+ * transitions kept off-heap. When the store is full, the oldest transitions are overwritten.
+ * <p>
+ * The store is kept either in direct buffers ({@link #ReplayStore(int, int, int, int)}), which are limited
+ * by -XX:MaxDirectMemorySize (by default the maximum heap size), or in a memory-mapped file
+ * ({@link #mapped(File, int, int, int, int)}), which is only limited by the address space and the file
+ * system and hence may be far larger than the heap and the physical memory.
+ * <p>
+ * Minibatches are sampled uniformly in O(1) or proportionally to a priority per transition in
+ * O(log n) using a sum tree, and gathered into caller provided arrays, hence adding and sampling
+ * do not allocate. New transitions get the maximum priority seen so far. The sum tree is kept
+ * off-heap as well and takes 16 to 32 bytes per transition (2 * capacity rounded up to a power of two
+ * doubles), hence the heap usage does not depend on the capacity.
+ * <p>
+ * Instances are not thread-safe.
+ */
+public class ReplayStore {
+
+	/** maximum size of one direct buffer */
+	private static final int MAX_SEGMENT_BYTES = 1 << 30;
+	/** log2 of the number of sum tree nodes per direct buffer (1GB) */
+	private static final int TREE_SEGMENT_SHIFT = 27;
+	private static final int TREE_SEGMENT_MASK = (1 << TREE_SEGMENT_SHIFT) - 1;
+
+	private final int observationSize;
+	private final int actionSize;
+	private final int markovSize;
+	private final int recordSize;
+	private final int capacity;
+	private final int recordsPerSegment;
+	private final DoubleBuffer[] segments;
+
+	// sum tree: node i has children 2i and 2i+1, the leaves start at index 'leaves'
+	private final int leaves;
+	private final DoubleBuffer[] tree;
+	private double maxPriority = 1;
+
+	private int next;
+	private int size;
+
+	/**
+	 * Constructor for transitions of the industrial benchmark with delta actions
+	 * @param capacity The maximum number of transitions
+	 * @param markovSize The number of values of the markovian state, e.g.
+	 *        {@link IndustrialBenchmarkDynamics#getInternalMarkovStateSize()}, or 0 to omit it
+	 */
+	public ReplayStore(int capacity, int markovSize) {
+		this(capacity, ObservableStateView.SIZE, Policy.ACTION_SIZE, markovSize);
+	}
+
+	/**
+	 * Constructor
+	 * @param capacity The maximum number of transitions
+	 * @param observationSize The number of values per observation
+	 * @param actionSize The number of values per action
+	 * @param markovSize The number of values of the markovian state, or 0 to omit it
+	 */
+	public ReplayStore(int capacity, int observationSize, int actionSize, int markovSize) {
+		this(capacity, observationSize, actionSize, markovSize, null);
+	}
+
+	/**
+	 * Creates a store which is kept in a memory-mapped file. The file is overwritten, it is not
+	 * deleted when the store is no longer used.
+	 * @param file The backing file
+	 * @param capacity The maximum number of transitions
+	 * @param observationSize The number of values per observation
+	 * @param actionSize The number of values per action
+	 * @param markovSize The number of values of the markovian state, or 0 to omit it
+	 * @return the store
+	 * @throws IOException if the file can not be created or mapped
+	 */
+	public static ReplayStore mapped(File file, int capacity, int observationSize, int actionSize, int markovSize) throws IOException {
+		// the mappings stay valid after the file is closed
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+			raf.setLength(0);
+			return new ReplayStore(capacity, observationSize, actionSize, markovSize, raf.getChannel());
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	/** allocates direct buffers if channel is null, otherwise maps consecutive regions of the channel */
+	private ReplayStore(int capacity, int observationSize, int actionSize, int markovSize, FileChannel channel) {
+		Preconditions.checkArgument(capacity > 0 && capacity <= (1 << 30), "capacity=%s must be in [1, 2^30]", capacity);
+		Preconditions.checkArgument(observationSize > 0 && actionSize > 0 && markovSize >= 0, "invalid transition sizes");
+		this.observationSize = observationSize;
+		this.actionSize = actionSize;
+		this.markovSize = markovSize;
+		this.recordSize = 2 * observationSize + actionSize + 1 + markovSize;
+		this.capacity = capacity;
+		this.recordsPerSegment = Math.max(1, Math.min(capacity, MAX_SEGMENT_BYTES / (8 * recordSize)));
+
+		this.segments = new DoubleBuffer[(capacity + recordsPerSegment - 1) / recordsPerSegment];
+		for (int s = 0; s < segments.length; s++) {
+			final int records = Math.min(recordsPerSegment, capacity - s * recordsPerSegment);
+			segments[s] = allocate(channel, (long) s * 8 * recordsPerSegment * recordSize, 8 * records * recordSize);
+		}
+
+		this.leaves = Integer.highestOneBit(capacity) == capacity ? capacity : Integer.highestOneBit(capacity) << 1;
+		final long nodes = 2L * leaves;
+		this.tree = new DoubleBuffer[(int) ((nodes + TREE_SEGMENT_MASK) >>> TREE_SEGMENT_SHIFT)];
+		for (int s = 0; s < tree.length; s++) {
+			final int length = (int) Math.min(1L << TREE_SEGMENT_SHIFT, nodes - ((long) s << TREE_SEGMENT_SHIFT));
+			tree[s] = allocate(channel, 8L * capacity * recordSize + ((long) s << (TREE_SEGMENT_SHIFT + 3)), 8 * length);
+		}
+	}
+
+	private static DoubleBuffer allocate(FileChannel channel, long position, int bytes) {
+		final ByteBuffer buffer;
+		if (channel == null) {
+			buffer = ByteBuffer.allocateDirect(bytes);
+		} else {
+			try {
+				// a new region of the file reads as zeros, like a new direct buffer
+				buffer = channel.map(FileChannel.MapMode.READ_WRITE, position, bytes);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+		return buffer.order(ByteOrder.nativeOrder()).asDoubleBuffer();
+	}
+
+	/**
+	 * Returns the maximum number of transitions
+	 * @return the capacity
+	 */
+	public int capacity() {
+		return capacity;
+	}
+
+	/**
+	 * Returns the number of stored transitions
+	 * @return the number of transitions
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the number of values per observation
+	 * @return the observation size
+	 */
+	public int getObservationSize() {
+		return observationSize;
+	}
+
+	/**
+	 * Returns the number of values per action
+	 * @return the action size
+	 */
+	public int getActionSize() {
+		return actionSize;
+	}
+
+	/**
+	 * Returns the number of values of the markovian state per transition
+	 * @return the markovian state size, 0 if not stored
+	 */
+	public int getMarkovStateSize() {
+		return markovSize;
+	}
+
+	/**
+	 * Adds a transition
+	 * @param observation The observation before the step
+	 * @param action The applied action
+	 * @param reward The reward
+	 * @param nextObservation The observation after the step
+	 * @param markovState The markovian state after the step, may be null if not stored
+	 * @return the index of the transition
+	 */
+	public int add(double[] observation, double[] action, double reward, double[] nextObservation, double[] markovState) {
+		Preconditions.checkArgument(nextObservation.length >= observationSize, "next observation array too short");
+		Preconditions.checkArgument(markovSize == 0 || markovState.length >= markovSize, "markovian state array too short");
+		final DoubleBuffer segment = begin(observation, action, reward);
+		segment.put(nextObservation, 0, observationSize);
+		if (markovSize > 0) {
+			segment.put(markovState, 0, markovSize);
+		}
+		return commit();
+	}
+
+	/**
+	 * Adds a transition whose successor observation and markovian state are copied directly from the benchmark
+	 * @param observation The observation before the step
+	 * @param action The applied action
+	 * @param reward The reward
+	 * @param env The benchmark after the step
+	 * @return the index of the transition
+	 */
+	public int add(double[] observation, double[] action, double reward, IndustrialBenchmarkDynamics env) {
+		Preconditions.checkArgument(observationSize == ObservableStateView.SIZE, "store is not configured for benchmark observations");
+		Preconditions.checkArgument(markovSize == 0 || markovSize == env.getInternalMarkovStateSize(),
+				"markovian state has %s values, but the store expects %s", env.getInternalMarkovStateSize(), markovSize);
+		final DoubleBuffer segment = begin(observation, action, reward);
+		env.copyStateTo(segment);
+		if (markovSize > 0) {
+			env.copyInternalMarkovStateTo(segment);
+		}
+		return commit();
+	}
+
+	private DoubleBuffer begin(double[] observation, double[] action, double reward) {
+		Preconditions.checkArgument(observation.length >= observationSize, "observation array too short");
+		Preconditions.checkArgument(action.length >= actionSize, "action array too short");
+		final DoubleBuffer segment = segments[next / recordsPerSegment];
+		segment.position((next % recordsPerSegment) * recordSize);
+		segment.put(observation, 0, observationSize);
+		segment.put(action, 0, actionSize);
+		segment.put(reward);
+		return segment;
+	}
+
+	private int commit() {
+		final int index = next;
+		setPriority(index, maxPriority);
+		next = next + 1 == capacity ? 0 : next + 1;
+		if (size < capacity) {
+			size++;
+		}
+		return index;
+	}
+
+	/**
+	 * Sets the sampling priority of a transition
+	 * @param index The index of the transition
+	 * @param priority The non-negative priority
+	 */
+	public void updatePriority(int index, double priority) {
+		Preconditions.checkElementIndex(index, size);
+		Preconditions.checkArgument(priority >= 0 && !Double.isInfinite(priority), "invalid priority %s", priority);
+		setPriority(index, priority);
+		maxPriority = Math.max(maxPriority, priority);
+	}
+
+	private double node(int node) {
+		return tree[node >>> TREE_SEGMENT_SHIFT].get(node & TREE_SEGMENT_MASK);
+	}
+
+	private void setNode(int node, double value) {
+		tree[node >>> TREE_SEGMENT_SHIFT].put(node & TREE_SEGMENT_MASK, value);
+	}
+
+	private void setPriority(int index, double priority) {
+		int node = leaves + index;
+		setNode(node, priority);
+		while (node > 1) {
+			node >>>= 1;
+			setNode(node, node(2 * node) + node(2 * node + 1));
+		}
+	}
+
+	/**
+	 * Returns the sampling priority of a transition
+	 * @param index The index of the transition
+	 * @return the priority
+	 */
+	public double getPriority(int index) {
+		Preconditions.checkElementIndex(index, size);
+		return node(leaves + index);
+	}
+
+	/**
+	 * Returns the sum of all priorities
+	 * @return the total priority
+	 */
+	public double getTotalPriority() {
+		return node(1);
+	}
+
+	/**
+	 * Samples transition indices uniformly with replacement
+	 * @param rand The random number generator
+	 * @param indices The array receiving the indices
+	 * @param count The number of samples
+	 */
+	public void sampleUniform(Random rand, int[] indices, int count) {
+		Preconditions.checkState(size > 0, "store is empty");
+		Preconditions.checkPositionIndex(count, indices.length);
+		for (int i = 0; i < count; i++) {
+			indices[i] = rand.nextInt(size);
+		}
+	}
+
+	/**
+	 * Samples transition indices proportionally to their priority with replacement. The samples
+	 * are stratified: sample i is drawn from the i-th of count equal ranges of the total priority.
+	 * @param rand The random number generator
+	 * @param indices The array receiving the indices
+	 * @param probabilities The array receiving the sampling probability of each index (e.g. for
+	 *        importance weights), or null
+	 * @param count The number of samples
+	 */
+	public void samplePrioritized(Random rand, int[] indices, double[] probabilities, int count) {
+		Preconditions.checkPositionIndex(count, indices.length);
+		Preconditions.checkArgument(probabilities == null || probabilities.length >= count, "probability array too short");
+		final double total = node(1);
+		Preconditions.checkState(size > 0 && total > 0, "no transition with positive priority");
+		final double range = total / count;
+		for (int i = 0; i < count; i++) {
+			final int index = find((i + rand.nextDouble()) * range);
+			indices[i] = index;
+			if (probabilities != null) {
+				probabilities[i] = node(leaves + index) / total;
+			}
+		}
+	}
+
+	/** returns the transition at which the prefix sum of the priorities exceeds u */
+	private int find(double u) {
+		int node = 1;
+		while (node < leaves) {
+			node *= 2;
+			// never descend into an empty subtree, even if rounding errors let u exceed the sums
+			if (u >= node(node) && node(node + 1) > 0) {
+				u -= node(node);
+				node++;
+			}
+		}
+		return node - leaves;
+	}
+
+	/**
+	 * Gathers transitions into row-major arrays. Arrays may be null to skip a component.
+	 * @param indices The indices of the transitions
+	 * @param count The number of transitions
+	 * @param observations double[count*observationSize] receiving the observations
+	 * @param actions double[count*actionSize] receiving the actions
+	 * @param rewards double[count] receiving the rewards
+	 * @param nextObservations double[count*observationSize] receiving the next observations
+	 * @param markovStates double[count*markovSize] receiving the markovian states
+	 */
+	public void gather(int[] indices, int count, double[] observations, double[] actions, double[] rewards,
+			double[] nextObservations, double[] markovStates) {
+		Preconditions.checkPositionIndex(count, indices.length);
+		for (int i = 0; i < count; i++) {
+			final int index = indices[i];
+			Preconditions.checkElementIndex(index, size);
+			final DoubleBuffer segment = segments[index / recordsPerSegment];
+			int pos = (index % recordsPerSegment) * recordSize;
+			pos = copy(segment, pos, observations, i * observationSize, observationSize);
+			pos = copy(segment, pos, actions, i * actionSize, actionSize);
+			pos = copy(segment, pos, rewards, i, 1);
+			pos = copy(segment, pos, nextObservations, i * observationSize, observationSize);
+			copy(segment, pos, markovStates, i * markovSize, markovSize);
+		}
+	}
+
+	private static int copy(DoubleBuffer src, int pos, double[] dst, int offset, int length) {
+		if (dst != null) {
+			for (int j = 0; j < length; j++) {
+				dst[offset + j] = src.get(pos + j);
+			}
+		}
+		return pos + length;
+	}
+
+	/**
+	 * Returns the reward of a transition
+	 * @param index The index of the transition
+	 * @return the reward
+	 */
+	public double getReward(int index) {
+		Preconditions.checkElementIndex(index, size);
+		return segments[index / recordsPerSegment].get((index % recordsPerSegment) * recordSize + observationSize + actionSize);
+	}
+
+	/**
+	 * Removes all transitions and resets the priorities
+	 */
+	public void clear() {
+		next = 0;
+		size = 0;
+		maxPriority = 1;
+		for (DoubleBuffer segment : tree) {
+			for (int i = 0; i < segment.capacity(); i++) {
+				segment.put(i, 0);
+			}
+		}
+	}
+}
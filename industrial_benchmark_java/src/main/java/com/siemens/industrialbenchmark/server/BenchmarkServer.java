@@ -0,0 +1,330 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industrialbenchmark.server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Preconditions;
+import com.siemens.industrialbenchmark.dynamics.ParallelIndustrialBenchmark;
+import com.siemens.industrialbenchmark.dynamics.VectorIndustrialBenchmark;
+
+/**
+ * Serves a batch of benchmarks to external agents over TCP with a length-prefixed binary protocol.
+ * All numbers are little-endian.
+ * <p>
+ * A request is an int length n, an opcode byte and n-1 payload bytes. A response is an int
+ * length n, a status byte ({@link #STATUS_OK} or {@link #STATUS_ERROR}) and n-1 payload bytes,
+ * which are a UTF-8 message in case of an error. Requests longer than the largest valid request
+ * (a step, 1 + 8*N*3 bytes) are answered with an error and the connection is closed. The opcodes are
+ * <ul>
+ * <li>{@link #OP_INFO}: no payload, responds number of benchmarks, observation size and action size (3 ints)</li>
+ * <li>{@link #OP_STEP}: payload double[N*3] delta actions, responds double[N] rewards and double[N*7] observations.
+ * The actions must be finite and the delta velocity and delta gain within [-10, 10], otherwise no benchmark is stepped.</li>
+ * <li>{@link #OP_RESET}: no payload, resets all benchmarks and responds double[N*7] observations</li>
+ * <li>{@link #OP_GET_STATE}: no payload, responds double[N*7] observations</li>
+ * </ul>
+ * Requests may be pipelined: the responses are sent in request order, and buffered responses are
+ * flushed when no further complete request has been received.
+ * <p>
+ * Several connections may be open, they share the batch and their requests are serialized.
+ */
+public class BenchmarkServer implements Closeable {
+
+	public static final byte OP_INFO = 0;
+	public static final byte OP_STEP = 1;
+	public static final byte OP_RESET = 2;
+	public static final byte OP_GET_STATE = 3;
+
+	public static final byte STATUS_OK = 0;
+	public static final byte STATUS_ERROR = 1;
+
+	private static final Logger mLogger = LoggerFactory.getLogger(BenchmarkServer.class);
+
+	private final ParallelIndustrialBenchmark batch;
+	private final int size;
+	private final double[] actions;
+	/** length of the largest valid request, a step */
+	private final int maxFrameLength;
+	private final double[] rewards;
+	private final double[] observations;
+
+	private final ServerSocketChannel serverChannel;
+	private final ExecutorService connections;
+	private final Set<SocketChannel> open = ConcurrentHashMap.newKeySet();
+	private volatile boolean closed;
+
+	/**
+	 * Constructor binding the server socket
+	 * @param batch The benchmarks to serve
+	 * @param address The address to bind, e.g. a loopback address; port 0 chooses a free port
+	 * @throws IOException
+	 */
+	public BenchmarkServer(ParallelIndustrialBenchmark batch, SocketAddress address) throws IOException {
+		Preconditions.checkNotNull(batch, "batch must not be null.");
+		this.batch = batch;
+		this.size = batch.size();
+		this.actions = new double[size * VectorIndustrialBenchmark.ACTION_SIZE];
+		this.maxFrameLength = 1 + 8 * actions.length;
+		this.rewards = new double[size];
+		this.observations = new double[size * VectorIndustrialBenchmark.OBSERVATION_SIZE];
+		this.serverChannel = ServerSocketChannel.open();
+		serverChannel.bind(address);
+		this.connections = Executors.newCachedThreadPool(r -> {
+			Thread t = new Thread(r, "ib-server-connection");
+			t.setDaemon(true);
+			return t;
+		});
+	}
+
+	/**
+	 * Returns the bound address
+	 * @return the local address of the server socket
+	 * @throws IOException
+	 */
+	public InetSocketAddress getAddress() throws IOException {
+		return (InetSocketAddress) serverChannel.getLocalAddress();
+	}
+
+	/**
+	 * Accepts connections until the server is closed. Every connection is served by its own thread.
+	 * @throws IOException
+	 */
+	public void serve() throws IOException {
+		while (!closed) {
+			final SocketChannel channel;
+			try {
+				channel = serverChannel.accept();
+			} catch (ClosedChannelException e) {
+				break;
+			}
+			channel.socket().setTcpNoDelay(true);
+			open.add(channel);
+			connections.execute(() -> serve(channel));
+		}
+	}
+
+	/**
+	 * Stops accepting connections and closes all open connections
+	 */
+	@Override
+	public void close() throws IOException {
+		closed = true;
+		serverChannel.close();
+		for (SocketChannel channel : open) {
+			channel.close();
+		}
+		connections.shutdownNow();
+	}
+
+	private void serve(SocketChannel channel) {
+		try {
+			ByteBuffer in = ByteBuffer.allocateDirect(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+			in.flip();
+			ByteBuffer out = ByteBuffer.allocateDirect(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+			while (fill(channel, in, 4)) {
+				final int length = in.getInt(in.position());
+				if (length < 1 || length > maxFrameLength) {
+					// the frame is not read, hence the connection can not be resynchronized
+					mLogger.warn("closing connection after invalid frame length " + length);
+					out = error(channel, out, "invalid frame length " + length + ", expected [1, " + maxFrameLength + "]");
+					break;
+				}
+				if (in.capacity() < 4 + length) {
+					in = grow(in, 4 + length);
+				}
+				if (!fill(channel, in, 4 + length)) {
+					break;
+				}
+				in.getInt();
+				final byte op = in.get();
+				final int end = in.position() + length - 1;
+				out = handle(channel, op, in, length - 1, out);
+				in.position(end);
+
+				// flush unless the next request is already complete
+				if (in.remaining() < 4 || in.remaining() < 4 + in.getInt(in.position())) {
+					flush(channel, out);
+				}
+			}
+			flush(channel, out);
+		} catch (IOException e) {
+			if (!closed) {
+				mLogger.debug("connection failed", e);
+			}
+		} finally {
+			open.remove(channel);
+			try {
+				channel.close();
+			} catch (IOException e) {
+				mLogger.debug("closing connection failed", e);
+			}
+		}
+	}
+
+	private ByteBuffer handle(SocketChannel channel, byte op, ByteBuffer in, int payload, ByteBuffer out) throws IOException {
+		final int obsBytes = 8 * observations.length;
+		switch (op) {
+		case OP_INFO:
+			out = reserve(channel, out, 12);
+			putHeader(out, STATUS_OK, 12);
+			out.putInt(size);
+			out.putInt(VectorIndustrialBenchmark.OBSERVATION_SIZE);
+			out.putInt(VectorIndustrialBenchmark.ACTION_SIZE);
+			return out;
+		case OP_STEP:
+			if (payload != 8 * actions.length) {
+				return error(channel, out, "expected " + 8 * actions.length + " payload bytes, but got " + payload);
+			}
+			// the header is only written once the batch has been stepped, an error response fits as well
+			out = reserve(channel, out, 8 * size + obsBytes);
+			synchronized (batch) {
+				for (int i = 0; i < actions.length; i++) {
+					actions[i] = in.getDouble();
+				}
+				final String invalid = checkActions(actions);
+				if (invalid != null) {
+					return error(channel, out, invalid);
+				}
+				try {
+					batch.step(actions, rewards, observations);
+				} catch (RuntimeException e) {
+					mLogger.warn("step failed", e);
+					return error(channel, out, "step failed: " + e.getMessage());
+				}
+				putHeader(out, STATUS_OK, 8 * size + obsBytes);
+				putDoubles(out, rewards);
+				putDoubles(out, observations);
+			}
+			return out;
+		case OP_RESET:
+		case OP_GET_STATE:
+			out = reserve(channel, out, obsBytes);
+			synchronized (batch) {
+				try {
+					if (op == OP_RESET) {
+						batch.reset();
+					}
+					for (int i = 0; i < size; i++) {
+						batch.getDynamics(i).copyStateTo(observations, i * VectorIndustrialBenchmark.OBSERVATION_SIZE);
+					}
+				} catch (RuntimeException e) {
+					mLogger.warn("request " + op + " failed", e);
+					return error(channel, out, "request " + op + " failed: " + e.getMessage());
+				}
+				putHeader(out, STATUS_OK, obsBytes);
+				putDoubles(out, observations);
+			}
+			return out;
+		default:
+			return error(channel, out, "unknown opcode " + op);
+		}
+	}
+
+	/**
+	 * Checks delta actions received from a client
+	 * @param actions row-major double[N*3] array with (delta velocity, delta gain, delta shift) per benchmark
+	 * @return an error message, or null if all actions are valid
+	 */
+	static String checkActions(double[] actions) {
+		for (int i = 0; i < actions.length; i++) {
+			if (Double.isNaN(actions[i]) || Double.isInfinite(actions[i])) {
+				return "action " + i % VectorIndustrialBenchmark.ACTION_SIZE + " of benchmark "
+						+ i / VectorIndustrialBenchmark.ACTION_SIZE + " is not finite";
+			}
+		}
+		try {
+			VectorIndustrialBenchmark.checkActions(actions);
+		} catch (IllegalArgumentException e) {
+			return e.getMessage();
+		}
+		return null;
+	}
+
+	private ByteBuffer error(SocketChannel channel, ByteBuffer out, String message) throws IOException {
+		final byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
+		out = reserve(channel, out, bytes.length);
+		putHeader(out, STATUS_ERROR, bytes.length);
+		out.put(bytes);
+		return out;
+	}
+
+	private static void putHeader(ByteBuffer out, byte status, int payload) {
+		out.putInt(1 + payload);
+		out.put(status);
+	}
+
+	private static void putDoubles(ByteBuffer out, double[] values) {
+		for (double v : values) {
+			out.putDouble(v);
+		}
+	}
+
+	/** makes room for a response with the given payload, flushing or growing the buffer */
+	private static ByteBuffer reserve(SocketChannel channel, ByteBuffer out, int payload) throws IOException {
+		final int required = 5 + payload;
+		if (out.remaining() < required) {
+			flush(channel, out);
+			if (out.capacity() < required) {
+				out = ByteBuffer.allocateDirect(required).order(ByteOrder.LITTLE_ENDIAN);
+			}
+		}
+		return out;
+	}
+
+	private static void flush(SocketChannel channel, ByteBuffer out) throws IOException {
+		out.flip();
+		while (out.hasRemaining()) {
+			channel.write(out);
+		}
+		out.clear();
+	}
+
+	/** reads until in (in read mode) has at least n bytes remaining; returns false at the end of the stream */
+	private static boolean fill(SocketChannel channel, ByteBuffer in, int n) throws IOException {
+		while (in.remaining() < n) {
+			in.compact();
+			final int read = channel.read(in);
+			in.flip();
+			if (read < 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static ByteBuffer grow(ByteBuffer in, int capacity) {
+		ByteBuffer bigger = ByteBuffer.allocateDirect(capacity).order(ByteOrder.LITTLE_ENDIAN);
+		bigger.put(in);
+		bigger.flip();
+		return bigger;
+	}
+}
@@ -0,0 +1,104 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industrialbenchmark.server;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ForkJoinPool;
+
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.ParameterException;
+import com.siemens.industrialbenchmark.dynamics.ParallelIndustrialBenchmark;
+import com.siemens.industrialbenchmark.properties.IndustrialBenchmarkConfig;
+import com.siemens.industrialbenchmark.properties.PropertiesException;
+
+/**
+ * Command line interface starting a {@link BenchmarkServer}, or a {@link SharedMemoryBridge} if
+ * a shared file is given, e.g.
+ * <pre>
+ * -p sim.properties -n 1000 --port 5555
+ * -p sim.properties -n 1000 --shm /dev/shm/industrial_benchmark
+ * </pre>
+ */
+public class ServerMain {
+
+	@Parameter(names = {"--properties", "-p"}, description = "Benchmark configuration file")
+	String properties = "src/main/resources/sim.properties";
+
+	@Parameter(names = {"--envs", "-n"}, description = "Number of benchmarks")
+	int envs = 1;
+
+	@Parameter(names = "--seed", description = "Master seed (default: SEED of the configuration)")
+	Long seed;
+
+	@Parameter(names = "--host", description = "Address to bind")
+	String host = "127.0.0.1";
+
+	@Parameter(names = "--port", description = "Port to bind")
+	int port = 5555;
+
+	@Parameter(names = "--shm", description = "Shared file (e.g. under /dev/shm) to serve through instead of TCP")
+	String shm;
+
+	@Parameter(names = "--slots", description = "Number of request slots of the shared file")
+	int slots = 4;
+
+	@Parameter(names = {"--workers", "-w"}, description = "Number of threads stepping the benchmarks")
+	int workers = Runtime.getRuntime().availableProcessors();
+
+	@Parameter(names = {"--help", "-h"}, help = true, description = "Shows the usage")
+	boolean help;
+
+	/**
+	 * Starts the server, see the fields for the options.
+	 * @param args
+	 * @throws IOException
+	 * @throws PropertiesException
+	 */
+	public static void main(String[] args) throws IOException, PropertiesException {
+		ServerMain main = new ServerMain();
+		JCommander jc = new JCommander(main);
+		jc.setProgramName(ServerMain.class.getName());
+		try {
+			jc.parse(args);
+		} catch (ParameterException e) {
+			System.err.println(e.getMessage());
+			jc.usage();
+			System.exit(1);
+		}
+		if (main.help) {
+			jc.usage();
+			return;
+		}
+
+		final IndustrialBenchmarkConfig config = IndustrialBenchmarkConfig.fromFile(new File(main.properties));
+		final long seed = main.seed != null ? main.seed : config.getSeed(System.currentTimeMillis());
+		final ParallelIndustrialBenchmark batch = new ParallelIndustrialBenchmark(config, main.envs, seed, new ForkJoinPool(main.workers));
+		if (main.shm != null) {
+			try (SharedMemoryBridge bridge = new SharedMemoryBridge(batch, new File(main.shm), main.slots)) {
+				System.out.println("serving " + main.envs + " benchmarks (seed " + seed + ") through " + main.shm);
+				bridge.serve();
+			}
+			return;
+		}
+		try (BenchmarkServer server = new BenchmarkServer(batch, new InetSocketAddress(main.host, main.port))) {
+			System.out.println("serving " + main.envs + " benchmarks (seed " + seed + ") on " + server.getAddress());
+			server.serve();
+		}
+	}
+}
@@ -0,0 +1,299 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industrialbenchmark.server;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Preconditions;
+import com.siemens.industrialbenchmark.dynamics.ParallelIndustrialBenchmark;
+import com.siemens.industrialbenchmark.dynamics.VectorIndustrialBenchmark;
+
+/**
+ * Serves a batch of benchmarks to an agent on the same host through a memory-mapped file, e.g.
+ * under /dev/shm. All values are in native byte order, doubles are float64 and 8-byte aligned.
+ * <p>
+ * The file starts with a header of {@link #HEADER_SIZE} bytes: magic, version, number of
+ * benchmarks N, observation size, action size, number of slots (ints), the request sequence
+ * (long at {@link #REQUEST_SEQUENCE}, written by the agent) and the response sequence (long at
+ * {@link #RESPONSE_SEQUENCE}, written by the server). The slots follow, each consisting of
+ * <ul>
+ * <li>the opcode (long, see {@link BenchmarkServer})</li>
+ * <li>N*3 delta actions</li>
+ * <li>the status (long, {@link BenchmarkServer#STATUS_OK} or {@link BenchmarkServer#STATUS_ERROR})</li>
+ * <li>N rewards</li>
+ * <li>N*7 observations</li>
+ * </ul>
+ * Request number s (counting from 0) uses slot s % slots. The agent writes opcode and actions into
+ * the slot and then increments the request sequence; the server processes the request, writes
+ * status, rewards and observations into the same slot and then increments the response sequence.
+ * The agent may have up to slots requests in flight. {@link #OP_CLOSE} stops the server.
+ * <p>
+ * The rewards are zero for {@link BenchmarkServer#OP_RESET} and {@link BenchmarkServer#OP_GET_STATE}.
+ * A failed request, e.g. an unknown opcode or an action which is not finite or whose delta velocity
+ * or delta gain is not within [-10, 10], has status {@link BenchmarkServer#STATUS_ERROR}, its rewards
+ * and observations are not written. Invalid actions are rejected before any benchmark is stepped.
+ * The response sequence is incremented for failed requests as well.
+ * <p>
+ * Accesses to mapped memory are plain, hence the server orders them with explicit fences: an acquire
+ * fence after reading the request sequence keeps the slot reads after it, a release fence before
+ * writing the response sequence makes status, rewards and observations visible before it. The
+ * agent has to pair them with an acquire after reading the response sequence and a release before
+ * writing the request sequence. The fences are those of VarHandle (Java 9 and later) or of
+ * sun.misc.Unsafe (Java 8).
+ */
+public class SharedMemoryBridge implements Closeable {
+
+	public static final int MAGIC = 0x4942534D;
+	public static final int VERSION = 1;
+	public static final int HEADER_SIZE = 256;
+	public static final int REQUEST_SEQUENCE = 64;
+	public static final int RESPONSE_SEQUENCE = 128;
+
+	/** stops {@link #serve()} */
+	public static final byte OP_CLOSE = 4;
+
+	private static final int SPINS = 1000;
+	private static final int YIELDS = 100;
+	private static final long PARK_NANOS = 20000;
+
+	private static final Logger mLogger = LoggerFactory.getLogger(SharedMemoryBridge.class);
+
+	private final ParallelIndustrialBenchmark batch;
+	private final int size;
+	private final int slots;
+	private final int slotDoubles;
+	private final double[] actions;
+	private final double[] rewards;
+	private final double[] observations;
+
+	private final RandomAccessFile file;
+	private final MappedByteBuffer map;
+	private final DoubleBuffer doubles;
+
+	private static final MethodHandle ACQUIRE_FENCE;
+	private static final MethodHandle RELEASE_FENCE;
+
+	static {
+		final MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+		final MethodType type = MethodType.methodType(void.class);
+		MethodHandle acquire;
+		MethodHandle release;
+		try {
+			final Class<?> varHandle = Class.forName("java.lang.invoke.VarHandle");
+			acquire = lookup.findStatic(varHandle, "acquireFence", type);
+			release = lookup.findStatic(varHandle, "releaseFence", type);
+		} catch (ReflectiveOperationException e) {
+			try {
+				final Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+				final Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+				theUnsafe.setAccessible(true);
+				final Object unsafe = theUnsafe.get(null);
+				acquire = lookup.findVirtual(unsafeClass, "loadFence", type).bindTo(unsafe);
+				release = lookup.findVirtual(unsafeClass, "storeFence", type).bindTo(unsafe);
+			} catch (ReflectiveOperationException | RuntimeException e2) {
+				e2.addSuppressed(e);
+				throw new ExceptionInInitializerError(e2);
+			}
+		}
+		ACQUIRE_FENCE = acquire;
+		RELEASE_FENCE = release;
+	}
+
+	private volatile boolean closed;
+	private long processed;
+
+	/**
+	 * Creates or overwrites the shared file
+	 * @param batch The benchmarks to serve
+	 * @param aFile The shared file, e.g. in /dev/shm
+	 * @param slots The number of request slots
+	 * @throws IOException
+	 */
+	public SharedMemoryBridge(ParallelIndustrialBenchmark batch, File aFile, int slots) throws IOException {
+		Preconditions.checkNotNull(batch, "batch must not be null.");
+		Preconditions.checkArgument(slots > 0, "slots=%s must be positive", slots);
+		this.batch = batch;
+		this.size = batch.size();
+		this.slots = slots;
+		this.actions = new double[size * VectorIndustrialBenchmark.ACTION_SIZE];
+		this.rewards = new double[size];
+		this.observations = new double[size * VectorIndustrialBenchmark.OBSERVATION_SIZE];
+		this.slotDoubles = 2 + actions.length + rewards.length + observations.length;
+		final long length = HEADER_SIZE + 8L * slots * slotDoubles;
+		Preconditions.checkArgument(length <= Integer.MAX_VALUE, "shared file of %s bytes exceeds 2GB", length);
+
+		this.file = new RandomAccessFile(aFile, "rw");
+		try {
+			file.setLength(0);
+			file.setLength(length);
+			this.map = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, length);
+		} catch (IOException e) {
+			file.close();
+			throw e;
+		}
+		map.order(ByteOrder.nativeOrder());
+		map.position(HEADER_SIZE);
+		this.doubles = map.slice().order(ByteOrder.nativeOrder()).asDoubleBuffer();
+
+		map.putInt(4, VERSION);
+		map.putInt(8, size);
+		map.putInt(12, VectorIndustrialBenchmark.OBSERVATION_SIZE);
+		map.putInt(16, VectorIndustrialBenchmark.ACTION_SIZE);
+		map.putInt(20, slots);
+		map.putLong(REQUEST_SEQUENCE, 0);
+		map.putLong(RESPONSE_SEQUENCE, 0);
+		releaseFence();
+		// the magic is written last, agents wait for it
+		map.putInt(0, MAGIC);
+	}
+
+	/** loads before the fence are ordered before loads and stores after it */
+	private static void acquireFence() {
+		try {
+			ACQUIRE_FENCE.invokeExact();
+		} catch (Throwable e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/** loads and stores before the fence are ordered before stores after it */
+	private static void releaseFence() {
+		try {
+			RELEASE_FENCE.invokeExact();
+		} catch (Throwable e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Processes all pending requests
+	 * @return the number of processed requests
+	 */
+	public int poll() {
+		final long requested = map.getLong(REQUEST_SEQUENCE);
+		acquireFence();
+		int count = 0;
+		while (processed < requested && !closed) {
+			process((int) (processed % slots) * slotDoubles);
+			processed++;
+			count++;
+			releaseFence();
+			map.putLong(RESPONSE_SEQUENCE, processed);
+		}
+		return count;
+	}
+
+	/** processes the request in the slot starting at the given double index */
+	private void process(int slot) {
+		final long op = map.getLong(HEADER_SIZE + 8 * slot);
+		final int status = slot + 1 + actions.length;
+		try {
+			switch ((int) op) {
+			case BenchmarkServer.OP_STEP:
+				doubles.position(slot + 1);
+				doubles.get(actions);
+				final String invalid = BenchmarkServer.checkActions(actions);
+				if (invalid != null) {
+					mLogger.warn("rejected step: " + invalid);
+					map.putLong(HEADER_SIZE + 8 * status, BenchmarkServer.STATUS_ERROR);
+					return;
+				}
+				batch.step(actions, rewards, observations);
+				break;
+			case BenchmarkServer.OP_RESET:
+				batch.reset();
+				Arrays.fill(rewards, 0);
+				copyObservations();
+				break;
+			case BenchmarkServer.OP_GET_STATE:
+				Arrays.fill(rewards, 0);
+				copyObservations();
+				break;
+			case OP_CLOSE:
+				closed = true;
+				map.putLong(HEADER_SIZE + 8 * status, BenchmarkServer.STATUS_OK);
+				return;
+			default:
+				map.putLong(HEADER_SIZE + 8 * status, BenchmarkServer.STATUS_ERROR);
+				return;
+			}
+		} catch (RuntimeException e) {
+			mLogger.warn("request " + op + " failed", e);
+			map.putLong(HEADER_SIZE + 8 * status, BenchmarkServer.STATUS_ERROR);
+			return;
+		}
+		map.putLong(HEADER_SIZE + 8 * status, BenchmarkServer.STATUS_OK);
+		doubles.position(status + 1);
+		doubles.put(rewards);
+		doubles.put(observations);
+	}
+
+	private void copyObservations() {
+		for (int i = 0; i < size; i++) {
+			batch.getDynamics(i).copyStateTo(observations, i * VectorIndustrialBenchmark.OBSERVATION_SIZE);
+		}
+	}
+
+	/**
+	 * Processes requests until {@link #OP_CLOSE} is received or the bridge is closed. Waits by
+	 * spinning first, then by yielding and finally by parking.
+	 */
+	public void serve() {
+		int idle = 0;
+		while (!closed) {
+			if (poll() > 0) {
+				idle = 0;
+			} else if (++idle > SPINS + YIELDS) {
+				LockSupport.parkNanos(PARK_NANOS);
+			} else if (idle > SPINS) {
+				Thread.yield();
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of processed requests
+	 * @return the response sequence
+	 */
+	public long getProcessed() {
+		return processed;
+	}
+
+	/**
+	 * Stops {@link #serve()} and closes the file. The file is not deleted.
+	 */
+	@Override
+	public void close() throws IOException {
+		closed = true;
+		file.close();
+	}
+}
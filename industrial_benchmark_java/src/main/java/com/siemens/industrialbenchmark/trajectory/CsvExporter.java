@@ -0,0 +1,87 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industrialbenchmark.trajectory;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Exports columns of a trajectory file to the space-separated text format of the former
+ * ExampleMain output: a header line "time key1 key2 ... " followed by one line
+ * "step value1 value2 ... " per row, where steps start at 1.
+ */
+public final class CsvExporter {
+
+	private CsvExporter() {
+	}
+
+	/**
+	 * Exports all columns of a trajectory
+	 * @param reader The trajectory
+	 * @param csvFile The text file
+	 * @throws IOException
+	 */
+	public static void export(TrajectoryReader reader, File csvFile) throws IOException {
+		export(reader, 0, reader.getColumns().size(), csvFile);
+	}
+
+	/**
+	 * Exports a range of columns of a trajectory
+	 * @param reader The trajectory
+	 * @param fromColumn The first exported column (inclusive)
+	 * @param toColumn The last exported column (exclusive)
+	 * @param csvFile The text file
+	 * @throws IOException
+	 */
+	public static void export(TrajectoryReader reader, int fromColumn, int toColumn, File csvFile) throws IOException {
+		try (Writer out = new BufferedWriter(new FileWriter(csvFile))) {
+			export(reader, fromColumn, toColumn, out);
+		}
+	}
+
+	/**
+	 * Exports a range of columns of a trajectory
+	 * @param reader The trajectory
+	 * @param fromColumn The first exported column (inclusive)
+	 * @param toColumn The last exported column (exclusive)
+	 * @param out The destination
+	 * @throws IOException
+	 */
+	public static void export(TrajectoryReader reader, int fromColumn, int toColumn, Writer out) throws IOException {
+		final List<String> columns = reader.getColumns();
+		Preconditions.checkPositionIndexes(fromColumn, toColumn, columns.size());
+		StringBuilder line = new StringBuilder("time ");
+		for (int c = fromColumn; c < toColumn; c++) {
+			line.append(columns.get(c)).append(' ');
+		}
+		out.write(line.append('\n').toString());
+
+		for (long row = 0; row < reader.getRowCount(); row++) {
+			line.setLength(0);
+			line.append(row + 1).append(' ');
+			for (int c = fromColumn; c < toColumn; c++) {
+				line.append(reader.get(row, c)).append(' ');
+			}
+			out.write(line.append('\n').toString());
+		}
+	}
+}
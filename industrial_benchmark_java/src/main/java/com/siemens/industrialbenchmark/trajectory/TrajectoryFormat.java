@@ -0,0 +1,55 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industrialbenchmark.trajectory;
+
+import java.nio.ByteOrder;
+
+/**
+ * Constants of the columnar trajectory file format.
+ * <p>
+ * A trajectory file starts with a little-endian header: magic (int), version (int), number of
+ * columns (int), rows per block (int), number of rows (long), followed by the column names (each
+ * an unsigned short length and the UTF-8 bytes), padded to a multiple of 8 bytes. The rows follow
+ * in blocks of a fixed number of rows. Within a block the values are stored column by column
+ * as little-endian doubles, i.e. a block is a [columns][rowsPerBlock] array. The last block is
+ * stored completely, the valid rows are given by the number of rows in the header.
+ */
+final class TrajectoryFormat {
+
+	/** "IBTR" */
+	static final int MAGIC = 0x49425452;
+	static final int VERSION = 1;
+	static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+	/** position of the number of rows in the header */
+	static final int ROW_COUNT_POSITION = 16;
+	/** size of the fixed part of the header */
+	static final int FIXED_HEADER_SIZE = 24;
+
+	static final int DEFAULT_ROWS_PER_BLOCK = 4096;
+
+	private TrajectoryFormat() {
+	}
+
+	/**
+	 * Returns the header size rounded up to a multiple of 8 bytes
+	 * @param size The header size in bytes
+	 * @return the position of the first block
+	 */
+	static long align(long size) {
+		return (size + 7) & ~7L;
+	}
+}
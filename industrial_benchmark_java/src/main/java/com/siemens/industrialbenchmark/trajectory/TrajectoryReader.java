@@ -0,0 +1,183 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industrialbenchmark.trajectory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Reads a columnar trajectory file written by {@link TrajectoryWriter}. The blocks are memory-mapped
+ * read-only, hence single columns can be read without touching the other columns.
+ */
+public class TrajectoryReader implements Closeable {
+
+	private final ImmutableList<String> columns;
+	private final int rowsPerBlock;
+	private final long rows;
+	private final RandomAccessFile file;
+	private final DoubleBuffer[] blocks;
+
+	/**
+	 * Opens a trajectory file
+	 * @param aFile The trajectory file
+	 * @throws IOException
+	 */
+	public TrajectoryReader(File aFile) throws IOException {
+		this.file = new RandomAccessFile(aFile, "r");
+		try {
+			final FileChannel channel = file.getChannel();
+			ByteBuffer fixed = read(channel, 0, TrajectoryFormat.FIXED_HEADER_SIZE);
+			Preconditions.checkArgument(fixed.getInt() == TrajectoryFormat.MAGIC, "%s is not a trajectory file", aFile);
+			final int version = fixed.getInt();
+			Preconditions.checkArgument(version == TrajectoryFormat.VERSION, "unsupported trajectory version %s", version);
+			final int n = fixed.getInt();
+			this.rowsPerBlock = fixed.getInt();
+			this.rows = fixed.getLong();
+			Preconditions.checkArgument(n > 0 && rowsPerBlock > 0 && rows >= 0, "corrupt trajectory header");
+
+			long pos = TrajectoryFormat.FIXED_HEADER_SIZE;
+			ImmutableList.Builder<String> names = ImmutableList.builder();
+			for (int i = 0; i < n; i++) {
+				final int length = read(channel, pos, 2).getShort() & 0xFFFF;
+				names.add(new String(read(channel, pos + 2, length).array(), StandardCharsets.UTF_8));
+				pos += 2 + length;
+			}
+			this.columns = names.build();
+
+			final long dataStart = TrajectoryFormat.align(pos);
+			final long blockBytes = 8L * n * rowsPerBlock;
+			final long numBlocks = (rows + rowsPerBlock - 1) / rowsPerBlock;
+			Preconditions.checkArgument(numBlocks <= Integer.MAX_VALUE && dataStart + numBlocks * blockBytes <= channel.size(),
+					"trajectory file %s is truncated", aFile);
+			this.blocks = new DoubleBuffer[(int) numBlocks];
+			for (int b = 0; b < blocks.length; b++) {
+				blocks[b] = channel.map(FileChannel.MapMode.READ_ONLY, dataStart + b * blockBytes, blockBytes)
+						.order(TrajectoryFormat.ORDER).asDoubleBuffer();
+			}
+		} catch (IOException | RuntimeException e) {
+			file.close();
+			throw e;
+		}
+	}
+
+	private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(length).order(TrajectoryFormat.ORDER);
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, position + buffer.position()) < 0) {
+				throw new IOException("unexpected end of trajectory file");
+			}
+		}
+		buffer.flip();
+		return buffer;
+	}
+
+	/**
+	 * Returns the column names
+	 * @return the column names
+	 */
+	public List<String> getColumns() {
+		return columns;
+	}
+
+	/**
+	 * Returns the index of a column
+	 * @param name The column name
+	 * @return the index of the column
+	 * @throws IllegalArgumentException if there is no such column
+	 */
+	public int getColumnIndex(String name) {
+		final int index = columns.indexOf(name);
+		Preconditions.checkArgument(index >= 0, "no column %s", name);
+		return index;
+	}
+
+	/**
+	 * Returns the number of rows
+	 * @return the number of rows
+	 */
+	public long getRowCount() {
+		return rows;
+	}
+
+	/**
+	 * Returns a single value
+	 * @param row The row index
+	 * @param column The column index
+	 * @return the value
+	 */
+	public double get(long row, int column) {
+		Preconditions.checkElementIndex(column, columns.size());
+		checkRow(row);
+		return blocks[(int) (row / rowsPerBlock)].get(column * rowsPerBlock + (int) (row % rowsPerBlock));
+	}
+
+	/**
+	 * Copies one row into an array
+	 * @param row The row index
+	 * @param dst The destination array
+	 * @param offset The index receiving the value of the first column
+	 */
+	public void readRow(long row, double[] dst, int offset) {
+		checkRow(row);
+		Preconditions.checkPositionIndexes(offset, offset + columns.size(), dst.length);
+		final DoubleBuffer block = blocks[(int) (row / rowsPerBlock)];
+		final int r = (int) (row % rowsPerBlock);
+		for (int c = 0; c < columns.size(); c++) {
+			dst[offset + c] = block.get(c * rowsPerBlock + r);
+		}
+	}
+
+	/**
+	 * Returns all values of a column
+	 * @param column The column index
+	 * @return the values of the column
+	 */
+	public double[] getColumn(int column) {
+		Preconditions.checkElementIndex(column, columns.size());
+		Preconditions.checkState(rows <= Integer.MAX_VALUE, "too many rows (%s) for an array", rows);
+		final double[] values = new double[(int) rows];
+		int done = 0;
+		for (DoubleBuffer block : blocks) {
+			final int count = Math.min(rowsPerBlock, values.length - done);
+			final DoubleBuffer col = block.duplicate();
+			col.position(column * rowsPerBlock);
+			col.get(values, done, count);
+			done += count;
+		}
+		return values;
+	}
+
+	private void checkRow(long row) {
+		if (row < 0 || row >= rows) {
+			throw new IndexOutOfBoundsException("row " + row + " out of range [0, " + rows + ")");
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		file.close();
+	}
+}
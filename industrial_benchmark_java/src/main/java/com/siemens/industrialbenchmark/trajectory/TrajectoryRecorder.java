@@ -0,0 +1,107 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industrialbenchmark.trajectory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.siemens.rl.interfaces.DataVector;
+
+/**
+ * Records (action, reward, state) transitions into a columnar trajectory file. The columns are
+ * the action keys, {@link #REWARD_COLUMN} and the state keys.
+ */
+public class TrajectoryRecorder implements Closeable {
+
+	public static final String REWARD_COLUMN = "Reward";
+
+	private final TrajectoryWriter writer;
+	private final List<String> stateColumns;
+	private final int actionSize;
+	private final double[] row;
+
+	/**
+	 * Constructor with file and the keys of actions and states
+	 * @param aFile The trajectory file
+	 * @param actionKeys The keys of the actions
+	 * @param stateKeys The keys of the states
+	 * @throws IOException
+	 */
+	public TrajectoryRecorder(File aFile, List<String> actionKeys, List<String> stateKeys) throws IOException {
+		this.actionSize = actionKeys.size();
+		this.stateColumns = ImmutableList.copyOf(stateKeys);
+		this.writer = new TrajectoryWriter(aFile, ImmutableList.<String>builder()
+				.addAll(actionKeys).add(REWARD_COLUMN).addAll(stateKeys).build());
+		this.row = new double[writer.getColumns().size()];
+	}
+
+	/**
+	 * Returns all columns of the trajectory file
+	 * @return the columns
+	 */
+	public List<String> getColumns() {
+		return writer.getColumns();
+	}
+
+	/**
+	 * Returns the state columns
+	 * @return the state columns
+	 */
+	public List<String> getStateColumns() {
+		return stateColumns;
+	}
+
+	/**
+	 * Returns the index of the first state column, e.g. for {@link CsvExporter}
+	 * @return the index of the first state column
+	 */
+	public int getStateOffset() {
+		return actionSize + 1;
+	}
+
+	/**
+	 * Records one transition
+	 * @param action The applied action
+	 * @param reward The reward
+	 * @param state The successor state
+	 * @throws IOException
+	 */
+	public void record(DataVector action, double reward, DataVector state) throws IOException {
+		Preconditions.checkArgument(action.getKeys().size() == actionSize, "expected %s action values, but got %s", actionSize, action.getKeys().size());
+		Preconditions.checkArgument(state.getKeys().size() == stateColumns.size(), "expected %s state values, but got %s", stateColumns.size(), state.getKeys().size());
+		action.copyValuesTo(row, 0);
+		row[actionSize] = reward;
+		state.copyValuesTo(row, actionSize + 1);
+		writer.append(row, 0);
+	}
+
+	/**
+	 * Returns the number of recorded transitions
+	 * @return the number of transitions
+	 */
+	public long getRowCount() {
+		return writer.getRowCount();
+	}
+
+	@Override
+	public void close() throws IOException {
+		writer.close();
+	}
+}
@@ -0,0 +1,188 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industrialbenchmark.trajectory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Appends rows of doubles to a columnar trajectory file (see {@link TrajectoryReader} for reading).
+ * The rows are written into memory-mapped blocks of the file, the number of rows is written to the
+ * header by {@link #close()}.
+ * <p>
+ * Instances are not thread-safe.
+ */
+public class TrajectoryWriter implements Closeable {
+
+	private final ImmutableList<String> columns;
+	private final int rowsPerBlock;
+	private final long dataStart;
+	private final long blockBytes;
+	private final RandomAccessFile file;
+	private final FileChannel channel;
+
+	private DoubleBuffer block;
+	private int blockIndex = -1;
+	private int rowInBlock;
+	private long rows;
+	private boolean closed;
+
+	/**
+	 * Constructor with the default block size. An existing file is overwritten.
+	 * @param aFile The trajectory file
+	 * @param columns The column names
+	 * @throws IOException
+	 */
+	public TrajectoryWriter(File aFile, List<String> columns) throws IOException {
+		this(aFile, columns, TrajectoryFormat.DEFAULT_ROWS_PER_BLOCK);
+	}
+
+	/**
+	 * Constructor with file, column names and block size. An existing file is overwritten.
+	 * @param aFile The trajectory file
+	 * @param columns The column names
+	 * @param rowsPerBlock The number of rows per memory-mapped block
+	 * @throws IOException
+	 */
+	public TrajectoryWriter(File aFile, List<String> columns, int rowsPerBlock) throws IOException {
+		Preconditions.checkNotNull(aFile, "file must not be null.");
+		Preconditions.checkArgument(!columns.isEmpty(), "at least one column is required");
+		Preconditions.checkArgument(rowsPerBlock > 0, "rowsPerBlock=%s must be positive", rowsPerBlock);
+		Preconditions.checkArgument(8L * columns.size() * rowsPerBlock <= Integer.MAX_VALUE,
+				"a block of %s columns and %s rows exceeds 2GB", columns.size(), rowsPerBlock);
+		this.columns = ImmutableList.copyOf(columns);
+		this.rowsPerBlock = rowsPerBlock;
+		this.blockBytes = 8L * columns.size() * rowsPerBlock;
+
+		ByteBuffer header = createHeader();
+		this.dataStart = header.remaining();
+
+		this.file = new RandomAccessFile(aFile, "rw");
+		this.channel = file.getChannel();
+		try {
+			file.setLength(0);
+			while (header.hasRemaining()) {
+				channel.write(header);
+			}
+		} catch (IOException e) {
+			file.close();
+			throw e;
+		}
+	}
+
+	private ByteBuffer createHeader() {
+		int size = TrajectoryFormat.FIXED_HEADER_SIZE;
+		byte[][] names = new byte[columns.size()][];
+		for (int i = 0; i < names.length; i++) {
+			names[i] = columns.get(i).getBytes(StandardCharsets.UTF_8);
+			Preconditions.checkArgument(names[i].length <= 0xFFFF, "column name %s is too long", columns.get(i));
+			size += 2 + names[i].length;
+		}
+		ByteBuffer header = ByteBuffer.allocate((int) TrajectoryFormat.align(size)).order(TrajectoryFormat.ORDER);
+		header.putInt(TrajectoryFormat.MAGIC);
+		header.putInt(TrajectoryFormat.VERSION);
+		header.putInt(columns.size());
+		header.putInt(rowsPerBlock);
+		header.putLong(0);
+		for (byte[] name : names) {
+			header.putShort((short) name.length);
+			header.put(name);
+		}
+		header.rewind();
+		return header;
+	}
+
+	/**
+	 * Returns the column names
+	 * @return the column names
+	 */
+	public List<String> getColumns() {
+		return columns;
+	}
+
+	/**
+	 * Returns the number of rows written so far
+	 * @return the number of rows
+	 */
+	public long getRowCount() {
+		return rows;
+	}
+
+	/**
+	 * Appends one row
+	 * @param values The values in the order of {@link #getColumns()}
+	 * @throws IOException
+	 */
+	public void append(double[] values) throws IOException {
+		append(values, 0);
+	}
+
+	/**
+	 * Appends one row
+	 * @param values The array containing the values in the order of {@link #getColumns()}
+	 * @param offset The index of the value of the first column
+	 * @throws IOException
+	 */
+	public void append(double[] values, int offset) throws IOException {
+		Preconditions.checkState(!closed, "writer is closed");
+		final int n = columns.size();
+		Preconditions.checkPositionIndexes(offset, offset + n, values.length);
+		if (block == null || rowInBlock == rowsPerBlock) {
+			nextBlock();
+		}
+		for (int c = 0; c < n; c++) {
+			block.put(c * rowsPerBlock + rowInBlock, values[offset + c]);
+		}
+		rowInBlock++;
+		rows++;
+	}
+
+	private void nextBlock() throws IOException {
+		blockIndex++;
+		block = channel.map(FileChannel.MapMode.READ_WRITE, dataStart + blockIndex * blockBytes, blockBytes)
+				.order(TrajectoryFormat.ORDER).asDoubleBuffer();
+		rowInBlock = 0;
+	}
+
+	/**
+	 * Writes the number of rows to the header and closes the file
+	 */
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		block = null;
+		try {
+			ByteBuffer rowCount = ByteBuffer.allocate(8).order(TrajectoryFormat.ORDER);
+			rowCount.putLong(0, rows);
+			channel.write(rowCount, TrajectoryFormat.ROW_COUNT_POSITION);
+		} finally {
+			file.close();
+		}
+	}
+}
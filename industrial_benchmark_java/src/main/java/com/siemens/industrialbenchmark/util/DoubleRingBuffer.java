@@ -0,0 +1,161 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industrialbenchmark.util;
+
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Fixed size FIFO ring buffer of primitive doubles. Adding a value to the full buffer replaces
+ * the oldest value.
+ * <p>
+ * The values are stored twice (mirrored) in an array of twice the capacity, such that the buffer
+ * content, from the oldest to the newest value, is always one contiguous range of the array. Reads,
+ * copies and convolutions therefore need no wrap-around handling.
+ */
+public class DoubleRingBuffer implements Serializable {
+
+	private static final long serialVersionUID = -8817412245914806287L;
+
+	private final int capacity;
+	private final double[] values;
+
+	/** index of the oldest value */
+	private int head = 0;
+
+	/**
+	 * Constructor with capacity. The buffer is initially filled with zeros.
+	 * @param capacity The number of values
+	 */
+	public DoubleRingBuffer(int capacity) {
+		Preconditions.checkArgument(capacity > 0, "capacity=%s must be positive", capacity);
+		this.capacity = capacity;
+		this.values = new double[2 * capacity];
+	}
+
+	private DoubleRingBuffer(DoubleRingBuffer other) {
+		this.capacity = other.capacity;
+		this.values = other.values.clone();
+		this.head = other.head;
+	}
+
+	/**
+	 * Writes the values from the oldest to the newest value at the position of the buffer
+	 * @param dst The destination buffer, receives {@link #size()} doubles
+	 */
+	public void writeTo(ByteBuffer dst) {
+		for (int i = head; i < head + capacity; i++) {
+			dst.putDouble(values[i]);
+		}
+	}
+
+	/**
+	 * Replaces the values by {@link #size()} doubles from the oldest to the newest value at the position of the buffer
+	 * @param src The source buffer
+	 */
+	public void readFrom(ByteBuffer src) {
+		for (int i = 0; i < capacity; i++) {
+			values[i] = src.getDouble();
+			values[i + capacity] = values[i];
+		}
+		head = 0;
+	}
+
+	/**
+	 * Returns an independent copy of the buffer
+	 * @return the copy
+	 */
+	public DoubleRingBuffer copy() {
+		return new DoubleRingBuffer(this);
+	}
+
+	/**
+	 * Adds a value and removes the oldest one
+	 * @param value The value to add
+	 */
+	public void add(double value) {
+		values[head] = value;
+		values[head + capacity] = value;
+		head = head + 1 == capacity ? 0 : head + 1;
+	}
+
+	/**
+	 * Sets all values
+	 * @param value The value
+	 */
+	public void fill(double value) {
+		Arrays.fill(values, value);
+	}
+
+	/**
+	 * Returns a value
+	 * @param index The index, 0 is the oldest and size()-1 the newest value
+	 * @return the value
+	 */
+	public double get(int index) {
+		Preconditions.checkElementIndex(index, capacity);
+		return values[head + index];
+	}
+
+	/**
+	 * Returns the number of values
+	 * @return the capacity of the buffer
+	 */
+	public int size() {
+		return capacity;
+	}
+
+	/**
+	 * Copies the values, from the oldest to the newest, into an array
+	 * @param dst The destination array
+	 * @param offset The position of the oldest value in the destination array
+	 */
+	public void copyTo(double[] dst, int offset) {
+		System.arraycopy(values, head, dst, offset, capacity);
+	}
+
+	/**
+	 * Returns the weighted sum of the values, accumulated from the oldest to the newest value.
+	 * @param weights The weights, weights[i] is applied to {@link #get(int) get(i)}
+	 * @return sum of weights[i] * get(i)
+	 */
+	public double convolve(float[] weights) {
+		Preconditions.checkArgument(weights.length == capacity, "expected %s weights, but got %s", capacity, weights.length);
+		double sum = 0;
+		for (int i = 0, j = head; i < capacity; i++, j++) {
+			sum += weights[i] * values[j];
+		}
+		return sum;
+	}
+
+	/**
+	 * Returns the weighted sum of selected values (sparse kernel). The terms are accumulated in the
+	 * order of the given indices.
+	 * @param indices The indices of the values, 0 is the oldest value
+	 * @param weights The weights, weights[k] is applied to {@link #get(int) get(indices[k])}
+	 * @return sum of weights[k] * get(indices[k])
+	 */
+	public double convolve(int[] indices, float[] weights) {
+		double sum = 0;
+		for (int k = 0; k < indices.length; k++) {
+			sum += weights[k] * values[head + indices[k]];
+		}
+		return sum;
+	}
+}
@@ -0,0 +1,62 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industrialbenchmark.util;
+
+import org.apache.commons.math3.random.RandomDataGenerator;
+
+/**
+ * {@link RandomSource} backed by a commons-math {@link RandomDataGenerator}. This backend reproduces
+ * the random streams (and thus the regression data) of the original implementation.
+ */
+public class LegacyRandomSource implements RandomSource {
+
+	private final RandomDataGenerator rda = new RandomDataGenerator();
+
+	@Override
+	public void reSeed(long seed) {
+		rda.reSeed(seed);
+	}
+
+	@Override
+	public int nextInt(int lower, int upper) {
+		return rda.nextInt(lower, upper);
+	}
+
+	@Override
+	public long nextLong(long lower, long upper) {
+		return rda.nextLong(lower, upper);
+	}
+
+	@Override
+	public double nextUniform(double lower, double upper) {
+		return rda.nextUniform(lower, upper);
+	}
+
+	@Override
+	public double nextExponential(double mean) {
+		return rda.nextExponential(mean);
+	}
+
+	@Override
+	public double nextGaussian(double mu, double sigma) {
+		return rda.nextGaussian(mu, sigma);
+	}
+
+	@Override
+	public int nextBinomial(int numberOfTrials, double probabilityOfSuccess) {
+		return rda.nextBinomial(numberOfTrials, probabilityOfSuccess);
+	}
+}
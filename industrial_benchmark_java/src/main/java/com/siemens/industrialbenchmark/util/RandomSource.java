@@ -0,0 +1,85 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industrialbenchmark.util;
+
+/**
+ * Source of the random variates drawn by the industrial benchmark dynamics and the external drivers.
+ * <p>
+ * The dynamics re-seed their random source before every transition with the RandomSeed of the
+ * markovian state and draw the seed of the next transition from it. Hence every backend must be
+ * fully determined by the last call of {@link #reSeed(long)}.
+ */
+public interface RandomSource {
+
+	/**
+	 * The available backends
+	 */
+	enum Type {
+		/** commons-math RandomDataGenerator (Well19937c), reproduces the original random streams */
+		LEGACY,
+		/** SplitMix64 generator with constant time re-seeding */
+		SPLITMIX;
+
+		/**
+		 * Returns a new random source of this type
+		 * @return the random source
+		 */
+		public RandomSource create() {
+			switch (this) {
+			case SPLITMIX:
+				return new SplitMixRandomSource();
+			default:
+				return new LegacyRandomSource();
+			}
+		}
+	}
+
+	/**
+	 * Re-initializes the generator
+	 * @param seed The seed
+	 */
+	void reSeed(long seed);
+
+	/**
+	 * Returns a uniformly distributed int in [lower, upper] (both inclusive)
+	 */
+	int nextInt(int lower, int upper);
+
+	/**
+	 * Returns a uniformly distributed long in [lower, upper] (both inclusive)
+	 */
+	long nextLong(long lower, long upper);
+
+	/**
+	 * Returns a uniformly distributed double in (lower, upper)
+	 */
+	double nextUniform(double lower, double upper);
+
+	/**
+	 * Returns an exponentially distributed double with the given mean
+	 */
+	double nextExponential(double mean);
+
+	/**
+	 * Returns a normally distributed double
+	 */
+	double nextGaussian(double mu, double sigma);
+
+	/**
+	 * Returns a binomially distributed int (number of successes in numberOfTrials trials)
+	 */
+	int nextBinomial(int numberOfTrials, double probabilityOfSuccess);
+}
@@ -0,0 +1,119 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industrialbenchmark.util;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * {@link RandomSource} based on the SplitMix64 generator. The whole generator state is one long,
+ * so re-seeding costs nothing, which suits the per-transition re-seeding of the dynamics.
+ * The variates are derived directly from the 64 bit outputs (inversion for the exponential
+ * distribution, Box-Muller for the normal distribution, Bernoulli trials for the binomial distribution).
+ * <p>
+ * The random streams differ from {@link LegacyRandomSource}, trajectories are therefore different
+ * from the original implementation, but equally reproducible from the RandomSeed of the state.
+ */
+public class SplitMixRandomSource implements RandomSource {
+
+	private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+	private static final double DOUBLE_UNIT = 1.0 / (1L << 53);
+
+	private long state;
+
+	@Override
+	public void reSeed(long seed) {
+		state = seed;
+	}
+
+	private long nextRaw() {
+		long z = (state += GOLDEN_GAMMA);
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+
+	/** uniform double in [0, 1) */
+	private double nextDouble() {
+		return (nextRaw() >>> 11) * DOUBLE_UNIT;
+	}
+
+	/** uniform double in (0, 1) */
+	private double nextOpenDouble() {
+		double u;
+		do {
+			u = nextDouble();
+		} while (u == 0.0);
+		return u;
+	}
+
+	@Override
+	public int nextInt(int lower, int upper) {
+		return (int) nextLong(lower, upper);
+	}
+
+	@Override
+	public long nextLong(long lower, long upper) {
+		Preconditions.checkArgument(lower <= upper, "lower bound %s must be <= upper bound %s", lower, upper);
+		final long range = upper - lower + 1;
+		if (range <= 0) {
+			// range exceeds Long.MAX_VALUE: rejection sampling on the full 64 bits
+			long r;
+			do {
+				r = nextRaw();
+			} while (r < lower || r > upper);
+			return r;
+		}
+		long bits, r;
+		do {
+			bits = nextRaw() >>> 1;
+			r = bits % range;
+		} while (bits - r + (range - 1) < 0);
+		return lower + r;
+	}
+
+	@Override
+	public double nextUniform(double lower, double upper) {
+		Preconditions.checkArgument(lower < upper, "lower bound %s must be < upper bound %s", lower, upper);
+		return lower + nextOpenDouble() * (upper - lower);
+	}
+
+	@Override
+	public double nextExponential(double mean) {
+		Preconditions.checkArgument(mean > 0, "mean=%s must be positive", mean);
+		return -mean * Math.log(nextOpenDouble());
+	}
+
+	@Override
+	public double nextGaussian(double mu, double sigma) {
+		Preconditions.checkArgument(sigma > 0, "sigma=%s must be positive", sigma);
+		final double u1 = nextOpenDouble();
+		final double u2 = nextDouble();
+		return mu + sigma * Math.sqrt(-2.0 * Math.log(u1)) * Math.cos(2.0 * Math.PI * u2);
+	}
+
+	@Override
+	public int nextBinomial(int numberOfTrials, double probabilityOfSuccess) {
+		Preconditions.checkArgument(numberOfTrials >= 0, "numberOfTrials=%s must be non-negative", numberOfTrials);
+		Preconditions.checkArgument(probabilityOfSuccess >= 0 && probabilityOfSuccess <= 1, "probabilityOfSuccess=%s must be in [0, 1]", probabilityOfSuccess);
+		int successes = 0;
+		for (int i = 0; i < numberOfTrials; i++) {
+			if (nextDouble() < probabilityOfSuccess) {
+				successes++;
+			}
+		}
+		return successes;
+	}
+}
@@ -16,6 +16,7 @@ limitations under the License.
 package com.siemens.rl.interfaces;
 
 import java.io.Serializable;
+import java.nio.DoubleBuffer;
 import java.util.List;
 
 /**
@@ -56,6 +57,74 @@ public interface DataVector extends Serializable {
 	 */
 	public double[] getValuesArray();
 
+	/**
+	 * Copies the values in the order of getKeys() into a caller provided array.
+	 * @param dst The destination array
+	 * @param offset The index of dst receiving the first value
+	 */
+	public default void copyValuesTo(double[] dst, int offset) {
+		final double[] values = getValuesArray();
+		System.arraycopy(values, 0, dst, offset, values.length);
+	}
+
+	/**
+	 * Puts the values in the order of getKeys() at the position of a caller provided buffer.
+	 * @param dst The destination buffer, its position is advanced by the number of keys
+	 */
+	public default void copyValuesTo(DoubleBuffer dst) {
+		dst.put(getValuesArray());
+	}
+
+	/**
+	 * Sets all values from an array in the order of getKeys(). If a key is listed
+	 * more than once, the value of its last occurrence is used.
+	 * @param src The source array
+	 * @param offset The index of src holding the first value
+	 */
+	public default void setValuesFrom(double[] src, int offset) {
+		final List<String> keys = getKeys();
+		if (offset < 0 || offset + keys.size() > src.length) {
+			throw new IndexOutOfBoundsException("offset=" + offset + " and " + keys.size() + " values exceed the array length " + src.length);
+		}
+		for (int i = 0; i < keys.size(); i++) {
+			setValue(keys.get(i), src[offset + i]);
+		}
+	}
+
+	/**
+	 * Returns a handle for fast access to a data-vector dimension by {@link #getValue(int)}
+	 * and {@link #setValue(int, double)}. A handle is valid for all data vectors of the same
+	 * class with the same keys.
+	 * @param key The state or action dimension.
+	 * @return The handle.
+	 * @throws IllegalArgumentException if the key is not a dimension of the data vector
+	 */
+	public default int getHandle(String key) {
+		final int handle = getKeys().indexOf(key);
+		if (handle < 0) {
+			throw new IllegalArgumentException(key + " is not a valid variable. Available names are: " + getKeys());
+		}
+		return handle;
+	}
+
+	/**
+	 * Returns the value of the dimension of a handle.
+	 * @param handle The handle from {@link #getHandle(String)}
+	 * @return The value
+	 */
+	public default double getValue(int handle) {
+		return getValue(getKeys().get(handle));
+	}
+
+	/**
+	 * Sets the value of the dimension of a handle.
+	 * @param handle The handle from {@link #getHandle(String)}
+	 * @param value The associated value.
+	 */
+	public default void setValue(int handle, double value) {
+		setValue(getKeys().get(handle), value);
+	}
+
 	/**
 	 * Returns a copy of the data vector.
 	 * @return A copy of the data vector.
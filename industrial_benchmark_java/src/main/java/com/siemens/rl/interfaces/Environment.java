@@ -34,6 +34,15 @@ public interface Environment {
 	 * @return the observable state
 	 */
 	DataVector getState(); 
+
+	/**
+	 * Returns the observable state without copying it. The returned data vector may be a
+	 * read-only view, which reflects the state after subsequent steps.
+	 * @return the observable state
+	 */
+	default DataVector getStateView() {
+		return getState();
+	}
 	
 	/**
 	 * Returns the internal Markovian state.
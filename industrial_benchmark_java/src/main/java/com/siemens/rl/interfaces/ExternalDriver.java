@@ -15,6 +15,8 @@ limitations under the License.
 */
 package com.siemens.rl.interfaces;
 
+import java.nio.ByteBuffer;
+
 /**
  * Abstract interface for attaching external drivers to the 
  * Environment, that affect/filter certain state dimensions 
@@ -47,4 +49,42 @@ public interface ExternalDriver {
 	 * @return The current configuration.
 	 */
 	public DataVector getState();
+
+	/**
+	 * Returns an independent copy of the external driver with the same configuration. The random
+	 * number generator of the copy is not initialized and must be seeded by {@link #setSeed(long)}
+	 * before it is used.
+	 * @return The copy.
+	 * @throws UnsupportedOperationException if the external driver can not be copied
+	 */
+	public default ExternalDriver copy() {
+		throw new UnsupportedOperationException(getClass().getName() + " does not support copying");
+	}
+
+	/**
+	 * Returns the number of bytes written by {@link #writeTo(ByteBuffer)}.
+	 * @return The size of the binary snapshot.
+	 * @throws UnsupportedOperationException if the external driver does not support binary snapshots
+	 */
+	public default int getSnapshotSize() {
+		throw new UnsupportedOperationException(getClass().getName() + " does not support binary snapshots");
+	}
+
+	/**
+	 * Writes the current configuration as binary snapshot at the position of the buffer.
+	 * @param dst The destination buffer.
+	 * @throws UnsupportedOperationException if the external driver does not support binary snapshots
+	 */
+	public default void writeTo(ByteBuffer dst) {
+		throw new UnsupportedOperationException(getClass().getName() + " does not support binary snapshots");
+	}
+
+	/**
+	 * Restores the configuration from a binary snapshot at the position of the buffer.
+	 * @param src The source buffer.
+	 * @throws UnsupportedOperationException if the external driver does not support binary snapshots
+	 */
+	public default void readFrom(ByteBuffer src) {
+		throw new UnsupportedOperationException(getClass().getName() + " does not support binary snapshots");
+	}
 }
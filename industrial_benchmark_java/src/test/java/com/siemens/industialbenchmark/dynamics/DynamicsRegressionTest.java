@@ -15,117 +15,77 @@ limitations under the License.
 */
 package com.siemens.industialbenchmark.dynamics;
 
-import static org.junit.Assert.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
 import java.util.Properties;
-import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 import org.junit.Test;
 
-import com.siemens.industrialbenchmark.datavector.action.ActionDelta;
-import com.siemens.industrialbenchmark.datavector.state.MarkovianStateDescription;
-import com.siemens.industrialbenchmark.dynamics.IndustrialBenchmarkDynamics;
-import com.siemens.industrialbenchmark.externaldrivers.setpointgen.SetPointGenerator;
+import com.siemens.industrialbenchmark.conformance.Divergence;
+import com.siemens.industrialbenchmark.conformance.GoldenTrace;
+import com.siemens.industrialbenchmark.conformance.TraceEngine;
+import com.siemens.industrialbenchmark.properties.IndustrialBenchmarkConfig;
 import com.siemens.industrialbenchmark.properties.PropertiesException;
-import com.siemens.industrialbenchmark.properties.PropertiesUtil;
-import com.siemens.rl.interfaces.DataVector;
-import com.siemens.rl.interfaces.Environment;
-import com.siemens.rl.interfaces.ExternalDriver;
 
+/**
+ * Replays a golden trace (random actions on simTest.properties with SEED=4711, recorded with
+ * {@link GoldenTrace#main(String[])}) against all engines.
+ */
 public class DynamicsRegressionTest {
 
-	@Test
-	public void test() {
+	final long SEED = 4711;
 
-		// TODO: fix w.r.t. zero action in IndustrialBenchmarkDynamics constructor
-		/*
-		// parse regression data file
+	private File trace() {
 		ClassLoader classLoader = getClass().getClassLoader();
-		File f = new File (classLoader.getResource("dynamics/dyn-markov-old.csv").getFile());
-		HashMap<String,Integer> keyMap = new HashMap<String,Integer>();			
-		
+		return new File(classLoader.getResource("dynamics/golden-simTest-4711.ibt").getFile());
+	}
+
+	private static IndustrialBenchmarkConfig config() throws IOException, PropertiesException {
+		return IndustrialBenchmarkConfig.fromFile(new File("src/main/resources/simTest.properties"));
+	}
+
+	private void assertConforms(TraceEngine engine, double tolerance) throws IOException {
+		Divergence divergence = GoldenTrace.replay(trace(), engine, tolerance);
+		assertNull(String.valueOf(divergence), divergence);
+	}
+
+	@Test
+	public void testScalar() throws IOException, PropertiesException {
+		assertConforms(TraceEngine.scalar(TraceEngine.createDynamics(config(), SEED)), 0);
+	}
+
+	@Test
+	public void testVector() throws IOException, PropertiesException {
+		assertConforms(TraceEngine.vector(config(), SEED), 0);
+	}
+
+	@Test
+	public void testParallel() throws IOException, PropertiesException {
+		ForkJoinPool pool = new ForkJoinPool(2);
 		try {
-			
-			BufferedReader reader = new BufferedReader(new FileReader(f));
-
-			// parse CSV keys
-			if (reader.ready()) {
-				String[] fields = reader.readLine().split(" ");	
-				
-				for (int i=0; i<fields.length; i++) {
-					keyMap.put(fields[i], i);
-				}					
-			}
-			
-			// Instantiate benchmark
-			// setpoint configuration parameters
-			Properties props = PropertiesUtil.setpointProperties(new File("src/main/resources/sim.properties"));
-			// instantiate setpoint generator (external driver)
-			SetPointGenerator lg = new SetPointGenerator(props);
-			List<ExternalDriver> externalDrivers = new ArrayList<ExternalDriver>();
-			externalDrivers.add(lg);
-			// instantiate industrial benchmark
-			Environment db = new IndustrialBenchmarkDynamics(props, externalDrivers);
-
-			// seed PRNG from configured seed in configuration file
-			long seed = PropertiesUtil.getLong(props, "SEED", System.currentTimeMillis());
-			System.out.println("==================================\nStarting DynamicsRegressionTest with main seed: " + seed);
-			Random rand = new Random(seed);
-
-			// apply constant action (gain and velocity transitions from 0 => 100)
-			final ActionDelta action = new ActionDelta(0.1f, 0.1f, 0.1f);
-			
-			//parse data rows and compare current dynamics to the test data 
-			while (reader.ready()) {
-				String values[] = reader.readLine().split(" ");
-				
-				// apply random action and retrieve markov state
-				action.setDeltaGain(2.f * (rand.nextFloat() - 0.5f));
-				action.setDeltaVelocity(2.f * (rand.nextFloat() - 0.5f));
-				db.step(action);
-				DataVector markovState = db.getInternalMarkovState();
-
-				// compare values 
-				assertEquals(Double.parseDouble(values[keyMap.get("Velocity")]), markovState.getValue(MarkovianStateDescription.Action_Velocity), 0.01);
-				assertEquals(Double.parseDouble(values[keyMap.get("Gain")]), markovState.getValue(MarkovianStateDescription.Action_Gain), 0.01);
-				assertEquals(Double.parseDouble(values[keyMap.get("HiddenDynVelocity")]), markovState.getValue(MarkovianStateDescription.FatigueLatent1), 0.01);
-				assertEquals(Double.parseDouble(values[keyMap.get("HiddenDynGain")]), markovState.getValue(MarkovianStateDescription.FatigueLatent2), 0.01);
-				assertEquals(Double.parseDouble(values[keyMap.get("Dynamics")]), markovState.getValue(MarkovianStateDescription.Fatigue), 0.01);
-				
-				// check goldstone variables
-				assertEquals(Double.parseDouble(values[keyMap.get("HiddenGSDomain")]), markovState.getValue(MarkovianStateDescription.MisCalibrationDomain), 0.01);
-				assertEquals(Double.parseDouble(values[keyMap.get("HiddenGSSystemResponse")]), markovState.getValue(MarkovianStateDescription.MisCalibrationSystemResponse), 0.01);
-				assertEquals(Double.parseDouble(values[keyMap.get("HiddenGSPhiIdx")]), markovState.getValue(MarkovianStateDescription.MisCalibrationPhiIdx), 0.01);
-				
-				// check operationalcosts
-				assertEquals(Double.parseDouble(values[keyMap.get("OperationalCostsConv")]), markovState.getValue(MarkovianStateDescription.OperationalCostsConv), 0.01);
-				assertEquals(Double.parseDouble(values[keyMap.get("OperationalCosts")]), markovState.getValue(MarkovianStateDescription.CurrentOperationalCost), 0.01);				
-				for (int i=0; i<10; i++) {
-					String e = "OPERATIONALCOST_" + i;
-					assertEquals(Double.parseDouble(values[keyMap.get(e)]), markovState.getValue(e), 0.01);
-				}
-				assertEquals(Double.parseDouble(values[keyMap.get("RewardOperationalCosts")]), markovState.getValue(MarkovianStateDescription.RewardConsumption), 0.01);				
-				assertEquals(Double.parseDouble(values[keyMap.get("RewardTotal")]), markovState.getValue(MarkovianStateDescription.RewardTotal), 0.01);				
-			}
-			
-			reader.close();
-			
-		} catch (FileNotFoundException e) {
-			e.printStackTrace();
-		} catch (IOException e) {
-			e.printStackTrace();
-		} catch (PropertiesException e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
+			assertConforms(TraceEngine.parallel(config(), SEED, pool), 0);
+		} finally {
+			pool.shutdown();
 		}
-		*/
+	}
+
+	@Test
+	public void testTabulatedPenalty() throws IOException, PropertiesException {
+		Properties props = config().getProperties();
+		props.setProperty("GOLDSTONE_LOOKUP_TOLERANCE", "1e-6");
+		// the interpolation error of the penalty is amplified by the reward weights
+		assertConforms(TraceEngine.scalar(TraceEngine.createDynamics(new IndustrialBenchmarkConfig(props), SEED)), 1e-4);
+	}
+
+	@Test
+	public void testReportsFirstDivergence() throws IOException, PropertiesException {
+		Divergence divergence = GoldenTrace.replay(trace(), TraceEngine.scalar(TraceEngine.createDynamics(config(), SEED + 1)), 0);
+		assertNotNull(divergence);
+		assertEquals(0, divergence.getStep());
 	}
 }
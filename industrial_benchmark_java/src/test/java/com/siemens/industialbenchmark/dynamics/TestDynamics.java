@@ -16,7 +16,9 @@ limitations under the License.
 package com.siemens.industialbenchmark.dynamics;
 
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 
 import java.io.File;
 import java.io.IOException;
@@ -171,4 +173,85 @@ public class TestDynamics {
       		
 		assertEquals (expHistSize, d.getOperationalCostsHistoryLength());
 	}
+
+	/**
+	 * Tests that the observable state view and the copied observable state agree.
+	 */
+	@Test
+	public void testStateView() throws IOException, PropertiesException {
+		Properties props = PropertiesUtil.setpointProperties(new File ("src/main/resources/simTest.properties"));
+		IndustrialBenchmarkDynamics d = new IndustrialBenchmarkDynamics (props);
+		final DataVector view = d.getStateView();
+		final double[] buffer = new double[view.getKeys().size() + 1];
+		Random actionRand = new Random(ACTION_SEED);
+		final ActionDelta action = new ActionDelta(0, 0, 0);
+		for (int i=0; i<100; i++) {
+			action.setDeltaGain(2.f*(actionRand.nextFloat()-0.5f));
+			action.setDeltaVelocity(2.f*(actionRand.nextFloat()-0.5f));
+			action.setDeltaShift(2.f*(actionRand.nextFloat()-0.5f));
+			d.step(action);
+
+			ObservableState s = d.getState();
+			assertEquals(s.getKeys(), view.getKeys());
+			assertArrayEquals(s.getValuesArray(), view.getValuesArray(), 0.0);
+			d.copyStateTo(buffer, 1);
+			for (int k = 0; k < s.getKeys().size(); k++) {
+				assertEquals(s.getValue(s.getKeys().get(k)), buffer[k + 1], 0.0);
+			}
+			assertEquals(d.getReward(), view.getValue(ObservableStateDescription.RewardTotal), 0.0);
+		}
+
+		// the view stays valid after a reset
+		d.reset();
+		assertSame(view, d.getStateView());
+		assertArrayEquals(d.getState().getValuesArray(), view.getValuesArray(), 0.0);
+	}
+
+	/**
+	 * Benchmark which resets by re-initializing everything from the configuration.
+	 */
+	private static class ReinitializingDynamics extends IndustrialBenchmarkDynamics {
+		ReinitializingDynamics(Properties aProperties, List<ExternalDriver> externalDrivers) throws PropertiesException {
+			super(aProperties, externalDrivers);
+		}
+
+		@Override
+		public void reset() {
+			try {
+				init();
+			} catch (PropertiesException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+	}
+
+	/**
+	 * Tests that reset() restores the same state and random stream as re-initializing the benchmark.
+	 */
+	@Test
+	public void testResetEqualsInit() throws IOException, PropertiesException {
+		Properties props = PropertiesUtil.setpointProperties(new File ("src/main/resources/simTest.properties"));
+		props.setProperty("SEED", "4711");
+		List<ExternalDriver> drivers = new ArrayList<ExternalDriver>();
+		drivers.add(new SetPointGenerator(4711, props));
+		IndustrialBenchmarkDynamics d = new IndustrialBenchmarkDynamics (props, drivers);
+		List<ExternalDriver> referenceDrivers = new ArrayList<ExternalDriver>();
+		referenceDrivers.add(new SetPointGenerator(4711, props));
+		IndustrialBenchmarkDynamics reference = new ReinitializingDynamics (props, referenceDrivers);
+
+		Random actionRand = new Random(ACTION_SEED);
+		final ActionDelta action = new ActionDelta(0, 0, 0);
+		for (int episode = 0; episode < 3; episode++) {
+			d.reset();
+			reference.reset();
+			assertArrayEquals(reference.getInternalMarkovState().getValuesArray(), d.getInternalMarkovState().getValuesArray(), 0.0);
+			for (int i=0; i<500; i++) {
+				action.setDeltaGain(2.f*(actionRand.nextFloat()-0.5f));
+				action.setDeltaVelocity(2.f*(actionRand.nextFloat()-0.5f));
+				action.setDeltaShift(2.f*(actionRand.nextFloat()-0.5f));
+				assertEquals(reference.step(action), d.step(action), 0.0);
+			}
+			assertArrayEquals(reference.getInternalMarkovState().getValuesArray(), d.getInternalMarkovState().getValuesArray(), 0.0);
+		}
+	}
 }
@@ -0,0 +1,143 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industialbenchmark.dynamics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.siemens.industrialbenchmark.datavector.action.ActionDelta;
+import com.siemens.industrialbenchmark.dynamics.FlightRecorderEvents;
+import com.siemens.industrialbenchmark.dynamics.IndustrialBenchmarkDynamics;
+import com.siemens.industrialbenchmark.dynamics.VectorIndustrialBenchmark;
+import com.siemens.industrialbenchmark.generate.DatasetGenerator;
+import com.siemens.industrialbenchmark.policy.RandomDeltaPolicy;
+import com.siemens.industrialbenchmark.properties.IndustrialBenchmarkConfig;
+import com.siemens.industrialbenchmark.properties.PropertiesException;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Tests the Flight Recorder events of the benchmark lifecycle.
+ */
+public class TestFlightRecorderEvents {
+
+	final int STEPS = 20;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static IndustrialBenchmarkConfig config() throws IOException, PropertiesException {
+		return IndustrialBenchmarkConfig.fromFile(new File("src/main/resources/simTest.properties"));
+	}
+
+	private List<RecordedEvent> events(Recording recording, String name) throws IOException {
+		Path file = folder.newFile().toPath();
+		recording.dump(file);
+		List<RecordedEvent> events = new ArrayList<RecordedEvent>();
+		for (RecordedEvent e : RecordingFile.readAllEvents(file)) {
+			if (e.getEventType().getName().equals(name)) {
+				events.add(e);
+			}
+		}
+		return events;
+	}
+
+	@Test
+	public void testEnvironmentEvents() throws IOException, PropertiesException {
+		assertTrue(FlightRecorderEvents.AVAILABLE);
+		IndustrialBenchmarkDynamics env = new IndustrialBenchmarkDynamics(config());
+		ActionDelta action = new ActionDelta(0.5, -0.5, 0.5);
+		try (Recording recording = new Recording()) {
+			recording.enable("industrialbenchmark.SlowStep").withThreshold(Duration.ZERO);
+			recording.enable("industrialbenchmark.Reset");
+			recording.enable("industrialbenchmark.StateRestore");
+			recording.start();
+			for (int t = 0; t < STEPS; t++) {
+				env.step(action);
+			}
+			env.setInternalMarkovState(env.getInternalMarkovState());
+			env.reset();
+			recording.stop();
+
+			List<RecordedEvent> steps = events(recording, "industrialbenchmark.SlowStep");
+			assertEquals(STEPS, steps.size());
+			for (int t = 0; t < STEPS; t++) {
+				RecordedEvent e = steps.get(t);
+				assertEquals(env.getId(), e.getLong("envId"));
+				assertEquals(t + 1, e.getLong("stepIndex"));
+			}
+
+			List<RecordedEvent> resets = events(recording, "industrialbenchmark.Reset");
+			assertEquals(1, resets.size());
+			assertEquals(STEPS, resets.get(0).getLong("stepIndex"));
+			assertEquals(steps.get(STEPS - 1).getDouble("fatigue"), resets.get(0).getDouble("fatigue"), 0.0);
+			assertEquals(steps.get(STEPS - 1).getDouble("phiIdx"), resets.get(0).getDouble("phiIdx"), 0.0);
+			assertEquals(1, events(recording, "industrialbenchmark.StateRestore").size());
+		}
+		assertEquals(0, env.getStepIndex());
+	}
+
+	@Test
+	public void testBatchAndEpisodeEvents() throws IOException, PropertiesException {
+		final int episodes = 3;
+		VectorIndustrialBenchmark vec = new VectorIndustrialBenchmark(config(), new long[] {1, 2});
+		double[] actions = new double[2 * VectorIndustrialBenchmark.ACTION_SIZE];
+		try (Recording recording = new Recording()) {
+			recording.enable("industrialbenchmark.BatchStep");
+			recording.enable("industrialbenchmark.EpisodeStart");
+			recording.enable("industrialbenchmark.EpisodeEnd");
+			recording.start();
+			Random rand = new Random(1);
+			for (int t = 0; t < STEPS; t++) {
+				actions[t % actions.length] = rand.nextDouble() - 0.5;
+				vec.step(actions, null, null);
+			}
+			new DatasetGenerator(config(), RandomDeltaPolicy::new, episodes, STEPS, 1, 4711).generate(folder.newFolder(), 1);
+			recording.stop();
+
+			List<RecordedEvent> batches = events(recording, "industrialbenchmark.BatchStep");
+			assertEquals(STEPS, batches.size());
+			assertEquals("vector", batches.get(0).getString("engine"));
+			assertEquals(2, batches.get(0).getInt("batchSize"));
+
+			List<RecordedEvent> starts = events(recording, "industrialbenchmark.EpisodeStart");
+			List<RecordedEvent> ends = events(recording, "industrialbenchmark.EpisodeEnd");
+			assertEquals(episodes, starts.size());
+			assertEquals(episodes, ends.size());
+			for (int e = 0; e < episodes; e++) {
+				assertEquals(e, starts.get(e).getLong("episode"));
+				assertEquals(DatasetGenerator.episodeSeed(4711, e), starts.get(e).getLong("seed"));
+				assertEquals(0, starts.get(e).getLong("stepIndex"));
+				assertEquals(STEPS, ends.get(e).getLong("stepIndex"));
+				assertEquals(starts.get(e).getLong("envId"), ends.get(e).getLong("envId"));
+			}
+		}
+	}
+}
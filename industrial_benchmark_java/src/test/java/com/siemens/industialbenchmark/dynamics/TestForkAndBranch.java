@@ -0,0 +1,127 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industialbenchmark.dynamics;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import com.siemens.industrialbenchmark.datavector.action.ActionDelta;
+import com.siemens.industrialbenchmark.dynamics.IndustrialBenchmarkDynamics;
+import com.siemens.industrialbenchmark.properties.PropertiesException;
+import com.siemens.industrialbenchmark.properties.PropertiesUtil;
+
+/**
+ * Tests that forked benchmarks continue the trajectory of the original benchmark.
+ */
+public class TestForkAndBranch {
+
+	final int INIT_STEPS = 300;
+	final int STEPS = 1000;
+	final int CANDIDATES = 7;
+	final int HORIZON = 60;
+
+	private static IndustrialBenchmarkDynamics create(String aGenerator) throws IOException, PropertiesException {
+		Properties props = PropertiesUtil.setpointProperties(new File("src/main/resources/simTest.properties"));
+		props.setProperty("SEED", "4711");
+		props.setProperty("RANDOM_GENERATOR", aGenerator);
+		return new IndustrialBenchmarkDynamics(props);
+	}
+
+	private static void randomStep(IndustrialBenchmarkDynamics d, Random rand, ActionDelta action) {
+		action.setDeltaVelocity(2.0 * (rand.nextDouble() - 0.5));
+		action.setDeltaGain(2.0 * (rand.nextDouble() - 0.5));
+		action.setDeltaShift(2.0 * (rand.nextDouble() - 0.5));
+		d.step(action);
+	}
+
+	private void checkFork(String aGenerator) throws IOException, PropertiesException {
+		IndustrialBenchmarkDynamics d = create(aGenerator);
+		ActionDelta action = new ActionDelta(0, 0, 0);
+		Random rand = new Random(1);
+		for (int i = 0; i < INIT_STEPS; i++) {
+			randomStep(d, rand, action);
+		}
+
+		IndustrialBenchmarkDynamics f = d.fork();
+		assertArrayEquals(d.getInternalMarkovState().getValuesArray(), f.getInternalMarkovState().getValuesArray(), 0.0);
+
+		Random randOriginal = new Random(2);
+		Random randFork = new Random(2);
+		for (int i = 0; i < STEPS; i++) {
+			randomStep(d, randOriginal, action);
+			randomStep(f, randFork, action);
+			assertEquals(Double.doubleToLongBits(d.getReward()), Double.doubleToLongBits(f.getReward()));
+		}
+		assertArrayEquals(d.getInternalMarkovState().getValuesArray(), f.getInternalMarkovState().getValuesArray(), 0.0);
+	}
+
+	@Test
+	public void testForkContinuesTrajectory() throws IOException, PropertiesException {
+		checkFork("LEGACY");
+	}
+
+	@Test
+	public void testForkContinuesTrajectorySplitMix() throws IOException, PropertiesException {
+		checkFork("SPLITMIX");
+	}
+
+	@Test
+	public void testBranchEqualsSerialRollouts() throws IOException, PropertiesException {
+		IndustrialBenchmarkDynamics d = create("LEGACY");
+		ActionDelta action = new ActionDelta(0, 0, 0);
+		Random rand = new Random(3);
+		for (int i = 0; i < INIT_STEPS; i++) {
+			randomStep(d, rand, action);
+		}
+		final double[] before = d.getInternalMarkovState().getValuesArray();
+
+		double[][] sequences = new double[CANDIDATES][HORIZON * 3];
+		for (double[] sequence : sequences) {
+			for (int j = 0; j < sequence.length; j++) {
+				sequence[j] = 2.0 * (rand.nextDouble() - 0.5);
+			}
+		}
+
+		ForkJoinPool pool = new ForkJoinPool(3);
+		try {
+			double[][] rewards = d.branch(sequences, HORIZON, pool);
+			assertEquals(CANDIDATES, rewards.length);
+
+			// the benchmark itself is unchanged
+			assertArrayEquals(before, d.getInternalMarkovState().getValuesArray(), 0.0);
+
+			for (int k = 0; k < CANDIDATES; k++) {
+				IndustrialBenchmarkDynamics f = d.fork();
+				for (int t = 0; t < HORIZON; t++) {
+					action.setDeltaVelocity(sequences[k][3 * t]);
+					action.setDeltaGain(sequences[k][3 * t + 1]);
+					action.setDeltaShift(sequences[k][3 * t + 2]);
+					assertEquals(f.step(action), rewards[k][t], 0.0);
+				}
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+}
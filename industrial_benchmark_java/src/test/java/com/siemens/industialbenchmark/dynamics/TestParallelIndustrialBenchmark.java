@@ -0,0 +1,98 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industialbenchmark.dynamics;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import com.siemens.industrialbenchmark.dynamics.ParallelIndustrialBenchmark;
+import com.siemens.industrialbenchmark.dynamics.VectorIndustrialBenchmark;
+import com.siemens.industrialbenchmark.properties.PropertiesException;
+import com.siemens.industrialbenchmark.properties.PropertiesUtil;
+
+/**
+ * Tests that parallel batch stepping does not depend on the number of worker threads.
+ */
+public class TestParallelIndustrialBenchmark {
+
+	final int SIZE = 13;
+	final int STEPS = 500;
+	final long MASTER_SEED = 4711;
+
+	private double[] run(Properties props, int threads) throws PropertiesException {
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		try {
+			ParallelIndustrialBenchmark batch = new ParallelIndustrialBenchmark(props, SIZE, MASTER_SEED, pool);
+			Random actionRand = new Random(12345);
+			double[] actions = new double[SIZE * VectorIndustrialBenchmark.ACTION_SIZE];
+			double[] rewards = new double[SIZE];
+			double[] observations = new double[SIZE * VectorIndustrialBenchmark.OBSERVATION_SIZE];
+			double[] trace = new double[STEPS * (SIZE + observations.length)];
+			for (int t = 0; t < STEPS; t++) {
+				for (int j = 0; j < actions.length; j++) {
+					actions[j] = 2.0 * (actionRand.nextDouble() - 0.5);
+				}
+				batch.step(actions, rewards, observations);
+				System.arraycopy(rewards, 0, trace, t * (SIZE + observations.length), SIZE);
+				System.arraycopy(observations, 0, trace, t * (SIZE + observations.length) + SIZE, observations.length);
+			}
+			return trace;
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void testIndependentOfThreadCount() throws IOException, PropertiesException {
+		Properties props = PropertiesUtil.setpointProperties(new File("src/main/resources/simTest.properties"));
+		double[] expected = run(props, 1);
+		assertArrayEquals(expected, run(props, 3), 0.0);
+		assertArrayEquals(expected, run(props, 8), 0.0);
+	}
+
+	@Test
+	public void testSameTrajectoriesAsVector() throws IOException, PropertiesException {
+		Properties props = PropertiesUtil.setpointProperties(new File("src/main/resources/simTest.properties"));
+		ParallelIndustrialBenchmark batch = new ParallelIndustrialBenchmark(props, SIZE, MASTER_SEED);
+		long[] seeds = new long[SIZE];
+		for (int i = 0; i < SIZE; i++) {
+			seeds[i] = batch.getSeed(i);
+			assertEquals(ParallelIndustrialBenchmark.deriveSeed(MASTER_SEED, i), seeds[i]);
+		}
+		VectorIndustrialBenchmark vec = new VectorIndustrialBenchmark(props, seeds);
+
+		Random actionRand = new Random(54321);
+		double[] actions = new double[SIZE * VectorIndustrialBenchmark.ACTION_SIZE];
+		double[] expected = new double[SIZE];
+		double[] actual = new double[SIZE];
+		for (int t = 0; t < STEPS; t++) {
+			for (int j = 0; j < actions.length; j++) {
+				actions[j] = 2.0 * (actionRand.nextDouble() - 0.5);
+			}
+			vec.step(actions, expected, null);
+			batch.step(actions, actual, null);
+			assertArrayEquals(expected, actual, 0.0);
+		}
+	}
+}
@@ -0,0 +1,119 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industialbenchmark.dynamics;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Properties;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.siemens.industrialbenchmark.datavector.action.ActionDelta;
+import com.siemens.industrialbenchmark.dynamics.IndustrialBenchmarkDynamics;
+import com.siemens.industrialbenchmark.properties.PropertiesException;
+import com.siemens.industrialbenchmark.properties.PropertiesUtil;
+
+/**
+ * Tests that restoring a binary snapshot continues the trajectory of the benchmark which wrote it.
+ */
+public class TestSnapshot {
+
+	final int INIT_STEPS = 500;
+	final int STEPS = 1000;
+
+	private static IndustrialBenchmarkDynamics create(long seed) throws IOException, PropertiesException {
+		Properties props = PropertiesUtil.setpointProperties(new File("src/main/resources/simTest.properties"));
+		props.setProperty("SEED", Long.toString(seed));
+		return new IndustrialBenchmarkDynamics(props);
+	}
+
+	private static void randomSteps(IndustrialBenchmarkDynamics d, long seed, int steps, double[] rewards) throws PropertiesException {
+		Random rand = new Random(seed);
+		ActionDelta action = new ActionDelta(0, 0, 0);
+		for (int i = 0; i < steps; i++) {
+			action.setDeltaVelocity(2.0 * (rand.nextDouble() - 0.5));
+			action.setDeltaGain(2.0 * (rand.nextDouble() - 0.5));
+			action.setDeltaShift(2.0 * (rand.nextDouble() - 0.5));
+			final double reward = d.step(action);
+			if (rewards != null) {
+				rewards[i] = reward;
+			}
+		}
+	}
+
+	private void checkRestore(ByteOrder order) throws IOException, PropertiesException {
+		IndustrialBenchmarkDynamics a = create(1);
+		randomSteps(a, 10, INIT_STEPS, null);
+
+		ByteBuffer snapshot = ByteBuffer.allocate(a.getSnapshotSize()).order(order);
+		a.writeTo(snapshot);
+		assertEquals(a.getSnapshotSize(), snapshot.position());
+		final double[] stateAtSnapshot = a.getInternalMarkovState().getValuesArray();
+
+		double[] expected = new double[STEPS];
+		randomSteps(a, 20, STEPS, expected);
+
+		// restore into a benchmark with a different history
+		IndustrialBenchmarkDynamics b = create(2);
+		randomSteps(b, 30, 123, null);
+		snapshot.flip();
+		b.readFrom(snapshot);
+		assertEquals(0, snapshot.remaining());
+		assertArrayEquals(stateAtSnapshot, b.getInternalMarkovState().getValuesArray(), 0.0);
+
+		double[] actual = new double[STEPS];
+		randomSteps(b, 20, STEPS, actual);
+		assertArrayEquals(expected, actual, 0.0);
+		assertArrayEquals(a.getInternalMarkovState().getValuesArray(), b.getInternalMarkovState().getValuesArray(), 0.0);
+
+		// identical states result in identical snapshots
+		ByteBuffer sa = ByteBuffer.allocate(a.getSnapshotSize()).order(order);
+		ByteBuffer sb = ByteBuffer.allocate(b.getSnapshotSize()).order(order);
+		a.writeTo(sa);
+		b.writeTo(sb);
+		assertArrayEquals(sa.array(), sb.array());
+	}
+
+	@Test
+	public void testRestoreContinuesTrajectory() throws IOException, PropertiesException {
+		checkRestore(ByteOrder.BIG_ENDIAN);
+		checkRestore(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void testInvalidMagic() throws IOException, PropertiesException {
+		IndustrialBenchmarkDynamics a = create(1);
+		a.readFrom(ByteBuffer.allocate(a.getSnapshotSize()));
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void testIncompatibleConfiguration() throws IOException, PropertiesException {
+		IndustrialBenchmarkDynamics a = create(1);
+		ByteBuffer snapshot = ByteBuffer.allocate(a.getSnapshotSize());
+		a.writeTo(snapshot);
+		snapshot.flip();
+
+		Properties props = PropertiesUtil.setpointProperties(new File("src/main/resources/simTest.properties"));
+		props.setProperty("ConvArray", "0.5,0.5");
+		new IndustrialBenchmarkDynamics(props).readFrom(snapshot);
+	}
+}
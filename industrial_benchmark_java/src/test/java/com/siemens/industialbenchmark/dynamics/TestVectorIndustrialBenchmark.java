@@ -0,0 +1,252 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industialbenchmark.dynamics;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.siemens.industrialbenchmark.datavector.action.ActionDelta;
+import com.siemens.industrialbenchmark.datavector.state.ObservableState;
+import com.siemens.industrialbenchmark.dynamics.IndustrialBenchmarkDynamics;
+import com.siemens.industrialbenchmark.dynamics.VectorIndustrialBenchmark;
+import com.siemens.industrialbenchmark.externaldrivers.setpointgen.SetPointGenerator;
+import com.siemens.industrialbenchmark.properties.PropertiesException;
+import com.siemens.industrialbenchmark.properties.PropertiesUtil;
+import com.siemens.rl.interfaces.DataVector;
+import com.siemens.rl.interfaces.ExternalDriver;
+
+/**
+ * Tests that the batched benchmark reproduces the trajectories of independent benchmarks.
+ */
+public class TestVectorIndustrialBenchmark {
+
+	final int STEPS = 2000;
+	final long[] SEEDS = new long[] {1, 42, 4711, 123456789};
+
+	private static IndustrialBenchmarkDynamics createScalar(Properties aProperties, long seed) throws PropertiesException {
+		Properties props = new Properties();
+		props.putAll(aProperties);
+		props.setProperty("SEED", Long.toString(seed));
+		List<ExternalDriver> drivers = new ArrayList<ExternalDriver>();
+		drivers.add(new SetPointGenerator(seed, props));
+		return new IndustrialBenchmarkDynamics(props, drivers);
+	}
+
+	private void compareWithScalar(String aPropertiesFile) throws IOException, PropertiesException {
+		compareWithScalar(PropertiesUtil.setpointProperties(new File(aPropertiesFile)));
+	}
+
+	private void compareWithScalar(Properties props) throws IOException, PropertiesException {
+		final int n = SEEDS.length;
+
+		VectorIndustrialBenchmark vec = new VectorIndustrialBenchmark(props, SEEDS);
+		IndustrialBenchmarkDynamics[] scalar = new IndustrialBenchmarkDynamics[n];
+		for (int i = 0; i < n; i++) {
+			scalar[i] = createScalar(props, SEEDS[i]);
+		}
+		assertEquals(n, vec.size());
+
+		Random actionRand = new Random(12345);
+		double[] actions = new double[n * VectorIndustrialBenchmark.ACTION_SIZE];
+		double[] rewards = new double[n];
+		double[] observations = new double[n * VectorIndustrialBenchmark.OBSERVATION_SIZE];
+		ActionDelta action = new ActionDelta(0, 0, 0);
+
+		for (int t = 0; t < STEPS; t++) {
+			for (int j = 0; j < actions.length; j++) {
+				actions[j] = 2.0 * (actionRand.nextDouble() - 0.5);
+			}
+			vec.step(actions, rewards, observations);
+
+			for (int i = 0; i < n; i++) {
+				action.setDeltaVelocity(actions[i * 3]);
+				action.setDeltaGain(actions[i * 3 + 1]);
+				action.setDeltaShift(actions[i * 3 + 2]);
+				double reward = scalar[i].step(action);
+				assertEquals(Double.doubleToLongBits(reward), Double.doubleToLongBits(rewards[i]));
+
+				ObservableState s = scalar[i].getState();
+				List<String> keys = s.getKeys();
+				for (int k = 0; k < keys.size(); k++) {
+					assertEquals(keys.get(k), s.getValue(keys.get(k)), observations[i * VectorIndustrialBenchmark.OBSERVATION_SIZE + k], 0.0);
+				}
+			}
+		}
+
+		// full markovian states are identical as well
+		for (int i = 0; i < n; i++) {
+			DataVector expected = scalar[i].getInternalMarkovState();
+			DataVector actual = vec.getInternalMarkovState(i);
+			assertEquals(expected.getKeys(), actual.getKeys());
+			assertArrayEquals(expected.getValuesArray(), actual.getValuesArray(), 0.0);
+		}
+	}
+
+	@Test
+	public void testSameTrajectoriesAsScalar() throws IOException, PropertiesException {
+		compareWithScalar("src/main/resources/sim.properties");
+	}
+
+	@Test
+	public void testSameTrajectoriesAsScalarMovingSetPoint() throws IOException, PropertiesException {
+		compareWithScalar("src/main/resources/simTest.properties");
+	}
+
+	@Test
+	public void testSameTrajectoriesAsScalarSplitMix() throws IOException, PropertiesException {
+		Properties props = PropertiesUtil.setpointProperties(new File("src/main/resources/simTest.properties"));
+		props.setProperty("RANDOM_GENERATOR", "splitmix");
+		compareWithScalar(props);
+	}
+
+	@Test
+	public void testResetAndSetState() throws IOException, PropertiesException {
+		Properties props = PropertiesUtil.setpointProperties(new File("src/main/resources/simTest.properties"));
+		VectorIndustrialBenchmark vec = new VectorIndustrialBenchmark(props, SEEDS);
+		final int n = vec.size();
+		double[] actions = new double[n * VectorIndustrialBenchmark.ACTION_SIZE];
+		Arrays.fill(actions, 0.5);
+		double[] first = new double[n];
+		double[] rewards = new double[n];
+
+		vec.step(actions, first, null);
+		DataVector memorized = vec.getInternalMarkovState(2);
+		for (int t = 0; t < 100; t++) {
+			vec.step(actions, rewards, null);
+		}
+
+		// setting a memorized state replays the same successor
+		vec.setInternalMarkovState(2, memorized);
+		vec.step(actions, first, null);
+		vec.setInternalMarkovState(2, memorized);
+		vec.step(actions, rewards, null);
+		assertEquals(first[2], rewards[2], 0.0);
+	}
+
+	private static void assertSameMarkovState(IndustrialBenchmarkDynamics scalar, VectorIndustrialBenchmark vec, int env) {
+		DataVector expected = scalar.getInternalMarkovState();
+		DataVector actual = vec.getInternalMarkovState(env);
+		assertEquals(expected.getKeys(), actual.getKeys());
+		assertArrayEquals(expected.getValuesArray(), actual.getValuesArray(), 0.0);
+	}
+
+	private static void stepBoth(VectorIndustrialBenchmark vec, IndustrialBenchmarkDynamics[] scalar, Random actionRand, int steps) throws PropertiesException {
+		final int n = vec.size();
+		double[] actions = new double[n * VectorIndustrialBenchmark.ACTION_SIZE];
+		double[] rewards = new double[n];
+		ActionDelta action = new ActionDelta(0, 0, 0);
+		for (int t = 0; t < steps; t++) {
+			for (int j = 0; j < actions.length; j++) {
+				actions[j] = 2.0 * (actionRand.nextDouble() - 0.5);
+			}
+			vec.step(actions, rewards, null);
+			for (int i = 0; i < n; i++) {
+				action.setDeltaVelocity(actions[i * 3]);
+				action.setDeltaGain(actions[i * 3 + 1]);
+				action.setDeltaShift(actions[i * 3 + 2]);
+				assertEquals(scalar[i].step(action), rewards[i], 0.0);
+			}
+		}
+	}
+
+	@Test
+	public void testResetAndSetStateLikeScalar() throws IOException, PropertiesException {
+		Properties props = PropertiesUtil.setpointProperties(new File("src/main/resources/simTest.properties"));
+		VectorIndustrialBenchmark vec = new VectorIndustrialBenchmark(props, SEEDS);
+		final int n = vec.size();
+		IndustrialBenchmarkDynamics[] scalar = new IndustrialBenchmarkDynamics[n];
+		for (int i = 0; i < n; i++) {
+			scalar[i] = createScalar(props, SEEDS[i]);
+		}
+		Random actionRand = new Random(4711);
+
+		stepBoth(vec, scalar, actionRand, 100);
+		vec.reset();
+		for (int i = 0; i < n; i++) {
+			scalar[i].reset();
+			assertSameMarkovState(scalar[i], vec, i);
+		}
+		stepBoth(vec, scalar, actionRand, 50);
+
+		// a single benchmark is reset, the others continue
+		vec.reset(1);
+		scalar[1].reset();
+		stepBoth(vec, scalar, actionRand, 50);
+
+		// a foreign state with a stale reward is imported, the convolution and the reward are recomputed into it
+		DataVector foreign = scalar[3].getInternalMarkovState();
+		foreign.setValue("RewardTotal", 0);
+		stepBoth(vec, scalar, actionRand, 20);
+		DataVector expected = foreign.clone();
+		DataVector actual = foreign.clone();
+		for (int i = 0; i < n; i++) {
+			scalar[i].setInternalMarkovState(expected);
+			vec.setInternalMarkovState(i, actual);
+			assertArrayEquals(expected.getValuesArray(), actual.getValuesArray(), 0.0);
+			assertSameMarkovState(scalar[i], vec, i);
+		}
+		stepBoth(vec, scalar, actionRand, 50);
+		for (int i = 0; i < n; i++) {
+			assertSameMarkovState(scalar[i], vec, i);
+		}
+	}
+
+	@Test
+	public void testRejectedStepChangesNothing() throws IOException, PropertiesException {
+		Properties props = PropertiesUtil.setpointProperties(new File("src/main/resources/simTest.properties"));
+		VectorIndustrialBenchmark vec = new VectorIndustrialBenchmark(props, SEEDS);
+		VectorIndustrialBenchmark clean = new VectorIndustrialBenchmark(props, SEEDS);
+		final int n = vec.size();
+		double[] actions = new double[n * VectorIndustrialBenchmark.ACTION_SIZE];
+		actions[2 * VectorIndustrialBenchmark.ACTION_SIZE + 1] = 11;
+		try {
+			vec.step(actions, null, null);
+			fail("out of range action accepted");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		actions[2 * VectorIndustrialBenchmark.ACTION_SIZE + 1] = Double.NaN;
+		try {
+			vec.step(actions, null, null);
+			fail("NaN action accepted");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+
+		Random actionRand = new Random(7);
+		double[] rewards = new double[n];
+		double[] expected = new double[n];
+		for (int t = 0; t < 50; t++) {
+			for (int j = 0; j < actions.length; j++) {
+				actions[j] = 2.0 * (actionRand.nextDouble() - 0.5);
+			}
+			vec.step(actions, rewards, null);
+			clean.step(actions, expected, null);
+			assertArrayEquals(expected, rewards, 0.0);
+		}
+	}
+}
@@ -0,0 +1,75 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industialbenchmark.dynamics.goldstone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.siemens.industrialbenchmark.dynamics.goldstone.GoldStoneEnvironmentDynamics;
+import com.siemens.industrialbenchmark.dynamics.goldstone.GoldstoneEnvironment;
+import com.siemens.industrialbenchmark.dynamics.goldstone.PenaltyFunction;
+import com.siemens.industrialbenchmark.dynamics.goldstone.TabulatedPenaltyFunction;
+
+/**
+ * Tests the interpolation error of the tabulated penalty functions.
+ */
+public class TestTabulatedPenaltyFunction {
+
+	final int NUMBER_STEPS = 24;
+	final double MAX_REQUIRED_STEP = Math.sin(15.0/180.0*Math.PI);
+	final double TOLERANCE = 1e-6;
+
+	@Test
+	public void testInterpolationError() {
+		Random rand = new Random(4711);
+		for (int i = -NUMBER_STEPS/4; i <= NUMBER_STEPS/4; i++) {
+			final double phi = i * 2*Math.PI / NUMBER_STEPS;
+			PenaltyFunction exact = new PenaltyFunction(phi, MAX_REQUIRED_STEP);
+			TabulatedPenaltyFunction table = new TabulatedPenaltyFunction(phi, MAX_REQUIRED_STEP, GoldStoneEnvironmentDynamics.TABLE_RANGE, TOLERANCE);
+			assertTrue(table.getMaxError() <= TOLERANCE);
+			assertEquals(exact.getOptimumRadius(), table.getOptimumRadius(), 0.0);
+			assertEquals(exact.getOptimumValue(), table.getOptimumValue(), 0.0);
+
+			// exact at the optimum, bounded error in the table range
+			assertEquals(exact.reward(exact.getOptimumRadius()), table.reward(exact.getOptimumRadius()), 1e-15);
+			for (int k = 0; k < 100000; k++) {
+				final double x = 2 * GoldStoneEnvironmentDynamics.TABLE_RANGE * (rand.nextDouble() - 0.5);
+				assertEquals("phi=" + phi + " x=" + x, exact.reward(x), table.reward(x), TOLERANCE);
+			}
+
+			// exact outside of the table range
+			assertEquals(exact.reward(2.5), table.reward(2.5), 0.0);
+			assertEquals(exact.reward(-3.0), table.reward(-3.0), 0.0);
+		}
+	}
+
+	@Test
+	public void testEnvironment() {
+		GoldstoneEnvironment exact = new GoldstoneEnvironment(NUMBER_STEPS, MAX_REQUIRED_STEP, MAX_REQUIRED_STEP/2.0);
+		GoldstoneEnvironment table = new GoldstoneEnvironment(NUMBER_STEPS, MAX_REQUIRED_STEP, MAX_REQUIRED_STEP/2.0, TOLERANCE);
+		Random rand = new Random(12345);
+		for (int t = 0; t < 10000; t++) {
+			final double delta = 0.3 * (rand.nextDouble() - 0.5) - 0.05 * exact.getControlPosition();
+			final double expected = exact.stateTransition(delta);
+			assertEquals(expected, table.stateTransition(delta), TOLERANCE);
+			assertEquals(exact.getPhiIdx(), table.getPhiIdx(), 0.0);
+		}
+	}
+}
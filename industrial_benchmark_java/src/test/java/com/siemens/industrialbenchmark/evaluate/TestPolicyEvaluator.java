@@ -0,0 +1,140 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industrialbenchmark.evaluate;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.siemens.industrialbenchmark.datavector.action.ActionDelta;
+import com.siemens.industrialbenchmark.datavector.state.MarkovianStateDescription;
+import com.siemens.industrialbenchmark.dynamics.IndustrialBenchmarkDynamics;
+import com.siemens.industrialbenchmark.externaldrivers.setpointgen.SetPointGenerator;
+import com.siemens.industrialbenchmark.policy.ConstantPolicy;
+import com.siemens.industrialbenchmark.policy.RandomDeltaPolicy;
+import com.siemens.industrialbenchmark.properties.IndustrialBenchmarkConfig;
+import com.siemens.industrialbenchmark.properties.PropertiesException;
+import com.siemens.rl.interfaces.DataVector;
+import com.siemens.rl.interfaces.ExternalDriver;
+
+/**
+ * Tests the mergeable statistics and that evaluations do not depend on the number of workers.
+ */
+public class TestPolicyEvaluator {
+
+	final int STEPS = 50;
+	final int EPISODES = 21;
+
+	private static IndustrialBenchmarkConfig config() throws IOException, PropertiesException {
+		return IndustrialBenchmarkConfig.fromFile(new File("src/main/resources/simTest.properties"));
+	}
+
+	@Test
+	public void testStatistics() {
+		Random rand = new Random(1);
+		double[] values = new double[1001];
+		RunningStatistics all = new RunningStatistics();
+		RunningStatistics first = new RunningStatistics();
+		RunningStatistics second = new RunningStatistics();
+		double sum = 0;
+		for (int i = 0; i < values.length; i++) {
+			values[i] = 10 + 3 * rand.nextGaussian();
+			sum += values[i];
+			all.add(values[i]);
+			(i < 300 ? first : second).add(values[i]);
+		}
+		final double mean = sum / values.length;
+		double squares = 0;
+		for (double v : values) {
+			squares += (v - mean) * (v - mean);
+		}
+		assertEquals(mean, all.getMean(), 1e-12);
+		assertEquals(squares / (values.length - 1), all.getVariance(), 1e-9);
+
+		first.merge(second);
+		assertEquals(values.length, first.getCount());
+		assertEquals(all.getMean(), first.getMean(), 1e-12);
+		assertEquals(all.getVariance(), first.getVariance(), 1e-9);
+		assertEquals(all.getMin(), first.getMin(), 0.0);
+		assertEquals(all.getMax(), first.getMax(), 0.0);
+		assertEquals(all.getMedian(), first.getMedian(), 0.0);
+		assertEquals(all.getQuantile(0.95), first.getQuantile(0.95), 0.0);
+
+		RunningStatistics small = new RunningStatistics();
+		for (double v : new double[] {4, 1, 3, 2}) {
+			small.add(v);
+		}
+		assertEquals(1, small.getQuantile(0), 0.0);
+		assertEquals(2.5, small.getMedian(), 0.0);
+		assertEquals(4, small.getQuantile(1), 0.0);
+		assertEquals(3.25, small.getQuantile(0.75), 0.0);
+		assertEquals(Double.NaN, new RunningStatistics().getMean(), 0.0);
+	}
+
+	@Test
+	public void testIndependentOfWorkers() throws IOException, PropertiesException {
+		PolicyEvaluator evaluator = new PolicyEvaluator(config(), RandomDeltaPolicy::new, STEPS);
+		long[] seeds = PolicyEvaluator.seeds(4711, EPISODES);
+		EvaluationResult expected = evaluator.evaluate(seeds, 1);
+		EvaluationResult actual = evaluator.evaluate(seeds, 3);
+
+		assertEquals(EPISODES, expected.getEpisodes().size());
+		for (int e = 0; e < EPISODES; e++) {
+			EpisodeResult a = expected.getEpisodes().get(e);
+			EpisodeResult b = actual.getEpisodes().get(e);
+			assertEquals(e, b.getEpisode());
+			assertEquals(seeds[e], b.getSeed());
+			assertEquals(a.getTotalReward(), b.getTotalReward(), 0.0);
+			assertEquals(a.getRewardFatigue(), b.getRewardFatigue(), 0.0);
+			assertEquals(a.getRewardConsumption(), b.getRewardConsumption(), 0.0);
+		}
+		assertEquals(expected.getReturns().getMean(), actual.getReturns().getMean(), 0.0);
+		assertEquals(expected.getReturns().getVariance(), actual.getReturns().getVariance(), 0.0);
+		assertEquals(expected.getReturns().getQuantile(0.9), actual.getReturns().getQuantile(0.9), 0.0);
+	}
+
+	@Test
+	public void testSameAsSingleThreadedLoop() throws IOException, PropertiesException {
+		IndustrialBenchmarkConfig config = config();
+		final long seed = 42;
+		final ConstantPolicy policy = new ConstantPolicy(0.1, -0.2, 0.3);
+		EvaluationResult result = new PolicyEvaluator(config, () -> policy, STEPS).evaluate(new long[] {seed}, 2);
+
+		List<ExternalDriver> drivers = new ArrayList<ExternalDriver>();
+		drivers.add(new SetPointGenerator(seed, config.withSeed(seed)));
+		IndustrialBenchmarkDynamics env = new IndustrialBenchmarkDynamics(config.withSeed(seed), drivers);
+		ActionDelta action = new ActionDelta(0.1, -0.2, 0.3);
+		double totalReward = 0, rewardFatigue = 0, rewardConsumption = 0;
+		for (int t = 0; t < STEPS; t++) {
+			totalReward += env.step(action);
+			DataVector markovState = env.getInternalMarkovState();
+			rewardFatigue += markovState.getValue(MarkovianStateDescription.RewardFatigue);
+			rewardConsumption += markovState.getValue(MarkovianStateDescription.RewardConsumption);
+		}
+
+		EpisodeResult episode = result.getEpisodes().get(0);
+		assertEquals(totalReward, episode.getTotalReward(), 0.0);
+		assertEquals(rewardFatigue, episode.getRewardFatigue(), 1e-9);
+		assertEquals(rewardConsumption, episode.getRewardConsumption(), 1e-9);
+		assertEquals(totalReward, result.getReturns().getMean(), 0.0);
+	}
+}
@@ -0,0 +1,128 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industrialbenchmark.generate;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.beust.jcommander.JCommander;
+import com.siemens.industrialbenchmark.dynamics.IndustrialBenchmarkDynamics;
+import com.siemens.industrialbenchmark.externaldrivers.setpointgen.SetPointGenerator;
+import com.siemens.industrialbenchmark.policy.RandomDeltaPolicy;
+import com.siemens.industrialbenchmark.properties.IndustrialBenchmarkConfig;
+import com.siemens.industrialbenchmark.properties.PropertiesException;
+import com.siemens.industrialbenchmark.trajectory.TrajectoryReader;
+import com.siemens.industrialbenchmark.trajectory.TrajectoryRecorder;
+import com.siemens.rl.interfaces.ExternalDriver;
+
+/**
+ * Tests that generated datasets do not depend on the number of workers and shards.
+ */
+public class TestDatasetGenerator {
+
+	final int EPISODES = 5;
+	final int STEPS = 40;
+	final long SEED = 4711;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private double[][] generate(int shards, int workers) throws IOException, PropertiesException {
+		IndustrialBenchmarkConfig config = IndustrialBenchmarkConfig.fromFile(new File("src/main/resources/simTest.properties"));
+		DatasetGenerator generator = new DatasetGenerator(config, RandomDeltaPolicy::new, EPISODES, STEPS, shards, SEED);
+		File dir = folder.newFolder();
+		List<File> files = generator.generate(dir, workers);
+		assertEquals(shards, files.size());
+
+		List<String> manifest = Files.readAllLines(new File(dir, DatasetGenerator.MANIFEST).toPath(), StandardCharsets.UTF_8);
+		assertEquals(3 + EPISODES, manifest.size());
+
+		// concatenate all columns of all shards
+		double[][] columns = null;
+		int row = 0;
+		for (File file : files) {
+			try (TrajectoryReader reader = new TrajectoryReader(file)) {
+				if (columns == null) {
+					columns = new double[reader.getColumns().size()][EPISODES * (STEPS + 1)];
+				}
+				for (int c = 0; c < columns.length; c++) {
+					double[] values = reader.getColumn(c);
+					System.arraycopy(values, 0, columns[c], row, values.length);
+				}
+				row += (int) reader.getRowCount();
+			}
+		}
+		assertEquals(EPISODES * (STEPS + 1), row);
+		return columns;
+	}
+
+	@Test
+	public void testIndependentOfShardsAndWorkers() throws IOException, PropertiesException {
+		double[][] expected = generate(1, 1);
+		double[][] actual = generate(3, 2);
+		assertEquals(expected.length, actual.length);
+		for (int c = 0; c < expected.length; c++) {
+			assertArrayEquals(expected[c], actual[c], 0.0);
+		}
+	}
+
+	@Test
+	public void testCommandLine() throws IOException, PropertiesException {
+		File out = folder.newFolder();
+		GenerateMain main = new GenerateMain();
+		GenerateMain.GenerateCommand command = new GenerateMain.GenerateCommand();
+		JCommander jc = new JCommander(main);
+		jc.addCommand("generate", command);
+		jc.parse("generate", "-p", "src/main/resources/simTest.properties", "--policy", "constant", "--action", "0.5,-0.5,0",
+				"-e", "3", "-s", "10", "-w", "2", "--seed", "1", "-o", out.getPath());
+		assertEquals("generate", jc.getParsedCommand());
+
+		List<File> files = GenerateMain.generate(command);
+		assertEquals(2, files.size());
+		try (TrajectoryReader reader = new TrajectoryReader(files.get(1))) {
+			// episodes 1 and 2 of 3, each starting with the initial observation
+			assertEquals(22, reader.getRowCount());
+			assertEquals(-0.5, reader.get(7, 1), 0.0);
+			final int reward = reader.getColumns().indexOf(TrajectoryRecorder.REWARD_COLUMN);
+			assertTrue(Double.isNaN(reader.get(0, 1)));
+			assertTrue(Double.isNaN(reader.get(11, reward)));
+			assertFalse(Double.isNaN(reader.get(12, reward)));
+
+			// the first row holds the observation the episode starts from
+			IndustrialBenchmarkConfig config = IndustrialBenchmarkConfig.fromFile(new File("src/main/resources/simTest.properties"))
+					.withSeed(DatasetGenerator.episodeSeed(1, 1));
+			List<ExternalDriver> drivers = new ArrayList<ExternalDriver>();
+			drivers.add(new SetPointGenerator(DatasetGenerator.episodeSeed(1, 1), config));
+			double[] initial = new IndustrialBenchmarkDynamics(config, drivers).getStateView().getValuesArray();
+			for (int k = 0; k < initial.length; k++) {
+				assertEquals(initial[k], reader.get(0, reward + 1 + k), 0.0);
+			}
+		}
+	}
+}
@@ -0,0 +1,93 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industrialbenchmark.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests the bucketing, the quantiles and the concurrent recording of {@link LatencyHistogram}.
+ */
+public class TestLatencyHistogram {
+
+	@Test
+	public void testBuckets() {
+		int previous = -1;
+		for (long v = 0; v < 100000; v++) {
+			final int b = LatencyHistogram.bucketOf(v);
+			assertTrue(b == previous || b == previous + 1);
+			assertTrue(LatencyHistogram.lowerBound(b) <= v);
+			assertTrue(v - LatencyHistogram.lowerBound(b) <= Math.max(0, v / LatencyHistogram.SUB_BUCKETS));
+			previous = b;
+		}
+		for (int b = 0; b < LatencyHistogram.BUCKETS; b++) {
+			assertEquals(b, LatencyHistogram.bucketOf(LatencyHistogram.lowerBound(b)));
+		}
+		assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.bucketOf(Long.MAX_VALUE));
+	}
+
+	@Test
+	public void testQuantiles() {
+		LatencyHistogram h = new LatencyHistogram();
+		assertEquals(0, h.getValueAtQuantile(0.5));
+		for (long v = 1; v <= 10000; v++) {
+			h.record(v);
+		}
+		h.record(-5);
+		assertEquals(10001, h.getCount());
+		assertEquals(10000, h.getMax());
+		assertEquals(5000 * 10001, h.getSum());
+		assertEquals(5000, h.getValueAtQuantile(0.5), 5000 / LatencyHistogram.SUB_BUCKETS);
+		assertEquals(9900, h.getValueAtQuantile(0.99), 9900 / LatencyHistogram.SUB_BUCKETS);
+		assertEquals(0, h.getValueAtQuantile(0));
+
+		LatencyHistogram other = new LatencyHistogram();
+		other.record(1000000);
+		h.add(other);
+		assertEquals(10002, h.getCount());
+		assertEquals(1000000, h.getMax());
+
+		h.reset();
+		assertEquals(0, h.getCount());
+		assertEquals(0, h.getMax());
+	}
+
+	@Test
+	public void testConcurrentRecording() throws InterruptedException {
+		final LatencyHistogram h = new LatencyHistogram();
+		final int threads = 4;
+		final int values = 20000;
+		Thread[] workers = new Thread[threads];
+		for (int i = 0; i < threads; i++) {
+			final long seed = i;
+			workers[i] = new Thread(() -> {
+				Random rand = new Random(seed);
+				for (int j = 0; j < values; j++) {
+					h.record(rand.nextInt(1000000));
+				}
+			});
+			workers[i].start();
+		}
+		for (Thread w : workers) {
+			w.join();
+		}
+		assertEquals(threads * values, h.getCount());
+	}
+}
@@ -0,0 +1,92 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industrialbenchmark.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+import com.siemens.industrialbenchmark.conformance.Divergence;
+import com.siemens.industrialbenchmark.conformance.GoldenTrace;
+import com.siemens.industrialbenchmark.conformance.TraceEngine;
+import com.siemens.industrialbenchmark.datavector.action.ActionDelta;
+import com.siemens.industrialbenchmark.dynamics.IndustrialBenchmarkDynamics;
+import com.siemens.industrialbenchmark.properties.IndustrialBenchmarkConfig;
+import com.siemens.industrialbenchmark.properties.PropertiesException;
+
+/**
+ * Tests that instrumented benchmarks count steps, resets and restores and follow the golden trace.
+ */
+public class TestStepInstrumentation {
+
+	final long SEED = 4711;
+
+	private IndustrialBenchmarkDynamics create() throws IOException, PropertiesException {
+		IndustrialBenchmarkConfig config = IndustrialBenchmarkConfig.fromFile(new File("src/main/resources/simTest.properties"));
+		return TraceEngine.createDynamics(config, SEED);
+	}
+
+	@Test
+	public void testCounters() throws IOException, PropertiesException {
+		SimpleMetricsRegistry registry = new SimpleMetricsRegistry();
+		StepInstrumentation instrumentation = new StepInstrumentation(registry);
+		IndustrialBenchmarkDynamics env = create();
+		env.setInstrumentation(instrumentation);
+
+		ActionDelta action = new ActionDelta(0.1, -0.2, 0.3);
+		for (int t = 0; t < 50; t++) {
+			env.step(action);
+		}
+		ByteBuffer snapshot = ByteBuffer.allocate(env.getSnapshotSize());
+		env.writeTo(snapshot);
+		snapshot.flip();
+		env.readFrom(snapshot);
+		env.setInternalMarkovState(env.getInternalMarkovState());
+		env.reset();
+
+		// forks share the instrumentation
+		IndustrialBenchmarkDynamics fork = env.fork();
+		assertSame(instrumentation, fork.getInstrumentation());
+		fork.step(action);
+
+		assertEquals(51, registry.counter("ib.steps").sum());
+		assertEquals(1, registry.counter("ib.resets").sum());
+		assertEquals(2, registry.counter("ib.restores").sum());
+		for (StepStage stage : StepStage.values()) {
+			assertSame(registry.histogram(stage.metricName("ib")), instrumentation.getHistogram(stage));
+			assertEquals(stage.name(), 51, instrumentation.getHistogram(stage).getCount());
+		}
+
+		env.setInstrumentation(null);
+		env.step(action);
+		assertEquals(51, registry.counter("ib.steps").sum());
+	}
+
+	@Test
+	public void testGoldenTrace() throws IOException, PropertiesException {
+		IndustrialBenchmarkDynamics env = create();
+		env.setInstrumentation(new StepInstrumentation(new SimpleMetricsRegistry()));
+		File trace = new File(getClass().getClassLoader().getResource("dynamics/golden-simTest-4711.ibt").getFile());
+		Divergence divergence = GoldenTrace.replay(trace, TraceEngine.scalar(env), 0);
+		assertNull(String.valueOf(divergence), divergence);
+	}
+}
@@ -0,0 +1,95 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industrialbenchmark.properties;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Properties;
+
+import org.junit.Test;
+
+import com.siemens.industrialbenchmark.dynamics.IndustrialBenchmarkRewardFunction;
+import com.siemens.industrialbenchmark.externaldrivers.setpointgen.SetPointGenerator;
+
+public class TestIndustrialBenchmarkConfig {
+
+	@Test
+	public void testParsedValues() throws IOException, PropertiesException {
+		Properties props = PropertiesUtil.setpointProperties(new File ("src/main/resources/sim.properties"));
+		IndustrialBenchmarkConfig config = new IndustrialBenchmarkConfig(props);
+
+		assertEquals(PropertiesUtil.getFloat(props, "CRD", true), config.getCRD(), 0.0);
+		assertEquals(PropertiesUtil.getFloat(props, "DBase", true), config.getDBase(), 0.0);
+		assertEquals(PropertiesUtil.getFloat(props, "STEP_SIZE_GAIN", true), config.getStepSizeGain(), 0.0);
+		assertArrayEquals(new float[] {0.11111f, 0.22222f, 0.33333f, 0.22222f, 0.11111f, 0, 0, 0, 0, 0}, config.getConvArray(), 0.0f);
+		assertTrue(config.isStationarySetPoint());
+		assertEquals(100.0f, config.getStationarySetPoint(), 0.0f);
+		assertEquals(1L, config.getSeed(42L));
+
+		// boundaries with and without defaults
+		assertEquals(100f, config.getMax("Velocity", Float.MAX_VALUE), 0.0f);
+		assertEquals(0f, config.getInit("Velocity", 7f), 0.0f);
+		assertEquals(7f, config.getInit("NOT_IN_PROPERTIES_FILES", 7f), 0.0f);
+	}
+
+	@Test
+	public void testImmutable() throws IOException, PropertiesException {
+		Properties props = PropertiesUtil.setpointProperties(new File ("src/main/resources/simTest.properties"));
+		IndustrialBenchmarkConfig config = new IndustrialBenchmarkConfig(props);
+		assertFalse(config.isStationarySetPoint());
+
+		// neither the source properties nor returned arrays change the configuration
+		props.setProperty("CRD", "42");
+		config.getConvArray()[0] = 42f;
+		assertEquals(3f, config.getCRD(), 0.0f);
+		assertEquals(0.11111f, config.getConvArray()[0], 0.0f);
+
+		IndustrialBenchmarkConfig seeded = config.withSeed(4711);
+		assertEquals(4711L, seeded.getSeed(0));
+		assertEquals(1L, config.getSeed(0));
+	}
+
+	@Test (expected=PropertiesException.class)
+	public void testMissingProperty() throws IOException, PropertiesException {
+		Properties props = PropertiesUtil.setpointProperties(new File ("src/main/resources/sim.properties"));
+		props.remove("ConvArray");
+		new IndustrialBenchmarkConfig(props);
+	}
+
+	@Test
+	public void testComponentsParseOnlyTheirProperties() throws IOException, PropertiesException {
+		Properties props = PropertiesUtil.setpointProperties(new File ("src/main/resources/simTest.properties"));
+		Properties reward = new Properties();
+		reward.setProperty("CRD", props.getProperty("CRD"));
+		reward.setProperty("CRE", props.getProperty("CRE"));
+		new IndustrialBenchmarkRewardFunction(reward);
+
+		Properties setpoint = new Properties();
+		for (String key : new String[] {"MAX_CHANGE_RATE_PER_STEP_SETPOINT", "MAX_SEQUENCE_LENGTH", "SetPoint_MIN", "SetPoint_MAX", "SETPOINT_STEP_SIZE"}) {
+			setpoint.setProperty(key, props.getProperty(key));
+		}
+		SetPointGenerator narrow = new SetPointGenerator(7, setpoint);
+		SetPointGenerator full = new SetPointGenerator(7, new IndustrialBenchmarkConfig(props));
+		for (int t = 0; t < 100; t++) {
+			assertEquals(full.step(), narrow.step(), 0.0);
+		}
+	}
+}
@@ -0,0 +1,139 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industrialbenchmark.replay;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.siemens.industrialbenchmark.datavector.action.ActionDelta;
+import com.siemens.industrialbenchmark.dynamics.IndustrialBenchmarkDynamics;
+import com.siemens.industrialbenchmark.properties.IndustrialBenchmarkConfig;
+import com.siemens.industrialbenchmark.properties.PropertiesException;
+
+/**
+ * Tests storing, overwriting and sampling transitions.
+ */
+public class TestReplayStore {
+
+	private static double[] fill(double value, int n) {
+		double[] a = new double[n];
+		for (int i = 0; i < n; i++) {
+			a[i] = value + i;
+		}
+		return a;
+	}
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testRingAndGather() {
+		checkRingAndGather(new ReplayStore(5, 2, 1, 3));
+	}
+
+	@Test
+	public void testMapped() throws IOException {
+		File file = folder.newFile("replay");
+		ReplayStore store = ReplayStore.mapped(file, 5, 2, 1, 3);
+		// 5 records of 2+1+1+2+3 values and a sum tree of 2*8 nodes
+		assertEquals(8 * (5 * 9 + 16), file.length());
+		checkRingAndGather(store);
+		store.updatePriority(2, 0);
+		assertEquals(4, store.getTotalPriority(), 0.0);
+	}
+
+	private static void checkRingAndGather(ReplayStore store) {
+		for (int t = 0; t < 7; t++) {
+			int index = store.add(fill(t, 2), fill(10 * t, 1), -t, fill(100 * t, 2), fill(1000 * t, 3));
+			assertEquals(t % 5, index);
+		}
+		assertEquals(5, store.size());
+
+		int[] indices = {0, 4, 1};
+		double[] obs = new double[6], actions = new double[3], rewards = new double[3], next = new double[6], markov = new double[9];
+		store.gather(indices, 3, obs, actions, rewards, next, markov);
+		// index 0 and 1 were overwritten by t=5 and t=6
+		assertArrayEquals(new double[] {5, 6, 4, 5, 6, 7}, obs, 0.0);
+		assertArrayEquals(new double[] {50, 40, 60}, actions, 0.0);
+		assertArrayEquals(new double[] {-5, -4, -6}, rewards, 0.0);
+		assertArrayEquals(new double[] {500, 501, 400, 401, 600, 601}, next, 0.0);
+		assertArrayEquals(new double[] {5000, 5001, 5002, 4000, 4001, 4002, 6000, 6001, 6002}, markov, 0.0);
+		assertEquals(-4, store.getReward(4), 0.0);
+	}
+
+	@Test
+	public void testPrioritizedSampling() {
+		ReplayStore store = new ReplayStore(6, 1, 1, 0);
+		for (int t = 0; t < 6; t++) {
+			store.add(fill(t, 1), fill(t, 1), t, fill(t, 1), null);
+		}
+		assertEquals(6, store.getTotalPriority(), 0.0);
+		store.updatePriority(0, 0);
+		store.updatePriority(1, 3);
+		store.updatePriority(2, 0);
+		store.updatePriority(3, 1);
+		store.updatePriority(4, 0);
+		store.updatePriority(5, 0);
+		assertEquals(4, store.getTotalPriority(), 0.0);
+
+		final int n = 40000;
+		int[] indices = new int[n];
+		double[] probabilities = new double[n];
+		store.samplePrioritized(new Random(1), indices, probabilities, n);
+		int[] counts = new int[6];
+		for (int i = 0; i < n; i++) {
+			counts[indices[i]]++;
+			assertEquals(store.getPriority(indices[i]) / 4, probabilities[i], 0.0);
+		}
+		assertEquals(0, counts[0] + counts[2] + counts[4] + counts[5]);
+		assertEquals(0.75, counts[1] / (double) n, 0.01);
+
+		store.sampleUniform(new Random(2), indices, n);
+		for (int i = 0; i < n; i++) {
+			assertTrue(indices[i] >= 0 && indices[i] < 6);
+		}
+	}
+
+	@Test
+	public void testAddFromDynamics() throws IOException, PropertiesException {
+		IndustrialBenchmarkDynamics env = new IndustrialBenchmarkDynamics(
+				IndustrialBenchmarkConfig.fromFile(new File("src/main/resources/sim.properties")));
+		final int m = env.getInternalMarkovStateSize();
+		ReplayStore store = new ReplayStore(10, m);
+
+		double[] obs = env.getStateView().getValuesArray();
+		double[] action = {0.5, -0.5, 0.25};
+		double reward = env.step(new ActionDelta(action[0], action[1], action[2]));
+		store.add(obs, action, reward, env);
+
+		double[] next = new double[store.getObservationSize()];
+		double[] markov = new double[m];
+		double[] rewards = new double[1];
+		store.gather(new int[] {0}, 1, null, null, rewards, next, markov);
+		assertEquals(reward, rewards[0], 0.0);
+		assertArrayEquals(env.getStateView().getValuesArray(), next, 0.0);
+		assertArrayEquals(env.getInternalMarkovState().getValuesArray(), markov, 0.0);
+	}
+}
@@ -0,0 +1,206 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industrialbenchmark.server;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.siemens.industrialbenchmark.dynamics.ParallelIndustrialBenchmark;
+import com.siemens.industrialbenchmark.dynamics.VectorIndustrialBenchmark;
+import com.siemens.industrialbenchmark.properties.IndustrialBenchmarkConfig;
+import com.siemens.industrialbenchmark.properties.PropertiesException;
+
+/**
+ * Tests the binary protocol of the benchmark server against a local batch.
+ */
+public class TestBenchmarkServer {
+
+	final int SIZE = 4;
+	final long SEED = 4711;
+	final int OBS = VectorIndustrialBenchmark.OBSERVATION_SIZE;
+
+	private IndustrialBenchmarkConfig config;
+	private BenchmarkServer server;
+	private Thread serverThread;
+	private SocketChannel client;
+
+	@Before
+	public void setUp() throws IOException, PropertiesException {
+		config = IndustrialBenchmarkConfig.fromFile(new File("src/main/resources/simTest.properties"));
+		server = new BenchmarkServer(new ParallelIndustrialBenchmark(config.getProperties(), SIZE, SEED), new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+		serverThread = new Thread(() -> {
+			try {
+				server.serve();
+			} catch (IOException e) {
+				throw new IllegalStateException(e);
+			}
+		});
+		serverThread.start();
+		client = SocketChannel.open(server.getAddress());
+	}
+
+	@After
+	public void tearDown() throws IOException, InterruptedException {
+		client.close();
+		server.close();
+		serverThread.join(10000);
+	}
+
+	private static ByteBuffer request(byte op, double[] payload) {
+		ByteBuffer b = ByteBuffer.allocate(5 + 8 * payload.length).order(ByteOrder.LITTLE_ENDIAN);
+		b.putInt(1 + 8 * payload.length).put(op);
+		for (double v : payload) {
+			b.putDouble(v);
+		}
+		b.flip();
+		return b;
+	}
+
+	private ByteBuffer readResponse(byte expectedStatus) throws IOException {
+		ByteBuffer header = readFully(5);
+		final int length = header.getInt();
+		assertEquals(expectedStatus, header.get());
+		return readFully(length - 1);
+	}
+
+	private ByteBuffer readFully(int n) throws IOException {
+		ByteBuffer b = ByteBuffer.allocate(n).order(ByteOrder.LITTLE_ENDIAN);
+		while (b.hasRemaining()) {
+			if (client.read(b) < 0) {
+				throw new IOException("connection closed");
+			}
+		}
+		b.flip();
+		return b;
+	}
+
+	private void write(ByteBuffer... requests) throws IOException {
+		for (ByteBuffer r : requests) {
+			while (r.hasRemaining()) {
+				client.write(r);
+			}
+		}
+	}
+
+	@Test
+	public void testPipelinedSteps() throws IOException, PropertiesException {
+		ParallelIndustrialBenchmark local = new ParallelIndustrialBenchmark(config.getProperties(), SIZE, SEED);
+
+		write(request(BenchmarkServer.OP_INFO, new double[0]));
+		ByteBuffer info = readResponse(BenchmarkServer.STATUS_OK);
+		assertEquals(SIZE, info.getInt());
+		assertEquals(OBS, info.getInt());
+		assertEquals(VectorIndustrialBenchmark.ACTION_SIZE, info.getInt());
+
+		// send several steps before reading any response
+		final int steps = 5;
+		Random rand = new Random(1);
+		double[][] actions = new double[steps][SIZE * VectorIndustrialBenchmark.ACTION_SIZE];
+		ByteBuffer[] requests = new ByteBuffer[steps];
+		for (int t = 0; t < steps; t++) {
+			for (int j = 0; j < actions[t].length; j++) {
+				actions[t][j] = 2.0 * (rand.nextDouble() - 0.5);
+			}
+			requests[t] = request(BenchmarkServer.OP_STEP, actions[t]);
+		}
+		write(requests);
+
+		double[] rewards = new double[SIZE];
+		double[] observations = new double[SIZE * OBS];
+		for (int t = 0; t < steps; t++) {
+			local.step(actions[t], rewards, observations);
+			ByteBuffer response = readResponse(BenchmarkServer.STATUS_OK);
+			assertEquals(8 * (SIZE + SIZE * OBS), response.remaining());
+			double[] remoteRewards = new double[SIZE];
+			double[] remoteObservations = new double[SIZE * OBS];
+			response.asDoubleBuffer().get(remoteRewards).get(remoteObservations);
+			assertArrayEquals(rewards, remoteRewards, 0.0);
+			assertArrayEquals(observations, remoteObservations, 0.0);
+		}
+
+		// reset returns the initial observations
+		local.reset();
+		for (int i = 0; i < SIZE; i++) {
+			local.getDynamics(i).copyStateTo(observations, i * OBS);
+		}
+		write(request(BenchmarkServer.OP_RESET, new double[0]), request(BenchmarkServer.OP_GET_STATE, new double[0]));
+		for (int r = 0; r < 2; r++) {
+			double[] remote = new double[SIZE * OBS];
+			readResponse(BenchmarkServer.STATUS_OK).asDoubleBuffer().get(remote);
+			assertArrayEquals(observations, remote, 0.0);
+		}
+	}
+
+	@Test
+	public void testErrors() throws IOException {
+		write(request(BenchmarkServer.OP_STEP, new double[2]), request((byte) 42, new double[0]),
+				request(BenchmarkServer.OP_INFO, new double[0]));
+		ByteBuffer error = readResponse(BenchmarkServer.STATUS_ERROR);
+		assertEquals("expected 96 payload bytes, but got 16", StandardCharsets.UTF_8.decode(error).toString());
+		readResponse(BenchmarkServer.STATUS_ERROR);
+		// the connection is still usable
+		assertEquals(SIZE, readResponse(BenchmarkServer.STATUS_OK).getInt());
+	}
+
+	@Test
+	public void testInvalidActions() throws IOException, PropertiesException {
+		ParallelIndustrialBenchmark local = new ParallelIndustrialBenchmark(config.getProperties(), SIZE, SEED);
+		double[] actions = new double[SIZE * VectorIndustrialBenchmark.ACTION_SIZE];
+		actions[VectorIndustrialBenchmark.ACTION_SIZE] = 11;
+		double[] nan = new double[actions.length];
+		nan[2] = Double.NaN;
+		write(request(BenchmarkServer.OP_STEP, actions), request(BenchmarkServer.OP_STEP, nan),
+				request(BenchmarkServer.OP_GET_STATE, new double[0]));
+		ByteBuffer error = readResponse(BenchmarkServer.STATUS_ERROR);
+		assertEquals("delta action of benchmark 1 out of range [-10.0, 10.0]", StandardCharsets.UTF_8.decode(error).toString());
+		error = readResponse(BenchmarkServer.STATUS_ERROR);
+		assertEquals("action 2 of benchmark 0 is not finite", StandardCharsets.UTF_8.decode(error).toString());
+
+		// no benchmark has been stepped
+		double[] observations = new double[SIZE * OBS];
+		for (int i = 0; i < SIZE; i++) {
+			local.getDynamics(i).copyStateTo(observations, i * OBS);
+		}
+		double[] remote = new double[SIZE * OBS];
+		readResponse(BenchmarkServer.STATUS_OK).asDoubleBuffer().get(remote);
+		assertArrayEquals(observations, remote, 0.0);
+	}
+
+	@Test
+	public void testOversizedFrame() throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(5).order(ByteOrder.LITTLE_ENDIAN);
+		header.putInt(1 << 28).put(BenchmarkServer.OP_STEP).flip();
+		write(header);
+		ByteBuffer error = readResponse(BenchmarkServer.STATUS_ERROR);
+		assertEquals("invalid frame length 268435456, expected [1, " + (1 + 8 * SIZE * VectorIndustrialBenchmark.ACTION_SIZE) + "]",
+				StandardCharsets.UTF_8.decode(error).toString());
+		assertEquals(-1, client.read(ByteBuffer.allocate(1)));
+	}
+}
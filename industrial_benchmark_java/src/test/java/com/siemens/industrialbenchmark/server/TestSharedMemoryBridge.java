@@ -0,0 +1,151 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industrialbenchmark.server;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.siemens.industrialbenchmark.dynamics.ParallelIndustrialBenchmark;
+import com.siemens.industrialbenchmark.dynamics.VectorIndustrialBenchmark;
+import com.siemens.industrialbenchmark.properties.IndustrialBenchmarkConfig;
+import com.siemens.industrialbenchmark.properties.PropertiesException;
+
+/**
+ * Tests the shared-memory protocol by acting as agent on the same mapped file.
+ */
+public class TestSharedMemoryBridge {
+
+	final int SIZE = 3;
+	final int SLOTS = 2;
+	final long SEED = 4711;
+	final int OBS = VectorIndustrialBenchmark.OBSERVATION_SIZE;
+	final int ACTIONS = SIZE * VectorIndustrialBenchmark.ACTION_SIZE;
+	final int SLOT_DOUBLES = 2 + ACTIONS + SIZE + SIZE * OBS;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private MappedByteBuffer map;
+	private DoubleBuffer doubles;
+	private long requested;
+
+	private void submit(long op, double[] actions) {
+		final int slot = (int) (requested % SLOTS) * SLOT_DOUBLES;
+		map.putLong(SharedMemoryBridge.HEADER_SIZE + 8 * slot, op);
+		if (actions != null) {
+			doubles.position(slot + 1);
+			doubles.put(actions);
+		}
+		requested++;
+		map.putLong(SharedMemoryBridge.REQUEST_SEQUENCE, requested);
+	}
+
+	private long status(long seq) {
+		final int slot = (int) (seq % SLOTS) * SLOT_DOUBLES;
+		return map.getLong(SharedMemoryBridge.HEADER_SIZE + 8 * (slot + 1 + ACTIONS));
+	}
+
+	private double[] response(long seq, int offset, int length) {
+		final int slot = (int) (seq % SLOTS) * SLOT_DOUBLES;
+		double[] values = new double[length];
+		doubles.position(slot + 2 + ACTIONS + offset);
+		doubles.get(values);
+		return values;
+	}
+
+	@Test
+	public void testProtocol() throws IOException, PropertiesException {
+		IndustrialBenchmarkConfig config = IndustrialBenchmarkConfig.fromFile(new File("src/main/resources/simTest.properties"));
+		File file = folder.newFile("shm");
+		try (SharedMemoryBridge bridge = new SharedMemoryBridge(new ParallelIndustrialBenchmark(config.getProperties(), SIZE, SEED), file, SLOTS);
+				RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+			map = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, raf.length());
+			map.order(ByteOrder.nativeOrder());
+			map.position(SharedMemoryBridge.HEADER_SIZE);
+			doubles = map.slice().order(ByteOrder.nativeOrder()).asDoubleBuffer();
+			assertEquals(SharedMemoryBridge.MAGIC, map.getInt(0));
+			assertEquals(SIZE, map.getInt(8));
+			assertEquals(SLOTS, map.getInt(20));
+
+			ParallelIndustrialBenchmark local = new ParallelIndustrialBenchmark(config.getProperties(), SIZE, SEED);
+			double[] rewards = new double[SIZE];
+			double[] observations = new double[SIZE * OBS];
+
+			// two pipelined steps fill both slots
+			double[][] actions = {new double[ACTIONS], new double[ACTIONS]};
+			for (int j = 0; j < ACTIONS; j++) {
+				actions[0][j] = 0.5;
+				actions[1][j] = -0.25 * j;
+			}
+			submit(BenchmarkServer.OP_STEP, actions[0]);
+			submit(BenchmarkServer.OP_STEP, actions[1]);
+			assertEquals(2, bridge.poll());
+			assertEquals(2, map.getLong(SharedMemoryBridge.RESPONSE_SEQUENCE));
+			for (int t = 0; t < 2; t++) {
+				local.step(actions[t], rewards, observations);
+				assertEquals(BenchmarkServer.STATUS_OK, status(t));
+				assertArrayEquals(rewards, response(t, 0, SIZE), 0.0);
+				assertArrayEquals(observations, response(t, SIZE, SIZE * OBS), 0.0);
+			}
+
+			// reset and unknown opcodes reuse the slots
+			submit(BenchmarkServer.OP_RESET, null);
+			submit(42, null);
+			assertEquals(2, bridge.poll());
+			local.reset();
+			for (int i = 0; i < SIZE; i++) {
+				local.getDynamics(i).copyStateTo(observations, i * OBS);
+			}
+			assertArrayEquals(new double[SIZE], response(2, 0, SIZE), 0.0);
+			assertArrayEquals(observations, response(2, SIZE, SIZE * OBS), 0.0);
+			assertEquals(BenchmarkServer.STATUS_ERROR, status(3));
+			assertEquals(0, bridge.poll());
+
+			// invalid actions are answered with an error and step no benchmark
+			double[] invalid = new double[ACTIONS];
+			invalid[ACTIONS - 1] = Double.NaN;
+			submit(BenchmarkServer.OP_STEP, invalid);
+			invalid[ACTIONS - 1] = 0;
+			invalid[1] = -11;
+			submit(BenchmarkServer.OP_STEP, invalid);
+			assertEquals(2, bridge.poll());
+			assertEquals(6, map.getLong(SharedMemoryBridge.RESPONSE_SEQUENCE));
+			assertEquals(BenchmarkServer.STATUS_ERROR, status(4));
+			assertEquals(BenchmarkServer.STATUS_ERROR, status(5));
+			submit(BenchmarkServer.OP_GET_STATE, null);
+			assertEquals(1, bridge.poll());
+			assertEquals(BenchmarkServer.STATUS_OK, status(6));
+			assertArrayEquals(observations, response(6, SIZE, SIZE * OBS), 0.0);
+
+			// close stops serving
+			submit(SharedMemoryBridge.OP_CLOSE, null);
+			bridge.serve();
+			assertEquals(8, bridge.getProcessed());
+		}
+	}
+}
@@ -0,0 +1,152 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industrialbenchmark.setpointgen;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import com.siemens.industrialbenchmark.datavector.action.ActionDelta;
+import com.siemens.industrialbenchmark.datavector.state.MarkovianStateDescription;
+import com.siemens.industrialbenchmark.datavector.state.ObservableStateDescription;
+import com.siemens.industrialbenchmark.dynamics.IndustrialBenchmarkDynamics;
+import com.siemens.industrialbenchmark.externaldrivers.setpointgen.CachedSetPointDriver;
+import com.siemens.industrialbenchmark.externaldrivers.setpointgen.SetPointGenerator;
+import com.siemens.industrialbenchmark.externaldrivers.setpointgen.SetPointTrajectory;
+import com.siemens.industrialbenchmark.externaldrivers.setpointgen.SetPointTrajectoryCache;
+import com.siemens.industrialbenchmark.properties.IndustrialBenchmarkConfig;
+import com.siemens.industrialbenchmark.properties.PropertiesException;
+import com.siemens.rl.interfaces.DataVector;
+import com.siemens.rl.interfaces.ExternalDriver;
+
+/**
+ * Tests that cached setpoint trajectories reproduce the setpoint generator and are restored with the state.
+ */
+public class TestCachedSetPointDriver {
+
+	final int LENGTH = 1000;
+	final long[] SEEDS = new long[] {1, 42, 4711, 42};
+
+	private static IndustrialBenchmarkConfig config() throws IOException, PropertiesException {
+		return IndustrialBenchmarkConfig.fromFile(new File("src/main/resources/simTest.properties"));
+	}
+
+	private static IndustrialBenchmarkDynamics create(IndustrialBenchmarkConfig config, ExternalDriver driver) throws PropertiesException {
+		List<ExternalDriver> drivers = new ArrayList<ExternalDriver>();
+		drivers.add(driver);
+		return new IndustrialBenchmarkDynamics(config, drivers);
+	}
+
+	@Test
+	public void testSameAsGenerator() throws IOException, PropertiesException {
+		IndustrialBenchmarkConfig config = config();
+		ForkJoinPool pool = new ForkJoinPool(3);
+		try {
+			SetPointTrajectoryCache cache = SetPointTrajectoryCache.generate(config, SEEDS, LENGTH, pool);
+			assertEquals(3, cache.size());
+			assertEquals(LENGTH, cache.getLength());
+			for (long seed : SEEDS) {
+				SetPointTrajectory trajectory = cache.get(seed);
+				SetPointGenerator generator = new SetPointGenerator(seed, config);
+				for (int i = 0; i < LENGTH; i++) {
+					assertEquals(generator.step(), trajectory.getSetPoint(i), 0.0);
+					assertEquals(generator.getChangeRatePerStep(), trajectory.getChangeRatePerStep(i), 0.0);
+					assertEquals(generator.getCurrentSteps(), trajectory.getCurrentSteps(i));
+					assertEquals(generator.getLastSequenceSteps(), trajectory.getLastSequenceSteps(i));
+				}
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void testSharedByBenchmarks() throws IOException, PropertiesException {
+		IndustrialBenchmarkConfig config = config();
+		SetPointTrajectory trajectory = SetPointTrajectoryCache.generate(config, new long[] {7}, LENGTH).get(7);
+		IndustrialBenchmarkDynamics a = create(config.withSeed(1), new CachedSetPointDriver(trajectory));
+		IndustrialBenchmarkDynamics b = create(config.withSeed(2), new CachedSetPointDriver(trajectory));
+
+		// the setpoint does not depend on the benchmark seed and the actions
+		Random rand = new Random(1);
+		for (int t = 0; t < 100; t++) {
+			a.step(new ActionDelta(rand.nextDouble() - 0.5, rand.nextDouble() - 0.5, rand.nextDouble() - 0.5));
+			b.step(new ActionDelta(0, 0, 0));
+			assertEquals(trajectory.getSetPoint(t + 2), a.getStateView().getValue(ObservableStateDescription.SetPoint), 0.0);
+			assertEquals(trajectory.getSetPoint(t + 2), b.getStateView().getValue(ObservableStateDescription.SetPoint), 0.0);
+		}
+	}
+
+	@Test
+	public void testRestore() throws IOException, PropertiesException {
+		IndustrialBenchmarkConfig config = config();
+		SetPointTrajectory trajectory = SetPointTrajectory.generate(config, 7, LENGTH);
+		IndustrialBenchmarkDynamics env = create(config, new CachedSetPointDriver(trajectory));
+		ActionDelta action = new ActionDelta(0.3, -0.1, 0.2);
+		for (int t = 0; t < 50; t++) {
+			env.step(action);
+		}
+		DataVector memorized = env.getInternalMarkovState();
+		ByteBuffer snapshot = ByteBuffer.allocate(env.getSnapshotSize());
+		env.writeTo(snapshot);
+		IndustrialBenchmarkDynamics fork = env.fork();
+
+		double[] expected = new double[50];
+		for (int t = 0; t < expected.length; t++) {
+			expected[t] = env.step(action);
+		}
+		double setPoint = env.getStateView().getValue(ObservableStateDescription.SetPoint);
+
+		// the fork continues with the same setpoints
+		for (int t = 0; t < expected.length; t++) {
+			assertEquals(Double.doubleToLongBits(expected[t]), Double.doubleToLongBits(fork.step(action)));
+		}
+
+		// the snapshot restores the position
+		snapshot.flip();
+		env.readFrom(snapshot);
+		for (int t = 0; t < expected.length; t++) {
+			assertEquals(Double.doubleToLongBits(expected[t]), Double.doubleToLongBits(env.step(action)));
+		}
+
+		// the markovian state restores the position
+		env.setInternalMarkovState(memorized);
+		for (int t = 0; t < expected.length; t++) {
+			env.step(action);
+		}
+		assertEquals(setPoint, env.getStateView().getValue(ObservableStateDescription.SetPoint), 0.0);
+		assertEquals(setPoint, env.getInternalMarkovState().getValue(MarkovianStateDescription.SetPoint), 0.0);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testExhausted() throws IOException, PropertiesException {
+		IndustrialBenchmarkConfig config = config();
+		SetPointTrajectory trajectory = SetPointTrajectory.generate(config, 7, 10);
+		CachedSetPointDriver driver = new CachedSetPointDriver(trajectory, 8);
+		assertSame(trajectory, driver.copy().getTrajectory());
+		IndustrialBenchmarkDynamics env = create(config, driver);
+		env.step(new ActionDelta(0, 0, 0));
+	}
+}
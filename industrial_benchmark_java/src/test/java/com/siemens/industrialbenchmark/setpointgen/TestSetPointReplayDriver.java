@@ -0,0 +1,150 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industrialbenchmark.setpointgen;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.siemens.industrialbenchmark.datavector.action.ActionDelta;
+import com.siemens.industrialbenchmark.datavector.state.ObservableStateDescription;
+import com.siemens.industrialbenchmark.dynamics.IndustrialBenchmarkDynamics;
+import com.siemens.industrialbenchmark.externaldrivers.setpointgen.SetPointLog;
+import com.siemens.industrialbenchmark.externaldrivers.setpointgen.SetPointReplayDriver;
+import com.siemens.industrialbenchmark.properties.IndustrialBenchmarkConfig;
+import com.siemens.industrialbenchmark.properties.PropertiesException;
+import com.siemens.rl.interfaces.DataVector;
+import com.siemens.rl.interfaces.ExternalDriver;
+
+/**
+ * Tests the conversion of CSV setpoint logs and the replay, seek and restore of recorded setpoints.
+ */
+public class TestSetPointReplayDriver {
+
+	final int LENGTH = 500;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static double setPoint(int step) {
+		return 50 + 40 * Math.sin(step / 20.0);
+	}
+
+	private SetPointLog createLog() throws IOException {
+		File csv = folder.newFile("load.csv");
+		try (PrintWriter out = new PrintWriter(csv, "UTF-8")) {
+			out.println("# plant load profile");
+			out.println("time;load;SetPoint");
+			for (int i = 0; i < LENGTH; i++) {
+				out.println(i + ";" + (i % 7) + ";" + setPoint(i));
+			}
+		}
+		File log = folder.newFile("load.ibt");
+		assertEquals(LENGTH, SetPointLog.convertCsv(csv, log, "SetPoint"));
+		return new SetPointLog(log);
+	}
+
+	private static IndustrialBenchmarkDynamics create(ExternalDriver driver) throws IOException, PropertiesException {
+		IndustrialBenchmarkConfig config = IndustrialBenchmarkConfig.fromFile(new File("src/main/resources/simTest.properties"));
+		List<ExternalDriver> drivers = new ArrayList<ExternalDriver>();
+		drivers.add(driver);
+		return new IndustrialBenchmarkDynamics(config, drivers);
+	}
+
+	private static double setPointOf(IndustrialBenchmarkDynamics env) {
+		return env.getStateView().getValue(ObservableStateDescription.SetPoint);
+	}
+
+	@Test
+	public void testReplay() throws IOException, PropertiesException {
+		try (SetPointLog log = createLog()) {
+			assertEquals(LENGTH, log.length());
+			for (int i = 0; i < LENGTH; i++) {
+				assertEquals(setPoint(i), log.get(i), 0.0);
+			}
+
+			// benchmarks share the log and replay it from their own positions
+			IndustrialBenchmarkDynamics a = create(new SetPointReplayDriver(log));
+			IndustrialBenchmarkDynamics b = create(new SetPointReplayDriver(log, 100));
+			ActionDelta action = new ActionDelta(0.1, 0.1, 0.1);
+			for (int t = 0; t < 50; t++) {
+				a.step(action);
+				b.step(action);
+				assertEquals(setPoint(t + 2), setPointOf(a), 0.0);
+				assertEquals(setPoint(t + 102), setPointOf(b), 0.0);
+			}
+		}
+	}
+
+	@Test
+	public void testRestore() throws IOException, PropertiesException {
+		try (SetPointLog log = createLog()) {
+			SetPointReplayDriver driver = new SetPointReplayDriver(log);
+			IndustrialBenchmarkDynamics env = create(driver);
+			ActionDelta action = new ActionDelta(-0.2, 0.3, 0.1);
+			for (int t = 0; t < 20; t++) {
+				env.step(action);
+			}
+			DataVector memorized = env.getInternalMarkovState();
+			ByteBuffer snapshot = ByteBuffer.allocate(env.getSnapshotSize());
+			env.writeTo(snapshot);
+			IndustrialBenchmarkDynamics fork = env.fork();
+
+			double[] expected = new double[30];
+			for (int t = 0; t < expected.length; t++) {
+				expected[t] = env.step(action);
+			}
+			for (int t = 0; t < expected.length; t++) {
+				assertEquals(Double.doubleToLongBits(expected[t]), Double.doubleToLongBits(fork.step(action)));
+			}
+			snapshot.flip();
+			env.readFrom(snapshot);
+			for (int t = 0; t < expected.length; t++) {
+				assertEquals(Double.doubleToLongBits(expected[t]), Double.doubleToLongBits(env.step(action)));
+			}
+
+			// restoring the markovian state seeks the driver
+			env.setInternalMarkovState(memorized);
+			assertEquals(22, driver.getPosition());
+			env.step(action);
+			assertEquals(setPoint(22), setPointOf(env), 0.0);
+		}
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testExhausted() throws IOException, PropertiesException {
+		try (SetPointLog log = createLog()) {
+			IndustrialBenchmarkDynamics env = create(new SetPointReplayDriver(log, LENGTH - 2));
+			env.step(new ActionDelta(0, 0, 0));
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSeekOutOfRange() throws IOException {
+		try (SetPointLog log = createLog()) {
+			new SetPointReplayDriver(log).seek(LENGTH + 1);
+		}
+	}
+}
@@ -0,0 +1,116 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industrialbenchmark.state;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.nio.DoubleBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.siemens.industrialbenchmark.datavector.state.IndexedMarkovianState;
+import com.siemens.industrialbenchmark.datavector.state.MarkovianStateDescription;
+import com.siemens.industrialbenchmark.datavector.state.MarkovianStateLayout;
+import com.siemens.industrialbenchmark.datavector.state.ObservableState;
+import com.siemens.industrialbenchmark.datavector.state.ObservableStateDescription;
+import com.siemens.industrialbenchmark.externaldrivers.setpointgen.SetPointGeneratorStateDescription;
+import com.siemens.rl.interfaces.DataVector;
+
+/**
+ * Tests that the bulk and handle accessors agree with the per-key accessors.
+ */
+public class TestDataVectorBulkAccess {
+
+	private static final List<String> EXT_KEYS = Arrays.asList(
+			SetPointGeneratorStateDescription.SetPoint,
+			SetPointGeneratorStateDescription.SetPointLastSequenceSteps);
+
+	private static void fill(DataVector v) {
+		for (int i = 0; i < v.getKeys().size(); i++) {
+			v.setValue(v.getKeys().get(i), i + 0.5);
+		}
+	}
+
+	private static void checkBulkAccess(DataVector v) {
+		fill(v);
+		final int n = v.getKeys().size();
+		final double[] expected = v.getValuesArray();
+
+		double[] dst = new double[n + 3];
+		v.copyValuesTo(dst, 2);
+		assertArrayEquals(expected, Arrays.copyOfRange(dst, 2, 2 + n), 0.0);
+
+		DoubleBuffer buffer = DoubleBuffer.allocate(n + 1);
+		buffer.put(-1);
+		v.copyValuesTo(buffer);
+		assertEquals(n + 1, buffer.position());
+		assertArrayEquals(expected, Arrays.copyOfRange(buffer.array(), 1, n + 1), 0.0);
+
+		// write back negated values
+		double[] src = new double[n + 1];
+		for (int i = 0; i < n; i++) {
+			src[i + 1] = -expected[i];
+		}
+		v.setValuesFrom(src, 1);
+		double[] actual = new double[n];
+		v.copyValuesTo(actual, 0);
+		for (String key : v.getKeys()) {
+			final int handle = v.getHandle(key);
+			assertEquals(key, v.getValue(key), v.getValue(handle), 0.0);
+			v.setValue(handle, 42);
+			assertEquals(key, 42, v.getValue(key), 0.0);
+		}
+		for (int i = 0; i < n; i++) {
+			assertEquals(-expected[v.getKeys().lastIndexOf(v.getKeys().get(i))], actual[i], 0.0);
+		}
+	}
+
+	@Test
+	public void testDataVectorImpl() {
+		checkBulkAccess(new ObservableState());
+	}
+
+	@Test
+	public void testIndexedMarkovianState() {
+		MarkovianStateLayout l = new MarkovianStateLayout(3, EXT_KEYS);
+		IndexedMarkovianState view = new IndexedMarkovianState(l, new double[l.size()]);
+		checkBulkAccess(view);
+		checkBulkAccess(view.clone());
+		assertEquals(MarkovianStateLayout.FATIGUE, view.getHandle(MarkovianStateDescription.Fatigue));
+	}
+
+	@Test
+	public void testHandlesAreSharedBySchema() {
+		ObservableState a = new ObservableState();
+		ObservableState b = new ObservableState();
+		final int handle = a.getHandle(ObservableStateDescription.Fatigue);
+		b.setValue(handle, 3.0);
+		assertEquals(3.0, b.getValue(ObservableStateDescription.Fatigue), 0.0);
+	}
+
+	@Test(expected=IndexOutOfBoundsException.class)
+	public void testSourceTooShort() {
+		new ObservableState().setValuesFrom(new double[3], 0);
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void testUnknownHandle() {
+		new ObservableState().getHandle("NOT_DEFINED");
+	}
+}
@@ -0,0 +1,121 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industrialbenchmark.state;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.siemens.industrialbenchmark.datavector.DataVectorImpl;
+import com.siemens.industrialbenchmark.datavector.DataVectorSchema;
+import com.siemens.industrialbenchmark.datavector.action.ActionDelta;
+import com.siemens.industrialbenchmark.datavector.state.ObservableState;
+import com.siemens.industrialbenchmark.datavector.state.ObservableStateDescription;
+import com.siemens.industrialbenchmark.properties.PropertiesException;
+import com.siemens.rl.interfaces.DataVector;
+
+public class TestDataVectorSchema {
+
+	@Test
+	public void testInterned() throws PropertiesException {
+		assertSame(new ObservableState().getSchema(), new ObservableState().getSchema());
+		assertSame(new ActionDelta(0, 0, 0).getSchema(), new ActionDelta(1, 1, 1).getSchema());
+		assertSame(ObservableStateDescription.SCHEMA, new ObservableStateDescription().getSchema());
+
+		List<String> keys = new ArrayList<String>(Arrays.asList("a", "b"));
+		DataVectorSchema schema = DataVectorSchema.of(keys);
+		assertSame(schema, DataVectorSchema.of(Arrays.asList("a", "b")));
+		// later changes of the list do not affect the schema
+		keys.add("c");
+		assertEquals(2, schema.size());
+		assertEquals(-1, schema.indexOf("c"));
+	}
+
+	@Test
+	public void testCloneCopiesValues() {
+		ObservableState s = new ObservableState();
+		s.setValue(ObservableStateDescription.SetPoint, 42);
+		DataVector c = s.clone();
+		s.setValue(ObservableStateDescription.SetPoint, 7);
+		assertEquals(42, c.getValue(ObservableStateDescription.SetPoint), 0.0);
+		assertEquals(s.getKeys(), c.getKeys());
+		assertTrue(Double.isNaN(c.getValue(ObservableStateDescription.Fatigue)));
+	}
+
+	@Test
+	public void testDuplicateKeys() {
+		// duplicate keys share the value of the last occurrence
+		DataVectorImpl v = new DataVectorImpl(Arrays.asList("a", "b", "a"));
+		v.setValue("a", 1);
+		v.setValue("b", 2);
+		assertArrayEquals(new double[] {1, 2, 1}, v.getValuesArray(), 0.0);
+		assertArrayEquals(new double[] {1, 2, 1}, v.clone().getValuesArray(), 0.0);
+		assertEquals("{a=1.0, b=2.0, a=1.0}", v.toString());
+	}
+
+	@Test
+	public void testSerializationPreservesInterning() throws IOException, ClassNotFoundException {
+		ObservableState s = new ObservableState();
+		s.setValue(ObservableStateDescription.RewardTotal, -3);
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(s);
+		out.close();
+		ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+		ObservableState read = (ObservableState) in.readObject();
+
+		assertNotSame(s, read);
+		assertSame(s.getSchema(), read.getSchema());
+		assertEquals(-3, read.getValue(ObservableStateDescription.RewardTotal), 0.0);
+	}
+
+	/** data vector with keys [a, b, a], a=1 and b=2, written by the former map based implementation */
+	private static final String FORMER_SERIALIZED_FORM =
+			"rO0ABXNyADljb20uc2llbWVucy5pbmR1c3RyaWFsYmVuY2htYXJrLmRhdGF2ZWN0b3IuRGF0YVZlY3RvckltcGxEymXXERoC" +
+			"3gIABEwAC2Rlc2NyaXB0aW9udABCTGNvbS9zaWVtZW5zL2luZHVzdHJpYWxiZW5jaG1hcmsvZGF0YXZlY3Rvci9EYXRhVmVj" +
+			"dG9yRGVzY3JpcHRpb247TAAIaW5kZXhNYXB0ABNMamF2YS91dGlsL0hhc2hNYXA7TAAEa2V5c3QAKUxjb20vZ29vZ2xlL2Nv" +
+			"bW1vbi9jb2xsZWN0L0ltbXV0YWJsZUxpc3Q7WwAGdmFsdWVzdAACW0R4cHBzcgARamF2YS51dGlsLkhhc2hNYXAFB9rBwxZg" +
+			"0QMAAkYACmxvYWRGYWN0b3JJAAl0aHJlc2hvbGR4cD9AAAAAAAAMdwgAAAAQAAAAAnQAAWFzcgARamF2YS5sYW5nLkludGVn" +
+			"ZXIS4qCk94GHOAIAAUkABXZhbHVleHIAEGphdmEubGFuZy5OdW1iZXKGrJUdC5TgiwIAAHhwAAAAAnQAAWJzcQB+AAkAAAAB" +
+			"eHNyADZjb20uZ29vZ2xlLmNvbW1vbi5jb2xsZWN0LkltbXV0YWJsZUxpc3QkU2VyaWFsaXplZEZvcm0AAAAAAAAAAAIAAVsA" +
+			"CGVsZW1lbnRzdAATW0xqYXZhL2xhbmcvT2JqZWN0O3hwdXIAE1tMamF2YS5sYW5nLk9iamVjdDuQzlifEHMpbAIAAHhwAAAA" +
+			"A3EAfgAIcQB+AAxxAH4ACHVyAAJbRD6mjBSrY1oeAgAAeHAAAAADf/gAAAAAAABAAAAAAAAAAD/wAAAAAAAA";
+
+	@Test
+	public void testReadsFormerSerializedForm() throws IOException, ClassNotFoundException {
+		ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(Base64.getDecoder().decode(FORMER_SERIALIZED_FORM)));
+		DataVectorImpl read = (DataVectorImpl) in.readObject();
+
+		assertSame(DataVectorSchema.of(Arrays.asList("a", "b", "a")), read.getSchema());
+		assertEquals(1, read.getValue("a"), 0.0);
+		assertArrayEquals(new double[] {1, 2, 1}, read.getValuesArray(), 0.0);
+	}
+}
@@ -0,0 +1,124 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industrialbenchmark.state;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.siemens.industrialbenchmark.datavector.state.IndexedMarkovianState;
+import com.siemens.industrialbenchmark.datavector.state.MarkovianStateDescription;
+import com.siemens.industrialbenchmark.datavector.state.MarkovianStateLayout;
+import com.siemens.industrialbenchmark.datavector.state.ObservableState;
+import com.siemens.industrialbenchmark.datavector.state.ObservableStateDescription;
+import com.siemens.industrialbenchmark.datavector.state.ObservableStateView;
+import com.siemens.industrialbenchmark.externaldrivers.setpointgen.SetPointGeneratorStateDescription;
+import com.siemens.rl.interfaces.DataVector;
+
+public class TestMarkovianStateLayout {
+
+	private static final List<String> EXT_KEYS = Arrays.asList(
+			SetPointGeneratorStateDescription.SetPoint,
+			SetPointGeneratorStateDescription.SetPointLastSequenceSteps,
+			SetPointGeneratorStateDescription.SetPointCurrentSteps,
+			SetPointGeneratorStateDescription.SetPointChangeRatePerStep);
+
+	@Test
+	public void testFixedSlots() {
+		MarkovianStateLayout l = new MarkovianStateLayout(10, EXT_KEYS);
+
+		// the compile-time slots must follow the order of the internal variables
+		List<String> fixed = MarkovianStateDescription.getNonConvolutedInternalVariables();
+		for (int i = 0; i < fixed.size(); i++) {
+			assertEquals(fixed.get(i), i, l.slotOf(fixed.get(i)));
+		}
+		assertEquals(MarkovianStateLayout.CURRENT_OPERATIONAL_COST, l.slotOf(MarkovianStateDescription.CurrentOperationalCost));
+		assertEquals(MarkovianStateLayout.RANDOM_SEED, l.slotOf(MarkovianStateDescription.RandomSeed));
+		assertEquals(MarkovianStateLayout.SET_POINT, l.slotOf(MarkovianStateDescription.SetPoint));
+		assertEquals(MarkovianStateLayout.VELOCITY, l.slotOf(MarkovianStateDescription.Action_Velocity));
+		assertEquals(MarkovianStateLayout.GAIN, l.slotOf(MarkovianStateDescription.Action_Gain));
+		assertEquals(MarkovianStateLayout.SHIFT, l.slotOf(MarkovianStateDescription.Action_Shift));
+		assertEquals(MarkovianStateLayout.REWARD_TOTAL, l.slotOf(MarkovianStateDescription.RewardTotal));
+
+		for (int i = 0; i < 10; i++) {
+			assertEquals(MarkovianStateLayout.OPERATIONALCOST_0 + i, l.slotOf(MarkovianStateLayout.OPERATIONALCOST_PREFIX + i));
+		}
+
+		// SetPoint is shared with the setpoint generator, the other driver variables are appended
+		assertEquals(10 + 24 + 4, l.getKeys().size());
+		assertEquals(10 + 24 + 3, l.size());
+		assertEquals(-1, l.slotOf("NOT_DEFINED"));
+	}
+
+	@Test
+	public void testViewAndMaterialization() {
+		MarkovianStateLayout l = new MarkovianStateLayout(3, EXT_KEYS);
+		double[] values = new double[l.size()];
+		IndexedMarkovianState view = new IndexedMarkovianState(l, values);
+
+		view.setValue(MarkovianStateDescription.Fatigue, 1.5);
+		view.setValue(SetPointGeneratorStateDescription.SetPointCurrentSteps, 7);
+		assertEquals(1.5, values[MarkovianStateLayout.FATIGUE], 0.0);
+
+		DataVector copy = view.clone();
+		assertNotSame(view, copy);
+		assertEquals(l.getKeys(), copy.getKeys());
+		assertEquals(7.0, copy.getValue(SetPointGeneratorStateDescription.SetPointCurrentSteps), 0.0);
+
+		// the copy is detached from the flat array
+		values[MarkovianStateLayout.FATIGUE] = 2.5;
+		assertEquals(1.5, copy.getValue(MarkovianStateDescription.Fatigue), 0.0);
+		assertEquals(2.5, view.getValue(MarkovianStateDescription.Fatigue), 0.0);
+	}
+
+	@Test
+	public void testObservableStateView() {
+		MarkovianStateLayout l = new MarkovianStateLayout(3, EXT_KEYS);
+		double[] values = new double[l.size()];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = i;
+		}
+		ObservableStateView view = new ObservableStateView(values);
+		assertEquals(new ObservableState().getKeys(), view.getKeys());
+		for (int k = 0; k < ObservableStateView.SIZE; k++) {
+			final String key = view.getKeys().get(k);
+			assertEquals(key, l.slotOf(key), ObservableStateView.slotOf(k));
+			assertEquals(key, values[l.slotOf(key)], view.getValue(key), 0.0);
+		}
+
+		// the copy is detached, the view is not
+		ObservableState copy = view.clone();
+		values[MarkovianStateLayout.FATIGUE] = -1;
+		assertEquals(-1, view.getValue(ObservableStateDescription.Fatigue), 0.0);
+		assertEquals(MarkovianStateLayout.FATIGUE, copy.getValue(ObservableStateDescription.Fatigue), 0.0);
+	}
+
+	@Test(expected=UnsupportedOperationException.class)
+	public void testObservableStateViewIsReadOnly() {
+		MarkovianStateLayout l = new MarkovianStateLayout(3, EXT_KEYS);
+		new ObservableStateView(new double[l.size()]).setValue(ObservableStateDescription.Fatigue, 1);
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void testUnknownKey() {
+		MarkovianStateLayout l = new MarkovianStateLayout(3, EXT_KEYS);
+		new IndexedMarkovianState(l, new double[l.size()]).getValue("NOT_DEFINED");
+	}
+}
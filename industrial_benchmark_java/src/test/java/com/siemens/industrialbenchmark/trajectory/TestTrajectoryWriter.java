@@ -0,0 +1,141 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industrialbenchmark.trajectory;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.siemens.industrialbenchmark.datavector.action.ActionDelta;
+import com.siemens.industrialbenchmark.datavector.state.ObservableState;
+import com.siemens.industrialbenchmark.properties.PropertiesException;
+
+/**
+ * Tests writing, reading and exporting columnar trajectory files.
+ */
+public class TestTrajectoryWriter {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static double value(int row, int column) {
+		return row * 10.0 + column + 0.25;
+	}
+
+	@Test
+	public void testRoundTripOverSeveralBlocks() throws IOException {
+		File file = folder.newFile("t.ibt");
+		List<String> columns = Arrays.asList("a", "b", "äc");
+		final int rows = 23;
+		try (TrajectoryWriter writer = new TrajectoryWriter(file, columns, 5)) {
+			double[] row = new double[4];
+			for (int r = 0; r < rows; r++) {
+				for (int c = 0; c < 3; c++) {
+					row[c + 1] = value(r, c);
+				}
+				writer.append(row, 1);
+			}
+			assertEquals(rows, writer.getRowCount());
+		}
+
+		try (TrajectoryReader reader = new TrajectoryReader(file)) {
+			assertEquals(columns, reader.getColumns());
+			assertEquals(rows, reader.getRowCount());
+			assertEquals(2, reader.getColumnIndex("äc"));
+			double[] row = new double[3];
+			for (int r = 0; r < rows; r++) {
+				reader.readRow(r, row, 0);
+				for (int c = 0; c < 3; c++) {
+					assertEquals(value(r, c), reader.get(r, c), 0.0);
+					assertEquals(value(r, c), row[c], 0.0);
+				}
+			}
+			double[] expected = new double[rows];
+			for (int r = 0; r < rows; r++) {
+				expected[r] = value(r, 1);
+			}
+			assertArrayEquals(expected, reader.getColumn(1), 0.0);
+		}
+	}
+
+	@Test
+	public void testEmptyTrajectory() throws IOException {
+		File file = folder.newFile("empty.ibt");
+		new TrajectoryWriter(file, Arrays.asList("x")).close();
+		try (TrajectoryReader reader = new TrajectoryReader(file)) {
+			assertEquals(0, reader.getRowCount());
+			assertEquals(0, reader.getColumn(0).length);
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testRejectsOtherFiles() throws IOException {
+		File file = folder.newFile("other.ibt");
+		java.nio.file.Files.write(file.toPath(), new byte[64]);
+		new TrajectoryReader(file).close();
+	}
+
+	@Test
+	public void testRecorderAndCsvExport() throws IOException, PropertiesException {
+		File file = folder.newFile("rec.ibt");
+		ActionDelta action = new ActionDelta(0.5, -0.25, 1);
+		ObservableState state = new ObservableState();
+		List<String> keys = state.getKeys();
+		for (int i = 0; i < keys.size(); i++) {
+			state.setValue(keys.get(i), i + 0.5);
+		}
+
+		final int offset;
+		try (TrajectoryRecorder recorder = new TrajectoryRecorder(file, action.getKeys(), keys)) {
+			assertEquals(action.getKeys().size() + 1 + keys.size(), recorder.getColumns().size());
+			assertEquals(TrajectoryRecorder.REWARD_COLUMN, recorder.getColumns().get(action.getKeys().size()));
+			recorder.record(action, -3, state);
+			recorder.record(action, -4, state);
+			offset = recorder.getStateOffset();
+		}
+
+		try (TrajectoryReader reader = new TrajectoryReader(file)) {
+			assertEquals(-4, reader.get(1, reader.getColumnIndex(TrajectoryRecorder.REWARD_COLUMN)), 0.0);
+			assertEquals(-0.25, reader.get(0, reader.getColumnIndex(action.getKeys().get(1))), 0.0);
+
+			StringWriter csv = new StringWriter();
+			CsvExporter.export(reader, offset, reader.getColumns().size(), csv);
+
+			StringBuilder expected = new StringBuilder("time ");
+			for (String key : keys) {
+				expected.append(key + " ");
+			}
+			expected.append("\n");
+			for (int r = 0; r < 2; r++) {
+				expected.append(Integer.toString(r + 1) + " ");
+				for (String key : keys) {
+					expected.append(state.getValue(key) + " ");
+				}
+				expected.append("\n");
+			}
+			assertEquals(expected.toString(), csv.toString());
+		}
+	}
+}
@@ -0,0 +1,66 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industrialbenchmark.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class TestDoubleRingBuffer {
+
+	@Test
+	public void testFifo() {
+		DoubleRingBuffer b = new DoubleRingBuffer(3);
+		assertArrayEquals(new double[] {0, 0, 0}, copy(b), 0.0);
+
+		for (int i = 1; i <= 7; i++) {
+			b.add(i);
+		}
+		assertEquals(3, b.size());
+		assertEquals(5.0, b.get(0), 0.0);
+		assertEquals(7.0, b.get(2), 0.0);
+		assertArrayEquals(new double[] {5, 6, 7}, copy(b), 0.0);
+
+		b.fill(1.5);
+		b.add(2.5);
+		assertArrayEquals(new double[] {1.5, 1.5, 2.5}, copy(b), 0.0);
+	}
+
+	@Test
+	public void testConvolution() {
+		float[] weights = new float[] {0.5f, 0, 0.25f, 0, 0};
+		DoubleRingBuffer b = new DoubleRingBuffer(weights.length);
+		for (int i = 0; i < 13; i++) {
+			b.add(Math.exp(i / 10.0));
+
+			double expected = 0;
+			for (int j = 0; j < weights.length; j++) {
+				expected += weights[j] * b.get(j);
+			}
+			assertEquals(expected, b.convolve(weights), 0.0);
+			assertEquals(expected, b.convolve(new int[] {0, 2}, new float[] {0.5f, 0.25f}), 0.0);
+		}
+	}
+
+	private static double[] copy(DoubleRingBuffer b) {
+		double[] result = new double[b.size() + 1];
+		b.copyTo(result, 1);
+		double[] values = new double[b.size()];
+		System.arraycopy(result, 1, values, 0, values.length);
+		return values;
+	}
+}
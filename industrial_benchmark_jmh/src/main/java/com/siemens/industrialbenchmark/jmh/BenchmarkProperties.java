@@ -0,0 +1,68 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industrialbenchmark.jmh;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+/**
+ * Loads the benchmark configuration (sim.properties of the industrialbenchmark artifact) for
+ * the JMH parameters.
+ */
+final class BenchmarkProperties {
+
+	/** the convolution kernel of sim.properties, longer kernels are padded with zeros */
+	private static final String[] KERNEL = new String[] {"0.11111", "0.22222", "0.33333", "0.22222", "0.11111"};
+
+	private BenchmarkProperties() {}
+
+	/**
+	 * Returns the configuration
+	 * @param setPoint "stationary" for a constant setpoint, "moving" for the setpoint generator
+	 * @param convLength The length of the ConvArray (operational cost history)
+	 * @return the properties
+	 * @throws IOException
+	 */
+	static Properties load(String setPoint, int convLength) throws IOException {
+		Properties props = new Properties();
+		InputStream in = BenchmarkProperties.class.getResourceAsStream("/sim.properties");
+		if (in == null) {
+			throw new IOException("sim.properties not found on the classpath");
+		}
+		try {
+			props.load(in);
+		} finally {
+			in.close();
+		}
+
+		if ("moving".equals(setPoint)) {
+			props.remove("STATIONARY_SETPOINT");
+		} else if (!"stationary".equals(setPoint)) {
+			throw new IllegalArgumentException("setPoint must be 'stationary' or 'moving', but is " + setPoint);
+		}
+
+		StringBuilder conv = new StringBuilder();
+		for (int i = 0; i < convLength; i++) {
+			if (i > 0) {
+				conv.append(',');
+			}
+			conv.append(i < KERNEL.length ? KERNEL[i] : "0");
+		}
+		props.setProperty("ConvArray", conv.toString());
+		return props;
+	}
+}
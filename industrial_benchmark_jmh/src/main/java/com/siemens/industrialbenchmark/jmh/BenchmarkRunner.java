@@ -0,0 +1,40 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industrialbenchmark.jmh;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler enabled, so that the allocation rate
+ * (gc.alloc.rate.norm = bytes per operation) is reported next to throughput and average time.
+ * All JMH command line options are accepted, e.g. a benchmark regexp or -p convLength=10.
+ */
+public class BenchmarkRunner {
+
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+		Options options = new OptionsBuilder()
+				.parent(new CommandLineOptions(args))
+				.addProfiler(GCProfiler.class)
+				.build();
+		new Runner(options).run();
+	}
+}
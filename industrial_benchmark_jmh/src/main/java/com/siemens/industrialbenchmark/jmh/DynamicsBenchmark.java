@@ -0,0 +1,122 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industrialbenchmark.jmh;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.siemens.industrialbenchmark.datavector.action.ActionDelta;
+import com.siemens.industrialbenchmark.datavector.state.ObservableState;
+import com.siemens.industrialbenchmark.dynamics.IndustrialBenchmarkDynamics;
+import com.siemens.industrialbenchmark.externaldrivers.setpointgen.SetPointGenerator;
+import com.siemens.rl.interfaces.DataVector;
+import com.siemens.rl.interfaces.ExternalDriver;
+
+/**
+ * Benchmarks of the main entry points of {@link IndustrialBenchmarkDynamics}.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DynamicsBenchmark {
+
+	private static final int NUMBER_ACTIONS = 1024;
+
+	@Param({"stationary", "moving"})
+	String setPoint;
+
+	@Param({"10", "100"})
+	int convLength;
+
+	@Param({"LEGACY", "SPLITMIX"})
+	String randomGenerator;
+
+	private IndustrialBenchmarkDynamics dynamics;
+	private DataVector memorizedState;
+	private ActionDelta[] actions;
+	private int next = 0;
+
+	@Setup
+	public void setup() throws Exception {
+		Properties props = BenchmarkProperties.load(setPoint, convLength);
+		props.setProperty("RANDOM_GENERATOR", randomGenerator);
+		List<ExternalDriver> drivers = new ArrayList<ExternalDriver>();
+		drivers.add(new SetPointGenerator(1, props));
+		dynamics = new IndustrialBenchmarkDynamics(props, drivers);
+
+		Random rand = new Random(12345);
+		actions = new ActionDelta[NUMBER_ACTIONS];
+		for (int i = 0; i < NUMBER_ACTIONS; i++) {
+			actions[i] = new ActionDelta(2.0 * (rand.nextDouble() - 0.5), 2.0 * (rand.nextDouble() - 0.5), 2.0 * (rand.nextDouble() - 0.5));
+		}
+
+		// leave the initial transient phase
+		for (int i = 0; i < 1000; i++) {
+			dynamics.step(nextAction());
+		}
+		memorizedState = dynamics.getInternalMarkovState();
+	}
+
+	private ActionDelta nextAction() {
+		next = (next + 1) & (NUMBER_ACTIONS - 1);
+		return actions[next];
+	}
+
+	@Benchmark
+	public double step() {
+		return dynamics.step(nextAction());
+	}
+
+	@Benchmark
+	public ObservableState getState() {
+		return dynamics.getState();
+	}
+
+	@Benchmark
+	public DataVector getInternalMarkovState() {
+		return dynamics.getInternalMarkovState();
+	}
+
+	@Benchmark
+	public double setInternalMarkovState() {
+		dynamics.setInternalMarkovState(memorizedState);
+		return dynamics.getReward();
+	}
+
+	@Benchmark
+	public double reset() {
+		dynamics.reset();
+		return dynamics.getReward();
+	}
+}
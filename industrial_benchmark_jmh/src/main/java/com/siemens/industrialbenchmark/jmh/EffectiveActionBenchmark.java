@@ -0,0 +1,83 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industrialbenchmark.jmh;
+
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.siemens.industrialbenchmark.datavector.action.ActionAbsolute;
+import com.siemens.industrialbenchmark.datavector.action.EffectiveAction;
+
+/**
+ * Benchmarks of the effective action computation, via the {@link EffectiveAction} object
+ * (as used by the dynamics) and via the static functions.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EffectiveActionBenchmark {
+
+	private static final int NUMBER_ACTIONS = 1024;
+
+	private Properties props;
+	private double[] velocities, gains, setPoints;
+	private int next = 0;
+
+	@Setup
+	public void setup() throws Exception {
+		props = BenchmarkProperties.load("stationary", 10);
+		Random rand = new Random(12345);
+		velocities = new double[NUMBER_ACTIONS];
+		gains = new double[NUMBER_ACTIONS];
+		setPoints = new double[NUMBER_ACTIONS];
+		for (int i = 0; i < NUMBER_ACTIONS; i++) {
+			velocities[i] = 100 * rand.nextDouble();
+			gains[i] = 100 * rand.nextDouble();
+			setPoints[i] = 100 * rand.nextDouble();
+		}
+	}
+
+	@Benchmark
+	public void effectiveActionObject(Blackhole bh) throws Exception {
+		next = (next + 1) & (NUMBER_ACTIONS - 1);
+		EffectiveAction a = new EffectiveAction(new ActionAbsolute(velocities[next], gains[next], 0.0, props), setPoints[next]);
+		bh.consume(a.getEffectiveVelocity());
+		bh.consume(a.getEffectiveGain());
+	}
+
+	@Benchmark
+	public void effectiveActionStatic(Blackhole bh) {
+		next = (next + 1) & (NUMBER_ACTIONS - 1);
+		bh.consume(EffectiveAction.calcEffectiveVelocity(velocities[next], gains[next], setPoints[next]));
+		bh.consume(EffectiveAction.calcEffectiveGain(gains[next], setPoints[next]));
+	}
+}
@@ -0,0 +1,81 @@
+/**
+Copyright 2016 Siemens AG.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.siemens.industrialbenchmark.jmh;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.siemens.industrialbenchmark.dynamics.goldstone.GoldstoneEnvironment;
+import com.siemens.industrialbenchmark.dynamics.goldstone.PenaltyFunction;
+
+/**
+ * Benchmarks of the goldstone mis-calibration sub-dynamics.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GoldstoneBenchmark {
+
+	private static final int NUMBER_POSITIONS = 1024;
+	private static final double MAX_REQUIRED_STEP = Math.sin(15.0f/180.0f*Math.PI);
+
+	private GoldstoneEnvironment environment;
+	private PenaltyFunction penaltyFunction;
+	private double[] changes;
+	private double[] positions;
+	private int next = 0;
+
+	@Setup
+	public void setup() {
+		environment = new GoldstoneEnvironment(24, MAX_REQUIRED_STEP, MAX_REQUIRED_STEP/2.0);
+		penaltyFunction = new PenaltyFunction(Math.PI / 4, MAX_REQUIRED_STEP);
+		Random rand = new Random(12345);
+		changes = new double[NUMBER_POSITIONS];
+		positions = new double[NUMBER_POSITIONS];
+		for (int i = 0; i < NUMBER_POSITIONS; i++) {
+			changes[i] = 0.2 * (rand.nextDouble() - 0.5);
+			positions[i] = 3.0 * (rand.nextDouble() - 0.5);
+		}
+	}
+
+	@Benchmark
+	public double stateTransition() {
+		next = (next + 1) & (NUMBER_POSITIONS - 1);
+		// keep the control position bounded
+		environment.reset(positions[next]);
+		return environment.stateTransition(changes[next]);
+	}
+
+	@Benchmark
+	public double penaltyReward() {
+		next = (next + 1) & (NUMBER_POSITIONS - 1);
+		return penaltyFunction.reward(positions[next]);
+	}
+}
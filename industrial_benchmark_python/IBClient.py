@@ -0,0 +1,117 @@
+# coding=utf-8
+"""
+The MIT License (MIT)
+
+Copyright 2020 Siemens AG
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+"""
+
+import socket
+import struct
+import sys
+from array import array
+
+OP_INFO = 0
+OP_STEP = 1
+OP_RESET = 2
+OP_GET_STATE = 3
+
+STATUS_OK = 0
+
+
+class IBClient(object):
+    """
+    Client of the Java benchmark server (com.siemens.industrialbenchmark.server.ServerMain),
+    which steps a batch of Java benchmarks. Actions and observations are flat, row-major
+    sequences of floats: n_envs * 3 delta actions and n_envs * 7 observations in the order
+    SetPoint, Velocity, Gain, Shift, Fatigue, RewardTotal, Consumption of the Java
+    ObservableStateDescription.
+    """
+
+    def __init__(self, host='127.0.0.1', port=5555):
+        self.sock = socket.create_connection((host, port))
+        self.sock.setsockopt(socket.IPPROTO_TCP, socket.TCP_NODELAY, 1)
+        self.n_envs, self.obs_size, self.action_size = struct.unpack('<3i', self._call(OP_INFO))
+
+    def close(self):
+        self.sock.close()
+
+    def step(self, actions):
+        """ applies one delta action per environment, returns (rewards, observations) """
+        rewards, observations = self.step_many([actions])[0]
+        return rewards, observations
+
+    def step_many(self, action_batches):
+        """ pipelines several steps and returns a list of (rewards, observations) """
+        for actions in action_batches:
+            self._send(OP_STEP, self._pack(actions, self.n_envs * self.action_size))
+        results = []
+        for _ in action_batches:
+            values = self._unpack(self._receive())
+            results.append((values[:self.n_envs], values[self.n_envs:]))
+        return results
+
+    def reset(self):
+        """ resets all environments and returns the observations """
+        return self._unpack(self._call(OP_RESET))
+
+    def get_state(self):
+        """ returns the observations of all environments """
+        return self._unpack(self._call(OP_GET_STATE))
+
+    def _call(self, op, payload=b''):
+        self._send(op, payload)
+        return self._receive()
+
+    def _send(self, op, payload):
+        self.sock.sendall(struct.pack('<iB', 1 + len(payload), op) + payload)
+
+    def _receive(self):
+        length, status = struct.unpack('<iB', self._read(5))
+        payload = self._read(length - 1)
+        if status != STATUS_OK:
+            raise RuntimeError(payload.decode('utf-8'))
+        return payload
+
+    def _read(self, n):
+        data = bytearray()
+        while len(data) < n:
+            chunk = self.sock.recv(n - len(data))
+            if not chunk:
+                raise EOFError('connection closed by server')
+            data.extend(chunk)
+        return bytes(data)
+
+    @staticmethod
+    def _pack(values, n):
+        values = array('d', values)
+        if len(values) != n:
+            raise ValueError('expected %d values, but got %d' % (n, len(values)))
+        if sys.byteorder != 'little':
+            values.byteswap()
+        return values.tobytes()
+
+    @staticmethod
+    def _unpack(payload):
+        values = array('d')
+        values.frombytes(payload)
+        if sys.byteorder != 'little':
+            values.byteswap()
+        return values
@@ -0,0 +1,158 @@
+# coding=utf-8
+"""
+The MIT License (MIT)
+
+Copyright 2020 Siemens AG
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+"""
+
+import mmap
+import os
+import platform
+import struct
+import time
+import warnings
+from array import array
+
+OP_STEP = 1
+OP_RESET = 2
+OP_GET_STATE = 3
+OP_CLOSE = 4
+
+STATUS_OK = 0
+
+MAGIC = 0x4942534D
+HEADER_SIZE = 256
+REQUEST_SEQUENCE = 64
+RESPONSE_SEQUENCE = 128
+
+SPINS = 100
+
+# processors which keep loads in order and stores in order (total store order)
+TSO_MACHINES = ('x86_64', 'amd64', 'i386', 'i686', 'x86')
+
+
+class IBSharedMemory(object):
+    """
+    Agent side of the Java shared-memory bridge (com.siemens.industrialbenchmark.server.SharedMemoryBridge,
+    started by ServerMain --shm <file>). Actions, rewards and observations are float64 arrays in
+    the mapped file; the views returned by this class can be wrapped without copying, e.g. by
+    np.frombuffer(view, dtype=np.float64). Observations are in the order SetPoint, Velocity, Gain,
+    Shift, Fatigue, RewardTotal, Consumption of the Java ObservableStateDescription.
+
+    The server orders its accesses with acquire and release fences, which Python can not issue.
+    This client relies on the processor keeping loads in order and stores in order, i.e. it is
+    only safe on x86 (total store order). On other processors, e.g. ARM, use IBClient over TCP.
+
+    A request which fails on the server, e.g. due to an action out of range, raises RuntimeError
+    in result(). If the server does not respond within timeout seconds, IOError is raised.
+    """
+
+    def __init__(self, path='/dev/shm/industrial_benchmark', timeout=10.0):
+        if platform.machine().lower() not in TSO_MACHINES:
+            warnings.warn('IBSharedMemory is only safe on x86, use IBClient on %s' % platform.machine())
+        self.timeout = timeout
+        # the server may still be starting
+        deadline = time.time() + timeout
+        while True:
+            if os.path.exists(path):
+                self.file = open(path, 'r+b')
+                self.mm = mmap.mmap(self.file.fileno(), 0)
+                if len(self.mm) >= HEADER_SIZE and struct.unpack_from('=i', self.mm, 0)[0] == MAGIC:
+                    break
+                self.mm.close()
+                self.file.close()
+            if time.time() > deadline:
+                raise IOError('%s is not a benchmark shared file' % path)
+            time.sleep(0.01)
+        _, _, self.n_envs, self.obs_size, self.action_size, self.slots = struct.unpack_from('=6i', self.mm, 0)
+        self.doubles = memoryview(self.mm)[HEADER_SIZE:].cast('d')
+        n_actions = self.n_envs * self.action_size
+        self.slot_doubles = 2 + n_actions + self.n_envs + self.n_envs * self.obs_size
+        self.status_index = 1 + n_actions
+        self.requested = self._get(REQUEST_SEQUENCE)
+
+    def _get(self, offset):
+        return struct.unpack_from('=q', self.mm, offset)[0]
+
+    def _wait(self, condition):
+        # spin first, then give the CPU to the server
+        spins = 0
+        deadline = None
+        while not condition():
+            spins += 1
+            if spins > SPINS:
+                if deadline is None:
+                    deadline = time.time() + self.timeout
+                elif time.time() > deadline:
+                    raise IOError('no response from the server within %s seconds' % self.timeout)
+                time.sleep(0)
+
+    def _slot(self, seq):
+        return (seq % self.slots) * self.slot_doubles
+
+    def next_actions(self):
+        """ waits until the next request slot is free and returns a view on its actions """
+        self._wait(lambda: self.requested - self._get(RESPONSE_SEQUENCE) < self.slots)
+        start = self._slot(self.requested) + 1
+        return self.doubles[start:start + self.n_envs * self.action_size]
+
+    def submit(self, op=OP_STEP):
+        """ publishes the next request (actions written into next_actions()) and returns its sequence number """
+        self.next_actions()
+        seq = self.requested
+        struct.pack_into('=q', self.mm, HEADER_SIZE + 8 * self._slot(seq), op)
+        self.requested = seq + 1
+        struct.pack_into('=q', self.mm, REQUEST_SEQUENCE, self.requested)
+        return seq
+
+    def result(self, seq):
+        """ waits for a request and returns views on (rewards, observations), valid until the slot is reused """
+        self._wait(lambda: self._get(RESPONSE_SEQUENCE) > seq)
+        start = self._slot(seq) + self.status_index
+        if struct.unpack_from('=q', self.mm, HEADER_SIZE + 8 * start)[0] != STATUS_OK:
+            raise RuntimeError('request %d failed' % seq)
+        rewards = self.doubles[start + 1:start + 1 + self.n_envs]
+        observations = self.doubles[start + 1 + self.n_envs:start + 1 + self.n_envs + self.n_envs * self.obs_size]
+        return rewards, observations
+
+    def step(self, actions):
+        """ applies one delta action per environment (flat sequence of n_envs * 3 floats) """
+        self.next_actions()[:] = array('d', actions)
+        return self.result(self.submit(OP_STEP))
+
+    def reset(self):
+        """ resets all environments and returns a view on the observations """
+        return self.result(self.submit(OP_RESET))[1]
+
+    def get_state(self):
+        """ returns a view on the observations of all environments """
+        return self.result(self.submit(OP_GET_STATE))[1]
+
+    def close(self, stop_server=True):
+        if stop_server:
+            self.submit(OP_CLOSE)
+        self.file.close()
+        try:
+            self.doubles.release()
+            self.mm.close()
+        except BufferError:
+            # views returned to the caller are still in use, the mapping is closed when they are released
+            pass